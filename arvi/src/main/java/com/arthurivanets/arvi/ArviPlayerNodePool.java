@@ -22,9 +22,12 @@ import androidx.annotation.Nullable;
 import com.arthurivanets.arvi.player.Player;
 import com.arthurivanets.arvi.util.misc.Preconditions;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,11 +39,17 @@ import static com.arthurivanets.arvi.util.misc.CollectionUtils.toHashSet;
  */
 final class ArviPlayerNodePool implements PlayerNodePool {
 
-    private final int maxSize;
+    // changed under the pool lock, but can be read without holding it
+    private volatile int maxSize;
 
     private final Set<PlayerNode> playerNodeSet;
     private final Map<String, PlayerNode> keyPlayerNodeMap;
 
+    private ViewportDistanceProvider viewportDistanceProvider;
+
+    // mirrors the size of the playerNodeSet, so that it can be read without holding the pool lock
+    private volatile int playerCount;
+
     ArviPlayerNodePool(int maxSize) {
         Preconditions.isTrue("You must specify a valid Pool Max Size.", (maxSize >= 0));
 
@@ -54,7 +63,12 @@ final class ArviPlayerNodePool implements PlayerNodePool {
         Preconditions.nonNull(playerNode);
 
         this.playerNodeSet.add(playerNode);
-        this.keyPlayerNodeMap.put(playerNode.getKey(), playerNode);
+        this.playerCount = this.playerNodeSet.size();
+
+        // the free (keyless, e.g. pre-warmed) nodes are reachable via the getFree() only
+        if (playerNode.isKeySet()) {
+            this.keyPlayerNodeMap.put(playerNode.getKey(), playerNode);
+        }
     }
 
     @Override
@@ -79,6 +93,7 @@ final class ArviPlayerNodePool implements PlayerNodePool {
 
         if (playerNode != null) {
             this.playerNodeSet.remove(playerNode);
+            this.playerCount = this.playerNodeSet.size();
             playerNode.removeKey();
         }
 
@@ -131,7 +146,7 @@ final class ArviPlayerNodePool implements PlayerNodePool {
     public final PlayerNode acquireOldest(@NonNull String key) {
         Preconditions.nonEmpty(key);
 
-        final PlayerNode playerNode = getOldest();
+        final PlayerNode playerNode = getEvictionCandidate();
 
         if (playerNode != null) {
             unbind(playerNode, false);
@@ -205,14 +220,127 @@ final class ArviPlayerNodePool implements PlayerNodePool {
         return ((playerNode != null) ? updateAccessTime(playerNode) : null);
     }
 
+    /**
+     * Picks the node of the item that is the furthest from the viewport (the least recently used one among the equally distant ones),
+     * or simply the least recently used one, if there's no {@link ViewportDistanceProvider}.
+     */
+    private PlayerNode getEvictionCandidate() {
+        if (this.viewportDistanceProvider == null) {
+            return getOldest();
+        }
+
+        PlayerNode candidateNode = null;
+        int candidateDistance = -1;
+
+        for (PlayerNode playerNode : this.playerNodeSet) {
+            final int distance = getViewportDistance(playerNode);
+
+            if ((candidateNode == null)
+                || (distance > candidateDistance)
+                || ((distance == candidateDistance) && (playerNode.compareTo(candidateNode) < 0))) {
+                candidateNode = playerNode;
+                candidateDistance = distance;
+            }
+        }
+
+        return ((candidateNode != null) ? updateAccessTime(candidateNode) : null);
+    }
+
+    private int getViewportDistance(PlayerNode playerNode) {
+        return (playerNode.isKeySet()
+            ? this.viewportDistanceProvider.getViewportDistance(playerNode.getKey())
+            : ViewportDistanceProvider.UNKNOWN_DISTANCE);
+    }
+
     @Override
     public final int getPlayerCount() {
-        return this.playerNodeSet.size();
+        return this.playerCount;
+    }
+
+    @Override
+    public final int getMaxSize() {
+        return this.maxSize;
+    }
+
+    @Override
+    public final void setMaxSize(int maxSize) {
+        Preconditions.isTrue("You must specify a valid Pool Max Size.", (maxSize >= 0));
+        this.maxSize = maxSize;
     }
 
     @Override
     public final boolean isFull() {
-        return (getPlayerCount() == this.maxSize);
+        return (getPlayerCount() >= this.maxSize);
+    }
+
+    @Override
+    public final int stopDetached() {
+        int stoppedPlayerCount = 0;
+
+        for (PlayerNode playerNode : this.playerNodeSet) {
+            if (isDetached(playerNode) && playerNode.getPlayer().releaseDecoders()) {
+                stoppedPlayerCount++;
+            }
+        }
+
+        return stoppedPlayerCount;
+    }
+
+    @Override
+    public final int releaseFree() {
+        int releasedPlayerCount = 0;
+
+        for (PlayerNode playerNode : toHashSet(this.playerNodeSet)) {
+            if (isDetached(playerNode) && !playerNode.isKeySet()) {
+                evict(playerNode);
+                releasedPlayerCount++;
+            }
+        }
+
+        return releasedPlayerCount;
+    }
+
+    @Override
+    public final int trimToSize(int size) {
+        Preconditions.isTrue("You must specify a valid Pool Size.", (size >= 0));
+
+        final List<PlayerNode> detachedPlayerNodes = new ArrayList<>();
+
+        for (PlayerNode playerNode : this.playerNodeSet) {
+            if (isDetached(playerNode)) {
+                detachedPlayerNodes.add(playerNode);
+            }
+        }
+
+        // the free nodes go first, then the least recently used ones
+        Collections.sort(detachedPlayerNodes, new Comparator<PlayerNode>() {
+            @Override
+            public int compare(PlayerNode first, PlayerNode second) {
+                if (first.isKeySet() != second.isKeySet()) {
+                    return (first.isKeySet() ? 1 : -1);
+                }
+
+                return first.compareTo(second);
+            }
+        });
+
+        int releasedPlayerCount = 0;
+
+        for (PlayerNode playerNode : detachedPlayerNodes) {
+            if (getPlayerCount() <= size) {
+                break;
+            }
+
+            evict(playerNode);
+            releasedPlayerCount++;
+        }
+
+        return releasedPlayerCount;
+    }
+
+    @Override
+    public final void setViewportDistanceProvider(@Nullable ViewportDistanceProvider viewportDistanceProvider) {
+        this.viewportDistanceProvider = viewportDistanceProvider;
     }
 
     @Override
@@ -237,6 +365,19 @@ final class ArviPlayerNodePool implements PlayerNodePool {
         }
     }
 
+    private boolean isDetached(PlayerNode playerNode) {
+        return (playerNode.hasPlayer() && !playerNode.getPlayer().isAttached());
+    }
+
+    private void evict(PlayerNode playerNode) {
+        // removing prior to the release, as the hash code of the node changes once its player is released
+        // (the free nodes are not removed by the release(PlayerNode) itself)
+        this.playerNodeSet.remove(playerNode);
+        this.playerCount = this.playerNodeSet.size();
+
+        release(playerNode);
+    }
+
     private PlayerNode updateAccessTime(PlayerNode playerNode) {
         return playerNode.setLastAccessTime(System.currentTimeMillis());
     }
@@ -17,6 +17,16 @@
 package com.arthurivanets.arvi;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.util.cache.CacheConfig;
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class used for the injection of certain {@link PlayerProvider} components.
@@ -25,6 +35,11 @@ public final class ArviPlugins {
 
     private static volatile PlayerCreatorFactory playerCreatorFactory = new DefaultPlayerCreatorFactory();
     private static volatile PlayerNodePoolFactory playerNodePoolFactory = new DefaultPlayerNodePoolFactory();
+    private static volatile CacheConfig playbackInfoCacheConfig = new CacheConfig.Builder().build();
+    private static volatile PlayerPoolMetricsListener playerPoolMetricsListener = null;
+    private static volatile DecoderMetricsListener decoderMetricsListener = null;
+    private static volatile PlaybackQoeListener playbackQoeListener = null;
+    private static volatile Executor playerInitExecutor = createDefaultPlayerInitExecutor();
 
     private static volatile boolean isLockedDown = false;
 
@@ -87,6 +102,147 @@ public final class ArviPlugins {
         return playerNodePoolFactory;
     }
 
+    /**
+     * Injects the {@link CacheConfig} to be used for the creation of the
+     * {@link com.arthurivanets.arvi.util.cache.PlaybackInfoCache}'s backing cache.
+     * (Should be injected before the first playback, e.g. in the {@link android.app.Application#onCreate()})
+     *
+     * @param config the new playback info cache config
+     */
+    public static void setPlaybackInfoCacheConfig(@NonNull CacheConfig config) {
+        Preconditions.nonNull(config);
+        checkLockDownState();
+
+        playbackInfoCacheConfig = config;
+    }
+
+    /**
+     * Retrieves the currently injected {@link com.arthurivanets.arvi.util.cache.PlaybackInfoCache} {@link CacheConfig}.
+     *
+     * @return the current playback info cache config
+     */
+    @NonNull
+    public static CacheConfig getPlaybackInfoCacheConfig() {
+        return playbackInfoCacheConfig;
+    }
+
+    /**
+     * Injects the {@link Executor} to be used for the asynchronous initialization of the
+     * {@link com.arthurivanets.arvi.player.Player}s (e.g. upon the pre-warming, see {@link PlayerProvider#prewarm(Config, int)}).
+     * <br>
+     * By default, the players are built on a single shared background thread, which is terminated when idle.
+     *
+     * @param executor the new player initialization executor
+     */
+    public static void setPlayerInitExecutor(@NonNull Executor executor) {
+        Preconditions.nonNull(executor);
+        checkLockDownState();
+
+        playerInitExecutor = executor;
+    }
+
+    /**
+     * Retrieves the currently injected player initialization {@link Executor}.
+     *
+     * @return the current player initialization executor
+     */
+    @NonNull
+    public static Executor getPlayerInitExecutor() {
+        return playerInitExecutor;
+    }
+
+    /**
+     * Injects the {@link PlayerPoolMetricsListener} to be notified about the player acquisitions
+     * performed by the {@link PlayerProvider} (see {@link PlayerPoolMetrics}).
+     * <br>
+     * Unlike the rest of the plugins, the listener is not affected by the lock-down,
+     * so it can be (un)installed at any time. (No metrics are collected while there's no listener installed)
+     *
+     * @param listener the new metrics listener, or null to stop the metrics collection
+     */
+    public static void setPlayerPoolMetricsListener(@Nullable PlayerPoolMetricsListener listener) {
+        playerPoolMetricsListener = listener;
+    }
+
+    /**
+     * Retrieves the currently injected {@link PlayerPoolMetricsListener}.
+     *
+     * @return the current {@link PlayerPoolMetricsListener}, or null if there's none
+     */
+    @Nullable
+    public static PlayerPoolMetricsListener getPlayerPoolMetricsListener() {
+        return playerPoolMetricsListener;
+    }
+
+    /**
+     * Injects the {@link DecoderMetricsListener} to be notified about the decoder reuse and initialization events
+     * of the {@link com.arthurivanets.arvi.player.DefaultPlayer}s (see {@link DecoderMetrics}).
+     * <br>
+     * Unlike the rest of the plugins, the listener is not affected by the lock-down,
+     * so it can be (un)installed at any time. (No metrics are collected while there's no listener installed)
+     *
+     * @param listener the new metrics listener, or null to stop the metrics collection
+     */
+    public static void setDecoderMetricsListener(@Nullable DecoderMetricsListener listener) {
+        decoderMetricsListener = listener;
+    }
+
+    /**
+     * Retrieves the currently injected {@link DecoderMetricsListener}.
+     *
+     * @return the current {@link DecoderMetricsListener}, or null if there's none
+     */
+    @Nullable
+    public static DecoderMetricsListener getDecoderMetricsListener() {
+        return decoderMetricsListener;
+    }
+
+    /**
+     * Injects the {@link PlaybackQoeListener} to be notified about the playback quality of each of the playback sessions
+     * of the {@link com.arthurivanets.arvi.widget.Playable}s (see {@link PlaybackQoeSummary}).
+     * <br>
+     * Unlike the rest of the plugins, the listener is not affected by the lock-down,
+     * so it can be (un)installed at any time. (Only the sessions started while the listener is installed are tracked)
+     *
+     * @param listener the new playback quality listener, or null to stop the tracking
+     */
+    public static void setPlaybackQoeListener(@Nullable PlaybackQoeListener listener) {
+        playbackQoeListener = listener;
+    }
+
+    /**
+     * Retrieves the currently injected {@link PlaybackQoeListener}.
+     *
+     * @return the current {@link PlaybackQoeListener}, or null if there's none
+     */
+    @Nullable
+    public static PlaybackQoeListener getPlaybackQoeListener() {
+        return playbackQoeListener;
+    }
+
+    private static Executor createDefaultPlayerInitExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1,
+            1,
+            30L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "ARVI:PlayerInit");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+
+                    return thread;
+                }
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
     private static void checkLockDownState() {
         if (isLockedDown) {
             throw new IllegalStateException("The Plugins can not be changed anymore.");
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link ViewportDistanceProvider} that combines the distances of all the registered providers
+ * (e.g. all the currently attached containers), by picking the shortest one.
+ */
+final class CompositeViewportDistanceProvider implements ViewportDistanceProvider {
+
+    private final List<ViewportDistanceProvider> mProviders;
+
+    CompositeViewportDistanceProvider() {
+        mProviders = new CopyOnWriteArrayList<>();
+    }
+
+    final void register(@NonNull ViewportDistanceProvider provider) {
+        Preconditions.nonNull(provider);
+
+        if (!mProviders.contains(provider)) {
+            mProviders.add(provider);
+        }
+    }
+
+    final void unregister(@NonNull ViewportDistanceProvider provider) {
+        Preconditions.nonNull(provider);
+
+        mProviders.remove(provider);
+    }
+
+    @Override
+    public final int getViewportDistance(@NonNull String key) {
+        int distance = UNKNOWN_DISTANCE;
+
+        for (ViewportDistanceProvider provider : mProviders) {
+            distance = Math.min(distance, provider.getViewportDistance(key));
+        }
+
+        return distance;
+    }
+
+}
@@ -18,10 +18,14 @@ package com.arthurivanets.arvi;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.util.ObjectsCompat;
 
 import com.arthurivanets.arvi.player.util.BaseMeter;
+import com.arthurivanets.arvi.player.util.LoadControlFactory;
 import com.arthurivanets.arvi.player.util.MediaSourceBuilder;
-import com.google.android.exoplayer2.DefaultLoadControl;
+import com.arthurivanets.arvi.player.util.SharedAllocator;
+import com.arthurivanets.arvi.player.util.VisibilityAwareLoadControl;
+import com.arthurivanets.arvi.util.misc.Preconditions;
 import com.google.android.exoplayer2.DefaultRenderersFactory;
 import com.google.android.exoplayer2.LoadControl;
 import com.google.android.exoplayer2.upstream.DataSource;
@@ -43,7 +47,7 @@ public final class Config {
     public final BaseMeter<?, ?> meter;
 
     @NonNull
-    public final LoadControl loadControl;
+    public final LoadControlFactory loadControlFactory;
 
     @NonNull
     public final MediaSourceBuilder mediaSourceBuilder;
@@ -54,13 +58,27 @@ public final class Config {
     @Nullable
     public final DataSource.Factory dataSourceFactory;
 
+    public final boolean retainDecoders;
+
+    public final long unfocusedBufferDurationInMillis;
+
+    @Nullable
+    public final SharedAllocator sharedAllocator;
+
+    // precomputed, as the Config is used as a lookup key on the hot paths
+    private final int hashCode;
+
     private Config(Builder builder) {
         this.extensionMode = builder.extensionMode;
         this.meter = builder.meter;
-        this.loadControl = builder.loadControl;
+        this.loadControlFactory = builder.loadControlFactory;
         this.mediaSourceBuilder = builder.mediaSourceBuilder;
         this.cache = builder.cache;
         this.dataSourceFactory = builder.dataSourceFactory;
+        this.retainDecoders = builder.retainDecoders;
+        this.unfocusedBufferDurationInMillis = builder.unfocusedBufferDurationInMillis;
+        this.sharedAllocator = builder.sharedAllocator;
+        this.hashCode = calculateHashCode();
     }
 
     /**
@@ -77,45 +95,97 @@ public final class Config {
         return (this.dataSourceFactory != null);
     }
 
-    @Override
-    public final int hashCode() {
+    /**
+     * Determines if the {@link SharedAllocator} is set.
+     */
+    public final boolean hasSharedAllocator() {
+        return (this.sharedAllocator != null);
+    }
+
+    private int calculateHashCode() {
         final int prime = 31;
         int result = 17;
         result = ((prime * result) + this.extensionMode);
         result = ((prime * result) + this.meter.hashCode());
-        result = ((prime * result) + this.loadControl.hashCode());
+        result = ((prime * result) + this.loadControlFactory.hashCode());
         result = ((prime * result) + this.mediaSourceBuilder.hashCode());
         result = ((prime * result) + (hasCache() ? this.cache.hashCode() : 0));
         result = ((prime * result) + (hasDataSourceFactory() ? this.dataSourceFactory.hashCode() : 0));
+        result = ((prime * result) + (this.retainDecoders ? 1 : 0));
+        result = ((prime * result) + (int) (this.unfocusedBufferDurationInMillis ^ (this.unfocusedBufferDurationInMillis >>> 32)));
+        result = ((prime * result) + (hasSharedAllocator() ? this.sharedAllocator.hashCode() : 0));
 
         return result;
     }
 
+    @Override
+    public final int hashCode() {
+        return this.hashCode;
+    }
+
     @Override
     public final boolean equals(Object obj) {
-        return ((obj instanceof Config) && (obj.hashCode() == hashCode()));
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof Config)) {
+            return false;
+        }
+
+        final Config config = (Config) obj;
+
+        return ((this.hashCode == config.hashCode)
+            && (this.extensionMode == config.extensionMode)
+            && (this.retainDecoders == config.retainDecoders)
+            && (this.unfocusedBufferDurationInMillis == config.unfocusedBufferDurationInMillis)
+            && this.meter.equals(config.meter)
+            && this.loadControlFactory.equals(config.loadControlFactory)
+            && this.mediaSourceBuilder.equals(config.mediaSourceBuilder)
+            && ObjectsCompat.equals(this.cache, config.cache)
+            && ObjectsCompat.equals(this.dataSourceFactory, config.dataSourceFactory)
+            && ObjectsCompat.equals(this.sharedAllocator, config.sharedAllocator));
     }
 
-    public static final class Builder {
+    /**
+     * Lazily initialized defaults shared by all the {@link Config}s that don't specify their own
+     * {@link BaseMeter}, so that such configs are considered equivalent. (The players get their own
+     * {@link LoadControl}s, created by the {@link LoadControlFactory}, as those are stateful)
+     */
+    private static final class Defaults {
+
+        private static final DefaultBandwidthMeter BANDWIDTH_METER = new DefaultBandwidthMeter();
+        private static final BaseMeter<?, ?> METER = new BaseMeter<>(BANDWIDTH_METER, BANDWIDTH_METER);
+
+    }
 
-        private final DefaultBandwidthMeter bandwidthMeter = new DefaultBandwidthMeter();
+    public static final class Builder {
 
         private int extensionMode;
 
         private BaseMeter<?, ?> meter;
-        private LoadControl loadControl;
+        private LoadControlFactory loadControlFactory;
         private MediaSourceBuilder mediaSourceBuilder;
 
         private Cache cache;
         private DataSource.Factory dataSourceFactory;
 
+        private boolean retainDecoders;
+
+        private long unfocusedBufferDurationInMillis;
+
+        private SharedAllocator sharedAllocator;
+
         public Builder() {
             this.extensionMode = EXTENSION_RENDERER_MODE_OFF;
-            this.meter = new BaseMeter<>(bandwidthMeter, bandwidthMeter);
-            this.loadControl = new DefaultLoadControl();
+            this.meter = Defaults.METER;
+            this.loadControlFactory = LoadControlFactory.DEFAULT;
             this.mediaSourceBuilder = MediaSourceBuilder.DEFAULT;
             this.cache = null;
             this.dataSourceFactory = null;
+            this.retainDecoders = false;
+            this.unfocusedBufferDurationInMillis = VisibilityAwareLoadControl.DEFAULT_UNFOCUSED_BUFFER_DURATION_IN_MILLIS;
+            this.sharedAllocator = null;
         }
 
         public Builder extensionMode(@DefaultRenderersFactory.ExtensionRendererMode int extensionMode) {
@@ -128,8 +198,12 @@ public final class Config {
             return this;
         }
 
-        public Builder loadControl(@NonNull LoadControl loadControl) {
-            this.loadControl = checkNonNull(loadControl);
+        /**
+         * Sets the factory of the {@link LoadControl}s, which is used to create a dedicated {@link LoadControl}
+         * for every player of the config. (See {@link LoadControlFactory#DEFAULT})
+         */
+        public Builder loadControlFactory(@NonNull LoadControlFactory loadControlFactory) {
+            this.loadControlFactory = checkNonNull(loadControlFactory);
             return this;
         }
 
@@ -152,8 +226,48 @@ public final class Config {
             return this;
         }
 
+        /**
+         * Sets whether the players should retain their renderers (along with the underlying decoders) when stopped,
+         * so that the pooled players can be handed over from one item to another without the decoder re-initialization
+         * (the decoders get reused whenever the formats of the subsequent items are compatible).
+         * <br>
+         * <strong>NOTE</strong>: the retained decoders are held by the idle pooled players as well (until the players get released,
+         * or the memory gets trimmed, see {@link com.arthurivanets.arvi.player.Player#releaseDecoders()}),
+         * so the option is best combined with the small player pools (the hardware decoders are a limited resource).
+         * (See {@link DecoderMetrics} for the decoder reuse tracking)
+         */
+        public Builder retainDecoders(boolean retainDecoders) {
+            this.retainDecoders = retainDecoders;
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of the media (in millis) to be buffered by the unfocused players
+         * (e.g. the ones paused after being scrolled out of the focus), while the focused player
+         * buffers according to its own {@link LoadControl}. (See {@link VisibilityAwareLoadControl})
+         */
+        public Builder unfocusedBufferDuration(long durationInMillis) {
+            Preconditions.isTrue("The unfocused buffer duration must not be negative.", (durationInMillis >= 0L));
+            this.unfocusedBufferDurationInMillis = durationInMillis;
+            return this;
+        }
+
+        /**
+         * Sets the {@link SharedAllocator} the players are to allocate their media buffers from, which (softly) caps the total
+         * media buffer memory of the players. Pass the same allocator to several configs to share the cap among all of their pools.
+         * (By default, the players allocate the buffers via their own {@link LoadControl}s, without a shared cap)
+         */
+        public Builder sharedAllocator(@Nullable SharedAllocator sharedAllocator) {
+            this.sharedAllocator = sharedAllocator;
+            return this;
+        }
+
+        /**
+         * Builds the {@link Config}. The equivalent configs are interned,
+         * so the returned instance may be shared with the previously built equivalent configs.
+         */
         public Config build() {
-            return new Config(this);
+            return ConfigRegistry.intern(new Config(this));
         }
 
     }
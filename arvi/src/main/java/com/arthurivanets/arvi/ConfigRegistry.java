@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A registry used for the interning of the {@link Config}s - maps all the equivalent {@link Config}s
+ * to a single canonical instance, so that the {@link Config}-keyed lookups can be resolved by identity,
+ * and the equivalent {@link Config}s share the same {@link com.arthurivanets.arvi.player.creators.PlayerCreator}
+ * and {@link PlayerNodePool}.
+ * <br>
+ * The canonical instances are weakly referenced, so the registry doesn't prevent the unused {@link Config}s from being collected.
+ */
+final class ConfigRegistry {
+
+    private static final Map<Config, WeakReference<Config>> sCanonicalConfigs = new WeakHashMap<>();
+
+    private ConfigRegistry() {
+        // not meant to be instantiated
+    }
+
+    /**
+     * Retrieves the canonical instance of the specified {@link Config}
+     * (registers the specified {@link Config} as the canonical one, if there's no equivalent one yet).
+     *
+     * @param config the config to be interned
+     * @return the canonical instance of the config
+     */
+    @NonNull
+    static Config intern(@NonNull Config config) {
+        Preconditions.nonNull(config);
+
+        synchronized (sCanonicalConfigs) {
+            final WeakReference<Config> canonicalConfigRef = sCanonicalConfigs.get(config);
+            final Config canonicalConfig = ((canonicalConfigRef != null) ? canonicalConfigRef.get() : null);
+
+            if (canonicalConfig != null) {
+                return canonicalConfig;
+            }
+
+            sCanonicalConfigs.put(config, new WeakReference<>(config));
+
+            return config;
+        }
+    }
+
+    @VisibleForTesting
+    static int size() {
+        synchronized (sCanonicalConfigs) {
+            return sCanonicalConfigs.size();
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The default (thread-safe) {@link DecoderMetricsListener} that aggregates the decoder metrics per {@link DecoderType}:
+ * the number of the reuse evaluations of each outcome, as well as the number and the total duration of the decoder initializations.
+ * (Can be used to determine how often the decoders get reused upon the handoffs, see {@link Config.Builder#retainDecoders(boolean)})
+ */
+public final class DecoderMetrics implements DecoderMetricsListener {
+
+    private static final int DECODER_TYPE_COUNT = DecoderType.values().length;
+    private static final int DECODER_REUSE_COUNT = DecoderReuse.values().length;
+
+    private final AtomicLongArray mReuseCounts;
+    private final AtomicLongArray mInitializationCounts;
+    private final AtomicLongArray mInitializationDurations;
+
+    public DecoderMetrics() {
+        mReuseCounts = new AtomicLongArray(DECODER_TYPE_COUNT * DECODER_REUSE_COUNT);
+        mInitializationCounts = new AtomicLongArray(DECODER_TYPE_COUNT);
+        mInitializationDurations = new AtomicLongArray(DECODER_TYPE_COUNT);
+    }
+
+    @Override
+    public final void onDecoderReuseEvaluated(@NonNull DecoderType decoderType, @NonNull DecoderReuse reuse) {
+        Preconditions.nonNull(decoderType);
+        Preconditions.nonNull(reuse);
+
+        mReuseCounts.incrementAndGet(getReuseIndex(decoderType, reuse));
+    }
+
+    @Override
+    public final void onDecoderInitialized(@NonNull DecoderType decoderType, long initializationDurationInMillis) {
+        Preconditions.nonNull(decoderType);
+
+        mInitializationCounts.incrementAndGet(decoderType.ordinal());
+        mInitializationDurations.addAndGet(decoderType.ordinal(), Math.max(0L, initializationDurationInMillis));
+    }
+
+    private static int getReuseIndex(DecoderType decoderType, DecoderReuse reuse) {
+        return ((decoderType.ordinal() * DECODER_REUSE_COUNT) + reuse.ordinal());
+    }
+
+    /**
+     * Retrieves the number of the reuse evaluations of the specified outcome.
+     */
+    public final long getCount(@NonNull DecoderType decoderType, @NonNull DecoderReuse reuse) {
+        Preconditions.nonNull(decoderType);
+        Preconditions.nonNull(reuse);
+
+        return mReuseCounts.get(getReuseIndex(decoderType, reuse));
+    }
+
+    /**
+     * Retrieves the number of the reuse evaluations that ended up with the existing decoder being reused.
+     */
+    public final long getReusedCount(@NonNull DecoderType decoderType) {
+        Preconditions.nonNull(decoderType);
+
+        long reusedCount = 0L;
+
+        for (DecoderReuse reuse : DecoderReuse.values()) {
+            if (reuse.isReused()) {
+                reusedCount += getCount(decoderType, reuse);
+            }
+        }
+
+        return reusedCount;
+    }
+
+    /**
+     * Retrieves the total number of the reuse evaluations.
+     */
+    public final long getEvaluationCount(@NonNull DecoderType decoderType) {
+        Preconditions.nonNull(decoderType);
+
+        long evaluationCount = 0L;
+
+        for (DecoderReuse reuse : DecoderReuse.values()) {
+            evaluationCount += getCount(decoderType, reuse);
+        }
+
+        return evaluationCount;
+    }
+
+    /**
+     * Retrieves the share of the reuse evaluations that ended up with the existing decoder being reused.
+     *
+     * @return the reuse rate (a value between 0.0 and 1.0), or 0.0 if there were no evaluations
+     */
+    public final float getReuseRate(@NonNull DecoderType decoderType) {
+        final long evaluationCount = getEvaluationCount(decoderType);
+        return ((evaluationCount > 0L) ? ((float) getReusedCount(decoderType) / evaluationCount) : 0f);
+    }
+
+    /**
+     * Retrieves the number of the decoder initializations.
+     */
+    public final long getInitializationCount(@NonNull DecoderType decoderType) {
+        Preconditions.nonNull(decoderType);
+
+        return mInitializationCounts.get(decoderType.ordinal());
+    }
+
+    /**
+     * Retrieves the total time spent on the decoder initializations (in millis).
+     */
+    public final long getTotalInitializationDuration(@NonNull DecoderType decoderType) {
+        Preconditions.nonNull(decoderType);
+
+        return mInitializationDurations.get(decoderType.ordinal());
+    }
+
+    /**
+     * Discards all the aggregated metrics.
+     */
+    public final void reset() {
+        for (int i = 0; i < mReuseCounts.length(); i++) {
+            mReuseCounts.set(i, 0L);
+        }
+
+        for (int i = 0; i < DECODER_TYPE_COUNT; i++) {
+            mInitializationCounts.set(i, 0L);
+            mInitializationDurations.set(i, 0L);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A listener to be notified about the decoder reuse and initialization events of the
+ * {@link com.arthurivanets.arvi.player.DefaultPlayer}s. (See {@link ArviPlugins#setDecoderMetricsListener(DecoderMetricsListener)})
+ * <br>
+ * <strong>NOTE</strong>: gets invoked on the threads of the players, so the implementations should be fast and thread-safe.
+ * (See {@link DecoderMetrics} for the default aggregating implementation)
+ */
+public interface DecoderMetricsListener {
+
+    /**
+     * Gets invoked whenever the player switches to the media of a new format (e.g. upon the handoff to another item),
+     * after the player has determined whether the existing decoder can be reused for the new format.
+     *
+     * @param decoderType the type of the decoder
+     * @param reuse       the outcome of the decoder reuse evaluation
+     */
+    void onDecoderReuseEvaluated(@NonNull DecoderType decoderType, @NonNull DecoderReuse reuse);
+
+    /**
+     * Gets invoked whenever the player initializes a decoder.
+     *
+     * @param decoderType                    the type of the decoder
+     * @param initializationDurationInMillis the time it took to initialize the decoder
+     */
+    void onDecoderInitialized(@NonNull DecoderType decoderType, long initializationDurationInMillis);
+
+    /**
+     * The types of the tracked decoders.
+     */
+    enum DecoderType {
+
+        VIDEO,
+        AUDIO
+
+    }
+
+    /**
+     * The outcomes of the decoder reuse evaluation, listed from the cheapest to the most expensive one.
+     */
+    enum DecoderReuse {
+
+        /**
+         * The existing decoder was reused as is.
+         */
+        REUSED,
+
+        /**
+         * The existing decoder was reused after being reconfigured for the new format.
+         */
+        REUSED_WITH_RECONFIGURATION,
+
+        /**
+         * The existing decoder was reused after being flushed.
+         */
+        REUSED_WITH_FLUSH,
+
+        /**
+         * The existing decoder was incompatible with the new format, so it had to be re-initialized.
+         */
+        NOT_REUSED,
+
+        /**
+         * There was no decoder to reuse (e.g. it had been released upon the stop of the player), so a new one had to be initialized.
+         */
+        UNAVAILABLE;
+
+        /**
+         * Determines whether the existing decoder was reused (in one way or another).
+         */
+        public final boolean isReused() {
+            return (ordinal() < NOT_REUSED.ordinal());
+        }
+
+    }
+
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.player.Player;
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A concrete implementation of the {@link PlayerNodePool} which keeps its {@link PlayerNode}s
+ * in an access-ordered list (for the "oldest" node lookups), as well as in a separate list of
+ * the free (unbound) nodes, thus making the acquisition, eviction and access time updates
+ * constant-time operations.
+ */
+final class LruPlayerNodePool implements PlayerNodePool {
+
+    // changed under the pool lock, but can be read without holding it
+    private volatile int maxSize;
+
+    private final Map<PlayerNode, Entry> nodeEntryMap;
+    private final Map<String, PlayerNode> keyPlayerNodeMap;
+
+    // sentinels of the circular lists (the entry next to the head is the oldest/first freed one)
+    private final Entry accessOrderHead;
+    private final Entry freeHead;
+
+    private ViewportDistanceProvider viewportDistanceProvider;
+
+    // mirrors the size of the nodeEntryMap, so that it can be read without holding the pool lock
+    private volatile int playerCount;
+
+    LruPlayerNodePool(int maxSize) {
+        Preconditions.isTrue("You must specify a valid Pool Max Size.", (maxSize >= 0));
+
+        this.maxSize = maxSize;
+        this.nodeEntryMap = new IdentityHashMap<>();
+        this.keyPlayerNodeMap = new HashMap<>();
+        this.accessOrderHead = new Entry(null);
+        this.freeHead = new Entry(null);
+    }
+
+    @Override
+    public final void add(@NonNull PlayerNode playerNode) {
+        Preconditions.nonNull(playerNode);
+
+        Entry entry = this.nodeEntryMap.get(playerNode);
+
+        if (entry == null) {
+            entry = new Entry(playerNode);
+            this.nodeEntryMap.put(playerNode, entry);
+            this.playerCount = this.nodeEntryMap.size();
+        } else {
+            unlinkFromAccessOrder(entry);
+        }
+
+        linkToAccessOrder(entry);
+
+        if (playerNode.isKeySet()) {
+            unlinkFromFree(entry);
+            this.keyPlayerNodeMap.put(playerNode.getKey(), playerNode);
+        } else if (playerNode.hasPlayer()) {
+            linkToFree(entry);
+        }
+    }
+
+    @Override
+    public final void add(@NonNull String key, @NonNull Player player) {
+        Preconditions.nonEmpty(key);
+        Preconditions.nonNull(player);
+
+        add(new PlayerNode(player).setKey(key));
+    }
+
+    @Override
+    public final PlayerNode remove(@NonNull PlayerNode playerNode) {
+        Preconditions.nonNull(playerNode);
+        return remove(playerNode.getKey());
+    }
+
+    @Override
+    public final PlayerNode remove(@NonNull String key) {
+        Preconditions.nonEmpty(key);
+
+        final PlayerNode playerNode = this.keyPlayerNodeMap.remove(key);
+
+        if (playerNode != null) {
+            final Entry entry = this.nodeEntryMap.remove(playerNode);
+            this.playerCount = this.nodeEntryMap.size();
+
+            if (entry != null) {
+                unlinkFromAccessOrder(entry);
+                unlinkFromFree(entry);
+            }
+
+            playerNode.removeKey();
+        }
+
+        return playerNode;
+    }
+
+    @Override
+    public final void unregister(@NonNull String key) {
+        Preconditions.nonEmpty(key);
+
+        final PlayerNode playerNode = get(key);
+
+        if (playerNode != null) {
+            unbind(playerNode, false);
+        }
+
+        this.keyPlayerNodeMap.remove(key);
+    }
+
+    @Nullable
+    @Override
+    public final PlayerNode acquire(@NonNull String key) {
+        Preconditions.nonEmpty(key);
+
+        final PlayerNode freePlayerNode = acquireFree(key);
+
+        if (freePlayerNode != null) {
+            return freePlayerNode;
+        }
+
+        return acquireOldest(key);
+    }
+
+    @Nullable
+    @Override
+    public final PlayerNode acquireFree(@NonNull String key) {
+        Preconditions.nonEmpty(key);
+
+        final PlayerNode freePlayerNode = getFree();
+
+        if (freePlayerNode != null) {
+            bind(freePlayerNode, key);
+        }
+
+        return freePlayerNode;
+    }
+
+    @Override
+    public final PlayerNode acquireOldest(@NonNull String key) {
+        Preconditions.nonEmpty(key);
+
+        final PlayerNode playerNode = getEvictionCandidate();
+
+        if (playerNode != null) {
+            final String previousKey = playerNode.getKey();
+
+            unbind(playerNode, false);
+
+            // dropping the stale mapping, so that the evicted item can no longer reach the reassigned node
+            if (!previousKey.isEmpty() && (this.keyPlayerNodeMap.get(previousKey) == playerNode)) {
+                this.keyPlayerNodeMap.remove(previousKey);
+            }
+
+            bind(playerNode, key);
+        }
+
+        return playerNode;
+    }
+
+    @Override
+    public final void release(@NonNull PlayerNode playerNode) {
+        Preconditions.nonNull(playerNode);
+
+        unbind(playerNode, true);
+
+        if (playerNode.hasPlayer()) {
+            playerNode.getPlayer().release();
+            playerNode.setPlayer(null);
+        }
+
+        final Entry entry = this.nodeEntryMap.get(playerNode);
+
+        if (entry != null) {
+            unlinkFromFree(entry);
+        }
+    }
+
+    @Override
+    public final void release(@NonNull String key) {
+        Preconditions.nonEmpty(key);
+
+        final PlayerNode playerNode = get(key);
+
+        if (playerNode != null) {
+            release(playerNode);
+        }
+    }
+
+    @Override
+    public final void release() {
+        final List<PlayerNode> playerNodes = new ArrayList<>(this.nodeEntryMap.keySet());
+
+        for (PlayerNode playerNode : playerNodes) {
+            release(playerNode);
+        }
+    }
+
+    @Override
+    public final PlayerNode get(@NonNull String key) {
+        Preconditions.nonEmpty(key);
+
+        final PlayerNode playerNode = this.keyPlayerNodeMap.get(key);
+
+        if (playerNode != null) {
+            final Entry entry = this.nodeEntryMap.get(playerNode);
+
+            if (entry != null) {
+                unlinkFromFree(entry);
+                updateAccessTime(entry);
+            }
+
+            playerNode.setKey(key);
+        }
+
+        return playerNode;
+    }
+
+    @Override
+    public final PlayerNode getFree() {
+        for (Entry entry = this.freeHead.nextFree; entry != this.freeHead; entry = entry.nextFree) {
+            final PlayerNode playerNode = entry.playerNode;
+
+            if (playerNode.hasPlayer()
+                && !playerNode.getPlayer().isAttached()
+                && !playerNode.isKeySet()) {
+                return updateAccessTime(entry);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public final PlayerNode getOldest() {
+        final Entry entry = this.accessOrderHead.next;
+        return ((entry != this.accessOrderHead) ? updateAccessTime(entry) : null);
+    }
+
+    /**
+     * Picks the node of the item that is the furthest from the viewport (the least recently used one among the equally distant ones),
+     * or simply the least recently used one, if there's no {@link ViewportDistanceProvider}.
+     */
+    private PlayerNode getEvictionCandidate() {
+        if (this.viewportDistanceProvider == null) {
+            return getOldest();
+        }
+
+        Entry candidateEntry = null;
+        int candidateDistance = -1;
+
+        // traversing in the access order, so that the least recently used node wins the ties
+        for (Entry entry = this.accessOrderHead.next; entry != this.accessOrderHead; entry = entry.next) {
+            final int distance = getViewportDistance(entry.playerNode);
+
+            if ((candidateEntry == null) || (distance > candidateDistance)) {
+                candidateEntry = entry;
+                candidateDistance = distance;
+            }
+        }
+
+        return ((candidateEntry != null) ? updateAccessTime(candidateEntry) : null);
+    }
+
+    private int getViewportDistance(PlayerNode playerNode) {
+        return (playerNode.isKeySet()
+            ? this.viewportDistanceProvider.getViewportDistance(playerNode.getKey())
+            : ViewportDistanceProvider.UNKNOWN_DISTANCE);
+    }
+
+    @Override
+    public final int getPlayerCount() {
+        return this.playerCount;
+    }
+
+    @Override
+    public final int getMaxSize() {
+        return this.maxSize;
+    }
+
+    @Override
+    public final void setMaxSize(int maxSize) {
+        Preconditions.isTrue("You must specify a valid Pool Max Size.", (maxSize >= 0));
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public final boolean isFull() {
+        return (getPlayerCount() >= this.maxSize);
+    }
+
+    @Override
+    public final int stopDetached() {
+        int stoppedPlayerCount = 0;
+
+        for (PlayerNode playerNode : this.nodeEntryMap.keySet()) {
+            if (isDetached(playerNode) && playerNode.getPlayer().releaseDecoders()) {
+                stoppedPlayerCount++;
+            }
+        }
+
+        return stoppedPlayerCount;
+    }
+
+    @Override
+    public final int releaseFree() {
+        final List<PlayerNode> freePlayerNodes = getDetachedPlayerNodes(false);
+
+        for (PlayerNode playerNode : freePlayerNodes) {
+            evict(playerNode);
+        }
+
+        return freePlayerNodes.size();
+    }
+
+    @Override
+    public final int trimToSize(int size) {
+        Preconditions.isTrue("You must specify a valid Pool Size.", (size >= 0));
+
+        final List<PlayerNode> detachedPlayerNodes = getDetachedPlayerNodes(true);
+        int releasedPlayerCount = 0;
+
+        for (PlayerNode playerNode : detachedPlayerNodes) {
+            if (getPlayerCount() <= size) {
+                break;
+            }
+
+            evict(playerNode);
+            releasedPlayerCount++;
+        }
+
+        return releasedPlayerCount;
+    }
+
+    @Override
+    public final void setViewportDistanceProvider(@Nullable ViewportDistanceProvider viewportDistanceProvider) {
+        this.viewportDistanceProvider = viewportDistanceProvider;
+    }
+
+    @Override
+    public final boolean contains(@NonNull String key) {
+        return (this.keyPlayerNodeMap.get(key) != null);
+    }
+
+    private void bind(PlayerNode playerNode, String key) {
+        final Entry entry = this.nodeEntryMap.get(playerNode);
+
+        if (entry != null) {
+            unlinkFromFree(entry);
+        }
+
+        playerNode.setKey(key);
+        this.keyPlayerNodeMap.put(key, playerNode);
+    }
+
+    private void unbind(PlayerNode playerNode, boolean removeFromPool) {
+        final Player player = playerNode.getPlayer();
+
+        if (player != null) {
+            player.stop(false);
+            player.postDetachedEvent();
+            player.setAttachmentStateDelegate(null);
+            player.removeAllEventListeners();
+        }
+
+        if (playerNode.isKeySet() && removeFromPool) {
+            remove(playerNode.getKey());
+        } else {
+            playerNode.removeKey();
+
+            final Entry entry = this.nodeEntryMap.get(playerNode);
+
+            if ((entry != null) && playerNode.hasPlayer()) {
+                linkToFree(entry);
+            }
+        }
+    }
+
+    /**
+     * Collects the detached nodes - the free ones first (in the order they've been freed),
+     * then (if requested) the bound ones, in the least recently used order.
+     */
+    private List<PlayerNode> getDetachedPlayerNodes(boolean includeBound) {
+        final List<PlayerNode> playerNodes = new ArrayList<>();
+
+        for (Entry entry = this.freeHead.nextFree; entry != this.freeHead; entry = entry.nextFree) {
+            if (isDetached(entry.playerNode) && !entry.playerNode.isKeySet()) {
+                playerNodes.add(entry.playerNode);
+            }
+        }
+
+        if (includeBound) {
+            for (Entry entry = this.accessOrderHead.next; entry != this.accessOrderHead; entry = entry.next) {
+                if (isDetached(entry.playerNode) && entry.playerNode.isKeySet()) {
+                    playerNodes.add(entry.playerNode);
+                }
+            }
+        }
+
+        return playerNodes;
+    }
+
+    private boolean isDetached(PlayerNode playerNode) {
+        return (playerNode.hasPlayer() && !playerNode.getPlayer().isAttached());
+    }
+
+    private void evict(PlayerNode playerNode) {
+        release(playerNode);
+
+        // the free nodes are not removed by the release(PlayerNode)
+        final Entry entry = this.nodeEntryMap.remove(playerNode);
+        this.playerCount = this.nodeEntryMap.size();
+
+        if (entry != null) {
+            unlinkFromAccessOrder(entry);
+            unlinkFromFree(entry);
+        }
+    }
+
+    private PlayerNode updateAccessTime(Entry entry) {
+        unlinkFromAccessOrder(entry);
+        linkToAccessOrder(entry);
+
+        return entry.playerNode.setLastAccessTime(System.currentTimeMillis());
+    }
+
+    private void linkToAccessOrder(Entry entry) {
+        entry.previous = this.accessOrderHead.previous;
+        entry.next = this.accessOrderHead;
+        this.accessOrderHead.previous.next = entry;
+        this.accessOrderHead.previous = entry;
+    }
+
+    private void unlinkFromAccessOrder(Entry entry) {
+        if (entry.next == null) {
+            return;
+        }
+
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private void linkToFree(Entry entry) {
+        if (entry.nextFree != null) {
+            return;
+        }
+
+        entry.previousFree = this.freeHead.previousFree;
+        entry.nextFree = this.freeHead;
+        this.freeHead.previousFree.nextFree = entry;
+        this.freeHead.previousFree = entry;
+    }
+
+    private void unlinkFromFree(Entry entry) {
+        if (entry.nextFree == null) {
+            return;
+        }
+
+        entry.previousFree.nextFree = entry.nextFree;
+        entry.nextFree.previousFree = entry.previousFree;
+        entry.previousFree = null;
+        entry.nextFree = null;
+    }
+
+    /**
+     * A {@link PlayerNode} holder which links the node into both the access-ordered
+     * and the free node lists.
+     */
+    private static final class Entry {
+
+        final PlayerNode playerNode;
+
+        Entry previous;
+        Entry next;
+
+        Entry previousFree;
+        Entry nextFree;
+
+        Entry(PlayerNode playerNode) {
+            this.playerNode = playerNode;
+
+            // the sentinels point to themselves, which makes the lists circular
+            if (playerNode == null) {
+                this.previous = this;
+                this.next = this;
+                this.previousFree = this;
+                this.nextFree = this;
+            }
+        }
+
+    }
+
+}
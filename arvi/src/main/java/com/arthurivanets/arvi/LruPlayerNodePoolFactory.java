@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+/**
+ * An implementation of the {@link PlayerNodePoolFactory} which creates the {@link LruPlayerNodePool}s.
+ * (To be injected via the {@link ArviPlugins#setPlayerNodePoolFactory(PlayerNodePoolFactory)})
+ */
+public final class LruPlayerNodePoolFactory implements PlayerNodePoolFactory {
+
+    private static final int DEFAULT_MAX_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private final int maxPoolSize;
+
+    public LruPlayerNodePoolFactory() {
+        this(DEFAULT_MAX_POOL_SIZE);
+    }
+
+    public LruPlayerNodePoolFactory(int maxPoolSize) {
+        Preconditions.isTrue("You must specify a valid Pool Max Size.", (maxPoolSize >= 0));
+
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    @NonNull
+    @Override
+    public final PlayerNodePool create() {
+        return new LruPlayerNodePool(this.maxPoolSize);
+    }
+
+}
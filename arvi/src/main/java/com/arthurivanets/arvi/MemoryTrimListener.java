@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A listener to be notified about each of the steps taken by the {@link PlayerProvider} to adapt
+ * its Player Pools to the memory pressure. (See {@link PlayerProvider#setMemoryTrimListener(MemoryTrimListener)})
+ */
+public interface MemoryTrimListener {
+
+    /**
+     * Gets invoked upon the completion of each of the memory trimming steps.
+     *
+     * @param step          the completed step
+     * @param trimLevel     the trim level that caused the step (see {@link android.content.ComponentCallbacks2})
+     * @param affectedCount the number of the stopped/released players, or, in case of the {@link Step#RESTORE_POOLS},
+     *                      the number of the restored pools
+     */
+    void onMemoryTrimStep(@NonNull Step step, int trimLevel, int affectedCount);
+
+    /**
+     * The memory trimming steps, listed in the order of their severity.
+     */
+    enum Step {
+
+        /**
+         * The detached players got stopped, thus releasing their decoders, including the retained ones (the player instances are kept).
+         */
+        RELEASE_DECODERS,
+
+        /**
+         * The free (unbound) players got released.
+         */
+        RELEASE_IDLE_PLAYERS,
+
+        /**
+         * The max sizes of the pools got reduced (and the least recently used detached players released accordingly).
+         */
+        SHRINK_POOLS,
+
+        /**
+         * All the detached players got released.
+         */
+        RELEASE_PLAYERS,
+
+        /**
+         * The original max sizes of the pools got restored, once the memory pressure was gone.
+         */
+        RESTORE_POOLS
+
+    }
+
+}
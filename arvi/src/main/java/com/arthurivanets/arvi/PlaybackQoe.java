@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.exoplayer2.ExoPlaybackException;
+
+/**
+ * The playback quality (QoE) report of a single playback session of a {@link com.arthurivanets.arvi.widget.Playable}
+ * (the session lasts from the start of the playback until its pause, stop, release or failure).
+ */
+public final class PlaybackQoe {
+
+    public static final long NO_FIRST_FRAME = -1L;
+
+    private final String key;
+
+    private final long timeToFirstFrame;
+    private final int rebufferCount;
+    private final long rebufferDuration;
+    private final long playingDuration;
+    private final long bytesTransferred;
+
+    private final ErrorCause errorCause;
+
+    PlaybackQoe(@NonNull String key,
+                long timeToFirstFrame,
+                int rebufferCount,
+                long rebufferDuration,
+                long playingDuration,
+                long bytesTransferred,
+                @Nullable ErrorCause errorCause) {
+        this.key = key;
+        this.timeToFirstFrame = timeToFirstFrame;
+        this.rebufferCount = rebufferCount;
+        this.rebufferDuration = rebufferDuration;
+        this.playingDuration = playingDuration;
+        this.bytesTransferred = bytesTransferred;
+        this.errorCause = errorCause;
+    }
+
+    /**
+     * Retrieves the key of the {@link com.arthurivanets.arvi.widget.Playable} the session belongs to.
+     */
+    @NonNull
+    public final String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Retrieves the time (in millis) from the start of the playback to the rendering of the first video frame.
+     *
+     * @return the time to the first frame, or {@link #NO_FIRST_FRAME} if no frame was rendered during the session
+     */
+    public final long getTimeToFirstFrame() {
+        return this.timeToFirstFrame;
+    }
+
+    /**
+     * Retrieves the number of the rebuffers (the playback stalls that happened after the first frame, excluding the seeks).
+     */
+    public final int getRebufferCount() {
+        return this.rebufferCount;
+    }
+
+    /**
+     * Retrieves the total duration (in millis) of the rebuffers.
+     */
+    public final long getRebufferDuration() {
+        return this.rebufferDuration;
+    }
+
+    /**
+     * Retrieves the total duration (in millis) of the actual playback (excluding the startup and the rebuffers).
+     */
+    public final long getPlayingDuration() {
+        return this.playingDuration;
+    }
+
+    /**
+     * Retrieves the number of the media bytes loaded during the session.
+     */
+    public final long getBytesTransferred() {
+        return this.bytesTransferred;
+    }
+
+    /**
+     * Retrieves the cause of the error the session ended with.
+     *
+     * @return the error cause, or null if the session ended without an error
+     */
+    @Nullable
+    public final ErrorCause getErrorCause() {
+        return this.errorCause;
+    }
+
+    /**
+     * Retrieves the share of the rebuffering within the session (a value between 0.0 and 1.0).
+     */
+    public final float getRebufferRatio() {
+        return calculateRebufferRatio(this.rebufferDuration, this.playingDuration);
+    }
+
+    public final boolean hasRenderedFirstFrame() {
+        return (this.timeToFirstFrame != NO_FIRST_FRAME);
+    }
+
+    public final boolean hasError() {
+        return (this.errorCause != null);
+    }
+
+    /**
+     * Determines whether the session failed before the first frame got rendered.
+     */
+    public final boolean isStartupFailure() {
+        return (hasError() && !hasRenderedFirstFrame());
+    }
+
+    static float calculateRebufferRatio(long rebufferDuration, long playingDuration) {
+        final long totalDuration = (rebufferDuration + playingDuration);
+        return ((totalDuration > 0L) ? ((float) rebufferDuration / totalDuration) : 0f);
+    }
+
+    @Override
+    public final String toString() {
+        return ("PlaybackQoe{key=" + this.key
+            + ", timeToFirstFrame=" + this.timeToFirstFrame
+            + ", rebufferCount=" + this.rebufferCount
+            + ", rebufferDuration=" + this.rebufferDuration
+            + ", playingDuration=" + this.playingDuration
+            + ", bytesTransferred=" + this.bytesTransferred
+            + ", errorCause=" + this.errorCause + "}");
+    }
+
+    /**
+     * The causes of the playback errors.
+     */
+    public enum ErrorCause {
+
+        /**
+         * The media could not be loaded or parsed (e.g. due to a network failure).
+         */
+        SOURCE,
+
+        /**
+         * The media could not be rendered (e.g. due to a decoder failure).
+         */
+        RENDERER,
+
+        /**
+         * An unexpected failure of the player itself.
+         */
+        UNEXPECTED,
+
+        /**
+         * Any other failure.
+         */
+        OTHER;
+
+        @NonNull
+        static ErrorCause from(@NonNull ExoPlaybackException error) {
+            switch (error.type) {
+
+                case ExoPlaybackException.TYPE_SOURCE:
+                    return SOURCE;
+
+                case ExoPlaybackException.TYPE_RENDERER:
+                    return RENDERER;
+
+                case ExoPlaybackException.TYPE_UNEXPECTED:
+                    return UNEXPECTED;
+
+                default:
+                    return OTHER;
+
+            }
+        }
+
+    }
+
+}
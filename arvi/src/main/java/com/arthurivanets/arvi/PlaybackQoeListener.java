@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A listener to be notified about the completion of each of the playback sessions of the {@link com.arthurivanets.arvi.widget.Playable}s.
+ * (See {@link ArviPlugins#setPlaybackQoeListener(PlaybackQoeListener)})
+ * <br>
+ * <strong>NOTE</strong>: gets invoked on the main thread, so the implementations should be fast.
+ * (See {@link PlaybackQoeSummary} for the default aggregating implementation)
+ */
+public interface PlaybackQoeListener {
+
+    /**
+     * Gets invoked upon the completion of the playback session (the pause, stop, release or failure of the playback).
+     *
+     * @param qoe the playback quality report of the session
+     */
+    void onPlaybackSessionFinished(@NonNull PlaybackQoe qoe);
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.PlaybackQoe.ErrorCause;
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The default (thread-safe) {@link PlaybackQoeListener} that aggregates the {@link PlaybackQoe}s of all the playback sessions
+ * into an in-memory summary: the time to first frame (along with its histogram), the rebuffering, the transferred bytes and the errors.
+ * <br>
+ * The time to first frame histogram consists of the {@link #TIME_TO_FIRST_FRAME_BUCKET_COUNT} power-of-two buckets,
+ * where the bucket {@code i} holds the times within the {@code [2^(i-1), 2^i)} milliseconds range
+ * (the first bucket holds the sub-millisecond times, while the last one holds all the remaining ones).
+ */
+public final class PlaybackQoeSummary implements PlaybackQoeListener {
+
+    public static final int TIME_TO_FIRST_FRAME_BUCKET_COUNT = 16;
+
+    private static final int ERROR_CAUSE_COUNT = ErrorCause.values().length;
+
+    private final AtomicLong mSessionCount;
+    private final AtomicLong mFirstFrameCount;
+    private final AtomicLong mTotalTimeToFirstFrame;
+    private final AtomicLong mRebufferCount;
+    private final AtomicLong mRebufferDuration;
+    private final AtomicLong mPlayingDuration;
+    private final AtomicLong mBytesTransferred;
+    private final AtomicLong mStartupFailureCount;
+
+    private final AtomicLongArray mErrorCounts;
+    private final AtomicLongArray mTimeToFirstFrameHistogram;
+
+    public PlaybackQoeSummary() {
+        mSessionCount = new AtomicLong();
+        mFirstFrameCount = new AtomicLong();
+        mTotalTimeToFirstFrame = new AtomicLong();
+        mRebufferCount = new AtomicLong();
+        mRebufferDuration = new AtomicLong();
+        mPlayingDuration = new AtomicLong();
+        mBytesTransferred = new AtomicLong();
+        mStartupFailureCount = new AtomicLong();
+        mErrorCounts = new AtomicLongArray(ERROR_CAUSE_COUNT);
+        mTimeToFirstFrameHistogram = new AtomicLongArray(TIME_TO_FIRST_FRAME_BUCKET_COUNT);
+    }
+
+    @Override
+    public final void onPlaybackSessionFinished(@NonNull PlaybackQoe qoe) {
+        Preconditions.nonNull(qoe);
+
+        mSessionCount.incrementAndGet();
+
+        if (qoe.hasRenderedFirstFrame()) {
+            mFirstFrameCount.incrementAndGet();
+            mTotalTimeToFirstFrame.addAndGet(qoe.getTimeToFirstFrame());
+            mTimeToFirstFrameHistogram.incrementAndGet(getTimeToFirstFrameBucket(qoe.getTimeToFirstFrame()));
+        }
+
+        mRebufferCount.addAndGet(qoe.getRebufferCount());
+        mRebufferDuration.addAndGet(qoe.getRebufferDuration());
+        mPlayingDuration.addAndGet(qoe.getPlayingDuration());
+        mBytesTransferred.addAndGet(qoe.getBytesTransferred());
+
+        if (qoe.hasError()) {
+            mErrorCounts.incrementAndGet(qoe.getErrorCause().ordinal());
+        }
+
+        if (qoe.isStartupFailure()) {
+            mStartupFailureCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Retrieves the number of the finished playback sessions.
+     */
+    public final long getSessionCount() {
+        return mSessionCount.get();
+    }
+
+    /**
+     * Retrieves the number of the sessions that rendered the first frame.
+     */
+    public final long getFirstFrameCount() {
+        return mFirstFrameCount.get();
+    }
+
+    /**
+     * Retrieves the average time to first frame (in millis) across the sessions that rendered the first frame.
+     *
+     * @return the average time to first frame, or 0 if no first frames were rendered
+     */
+    public final long getAverageTimeToFirstFrame() {
+        final long firstFrameCount = mFirstFrameCount.get();
+        return ((firstFrameCount > 0L) ? (mTotalTimeToFirstFrame.get() / firstFrameCount) : 0L);
+    }
+
+    /**
+     * Retrieves the snapshot of the time to first frame histogram (see {@link PlaybackQoeSummary}).
+     */
+    @NonNull
+    public final long[] getTimeToFirstFrameHistogram() {
+        final long[] histogram = new long[TIME_TO_FIRST_FRAME_BUCKET_COUNT];
+
+        for (int i = 0; i < TIME_TO_FIRST_FRAME_BUCKET_COUNT; i++) {
+            histogram[i] = mTimeToFirstFrameHistogram.get(i);
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Retrieves the total number of the rebuffers.
+     */
+    public final long getRebufferCount() {
+        return mRebufferCount.get();
+    }
+
+    /**
+     * Retrieves the total duration (in millis) of the rebuffers.
+     */
+    public final long getRebufferDuration() {
+        return mRebufferDuration.get();
+    }
+
+    /**
+     * Retrieves the total duration (in millis) of the actual playback.
+     */
+    public final long getPlayingDuration() {
+        return mPlayingDuration.get();
+    }
+
+    /**
+     * Retrieves the overall share of the rebuffering (a value between 0.0 and 1.0).
+     */
+    public final float getRebufferRatio() {
+        return PlaybackQoe.calculateRebufferRatio(mRebufferDuration.get(), mPlayingDuration.get());
+    }
+
+    /**
+     * Retrieves the total number of the loaded media bytes.
+     */
+    public final long getBytesTransferred() {
+        return mBytesTransferred.get();
+    }
+
+    /**
+     * Retrieves the number of the sessions that failed before rendering the first frame.
+     */
+    public final long getStartupFailureCount() {
+        return mStartupFailureCount.get();
+    }
+
+    /**
+     * Retrieves the number of the sessions that ended with an error of the specified cause.
+     */
+    public final long getErrorCount(@NonNull ErrorCause errorCause) {
+        Preconditions.nonNull(errorCause);
+
+        return mErrorCounts.get(errorCause.ordinal());
+    }
+
+    /**
+     * Discards all the aggregated metrics.
+     */
+    public final void reset() {
+        mSessionCount.set(0L);
+        mFirstFrameCount.set(0L);
+        mTotalTimeToFirstFrame.set(0L);
+        mRebufferCount.set(0L);
+        mRebufferDuration.set(0L);
+        mPlayingDuration.set(0L);
+        mBytesTransferred.set(0L);
+        mStartupFailureCount.set(0L);
+
+        for (int i = 0; i < ERROR_CAUSE_COUNT; i++) {
+            mErrorCounts.set(i, 0L);
+        }
+
+        for (int i = 0; i < TIME_TO_FIRST_FRAME_BUCKET_COUNT; i++) {
+            mTimeToFirstFrameHistogram.set(i, 0L);
+        }
+    }
+
+    /**
+     * Calculates the index of the time to first frame histogram bucket the specified time falls into.
+     *
+     * @param timeToFirstFrame the time to first frame (in millis)
+     * @return the bucket index
+     */
+    public static int getTimeToFirstFrameBucket(long timeToFirstFrame) {
+        final int bucket = (64 - Long.numberOfLeadingZeros(Math.max(0L, timeToFirstFrame)));
+        return Math.min(bucket, (TIME_TO_FIRST_FRAME_BUCKET_COUNT - 1));
+    }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+
+import com.arthurivanets.arvi.PlaybackQoe.ErrorCause;
+import com.arthurivanets.arvi.player.Player;
+import com.arthurivanets.arvi.util.misc.Clock;
+import com.arthurivanets.arvi.util.misc.Preconditions;
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+
+/**
+ * Tracks the playback quality of the playback sessions of a single {@link com.arthurivanets.arvi.widget.Playable},
+ * and reports the {@link PlaybackQoe} of each of the finished sessions to the {@link PlaybackQoeListener} installed
+ * via the {@link ArviPlugins#setPlaybackQoeListener(PlaybackQoeListener)}. (No sessions are tracked while there's no listener installed)
+ * <br>
+ * <strong>NOTE</strong>: not thread-safe, meant to be used on the main thread only.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class PlaybackQoeTracker implements Player.PlaybackEventListener {
+
+    private static final long NO_TIME = -1L;
+
+    private final Clock mClock;
+
+    private PlaybackQoeListener mListener;
+    private Player mPlayer;
+    private String mKey;
+
+    private long mStartTime;
+    private long mTimeToFirstFrame;
+    private long mPlayingStartTime;
+    private long mPlayingDuration;
+    private long mRebufferStartTime;
+    private long mRebufferDuration;
+    private int mRebufferCount;
+    private long mBytesTransferred;
+
+    private boolean mIsSeeking;
+
+    public PlaybackQoeTracker() {
+        this(Clock.SYSTEM);
+    }
+
+    @VisibleForTesting
+    PlaybackQoeTracker(@NonNull Clock clock) {
+        mClock = Preconditions.checkNonNull(clock);
+    }
+
+    /**
+     * Starts a new playback session on the specified {@link Player} (finishing the ongoing one, if there's any).
+     * Should be invoked right before the playback of the media gets started.
+     *
+     * @param key    the key of the {@link com.arthurivanets.arvi.widget.Playable}
+     * @param player the player the playback is performed by
+     */
+    public final void start(@NonNull String key, @NonNull Player player) {
+        start(key, player, false);
+    }
+
+    /**
+     * Starts a new playback session on the specified {@link Player} (finishing the ongoing one, if there's any).
+     * Should be invoked right before the playback of the media gets started.
+     * <br>
+     * If the player has been prepared in advance (see {@link com.arthurivanets.arvi.widget.Playable#prepare()}) and is already ready to play,
+     * its first frame is considered to be rendered right away (as it's been rendered during the preparation).
+     *
+     * @param key                 the key of the {@link com.arthurivanets.arvi.widget.Playable}
+     * @param player              the player the playback is performed by
+     * @param isPreparedInAdvance whether the player has been prepared in advance
+     */
+    public final void start(@NonNull String key, @NonNull Player player, boolean isPreparedInAdvance) {
+        Preconditions.nonNull(key);
+        Preconditions.nonNull(player);
+
+        finish();
+
+        final PlaybackQoeListener listener = ArviPlugins.getPlaybackQoeListener();
+
+        if (listener == null) {
+            return;
+        }
+
+        mListener = listener;
+        mPlayer = player;
+        mKey = key;
+        mStartTime = mClock.elapsedRealtime();
+        mTimeToFirstFrame = PlaybackQoe.NO_FIRST_FRAME;
+        mPlayingStartTime = NO_TIME;
+        mPlayingDuration = 0L;
+        mRebufferStartTime = NO_TIME;
+        mRebufferDuration = 0L;
+        mRebufferCount = 0;
+        mBytesTransferred = 0L;
+        mIsSeeking = false;
+
+        if (isPreparedInAdvance && (player.getPlaybackState() == Player.PlaybackState.READY)) {
+            mTimeToFirstFrame = 0L;
+            mPlayingStartTime = mStartTime;
+        }
+
+        player.addEventListener(this);
+    }
+
+    /**
+     * Finishes the ongoing playback session (if there's any), and reports its {@link PlaybackQoe}.
+     */
+    public final void finish() {
+        finish(null);
+    }
+
+    private void finish(ErrorCause errorCause) {
+        if (!isActive()) {
+            return;
+        }
+
+        final long time = mClock.elapsedRealtime();
+
+        endPlaying(time);
+        endRebuffer(time);
+
+        final PlaybackQoeListener listener = mListener;
+        final PlaybackQoe qoe = new PlaybackQoe(
+            mKey,
+            mTimeToFirstFrame,
+            mRebufferCount,
+            mRebufferDuration,
+            mPlayingDuration,
+            mBytesTransferred,
+            errorCause
+        );
+
+        mPlayer.removeEventListener(this);
+        mListener = null;
+        mPlayer = null;
+        mKey = null;
+
+        listener.onPlaybackSessionFinished(qoe);
+    }
+
+    /**
+     * Determines whether there's an ongoing playback session.
+     */
+    public final boolean isActive() {
+        return (mPlayer != null);
+    }
+
+    private boolean hasRenderedFirstFrame() {
+        return (mTimeToFirstFrame != PlaybackQoe.NO_FIRST_FRAME);
+    }
+
+    private void endPlaying(long time) {
+        if (mPlayingStartTime != NO_TIME) {
+            mPlayingDuration += (time - mPlayingStartTime);
+            mPlayingStartTime = NO_TIME;
+        }
+    }
+
+    private void endRebuffer(long time) {
+        if (mRebufferStartTime != NO_TIME) {
+            mRebufferDuration += (time - mRebufferStartTime);
+            mRebufferStartTime = NO_TIME;
+        }
+    }
+
+    @Override
+    public final void onPlayerStateChanged(int playbackState) {
+        final long time = mClock.elapsedRealtime();
+
+        switch (playbackState) {
+
+            case Player.PlaybackState.READY:
+                endRebuffer(time);
+                mIsSeeking = false;
+
+                if (mPlayingStartTime == NO_TIME) {
+                    mPlayingStartTime = time;
+                }
+                break;
+
+            case Player.PlaybackState.BUFFERING:
+                endPlaying(time);
+
+                // the stalls caused by the startup and the seeks are not considered rebuffers
+                if (hasRenderedFirstFrame() && !mIsSeeking && (mRebufferStartTime == NO_TIME)) {
+                    mRebufferStartTime = time;
+                    mRebufferCount++;
+                }
+                break;
+
+            default:
+                endPlaying(time);
+                endRebuffer(time);
+                break;
+
+        }
+    }
+
+    @Override
+    public final void onRenderedFirstFrame() {
+        if (!hasRenderedFirstFrame()) {
+            mTimeToFirstFrame = (mClock.elapsedRealtime() - mStartTime);
+        }
+    }
+
+    @Override
+    public final void onPositionDiscontinuity(int reason) {
+        if ((reason == com.google.android.exoplayer2.Player.DISCONTINUITY_REASON_SEEK)
+            || (reason == com.google.android.exoplayer2.Player.DISCONTINUITY_REASON_SEEK_ADJUSTMENT)) {
+            mIsSeeking = true;
+        }
+    }
+
+    @Override
+    public final void onBytesLoaded(long bytesLoaded) {
+        mBytesTransferred += bytesLoaded;
+    }
+
+    @Override
+    public final void onLoadingChanged(boolean isLoading) {
+        // do nothing.
+    }
+
+    @Override
+    public final void onTracksChanged(TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
+        // do nothing.
+    }
+
+    @Override
+    public final void onPlayerError(ExoPlaybackException error) {
+        finish(ErrorCause.from(error));
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide budget of the {@link com.arthurivanets.arvi.player.Player}s, shared by all the {@link PlayerNodePool}s,
+ * so that the total number of the players (and, hence, of the hardware decoders) stays bounded regardless of the number of the {@link Config}s.
+ * <br>
+ * The budget is a soft one: when it's exhausted, the players are reclaimed from the least valuable (least recently used) pools,
+ * and, only if there's nothing to reclaim, the budget may be exceeded (so that the player acquisitions never fail).
+ * <br>
+ * <strong>NOTE</strong>: never acquires more than a single pool lock at a time, so the reclamation must be performed
+ * while holding no pool locks (see {@link PlayerPoolRegistry}).
+ */
+final class PlayerBudget {
+
+    /**
+     * The max player count of the unbounded budget (the default one, i.e. the budget is opt-in).
+     */
+    static final int UNBOUNDED_PLAYER_COUNT = Integer.MAX_VALUE;
+
+    private final Collection<PlayerNodePool> mPlayerNodePools;
+
+    // the logical "last use" stamps of the pools (a higher stamp means a more recent use)
+    private final ConcurrentMap<PlayerNodePool, AtomicLong> mPoolUseStamps;
+    private final AtomicLong mUseClock;
+
+    private volatile int mMaxPlayerCount;
+
+    /**
+     * @param playerNodePools the (live) collection of the pools sharing the budget
+     * @param maxPlayerCount  the max total number of the players
+     */
+    PlayerBudget(@NonNull Collection<PlayerNodePool> playerNodePools, int maxPlayerCount) {
+        mPlayerNodePools = Preconditions.checkNonNull(playerNodePools);
+        mPoolUseStamps = new ConcurrentHashMap<>();
+        mUseClock = new AtomicLong();
+        setMaxPlayerCount(maxPlayerCount);
+    }
+
+    final void setMaxPlayerCount(int maxPlayerCount) {
+        Preconditions.isTrue("You must specify a valid Max Player Count.", (maxPlayerCount > 0));
+        mMaxPlayerCount = maxPlayerCount;
+    }
+
+    final int getMaxPlayerCount() {
+        return mMaxPlayerCount;
+    }
+
+    /**
+     * Calculates the total number of the players held by all the pools.
+     * (The sizes of the pools are read without acquiring their locks, see {@link PlayerNodePool#getPlayerCount()},
+     * so the result may be off by the concurrent acquisitions)
+     */
+    final int getPlayerCount() {
+        int playerCount = 0;
+
+        for (PlayerNodePool playerNodePool : mPlayerNodePools) {
+            playerCount += playerNodePool.getPlayerCount();
+        }
+
+        return playerCount;
+    }
+
+    /**
+     * Determines whether the pools hold (at least) the max number of the players.
+     */
+    final boolean isExhausted() {
+        final int maxPlayerCount = mMaxPlayerCount;
+        return ((maxPlayerCount != UNBOUNDED_PLAYER_COUNT) && (getPlayerCount() >= maxPlayerCount));
+    }
+
+    /**
+     * Marks the specified pool as the most recently used one (i.e. the most valuable one).
+     */
+    final void onPoolUsed(@NonNull PlayerNodePool playerNodePool) {
+        AtomicLong useStamp = mPoolUseStamps.get(playerNodePool);
+
+        if (useStamp == null) {
+            final AtomicLong newUseStamp = new AtomicLong();
+            final AtomicLong existingUseStamp = mPoolUseStamps.putIfAbsent(playerNodePool, newUseStamp);
+
+            useStamp = ((existingUseStamp != null) ? existingUseStamp : newUseStamp);
+        }
+
+        useStamp.set(mUseClock.incrementAndGet());
+    }
+
+    /**
+     * Releases a single detached player of the least valuable pool (other than the requesting one),
+     * thus making room for a new player of the requesting pool.
+     * <br>
+     * <strong>NOTE</strong>: must not be called while holding any of the pool locks.
+     *
+     * @param requestingPool the pool that needs a new player
+     * @return <strong>true</strong> if a player was released, <strong>false</strong> if there was nothing to reclaim
+     */
+    final boolean reclaim(@NonNull PlayerNodePool requestingPool) {
+        Preconditions.nonNull(requestingPool);
+
+        for (PlayerNodePool playerNodePool : getReclamationCandidates()) {
+            if (playerNodePool == requestingPool) {
+                continue;
+            }
+
+            synchronized (playerNodePool) {
+                if ((playerNodePool.getPlayerCount() > 0)
+                    && (playerNodePool.trimToSize(playerNodePool.getPlayerCount() - 1) > 0)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Orders the pools by their value (the least valuable ones first), based on the snapshot of their use stamps.
+     */
+    private PlayerNodePool[] getReclamationCandidates() {
+        final PlayerNodePool[] candidates = mPlayerNodePools.toArray(new PlayerNodePool[0]);
+        final long[] useStamps = new long[candidates.length];
+
+        for (int i = 0; i < candidates.length; i++) {
+            useStamps[i] = getUseStamp(candidates[i]);
+        }
+
+        // insertion sort (there's just a handful of pools)
+        for (int i = 1; i < candidates.length; i++) {
+            final PlayerNodePool candidate = candidates[i];
+            final long useStamp = useStamps[i];
+            int j = (i - 1);
+
+            while ((j >= 0) && (useStamps[j] > useStamp)) {
+                candidates[j + 1] = candidates[j];
+                useStamps[j + 1] = useStamps[j];
+                j--;
+            }
+
+            candidates[j + 1] = candidate;
+            useStamps[j + 1] = useStamp;
+        }
+
+        return candidates;
+    }
+
+    private long getUseStamp(PlayerNodePool playerNodePool) {
+        final AtomicLong useStamp = mPoolUseStamps.get(playerNodePool);
+        return ((useStamp != null) ? useStamp.get() : 0L);
+    }
+
+    /**
+     * Forgets about the specified (removed) pool.
+     */
+    final void forget(@NonNull PlayerNodePool playerNodePool) {
+        mPoolUseStamps.remove(playerNodePool);
+    }
+
+    /**
+     * Forgets about all the pools.
+     */
+    final void reset() {
+        mPoolUseStamps.clear();
+    }
+
+}
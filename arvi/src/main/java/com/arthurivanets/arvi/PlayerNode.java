@@ -16,8 +16,6 @@
 
 package com.arthurivanets.arvi;
 
-import android.text.TextUtils;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -88,7 +86,7 @@ public final class PlayerNode implements Comparable<PlayerNode> {
     }
 
     public final boolean isKeySet() {
-        return !TextUtils.isEmpty(this.key);
+        return !this.key.isEmpty();
     }
 
     @Override
@@ -86,6 +86,10 @@ interface PlayerNodePool {
     /**
      * Registers (acquires) the oldest available {@link PlayerNode} for the specified key.
      * If no available {@link PlayerNode} was found, unregisters the oldest one and re-registers it (now for the new key).
+     * <br>
+     * If there's a {@link ViewportDistanceProvider} set (see {@link #setViewportDistanceProvider(ViewportDistanceProvider)}),
+     * the {@link PlayerNode} of the item that is the furthest from the viewport gets picked instead
+     * (the least recently used one, in case of the equal distances).
      *
      * @param key the key to register the player node for
      * @return the registered player node
@@ -139,11 +143,28 @@ interface PlayerNodePool {
 
     /**
      * Retrieves the number of the {@link PlayerNode}s held by the current pool.
+     * (Unlike the rest of the methods, can be called without holding the pool lock)
      *
      * @return the number of the player nodes held by the current pool
      */
     int getPlayerCount();
 
+    /**
+     * Retrieves the max number of the {@link PlayerNode}s the current pool can hold.
+     * (Unlike the rest of the methods, can be called without holding the pool lock)
+     *
+     * @return the max size of the current pool
+     */
+    int getMaxSize();
+
+    /**
+     * Changes the max number of the {@link PlayerNode}s the current pool can hold.
+     * (Doesn't evict any of the player nodes, see {@link #trimToSize(int)})
+     *
+     * @param maxSize the new max size of the current pool
+     */
+    void setMaxSize(int maxSize);
+
     /**
      * Determines whether the current pool is full (whether the number of the {@link PlayerNode}s held
      * by the current pool reached the player node limit imposed by the current pool).
@@ -152,6 +173,39 @@ interface PlayerNodePool {
      */
     boolean isFull();
 
+    /**
+     * Stops the initialized {@link Player}s that are not attached to any of the views and releases their decoders
+     * (including the retained ones, see {@link Player#releaseDecoders()}), while keeping the {@link Player} instances, as well as their keys.
+     *
+     * @return the number of the stopped players
+     */
+    int stopDetached();
+
+    /**
+     * Releases and evicts all the free (unbound) {@link PlayerNode}s of the current pool.
+     *
+     * @return the number of the released players
+     */
+    int releaseFree();
+
+    /**
+     * Releases and evicts the detached {@link PlayerNode}s (the free ones first, then the least recently used ones)
+     * until the current pool holds at most the specified number of the player nodes.
+     * (The attached player nodes are never evicted)
+     *
+     * @param size the number of the player nodes to trim the current pool to
+     * @return the number of the released players
+     */
+    int trimToSize(int size);
+
+    /**
+     * Sets the {@link ViewportDistanceProvider} to be used for the selection of the {@link PlayerNode}s
+     * to be evicted upon the acquisition (see {@link #acquireOldest(String)}).
+     *
+     * @param viewportDistanceProvider the provider, or <strong>null</strong> to fall back to the least recently used eviction
+     */
+    void setViewportDistanceProvider(@Nullable ViewportDistanceProvider viewportDistanceProvider);
+
     /**
      * Determines whether the current pool contains a {@link PlayerNode} that corresponds to the specified key.
      *
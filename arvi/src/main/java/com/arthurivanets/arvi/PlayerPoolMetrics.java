@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The default (thread-safe) {@link PlayerPoolMetricsListener} that aggregates the acquisition metrics per {@link Config}:
+ * the number of the acquisitions of each type, the live player count and the acquisition latency histogram.
+ * <br>
+ * The latency histogram consists of the {@link #LATENCY_BUCKET_COUNT} power-of-two buckets,
+ * where the bucket {@code i} holds the latencies within the {@code [2^(i-1), 2^i)} microseconds range
+ * (the first bucket holds the sub-microsecond latencies, while the last one holds all the remaining ones).
+ */
+public final class PlayerPoolMetrics implements PlayerPoolMetricsListener {
+
+    public static final int LATENCY_BUCKET_COUNT = 24;
+
+    private static final int ACQUISITION_TYPE_COUNT = Acquisition.values().length;
+
+    private final ConcurrentMap<Config, ConfigMetrics> mConfigMetricsMap;
+
+    public PlayerPoolMetrics() {
+        mConfigMetricsMap = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public final void onPlayerAcquired(@NonNull Config config,
+                                       @NonNull Acquisition acquisition,
+                                       long latencyInNanos,
+                                       int livePlayerCount) {
+        Preconditions.nonNull(config);
+        Preconditions.nonNull(acquisition);
+
+        getOrInitConfigMetrics(config).record(acquisition, latencyInNanos, livePlayerCount);
+    }
+
+    private ConfigMetrics getOrInitConfigMetrics(Config config) {
+        final ConfigMetrics configMetrics = mConfigMetricsMap.get(config);
+
+        if (configMetrics != null) {
+            return configMetrics;
+        }
+
+        final ConfigMetrics newConfigMetrics = new ConfigMetrics();
+        final ConfigMetrics existingConfigMetrics = mConfigMetricsMap.putIfAbsent(config, newConfigMetrics);
+
+        return ((existingConfigMetrics != null) ? existingConfigMetrics : newConfigMetrics);
+    }
+
+    /**
+     * Retrieves the metrics of the specified {@link Config}.
+     *
+     * @param config the config
+     * @return the metrics, or null if no acquisitions were made for the config
+     */
+    @Nullable
+    public final ConfigMetrics getMetrics(@NonNull Config config) {
+        Preconditions.nonNull(config);
+
+        return mConfigMetricsMap.get(config);
+    }
+
+    /**
+     * Retrieves the (read-only) metrics of all the {@link Config}s.
+     */
+    @NonNull
+    public final Map<Config, ConfigMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(mConfigMetricsMap);
+    }
+
+    /**
+     * Discards all the aggregated metrics.
+     */
+    public final void reset() {
+        mConfigMetricsMap.clear();
+    }
+
+    /**
+     * Calculates the index of the latency histogram bucket the specified latency falls into.
+     *
+     * @param latencyInNanos the latency
+     * @return the bucket index
+     */
+    public static int getLatencyBucket(long latencyInNanos) {
+        final long latencyInMicros = (Math.max(0L, latencyInNanos) / 1000L);
+        final int bucket = (64 - Long.numberOfLeadingZeros(latencyInMicros));
+
+        return Math.min(bucket, (LATENCY_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * The acquisition metrics of a single {@link Config}.
+     */
+    public static final class ConfigMetrics {
+
+        private final AtomicLongArray mAcquisitionCounts;
+        private final AtomicLongArray mLatencyHistogram;
+        private final AtomicInteger mLivePlayerCount;
+
+        ConfigMetrics() {
+            mAcquisitionCounts = new AtomicLongArray(ACQUISITION_TYPE_COUNT);
+            mLatencyHistogram = new AtomicLongArray(LATENCY_BUCKET_COUNT);
+            mLivePlayerCount = new AtomicInteger();
+        }
+
+        final void record(Acquisition acquisition, long latencyInNanos, int livePlayerCount) {
+            mAcquisitionCounts.incrementAndGet(acquisition.ordinal());
+            mLatencyHistogram.incrementAndGet(getLatencyBucket(latencyInNanos));
+            mLivePlayerCount.set(livePlayerCount);
+        }
+
+        /**
+         * Retrieves the number of the acquisitions of the specified type.
+         */
+        public final long getCount(@NonNull Acquisition acquisition) {
+            return mAcquisitionCounts.get(acquisition.ordinal());
+        }
+
+        public final long getHitCount() {
+            return getCount(Acquisition.HIT);
+        }
+
+        public final long getFreeReuseCount() {
+            return getCount(Acquisition.FREE_REUSE);
+        }
+
+        public final long getEvictionCount() {
+            return getCount(Acquisition.EVICTION);
+        }
+
+        public final long getColdCreationCount() {
+            return getCount(Acquisition.COLD_CREATION);
+        }
+
+        /**
+         * Retrieves the total number of the acquisitions.
+         */
+        public final long getAcquisitionCount() {
+            long acquisitionCount = 0L;
+
+            for (int i = 0; i < ACQUISITION_TYPE_COUNT; i++) {
+                acquisitionCount += mAcquisitionCounts.get(i);
+            }
+
+            return acquisitionCount;
+        }
+
+        /**
+         * Retrieves the number of the players held by the pool as of the latest acquisition.
+         */
+        public final int getLivePlayerCount() {
+            return mLivePlayerCount.get();
+        }
+
+        /**
+         * Retrieves the snapshot of the acquisition latency histogram (see {@link PlayerPoolMetrics}).
+         */
+        @NonNull
+        public final long[] getLatencyHistogram() {
+            final long[] histogram = new long[LATENCY_BUCKET_COUNT];
+
+            for (int i = 0; i < LATENCY_BUCKET_COUNT; i++) {
+                histogram[i] = mLatencyHistogram.get(i);
+            }
+
+            return histogram;
+        }
+
+    }
+
+}
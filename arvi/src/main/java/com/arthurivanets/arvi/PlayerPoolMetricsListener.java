@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A listener to be notified about each of the {@link com.arthurivanets.arvi.player.Player} acquisitions
+ * performed by the {@link PlayerProvider}. (See {@link ArviPlugins#setPlayerPoolMetricsListener(PlayerPoolMetricsListener)})
+ * <br>
+ * <strong>NOTE</strong>: gets invoked on the thread the acquisition is performed on (while holding the corresponding pool's lock),
+ * so the implementations should be fast and thread-safe. (See {@link PlayerPoolMetrics} for the default aggregating implementation)
+ */
+public interface PlayerPoolMetricsListener {
+
+    /**
+     * Gets invoked upon the completion of each of the player acquisitions.
+     *
+     * @param config           the config of the pool the player was acquired from
+     * @param acquisition      the way the player was acquired
+     * @param latencyInNanos   the time it took to acquire the player
+     * @param livePlayerCount  the number of the players held by the pool after the acquisition
+     */
+    void onPlayerAcquired(@NonNull Config config,
+                          @NonNull Acquisition acquisition,
+                          long latencyInNanos,
+                          int livePlayerCount);
+
+    /**
+     * The ways a player can be acquired from the pool, listed from the cheapest to the most expensive one.
+     */
+    enum Acquisition {
+
+        /**
+         * The player bound to the requested key was already present in the pool.
+         */
+        HIT,
+
+        /**
+         * A free (detached) player was reused.
+         */
+        FREE_REUSE,
+
+        /**
+         * The pool was full, so the least recently used player was taken away from its previous key.
+         */
+        EVICTION,
+
+        /**
+         * A brand-new player was created.
+         */
+        COLD_CREATION
+
+    }
+
+}
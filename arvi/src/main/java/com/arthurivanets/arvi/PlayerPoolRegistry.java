@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.player.creators.PlayerCreator;
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe registry of the {@link PlayerCreator}s (one per {@link Config}) and their corresponding {@link PlayerNodePool}s.
+ * <br>
+ * The lookups are lock-free, while the creation of the {@link PlayerCreator}s and {@link PlayerNodePool}s is performed
+ * exactly once per {@link Config} (the concurrent creation attempts wait for the first one to complete).
+ * <br>
+ * <strong>NOTE</strong>: the {@link PlayerNodePool}s themselves are not thread-safe, so all the operations
+ * performed on them must be synchronized on the pool instances (per-pool locking).
+ */
+final class PlayerPoolRegistry {
+
+    private final PlayerProvider mPlayerProvider;
+
+    private final PlayerCreatorFactory mPlayerCreatorFactory;
+    private final PlayerNodePoolFactory mPlayerNodePoolFactory;
+
+    private final ViewportDistanceProvider mViewportDistanceProvider;
+
+    private final ConcurrentMap<Config, PlayerCreator> mConfigCreatorMap;
+    private final ConcurrentMap<PlayerCreator, PlayerNodePool> mCreatorNodePoolMap;
+
+    // guards the creation of the PlayerCreators and PlayerNodePools
+    private final Object mCreationLock;
+
+    PlayerPoolRegistry(@NonNull PlayerProvider playerProvider,
+                       @NonNull PlayerCreatorFactory playerCreatorFactory,
+                       @NonNull PlayerNodePoolFactory playerNodePoolFactory,
+                       @Nullable ViewportDistanceProvider viewportDistanceProvider) {
+        mPlayerProvider = Preconditions.checkNonNull(playerProvider);
+        mPlayerCreatorFactory = Preconditions.checkNonNull(playerCreatorFactory);
+        mPlayerNodePoolFactory = Preconditions.checkNonNull(playerNodePoolFactory);
+        mViewportDistanceProvider = viewportDistanceProvider;
+        mConfigCreatorMap = new ConcurrentHashMap<>();
+        mCreatorNodePoolMap = new ConcurrentHashMap<>();
+        mCreationLock = new Object();
+    }
+
+    /**
+     * Retrieves the {@link PlayerCreator} of the specified {@link Config}, or creates it (only once) if it's absent.
+     */
+    @NonNull
+    final PlayerCreator getOrInitCreator(@NonNull Config config) {
+        final PlayerCreator creator = mConfigCreatorMap.get(config);
+
+        if (creator != null) {
+            return creator;
+        }
+
+        synchronized (mCreationLock) {
+            PlayerCreator createdCreator = mConfigCreatorMap.get(config);
+
+            if (createdCreator == null) {
+                createdCreator = mPlayerCreatorFactory.create(mPlayerProvider, config);
+                mConfigCreatorMap.put(config, createdCreator);
+            }
+
+            return createdCreator;
+        }
+    }
+
+    /**
+     * Retrieves the {@link PlayerNodePool} of the specified {@link PlayerCreator}, or creates it (only once) if it's absent.
+     * (The created pools get the {@link ViewportDistanceProvider} of the registry, if there's any)
+     */
+    @NonNull
+    final PlayerNodePool getOrInitNodePool(@NonNull PlayerCreator creator) {
+        final PlayerNodePool nodePool = mCreatorNodePoolMap.get(creator);
+
+        if (nodePool != null) {
+            return nodePool;
+        }
+
+        synchronized (mCreationLock) {
+            PlayerNodePool createdNodePool = mCreatorNodePoolMap.get(creator);
+
+            if (createdNodePool == null) {
+                createdNodePool = mPlayerNodePoolFactory.create();
+                createdNodePool.setViewportDistanceProvider(mViewportDistanceProvider);
+                mCreatorNodePoolMap.put(creator, createdNodePool);
+            }
+
+            return createdNodePool;
+        }
+    }
+
+    /**
+     * Retrieves the {@link PlayerNodePool} of the specified {@link Config}, if there's any.
+     */
+    @Nullable
+    final PlayerNodePool getPool(@NonNull Config config) {
+        final PlayerCreator creator = mConfigCreatorMap.get(config);
+        return ((creator != null) ? mCreatorNodePoolMap.get(creator) : null);
+    }
+
+    /**
+     * Removes the {@link PlayerNodePool} of the specified {@link Config}, if there's any.
+     */
+    @Nullable
+    final PlayerNodePool removePool(@NonNull Config config) {
+        final PlayerCreator creator = mConfigCreatorMap.get(config);
+
+        if (creator == null) {
+            return null;
+        }
+
+        synchronized (mCreationLock) {
+            return mCreatorNodePoolMap.remove(creator);
+        }
+    }
+
+    /**
+     * Retrieves the (live, weakly consistent) view of all the registered {@link PlayerNodePool}s.
+     */
+    @NonNull
+    final Collection<PlayerNodePool> getPools() {
+        return mCreatorNodePoolMap.values();
+    }
+
+    /**
+     * Removes all the {@link PlayerCreator}s and {@link PlayerNodePool}s.
+     *
+     * @return the removed pools
+     */
+    @NonNull
+    final List<PlayerNodePool> clear() {
+        synchronized (mCreationLock) {
+            final List<PlayerNodePool> nodePools = new ArrayList<>(mCreatorNodePoolMap.values());
+
+            mConfigCreatorMap.clear();
+            mCreatorNodePoolMap.clear();
+
+            return nodePools;
+        }
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link ComponentCallbacks2} that gradually shrinks the {@link PlayerNodePool}s according to the memory trim level:
+ * <br>
+ * - stops the detached players (releases their decoders) - {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_MODERATE}, {@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN};
+ * <br>
+ * - additionally releases the idle players and halves the pools - {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW}, {@link ComponentCallbacks2#TRIM_MEMORY_BACKGROUND};
+ * <br>
+ * - additionally shrinks the pools to a single player - {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL}, {@link ComponentCallbacks2#TRIM_MEMORY_MODERATE};
+ * <br>
+ * - additionally releases all the detached players - {@link ComponentCallbacks2#TRIM_MEMORY_COMPLETE} and the low memory.
+ * <br>
+ * The original pool sizes get restored upon the first player acquisition made after
+ * the restoration delay (see {@link #DEFAULT_RESTORATION_DELAY_IN_MILLIS}) of no memory pressure.
+ * <br>
+ * The trimmer is thread-safe, the pools get trimmed while holding their own locks (see {@link PlayerPoolRegistry}).
+ */
+final class PlayerPoolTrimmer implements ComponentCallbacks2 {
+
+    static final long DEFAULT_RESTORATION_DELAY_IN_MILLIS = 30_000L;
+
+    private static final int SEVERITY_NONE = 0;
+    private static final int SEVERITY_LOW = 1;
+    private static final int SEVERITY_MEDIUM = 2;
+    private static final int SEVERITY_HIGH = 3;
+    private static final int SEVERITY_CRITICAL = 4;
+
+    private final Collection<PlayerNodePool> mPlayerNodePools;
+
+    private final long mRestorationDelayInMillis;
+
+    // the original max sizes of the shrunk pools
+    private final Map<PlayerNodePool, Integer> mOriginalMaxSizes;
+
+    // whether there are any shrunk pools (lets the player acquisitions skip the lock when there's nothing to restore)
+    private volatile boolean mIsTrimmed;
+
+    private MemoryTrimListener mMemoryTrimListener;
+
+    private long mLastTrimTime;
+
+    /**
+     * @param playerNodePools          the (live) collection of the pools to be trimmed
+     * @param restorationDelayInMillis the time of no memory pressure required to restore the original pool sizes
+     */
+    PlayerPoolTrimmer(@NonNull Collection<PlayerNodePool> playerNodePools, long restorationDelayInMillis) {
+        Preconditions.isTrue("You must specify a valid Restoration Delay.", (restorationDelayInMillis >= 0L));
+
+        mPlayerNodePools = Preconditions.checkNonNull(playerNodePools);
+        mRestorationDelayInMillis = restorationDelayInMillis;
+        mOriginalMaxSizes = new HashMap<>();
+    }
+
+    synchronized void setMemoryTrimListener(@Nullable MemoryTrimListener memoryTrimListener) {
+        mMemoryTrimListener = memoryTrimListener;
+    }
+
+    @Override
+    public final synchronized void onTrimMemory(int level) {
+        final int severity = getSeverity(level);
+
+        if (severity == SEVERITY_NONE) {
+            return;
+        }
+
+        mLastTrimTime = SystemClock.elapsedRealtime();
+
+        int stoppedPlayerCount = 0;
+
+        for (PlayerNodePool playerNodePool : mPlayerNodePools) {
+            synchronized (playerNodePool) {
+                stoppedPlayerCount += playerNodePool.stopDetached();
+            }
+        }
+
+        reportStep(MemoryTrimListener.Step.RELEASE_DECODERS, level, stoppedPlayerCount);
+
+        if (severity >= SEVERITY_MEDIUM) {
+            int releasedPlayerCount = 0;
+
+            for (PlayerNodePool playerNodePool : mPlayerNodePools) {
+                synchronized (playerNodePool) {
+                    releasedPlayerCount += playerNodePool.releaseFree();
+                }
+            }
+
+            reportStep(MemoryTrimListener.Step.RELEASE_IDLE_PLAYERS, level, releasedPlayerCount);
+
+            releasedPlayerCount = 0;
+
+            for (PlayerNodePool playerNodePool : mPlayerNodePools) {
+                synchronized (playerNodePool) {
+                    releasedPlayerCount += shrink(playerNodePool, (severity >= SEVERITY_HIGH));
+                }
+            }
+
+            reportStep(MemoryTrimListener.Step.SHRINK_POOLS, level, releasedPlayerCount);
+        }
+
+        if (severity >= SEVERITY_CRITICAL) {
+            int releasedPlayerCount = 0;
+
+            for (PlayerNodePool playerNodePool : mPlayerNodePools) {
+                synchronized (playerNodePool) {
+                    releasedPlayerCount += playerNodePool.trimToSize(0);
+                }
+            }
+
+            reportStep(MemoryTrimListener.Step.RELEASE_PLAYERS, level, releasedPlayerCount);
+        }
+    }
+
+    @Override
+    public final void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public final void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // do nothing.
+    }
+
+    /**
+     * Restores the original max sizes of the shrunk pools, if the memory pressure is gone.
+     * (Meant to be called upon the player acquisitions)
+     */
+    final void restoreIfRelieved() {
+        if (mIsTrimmed) {
+            restoreShrunkPools();
+        }
+    }
+
+    private synchronized void restoreShrunkPools() {
+        if (mOriginalMaxSizes.isEmpty()
+            || ((SystemClock.elapsedRealtime() - mLastTrimTime) < mRestorationDelayInMillis)) {
+            return;
+        }
+
+        for (Map.Entry<PlayerNodePool, Integer> entry : mOriginalMaxSizes.entrySet()) {
+            final PlayerNodePool playerNodePool = entry.getKey();
+
+            synchronized (playerNodePool) {
+                playerNodePool.setMaxSize(entry.getValue());
+            }
+        }
+
+        final int restoredPoolCount = mOriginalMaxSizes.size();
+        mOriginalMaxSizes.clear();
+        mIsTrimmed = false;
+
+        reportStep(MemoryTrimListener.Step.RESTORE_POOLS, TRIM_MEMORY_RUNNING_MODERATE, restoredPoolCount);
+    }
+
+    /**
+     * Forgets about the shrunk pools. (Meant to be called upon the release of the pools)
+     */
+    final synchronized void reset() {
+        mOriginalMaxSizes.clear();
+        mIsTrimmed = false;
+    }
+
+    /**
+     * Forgets about the specified pool, if it's been shrunk. (Meant to be called upon the release of the pool)
+     */
+    final synchronized void forget(@NonNull PlayerNodePool playerNodePool) {
+        mOriginalMaxSizes.remove(playerNodePool);
+        mIsTrimmed = !mOriginalMaxSizes.isEmpty();
+    }
+
+    @VisibleForTesting
+    final synchronized int getShrunkPoolCount() {
+        return mOriginalMaxSizes.size();
+    }
+
+    private int shrink(PlayerNodePool playerNodePool, boolean toSinglePlayer) {
+        Integer originalMaxSize = mOriginalMaxSizes.get(playerNodePool);
+
+        if (originalMaxSize == null) {
+            originalMaxSize = playerNodePool.getMaxSize();
+            mOriginalMaxSizes.put(playerNodePool, originalMaxSize);
+            mIsTrimmed = true;
+        }
+
+        // keeping at least a single player, so that the acquisitions can still be served
+        final int targetMaxSize = (toSinglePlayer ? 1 : Math.max(1, (originalMaxSize / 2)));
+        final int maxSize = Math.min(playerNodePool.getMaxSize(), targetMaxSize);
+
+        playerNodePool.setMaxSize(maxSize);
+
+        return playerNodePool.trimToSize(maxSize);
+    }
+
+    private void reportStep(MemoryTrimListener.Step step, int trimLevel, int affectedCount) {
+        if (mMemoryTrimListener != null) {
+            mMemoryTrimListener.onMemoryTrimStep(step, trimLevel, affectedCount);
+        }
+    }
+
+    private static int getSeverity(int level) {
+        if (level >= TRIM_MEMORY_COMPLETE) {
+            return SEVERITY_CRITICAL;
+        } else if ((level >= TRIM_MEMORY_MODERATE) || (level == TRIM_MEMORY_RUNNING_CRITICAL)) {
+            return SEVERITY_HIGH;
+        } else if ((level >= TRIM_MEMORY_BACKGROUND) || (level == TRIM_MEMORY_RUNNING_LOW)) {
+            return SEVERITY_MEDIUM;
+        } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            return SEVERITY_LOW;
+        }
+
+        return SEVERITY_NONE;
+    }
+
+}
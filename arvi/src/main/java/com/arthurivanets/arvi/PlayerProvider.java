@@ -131,6 +131,90 @@ public interface PlayerProvider {
     @NonNull
     Player getOrInitPlayer(@NonNull Config config, @NonNull String key);
 
+    /**
+     * Pre-warms the Player Pool of the default Player {@link Config}. (See {@link #prewarm(Config, int)})
+     *
+     * @param count the number of the Players the pool should hold
+     */
+    void prewarm(int count);
+
+    /**
+     * Fills the Player Pool of the specified Player {@link Config} with up to the specified number of the initialized
+     * {@link Player}s (bounded by the max size of the pool), so that the subsequent Player acquisitions become pure handoffs.
+     * <br>
+     * The Players are created one at a time, whenever the Main Thread becomes idle (see {@link android.os.MessageQueue.IdleHandler}),
+     * while their internal components are built off the Main Thread (see {@link ArviPlugins#setPlayerInitExecutor(java.util.concurrent.Executor)}),
+     * so this method never blocks. The pending pre-warming gets cancelled by any of the Player releases.
+     *
+     * @param config the player configuration
+     * @param count  the number of the Players the pool should hold
+     */
+    void prewarm(@NonNull Config config, int count);
+
+    /**
+     * Sets the listener to be notified about each of the steps taken to adapt the Player Pools to the memory pressure.
+     * <br>
+     * The {@link PlayerProvider} reacts to the memory pressure on its own (see {@link android.content.ComponentCallbacks2}),
+     * by gradually releasing the decoders, the idle {@link Player}s, and shrinking the Player Pools,
+     * which then grow back once the pressure is gone.
+     *
+     * @param memoryTrimListener the listener, or <strong>null</strong> to remove the current one
+     */
+    void setMemoryTrimListener(@Nullable MemoryTrimListener memoryTrimListener);
+
+    /**
+     * Sets the process-wide budget of the {@link Player}s, shared by the Player Pools of all the {@link Config}s.
+     * <br>
+     * Once the budget is exhausted, the acquisition of a new {@link Player} takes one of the detached {@link Player}s
+     * of the least recently used Player Pool (or reuses the oldest {@link Player} of its own Player Pool, if there's nothing to take).
+     * (The budget is opt-in, and is unbounded by default, i.e. equal to {@link Integer#MAX_VALUE})
+     *
+     * @param maxPlayerCount the max total number of the players
+     */
+    void setPlayerBudget(int maxPlayerCount);
+
+    /**
+     * Retrieves the process-wide budget of the {@link Player}s (see {@link #setPlayerBudget(int)}).
+     *
+     * @return the max total number of the players ({@link Integer#MAX_VALUE} if the budget is unbounded)
+     */
+    int getPlayerBudget();
+
+    /**
+     * Retrieves the total number of the {@link Player}s currently held by all the Player Pools (i.e. the used budget).
+     *
+     * @return the total number of the players
+     */
+    int getPlayerCount();
+
+    /**
+     * Retrieves the max number of the {@link Player}s the Player Pool of the specified {@link Config} can hold
+     * (the current one, which may be temporarily reduced under the memory pressure), initializing the pool, if necessary.
+     * Once the pool is full, the acquisition of a {@link Player} for a new key reassigns one of the pooled {@link Player}s.
+     *
+     * @param config the player config
+     * @return the max size of the Player Pool
+     */
+    int getPlayerPoolMaxSize(@NonNull Config config);
+
+    /**
+     * Registers the {@link ViewportDistanceProvider} to be consulted upon the eviction of the {@link Player}s,
+     * so that the {@link Player}s of the items that are the furthest from the viewport get evicted first.
+     * (The {@link com.arthurivanets.arvi.widget.PlayableItemsRecyclerView} registers itself automatically)
+     * <br>
+     * In case of multiple registered providers, the shortest of the reported distances is used.
+     *
+     * @param viewportDistanceProvider the provider to register
+     */
+    void registerViewportDistanceProvider(@NonNull ViewportDistanceProvider viewportDistanceProvider);
+
+    /**
+     * Unregisters the previously registered {@link ViewportDistanceProvider}.
+     *
+     * @param viewportDistanceProvider the provider to unregister
+     */
+    void unregisterViewportDistanceProvider(@NonNull ViewportDistanceProvider viewportDistanceProvider);
+
     /**
      * Checks if there's a {@link Player} available for the specified key.
      * Uses the default Player {@link Config}.
@@ -18,6 +18,9 @@ package com.arthurivanets.arvi;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.util.Pair;
 
 import androidx.annotation.NonNull;
@@ -32,8 +35,7 @@ import com.google.android.exoplayer2.source.MediaSource;
 import java.net.CookieHandler;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.arthurivanets.arvi.BuildConfig.LIBRARY_NAME;
 import static com.google.android.exoplayer2.util.Util.getUserAgent;
@@ -41,6 +43,10 @@ import static com.google.android.exoplayer2.util.Util.getUserAgent;
 /**
  * The main {@link PlayerProvider} responsible for the management of all the {@link Player}s
  * in the context of the application.
+ * <br>
+ * The provider is safe for concurrent access: the {@link PlayerCreator}s and {@link PlayerNodePool}s
+ * are created exactly once per {@link Config}, while the operations on the pools are guarded by the per-pool locks.
+ * (The provided {@link Player}s themselves should still be accessed from the thread they are associated with.)
  */
 public final class PlayerProviderImpl implements PlayerProvider {
 
@@ -53,8 +59,18 @@ public final class PlayerProviderImpl implements PlayerProvider {
 
     private final Context mContext;
 
-    private final Map<Config, PlayerCreator> mConfigCreatorMap;
-    private final Map<PlayerCreator, PlayerNodePool> mCreatorNodePoolMap;
+    private final PlayerPoolRegistry mPlayerPoolRegistry;
+
+    private final CompositeViewportDistanceProvider mViewportDistanceProvider;
+
+    private final Handler mMainHandler;
+
+    private final PlayerPoolTrimmer mPlayerPoolTrimmer;
+
+    private final PlayerBudget mPlayerBudget;
+
+    // incremented on every release, to cancel the pending pre-warmings
+    private final AtomicInteger mPrewarmGeneration;
 
     public static PlayerProvider getInstance(@NonNull Context context) {
         Preconditions.nonNull(context);
@@ -75,10 +91,28 @@ public final class PlayerProviderImpl implements PlayerProvider {
 
         mLibraryName = getUserAgent(context, LIBRARY_NAME);
         mContext = context.getApplicationContext();
-        mConfigCreatorMap = new HashMap<>();
-        mCreatorNodePoolMap = new HashMap<>();
+        mViewportDistanceProvider = new CompositeViewportDistanceProvider();
+        mPlayerPoolRegistry = new PlayerPoolRegistry(
+            this,
+            ArviPlugins.getPlayerCreatorFactory(),
+            ArviPlugins.getPlayerNodePoolFactory(),
+            mViewportDistanceProvider
+        );
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mPrewarmGeneration = new AtomicInteger();
+        mPlayerPoolTrimmer = new PlayerPoolTrimmer(
+            mPlayerPoolRegistry.getPools(),
+            PlayerPoolTrimmer.DEFAULT_RESTORATION_DELAY_IN_MILLIS
+        );
+
+        mPlayerBudget = new PlayerBudget(
+            mPlayerPoolRegistry.getPools(),
+            PlayerBudget.UNBOUNDED_PLAYER_COUNT
+        );
 
         initCookieManager();
+
+        mContext.registerComponentCallbacks(mPlayerPoolTrimmer);
     }
 
     private void initCookieManager() {
@@ -117,7 +151,7 @@ public final class PlayerProviderImpl implements PlayerProvider {
         Preconditions.nonNull(config);
         Preconditions.nonNull(uri);
 
-        final PlayerCreator creator = getOrInitCreator(config);
+        final PlayerCreator creator = mPlayerPoolRegistry.getOrInitCreator(config);
         final MediaSource mediaSource = creator.createMediaSource(uri);
 
         return (isLooping ? new LoopingMediaSource(mediaSource) : mediaSource);
@@ -147,9 +181,15 @@ public final class PlayerProviderImpl implements PlayerProvider {
         Preconditions.nonNull(config);
         Preconditions.nonEmpty(key);
 
-        final PlayerNodePool correspondingPool = getPoolForConfig(config);
+        final PlayerNodePool correspondingPool = mPlayerPoolRegistry.getPool(config);
+
+        if (correspondingPool == null) {
+            return null;
+        }
 
-        return (((correspondingPool != null) && correspondingPool.contains(key)) ? correspondingPool.get(key).getPlayer() : null);
+        synchronized (correspondingPool) {
+            return (correspondingPool.contains(key) ? correspondingPool.get(key).getPlayer() : null);
+        }
     }
 
     @NonNull
@@ -164,78 +204,165 @@ public final class PlayerProviderImpl implements PlayerProvider {
         Preconditions.nonNull(config);
         Preconditions.nonEmpty(key);
 
+        // growing the pools back (if the memory pressure is gone)
+        mPlayerPoolTrimmer.restoreIfRelieved();
+
+        // the metrics are collected only if there's a listener installed (to keep the acquisitions cheap otherwise)
+        final PlayerPoolMetricsListener metricsListener = ArviPlugins.getPlayerPoolMetricsListener();
+        final long acquisitionStartTime = ((metricsListener != null) ? System.nanoTime() : 0L);
+
         final Pair<PlayerCreator, PlayerNodePool> pair = getOrInit(config);
         final PlayerCreator playerCreator = pair.first;
         final PlayerNodePool playerNodePool = pair.second;
 
-        PlayerNode playerNode = playerNodePool.get(key);
+        mPlayerBudget.onPoolUsed(playerNodePool);
 
-        if (playerNode == null) {
-            // checking to see if there's a free (detached) PlayerNode to be reused
-            final PlayerNode freePlayerNode = playerNodePool.acquireFree(key);
+        Player player = acquirePlayer(config, key, playerCreator, playerNodePool, true, metricsListener, acquisitionStartTime);
 
-            // in case of the absence of the free (detached) PlayerNode
-            if (freePlayerNode == null) {
-                // If the pool is full, we need to pick the PlayerNode
-                // that is considered "the oldest" in terms of the last access time,
-                // otherwise we can create a brand-new instance of the PlayerNode and add it to the pool
-                if (playerNodePool.isFull()) {
-                    playerNode = playerNodePool.acquireOldest(key);
-                } else {
-                    // creating a brand-new PlayerNode instance
-                    playerNode = new PlayerNode(playerCreator.createPlayer()).setKey(key);
+        // the global player budget is exhausted, so a player of the least valuable pool has to be released first
+        // (done outside of the pool lock, as no two pools must ever be locked at the same time)
+        if (player == null) {
+            mPlayerBudget.reclaim(playerNodePool);
+            player = acquirePlayer(config, key, playerCreator, playerNodePool, false, metricsListener, acquisitionStartTime);
+        }
+
+        return player;
+    }
 
-                    // adding it to the general pool
-                    playerNodePool.add(playerNode);
+    /**
+     * Acquires the {@link Player} for the specified key from the specified pool.
+     *
+     * @return the acquired player, or null if the global player budget is exhausted
+     * and the acquisition can be deferred until the budget reclamation
+     */
+    @Nullable
+    private Player acquirePlayer(Config config,
+                                 String key,
+                                 PlayerCreator playerCreator,
+                                 PlayerNodePool playerNodePool,
+                                 boolean canDeferForReclamation,
+                                 @Nullable PlayerPoolMetricsListener metricsListener,
+                                 long acquisitionStartTime) {
+        synchronized (playerNodePool) {
+            PlayerNode playerNode = playerNodePool.get(key);
+            PlayerPoolMetricsListener.Acquisition acquisition = PlayerPoolMetricsListener.Acquisition.HIT;
+
+            if (playerNode == null) {
+                // checking to see if there's a free (detached) PlayerNode to be reused
+                final PlayerNode freePlayerNode = playerNodePool.acquireFree(key);
+
+                // in case of the absence of the free (detached) PlayerNode
+                if (freePlayerNode == null) {
+                    final boolean isBudgetExhausted = (!playerNodePool.isFull() && mPlayerBudget.isExhausted());
+
+                    if (isBudgetExhausted && canDeferForReclamation) {
+                        return null;
+                    }
+
+                    // If the pool is full (or the global budget is exhausted and there was nothing to reclaim), we need to pick the PlayerNode
+                    // that is considered "the oldest" in terms of the last access time,
+                    // otherwise we can create a brand-new instance of the PlayerNode and add it to the pool
+                    // (the global budget is a soft one, so the empty pools may exceed it)
+                    if (playerNodePool.isFull() || (isBudgetExhausted && (playerNodePool.getPlayerCount() > 0))) {
+                        playerNode = playerNodePool.acquireOldest(key);
+                        acquisition = PlayerPoolMetricsListener.Acquisition.EVICTION;
+                    } else {
+                        // creating a brand-new PlayerNode instance
+                        playerNode = new PlayerNode(playerCreator.createPlayer()).setKey(key);
+                        acquisition = PlayerPoolMetricsListener.Acquisition.COLD_CREATION;
+
+                        // adding it to the general pool
+                        playerNodePool.add(playerNode);
+                    }
+                } else {
+                    // using the available "Free" (Detached) PlayerNode
+                    playerNode = freePlayerNode;
+                    acquisition = PlayerPoolMetricsListener.Acquisition.FREE_REUSE;
                 }
-            } else {
-                // using the available "Free" (Detached) PlayerNode
-                playerNode = freePlayerNode;
             }
+
+            if (metricsListener != null) {
+                metricsListener.onPlayerAcquired(
+                    config,
+                    acquisition,
+                    (System.nanoTime() - acquisitionStartTime),
+                    playerNodePool.getPlayerCount()
+                );
+            }
+
+            return playerNode.getPlayer();
         }
+    }
 
-        return playerNode.getPlayer();
+    @Override
+    public final void prewarm(int count) {
+        prewarm(DEFAULT_CONFIG, count);
     }
 
-    private Pair<PlayerCreator, PlayerNodePool> getOrInit(Config config) {
-        final PlayerCreator creator = getOrInitCreator(config);
-        final PlayerNodePool nodePool = getOrInitNodePool(creator);
+    @Override
+    public final void prewarm(@NonNull final Config config, final int count) {
+        Preconditions.nonNull(config);
+        Preconditions.isTrue("You must specify a valid Player Count.", (count >= 0));
 
-        return new Pair<>(creator, nodePool);
+        if (count == 0) {
+            return;
+        }
+
+        final PrewarmTask prewarmTask = new PrewarmTask(config, count, mPrewarmGeneration.get());
+
+        // the IdleHandler must be added to the queue of the Main Thread (MessageQueue can only be obtained via the Looper.myQueue() prior to API 23)
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Looper.myQueue().addIdleHandler(prewarmTask);
+            }
+        });
     }
 
-    private PlayerCreator getOrInitCreator(Config config) {
-        PlayerCreator creator = mConfigCreatorMap.get(config);
+    @Override
+    public final void setMemoryTrimListener(@Nullable MemoryTrimListener memoryTrimListener) {
+        mPlayerPoolTrimmer.setMemoryTrimListener(memoryTrimListener);
+    }
 
-        if (creator == null) {
-            creator = ArviPlugins.getPlayerCreatorFactory().create(this, config);
+    @Override
+    public final void setPlayerBudget(int maxPlayerCount) {
+        mPlayerBudget.setMaxPlayerCount(maxPlayerCount);
+    }
 
-            mConfigCreatorMap.put(config, creator);
-        }
+    @Override
+    public final int getPlayerBudget() {
+        return mPlayerBudget.getMaxPlayerCount();
+    }
 
-        return creator;
+    @Override
+    public final int getPlayerCount() {
+        return mPlayerBudget.getPlayerCount();
     }
 
-    private PlayerNodePool getOrInitNodePool(PlayerCreator creator) {
-        PlayerNodePool nodePool = mCreatorNodePoolMap.get(creator);
+    @Override
+    public final int getPlayerPoolMaxSize(@NonNull Config config) {
+        Preconditions.nonNull(config);
 
-        if (nodePool == null) {
-            nodePool = ArviPlugins.getPlayerNodePoolFactory().create();
+        final PlayerNodePool correspondingPool = mPlayerPoolRegistry.getPool(config);
 
-            mCreatorNodePoolMap.put(creator, nodePool);
-        }
+        return ((correspondingPool != null) ? correspondingPool.getMaxSize() : getOrInit(config).second.getMaxSize());
+    }
 
-        return nodePool;
+    @Override
+    public final void registerViewportDistanceProvider(@NonNull ViewportDistanceProvider viewportDistanceProvider) {
+        mViewportDistanceProvider.register(viewportDistanceProvider);
     }
 
-    private PlayerNodePool getPoolForConfig(Config config) {
-        final PlayerCreator creator = mConfigCreatorMap.get(config);
-        return ((creator != null) ? mCreatorNodePoolMap.get(creator) : null);
+    @Override
+    public final void unregisterViewportDistanceProvider(@NonNull ViewportDistanceProvider viewportDistanceProvider) {
+        mViewportDistanceProvider.unregister(viewportDistanceProvider);
     }
 
-    private PlayerNodePool removePoolForConfig(Config config) {
-        final PlayerCreator creator = mConfigCreatorMap.get(config);
-        return ((creator != null) ? mCreatorNodePoolMap.remove(creator) : null);
+    private Pair<PlayerCreator, PlayerNodePool> getOrInit(Config config) {
+        final PlayerCreator creator = mPlayerPoolRegistry.getOrInitCreator(config);
+        final PlayerNodePool nodePool = mPlayerPoolRegistry.getOrInitNodePool(creator);
+
+        return new Pair<>(creator, nodePool);
     }
 
     @Override
@@ -262,10 +389,12 @@ public final class PlayerProviderImpl implements PlayerProvider {
         Preconditions.nonEmpty(key);
 
         // unregistering the Player within a corresponding pool (if there's any)
-        final PlayerNodePool correspondingPool = getPoolForConfig(config);
+        final PlayerNodePool correspondingPool = mPlayerPoolRegistry.getPool(config);
 
         if (correspondingPool != null) {
-            correspondingPool.unregister(key);
+            synchronized (correspondingPool) {
+                correspondingPool.unregister(key);
+            }
         }
     }
 
@@ -278,11 +407,18 @@ public final class PlayerProviderImpl implements PlayerProvider {
     public final void release(@NonNull Config config) {
         Preconditions.nonNull(config);
 
+        cancelPrewarming();
+
         // releasing and removing the corresponding Player Node Pool (if there's any)
-        final PlayerNodePool correspondingPool = removePoolForConfig(config);
+        final PlayerNodePool correspondingPool = mPlayerPoolRegistry.removePool(config);
 
         if (correspondingPool != null) {
-            correspondingPool.release();
+            synchronized (correspondingPool) {
+                correspondingPool.release();
+            }
+
+            mPlayerPoolTrimmer.forget(correspondingPool);
+            mPlayerBudget.forget(correspondingPool);
         }
     }
 
@@ -292,21 +428,80 @@ public final class PlayerProviderImpl implements PlayerProvider {
         Preconditions.nonEmpty(key);
 
         // releasing the corresponding Player Node (if there's any)
-        final PlayerNodePool correspondingPool = getPoolForConfig(config);
+        final PlayerNodePool correspondingPool = mPlayerPoolRegistry.getPool(config);
 
         if (correspondingPool != null) {
-            correspondingPool.release(key);
+            synchronized (correspondingPool) {
+                correspondingPool.release(key);
+            }
         }
     }
 
     @Override
     public final void release() {
-        for (PlayerNodePool playerNodePool : mCreatorNodePoolMap.values()) {
-            playerNodePool.release();
+        cancelPrewarming();
+
+        for (PlayerNodePool playerNodePool : mPlayerPoolRegistry.clear()) {
+            synchronized (playerNodePool) {
+                playerNodePool.release();
+            }
+        }
+
+        mPlayerPoolTrimmer.reset();
+        mPlayerBudget.reset();
+    }
+
+    private void cancelPrewarming() {
+        mPrewarmGeneration.incrementAndGet();
+    }
+
+    /**
+     * An {@link MessageQueue.IdleHandler} that creates (and asynchronously initializes) a single free {@link Player}
+     * per each Main Thread idle period, until the corresponding pool holds the requested number of Players (or gets full).
+     */
+    private final class PrewarmTask implements MessageQueue.IdleHandler {
+
+        private final Config mConfig;
+        private final int mCount;
+        private final int mGeneration;
+
+        PrewarmTask(Config config, int count, int generation) {
+            mConfig = config;
+            mCount = count;
+            mGeneration = generation;
+        }
+
+        @Override
+        public boolean queueIdle() {
+            if (mGeneration != mPrewarmGeneration.get()) {
+                return false;
+            }
+
+            final Pair<PlayerCreator, PlayerNodePool> pair = getOrInit(mConfig);
+            final PlayerNodePool playerNodePool = pair.second;
+
+            synchronized (playerNodePool) {
+                if (!canGrow(playerNodePool)) {
+                    return false;
+                }
+
+                // building the Player off the Main Thread (it gets initialized by the time it's needed, or upon the acquisition at the latest)
+                final Player player = pair.first.createPlayer();
+                player.initAsync(ArviPlugins.getPlayerInitExecutor());
+
+                // adding the Player as a free (keyless) node, to be handed off upon the acquisition
+                playerNodePool.add(new PlayerNode(player));
+
+                return canGrow(playerNodePool);
+            }
+        }
+
+        private boolean canGrow(PlayerNodePool playerNodePool) {
+            return ((playerNodePool.getPlayerCount() < mCount)
+                && !playerNodePool.isFull()
+                && !mPlayerBudget.isExhausted());
         }
 
-        mConfigCreatorMap.clear();
-        mCreatorNodePoolMap.clear();
     }
 
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A provider of the distances between the items (identified by their player keys) and the current viewport,
+ * used by the {@link PlayerNodePool}s to evict the players of the items that are the furthest away from the user.
+ * (See {@link PlayerProvider#registerViewportDistanceProvider(ViewportDistanceProvider)})
+ */
+public interface ViewportDistanceProvider {
+
+    /**
+     * The distance of the items that are not known to the provider (considered the furthest ones).
+     */
+    int UNKNOWN_DISTANCE = Integer.MAX_VALUE;
+
+    /**
+     * Retrieves the distance (in adapter positions) between the item with the specified key and the current viewport.
+     * <br>
+     * <strong>NOTE</strong>: might be invoked on any thread the player acquisitions are performed on,
+     * so the implementations must be thread-safe.
+     *
+     * @param key the player key of the item
+     * @return the distance ({@code 0} for the visible items), or {@link #UNKNOWN_DISTANCE} if the item is unknown
+     */
+    int getViewportDistance(@NonNull String key);
+
+}
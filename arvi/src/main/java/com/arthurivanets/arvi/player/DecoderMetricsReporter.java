@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.player;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.ArviPlugins;
+import com.arthurivanets.arvi.DecoderMetricsListener;
+import com.arthurivanets.arvi.DecoderMetricsListener.DecoderReuse;
+import com.arthurivanets.arvi.DecoderMetricsListener.DecoderType;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderReuseEvaluation;
+
+/**
+ * An {@link AnalyticsListener} that reports the decoder reuse and initialization events of the players
+ * to the currently installed {@link DecoderMetricsListener} (if there's any).
+ */
+final class DecoderMetricsReporter implements AnalyticsListener {
+
+    static final DecoderMetricsReporter INSTANCE = new DecoderMetricsReporter();
+
+    private DecoderMetricsReporter() {
+        // shared by all the players, as it's stateless
+    }
+
+    @Override
+    public final void onVideoInputFormatChanged(@NonNull EventTime eventTime,
+                                                @NonNull Format format,
+                                                @Nullable DecoderReuseEvaluation decoderReuseEvaluation) {
+        reportReuse(DecoderType.VIDEO, decoderReuseEvaluation);
+    }
+
+    @Override
+    public final void onAudioInputFormatChanged(@NonNull EventTime eventTime,
+                                                @NonNull Format format,
+                                                @Nullable DecoderReuseEvaluation decoderReuseEvaluation) {
+        reportReuse(DecoderType.AUDIO, decoderReuseEvaluation);
+    }
+
+    @Override
+    public final void onVideoDecoderInitialized(@NonNull EventTime eventTime,
+                                                @NonNull String decoderName,
+                                                long initializationDurationMs) {
+        reportInitialization(DecoderType.VIDEO, initializationDurationMs);
+    }
+
+    @Override
+    public final void onAudioDecoderInitialized(@NonNull EventTime eventTime,
+                                                @NonNull String decoderName,
+                                                long initializationDurationMs) {
+        reportInitialization(DecoderType.AUDIO, initializationDurationMs);
+    }
+
+    private void reportReuse(DecoderType decoderType, DecoderReuseEvaluation evaluation) {
+        final DecoderMetricsListener listener = ArviPlugins.getDecoderMetricsListener();
+
+        if (listener != null) {
+            listener.onDecoderReuseEvaluated(decoderType, toDecoderReuse(evaluation));
+        }
+    }
+
+    private void reportInitialization(DecoderType decoderType, long initializationDurationInMillis) {
+        final DecoderMetricsListener listener = ArviPlugins.getDecoderMetricsListener();
+
+        if (listener != null) {
+            listener.onDecoderInitialized(decoderType, initializationDurationInMillis);
+        }
+    }
+
+    /**
+     * Maps the ExoPlayer's {@link DecoderReuseEvaluation} to the corresponding {@link DecoderReuse}.
+     * (The absent evaluation means that there was no decoder to reuse)
+     */
+    @NonNull
+    static DecoderReuse toDecoderReuse(@Nullable DecoderReuseEvaluation evaluation) {
+        if (evaluation == null) {
+            return DecoderReuse.UNAVAILABLE;
+        }
+
+        switch (evaluation.result) {
+
+            case DecoderReuseEvaluation.REUSE_RESULT_YES_WITHOUT_RECONFIGURATION:
+                return DecoderReuse.REUSED;
+
+            case DecoderReuseEvaluation.REUSE_RESULT_YES_WITH_RECONFIGURATION:
+                return DecoderReuse.REUSED_WITH_RECONFIGURATION;
+
+            case DecoderReuseEvaluation.REUSE_RESULT_YES_WITH_FLUSH:
+                return DecoderReuse.REUSED_WITH_FLUSH;
+
+            default:
+                return DecoderReuse.NOT_REUSED;
+
+        }
+    }
+
+}
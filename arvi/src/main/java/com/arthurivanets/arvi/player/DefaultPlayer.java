@@ -17,12 +17,15 @@
 package com.arthurivanets.arvi.player;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.arthurivanets.arvi.player.util.DefaultVolumeController;
 import com.arthurivanets.arvi.player.util.PlayerEventListenerRegistry;
+import com.arthurivanets.arvi.player.util.VisibilityAwareLoadControl;
 import com.arthurivanets.arvi.player.util.VolumeController;
 import com.arthurivanets.arvi.util.misc.ExoPlayerUtils;
 import com.arthurivanets.arvi.util.misc.Preconditions;
@@ -34,6 +37,12 @@ import com.google.android.exoplayer2.trackselection.TrackSelector;
 import com.google.android.exoplayer2.ui.PlayerView;
 import com.google.android.exoplayer2.upstream.BandwidthMeter;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
 import static com.arthurivanets.arvi.util.misc.Preconditions.checkNonNull;
 
 /**
@@ -50,11 +59,18 @@ public class DefaultPlayer implements Player {
     private final TrackSelector trackSelector;
     private final LoadControl loadControl;
     private final BandwidthMeter bandwidthMeter;
+    private final boolean retainDecoders;
     private MediaSource mediaSource;
 
     private SimpleExoPlayer exoPlayer;
     private VolumeController volumeController;
 
+    // whether the player is in the "foreground mode" (retains its decoders when stopped)
+    private boolean isForegroundModeEnabled;
+
+    // the pending asynchronous initialization (accessed on the application thread only)
+    private InitTask pendingInitTask;
+
     private AttachmentStateDelegate attachmentStateDelegate;
 
     public DefaultPlayer(@NonNull Context context,
@@ -75,12 +91,33 @@ public class DefaultPlayer implements Player {
                          @NonNull TrackSelector trackSelector,
                          @NonNull LoadControl loadControl,
                          @Nullable BandwidthMeter bandwidthMeter) {
+        this(
+            context,
+            renderersFactory,
+            trackSelector,
+            loadControl,
+            bandwidthMeter,
+            false
+        );
+    }
+
+    /**
+     * @param retainDecoders whether to retain the renderers (along with the underlying decoders) when the player is stopped,
+     *                       so that the subsequent media sources can reuse the decoders (if their formats are compatible)
+     */
+    public DefaultPlayer(@NonNull Context context,
+                         @NonNull RenderersFactory renderersFactory,
+                         @NonNull TrackSelector trackSelector,
+                         @NonNull LoadControl loadControl,
+                         @Nullable BandwidthMeter bandwidthMeter,
+                         boolean retainDecoders) {
         this.context = checkNonNull(context).getApplicationContext();
         this.eventHandler = new PlayerEventListenerRegistry();
         this.renderersFactory = checkNonNull(renderersFactory);
         this.trackSelector = checkNonNull(trackSelector);
         this.loadControl = checkNonNull(loadControl);
         this.bandwidthMeter = bandwidthMeter;
+        this.retainDecoders = retainDecoders;
     }
 
     @Override
@@ -89,21 +126,101 @@ public class DefaultPlayer implements Player {
             return;
         }
 
-        this.exoPlayer = new SimpleExoPlayer.Builder(this.context, this.renderersFactory)
+        if (this.pendingInitTask != null) {
+            completeInit(this.pendingInitTask, true);
+            return;
+        }
+
+        onInitialized(buildExoPlayer(getApplicationLooper()));
+    }
+
+    @Override
+    public final void initAsync(@NonNull Executor executor) {
+        Preconditions.nonNull(executor);
+
+        if (isInitialized() || (this.pendingInitTask != null)) {
+            return;
+        }
+
+        this.pendingInitTask = new InitTask(getApplicationLooper());
+
+        try {
+            executor.execute(this.pendingInitTask);
+        } catch (RejectedExecutionException exception) {
+            // falling back to the synchronous initialization
+            init();
+        }
+    }
+
+    private SimpleExoPlayer buildExoPlayer(Looper applicationLooper) {
+        return new SimpleExoPlayer.Builder(this.context, this.renderersFactory)
             .setTrackSelector(this.trackSelector)
             .setLoadControl(this.loadControl)
             .setBandwidthMeter(this.bandwidthMeter)
+            .setLooper(applicationLooper)
             .build();
+    }
 
+    private void onInitialized(SimpleExoPlayer exoPlayer) {
+        this.exoPlayer = exoPlayer;
         this.exoPlayer.addListener(this.eventHandler);
+        this.exoPlayer.addAnalyticsListener(this.eventHandler);
+        this.exoPlayer.addAnalyticsListener(DecoderMetricsReporter.INSTANCE);
+        this.isForegroundModeEnabled = false;
         this.volumeController = new DefaultVolumeController(this.exoPlayer);
     }
 
+    /**
+     * Adopts the player built by the specified {@link InitTask} (waiting for the completion of the build, if necessary),
+     * or releases it, if the task is no longer relevant (e.g. the player got released in the meantime).
+     */
+    private void completeInit(InitTask initTask, boolean shouldThrowOnFailure) {
+        if (initTask.isCompleted) {
+            return;
+        }
+
+        final boolean isRelevant = (initTask == this.pendingInitTask);
+        final SimpleExoPlayer builtExoPlayer;
+
+        initTask.isCompleted = true;
+
+        if (isRelevant) {
+            this.pendingInitTask = null;
+        }
+
+        try {
+            builtExoPlayer = initTask.get();
+        } catch (InterruptedException | ExecutionException exception) {
+            if (shouldThrowOnFailure) {
+                throw new IllegalStateException("The Player could not be initialized.", exception);
+            }
+
+            return;
+        }
+
+        if (isRelevant && !isInitialized()) {
+            onInitialized(builtExoPlayer);
+        } else {
+            builtExoPlayer.release();
+        }
+    }
+
+    private static Looper getApplicationLooper() {
+        final Looper looper = Looper.myLooper();
+        return ((looper != null) ? looper : Looper.getMainLooper());
+    }
+
     @Override
     public final void prepare(final boolean resetPosition) {
         checkPlayerState();
         checkMediaSource();
 
+        // the "foreground mode" prevents the renderers from being reset when the player gets stopped
+        if (this.retainDecoders && !this.isForegroundModeEnabled) {
+            this.exoPlayer.setForegroundMode(true);
+            this.isForegroundModeEnabled = true;
+        }
+
         this.exoPlayer.setMediaSource(this.mediaSource, resetPosition);
         this.exoPlayer.prepare();
     }
@@ -124,11 +241,45 @@ public class DefaultPlayer implements Player {
 
     @Override
     public final void stop(final boolean resetPosition) {
+        // the player that is still being initialized has nothing to stop
+        if (!isInitialized() && (this.pendingInitTask != null)) {
+            return;
+        }
+
         checkPlayerState();
 
         this.exoPlayer.stop(resetPosition);
     }
 
+    @Override
+    public final boolean releaseDecoders() {
+        if (!isInitialized()) {
+            return false;
+        }
+
+        final boolean isActive = (getPlaybackState() != PlaybackState.IDLE);
+        final boolean hasRetainedDecoders = this.isForegroundModeEnabled;
+
+        if (isActive) {
+            this.exoPlayer.stop(false);
+        }
+
+        // leaving the "foreground mode" resets the renderers of the stopped player (thus releasing the retained decoders)
+        if (hasRetainedDecoders) {
+            this.exoPlayer.setForegroundMode(false);
+            this.isForegroundModeEnabled = false;
+        }
+
+        return (isActive || hasRetainedDecoders);
+    }
+
+    @Override
+    public final void setFocused(final boolean isFocused) {
+        if (this.loadControl instanceof VisibilityAwareLoadControl) {
+            ((VisibilityAwareLoadControl) this.loadControl).setFocused(isFocused);
+        }
+    }
+
     @Override
     public final void seek(final long positionInMillis) {
         checkPlayerState();
@@ -138,6 +289,9 @@ public class DefaultPlayer implements Player {
 
     @Override
     public final void release() {
+        // the player built by the pending initialization (if there's any) gets released upon the completion of the build
+        this.pendingInitTask = null;
+
         if (!isInitialized()) {
             return;
         }
@@ -286,4 +440,37 @@ public class DefaultPlayer implements Player {
         return ((this.attachmentStateDelegate != null) && this.attachmentStateDelegate.isAttached(this));
     }
 
+    /**
+     * Builds the {@link SimpleExoPlayer} on the background thread, and then hands it over to the application thread.
+     */
+    private final class InitTask extends FutureTask<SimpleExoPlayer> {
+
+        private final Handler applicationHandler;
+
+        // whether the built player has already been either adopted or released
+        private boolean isCompleted;
+
+        InitTask(final Looper applicationLooper) {
+            super(new Callable<SimpleExoPlayer>() {
+                @Override
+                public SimpleExoPlayer call() {
+                    return buildExoPlayer(applicationLooper);
+                }
+            });
+
+            this.applicationHandler = new Handler(applicationLooper);
+        }
+
+        @Override
+        protected void done() {
+            this.applicationHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    completeInit(InitTask.this, false);
+                }
+            });
+        }
+
+    }
+
 }
@@ -30,6 +30,7 @@ import com.google.android.exoplayer2.ui.PlayerView;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Executor;
 
 /**
  * A base contract to be implemented by the concrete Player implementations.
@@ -54,9 +55,21 @@ public interface Player {
 
     /**
      * Initializes the player and related internal components.
+     * (Completes the pending asynchronous initialization, if there's any, see {@link #initAsync(Executor)})
      */
     void init();
 
+    /**
+     * Initializes the player and related internal components asynchronously, by building them on the specified {@link Executor}.
+     * The player gets initialized on the calling thread (which becomes the thread the player is to be accessed from)
+     * once the components are built, so the {@link #isInitialized()} reports <strong>false</strong> until then.
+     * <br>
+     * The {@link #init()} can be used to wait for the completion of the pending asynchronous initialization.
+     *
+     * @param executor the executor to build the player components on
+     */
+    void initAsync(@NonNull Executor executor);
+
     /**
      * Prepares the media to be played by the player.
      *
@@ -81,6 +94,24 @@ public interface Player {
      */
     void stop(boolean resetPosition);
 
+    /**
+     * Stops the player (if necessary) and releases its decoders, including the ones retained by the stopped player
+     * (see {@link com.arthurivanets.arvi.Config.Builder#retainDecoders(boolean)}), while keeping the player initialized.
+     * (The decoders get retained again once the player is prepared anew)
+     *
+     * @return <strong>true</strong> if the player held any decoders, <strong>false</strong> otherwise
+     */
+    boolean releaseDecoders();
+
+    /**
+     * Sets whether the player is the focused one (the one the user is watching).
+     * The unfocused players may buffer less media than the focused ones, in order to save the memory and the bandwidth.
+     * (The players are considered focused by default)
+     *
+     * @param isFocused whether the player is focused
+     */
+    void setFocused(boolean isFocused);
+
     /**
      * Seeks to a specific playback position specified in milliseconds.
      *
@@ -305,4 +336,31 @@ public interface Player {
 
     }
 
+    /**
+     * An extended {@link Player.EventListener}, which is additionally notified about
+     * the events relevant for the tracking of the playback quality.
+     */
+    interface PlaybackEventListener extends EventListener {
+
+        /**
+         * Gets called when the first video frame of the media gets rendered.
+         */
+        void onRenderedFirstFrame();
+
+        /**
+         * Gets called when the {@link Player}'s playback position changes discontinuously (e.g. due to a seek).
+         *
+         * @param reason the reason of the discontinuity (one of the {@link com.google.android.exoplayer2.Player.DiscontinuityReason}s)
+         */
+        void onPositionDiscontinuity(int reason);
+
+        /**
+         * Gets called when the {@link Player} completes the loading of a chunk of the media data.
+         *
+         * @param bytesLoaded the number of the loaded bytes
+         */
+        void onBytesLoaded(long bytesLoaded);
+
+    }
+
 }
@@ -25,10 +25,12 @@ import com.arthurivanets.arvi.Config;
 import com.arthurivanets.arvi.PlayerProvider;
 import com.arthurivanets.arvi.player.DefaultPlayer;
 import com.arthurivanets.arvi.player.Player;
+import com.arthurivanets.arvi.player.util.LoadControlFactory;
 import com.arthurivanets.arvi.player.util.MediaSourceBuilder;
+import com.arthurivanets.arvi.player.util.SharedAllocator;
+import com.arthurivanets.arvi.player.util.VisibilityAwareLoadControl;
 import com.arthurivanets.arvi.util.misc.Preconditions;
 import com.google.android.exoplayer2.DefaultRenderersFactory;
-import com.google.android.exoplayer2.LoadControl;
 import com.google.android.exoplayer2.RenderersFactory;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
@@ -51,12 +53,18 @@ public final class DefaultPlayerCreator implements PlayerCreator {
     public final PlayerProvider playerProvider;
 
     private final TrackSelector trackSelector;
-    private final LoadControl loadControl;
+    private final LoadControlFactory loadControlFactory;
     private final BandwidthMeter bandwidthMeter;
     private final MediaSourceBuilder mediaSourceBuilder;
     private final RenderersFactory renderersFactory;
     private final DataSource.Factory mediaDataSourceFactory;
     private final DataSource.Factory manifestDataSourceFactory;
+    private final boolean retainDecoders;
+    private final long unfocusedBufferDurationInMillis;
+    private final SharedAllocator sharedAllocator;
+
+    // the unfocused players yield the loading to the focused players of the same creator
+    private final VisibilityAwareLoadControl.LoadingGroup loadingGroup;
 
     public DefaultPlayerCreator(@NonNull PlayerProvider playerProvider, @NonNull Config config) {
         Preconditions.nonNull(playerProvider);
@@ -64,12 +72,16 @@ public final class DefaultPlayerCreator implements PlayerCreator {
 
         this.playerProvider = checkNonNull(playerProvider);
         this.trackSelector = new DefaultTrackSelector(playerProvider.getContext());
-        this.loadControl = config.loadControl;
+        this.loadControlFactory = config.loadControlFactory;
         this.bandwidthMeter = config.meter;
         this.mediaSourceBuilder = config.mediaSourceBuilder;
         this.renderersFactory = new DefaultRenderersFactory(playerProvider.getContext());
         this.mediaDataSourceFactory = createDataSourceFactory(playerProvider, config);
         this.manifestDataSourceFactory = new DefaultDataSourceFactory(playerProvider.getContext(), playerProvider.getLibraryName());
+        this.retainDecoders = config.retainDecoders;
+        this.unfocusedBufferDurationInMillis = config.unfocusedBufferDurationInMillis;
+        this.sharedAllocator = config.sharedAllocator;
+        this.loadingGroup = new VisibilityAwareLoadControl.LoadingGroup();
     }
 
     private DataSource.Factory createDataSourceFactory(PlayerProvider playerProvider, Config config) {
@@ -100,8 +112,14 @@ public final class DefaultPlayerCreator implements PlayerCreator {
             this.playerProvider.getContext(),
             this.renderersFactory,
             this.trackSelector,
-            this.loadControl,
-            this.bandwidthMeter
+            new VisibilityAwareLoadControl(
+                this.loadControlFactory.create(),
+                this.unfocusedBufferDurationInMillis,
+                this.sharedAllocator,
+                this.loadingGroup
+            ),
+            this.bandwidthMeter,
+            this.retainDecoders
         );
     }
 
@@ -134,11 +152,14 @@ public final class DefaultPlayerCreator implements PlayerCreator {
         int result = 17;
         result = ((prime * result) + this.playerProvider.hashCode());
         result = ((prime * result) + this.trackSelector.hashCode());
-        result = ((prime * result) + this.loadControl.hashCode());
+        result = ((prime * result) + this.loadControlFactory.hashCode());
         result = ((prime * result) + this.mediaSourceBuilder.hashCode());
         result = ((prime * result) + this.renderersFactory.hashCode());
         result = ((prime * result) + this.mediaDataSourceFactory.hashCode());
         result = ((prime * result) + this.manifestDataSourceFactory.hashCode());
+        result = ((prime * result) + (this.retainDecoders ? 1 : 0));
+        result = ((prime * result) + (int) (this.unfocusedBufferDurationInMillis ^ (this.unfocusedBufferDurationInMillis >>> 32)));
+        result = ((prime * result) + ((this.sharedAllocator != null) ? this.sharedAllocator.hashCode() : 0));
 
         return result;
     }
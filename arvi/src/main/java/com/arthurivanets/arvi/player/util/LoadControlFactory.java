@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.player.util;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.LoadControl;
+
+/**
+ * A factory of the {@link LoadControl}s, used to create a dedicated {@link LoadControl} for every player
+ * (the {@link LoadControl}s, such as the {@link DefaultLoadControl}, hold the buffering state of their players,
+ * and therefore must never be shared).
+ */
+public interface LoadControlFactory {
+
+    /**
+     * Creates the {@link DefaultLoadControl}s.
+     */
+    LoadControlFactory DEFAULT = new LoadControlFactory() {
+        @NonNull
+        @Override
+        public LoadControl create() {
+            return new DefaultLoadControl();
+        }
+    };
+
+    /**
+     * Creates a new instance of the {@link LoadControl}.
+     * (Must return a new instance upon every call)
+     *
+     * @return the created {@link LoadControl}
+     */
+    @NonNull
+    LoadControl create();
+
+}
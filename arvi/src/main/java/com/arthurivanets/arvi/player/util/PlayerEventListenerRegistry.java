@@ -16,45 +16,98 @@
 
 package com.arthurivanets.arvi.player.util;
 
+import android.view.Surface;
+
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.arthurivanets.arvi.player.Player;
 import com.arthurivanets.arvi.util.misc.Preconditions;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.PlaybackParameters;
 import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.source.LoadEventInfo;
+import com.google.android.exoplayer2.source.MediaLoadData;
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * A manager for the {@link Player.EventListener}s. Used to observe the {@link com.google.android.exoplayer2.Player.EventListener} events
  * and propagate them to all the subscribed {@link Player.EventListener}s.
+ * (Additionally observes the {@link AnalyticsListener} events to be propagated to the {@link Player.PlaybackEventListener}s)
+ * <br>
+ * The listeners are held in a copy-on-write array, so the event dispatching is allocation-free, while the listeners
+ * can be safely added/removed during the dispatching (the changes take effect starting with the next dispatched event).
  */
-public final class PlayerEventListenerRegistry implements com.google.android.exoplayer2.Player.EventListener {
+public final class PlayerEventListenerRegistry implements com.google.android.exoplayer2.Player.EventListener, AnalyticsListener {
+
+    private static final Player.EventListener[] NO_LISTENERS = new Player.EventListener[0];
 
-    private final Set<Player.EventListener> mEventListeners;
+    // replaced (never modified) upon each of the changes
+    private volatile Player.EventListener[] mEventListeners;
 
     public PlayerEventListenerRegistry() {
-        mEventListeners = new HashSet<>();
+        mEventListeners = NO_LISTENERS;
     }
 
-    public final void addListener(@NonNull Player.EventListener eventListener) {
+    public final synchronized void addListener(@NonNull Player.EventListener eventListener) {
         Preconditions.nonNull(eventListener);
 
-        mEventListeners.add(eventListener);
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        if (indexOf(eventListeners, eventListener) != -1) {
+            return;
+        }
+
+        final Player.EventListener[] newEventListeners = new Player.EventListener[eventListeners.length + 1];
+        System.arraycopy(eventListeners, 0, newEventListeners, 0, eventListeners.length);
+        newEventListeners[eventListeners.length] = eventListener;
+
+        mEventListeners = newEventListeners;
     }
 
-    public final void removeListener(@NonNull Player.EventListener eventListener) {
+    public final synchronized void removeListener(@NonNull Player.EventListener eventListener) {
         Preconditions.nonNull(eventListener);
 
-        mEventListeners.remove(eventListener);
+        final Player.EventListener[] eventListeners = mEventListeners;
+        final int index = indexOf(eventListeners, eventListener);
+
+        if (index == -1) {
+            return;
+        }
+
+        if (eventListeners.length == 1) {
+            mEventListeners = NO_LISTENERS;
+            return;
+        }
+
+        final Player.EventListener[] newEventListeners = new Player.EventListener[eventListeners.length - 1];
+        System.arraycopy(eventListeners, 0, newEventListeners, 0, index);
+        System.arraycopy(eventListeners, (index + 1), newEventListeners, index, (eventListeners.length - index - 1));
+
+        mEventListeners = newEventListeners;
     }
 
-    public final void removeAllListeners() {
-        mEventListeners.clear();
+    public final synchronized void removeAllListeners() {
+        mEventListeners = NO_LISTENERS;
+    }
+
+    /**
+     * Retrieves the number of the registered {@link Player.EventListener}s.
+     */
+    public final int getListenerCount() {
+        return mEventListeners.length;
+    }
+
+    private static int indexOf(Player.EventListener[] eventListeners, Player.EventListener eventListener) {
+        for (int i = 0; i < eventListeners.length; i++) {
+            if (eventListeners[i].equals(eventListener)) {
+                return i;
+            }
+        }
+
+        return -1;
     }
 
     @Override
@@ -64,22 +117,28 @@ public final class PlayerEventListenerRegistry implements com.google.android.exo
 
     @Override
     public final void onTracksChanged(TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
-        for (Player.EventListener eventListener : mEventListeners) {
-            eventListener.onTracksChanged(trackGroups, trackSelections);
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        for (int i = 0; i < eventListeners.length; i++) {
+            eventListeners[i].onTracksChanged(trackGroups, trackSelections);
         }
     }
 
     @Override
     public final void onLoadingChanged(boolean isLoading) {
-        for (Player.EventListener eventListener : mEventListeners) {
-            eventListener.onLoadingChanged(isLoading);
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        for (int i = 0; i < eventListeners.length; i++) {
+            eventListeners[i].onLoadingChanged(isLoading);
         }
     }
 
     @Override
     public final void onPlayerStateChanged(boolean playWhenReady, int playbackState) {
-        for (Player.EventListener eventListener : mEventListeners) {
-            eventListener.onPlayerStateChanged(playbackState);
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        for (int i = 0; i < eventListeners.length; i++) {
+            eventListeners[i].onPlayerStateChanged(playbackState);
         }
     }
 
@@ -95,14 +154,46 @@ public final class PlayerEventListenerRegistry implements com.google.android.exo
 
     @Override
     public final void onPlayerError(ExoPlaybackException error) {
-        for (Player.EventListener eventListener : mEventListeners) {
-            eventListener.onPlayerError(error);
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        for (int i = 0; i < eventListeners.length; i++) {
+            eventListeners[i].onPlayerError(error);
         }
     }
 
     @Override
     public final void onPositionDiscontinuity(int reason) {
-        // do nothing.
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        for (int i = 0; i < eventListeners.length; i++) {
+            if (eventListeners[i] instanceof Player.PlaybackEventListener) {
+                ((Player.PlaybackEventListener) eventListeners[i]).onPositionDiscontinuity(reason);
+            }
+        }
+    }
+
+    @Override
+    public final void onRenderedFirstFrame(@NonNull EventTime eventTime, @Nullable Surface surface) {
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        for (int i = 0; i < eventListeners.length; i++) {
+            if (eventListeners[i] instanceof Player.PlaybackEventListener) {
+                ((Player.PlaybackEventListener) eventListeners[i]).onRenderedFirstFrame();
+            }
+        }
+    }
+
+    @Override
+    public final void onLoadCompleted(@NonNull EventTime eventTime,
+                                      @NonNull LoadEventInfo loadEventInfo,
+                                      @NonNull MediaLoadData mediaLoadData) {
+        final Player.EventListener[] eventListeners = mEventListeners;
+
+        for (int i = 0; i < eventListeners.length; i++) {
+            if (eventListeners[i] instanceof Player.PlaybackEventListener) {
+                ((Player.PlaybackEventListener) eventListeners[i]).onBytesLoaded(loadEventInfo.bytesLoaded);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.player.util;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.Allocation;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+/**
+ * A media buffer allocator shared by multiple players, with a soft cap on the total number of the allocated bytes.
+ * Can be shared by the players of a single pool or by all the pools, by passing the same instance to one
+ * or to all the {@link com.arthurivanets.arvi.Config}s (see {@link com.arthurivanets.arvi.Config.Builder#sharedAllocator(SharedAllocator)}).
+ * <br>
+ * The capacity is distributed among the players that are currently prepared:
+ * <ul>
+ *     <li>the focused players may use all of the free capacity;</li>
+ *     <li>the unfocused players may only use their fair share of the capacity that's left after reserving
+ *     a half of it for the focused players (if there are any).</li>
+ * </ul>
+ * The cap is checked before each load of the players, as the allocations requested by an ongoing load can't be refused.
+ * Thus, every loading player can overshoot the cap by up to a single load (so the total overshoot grows with the number
+ * of the players loading at the same time). The freed allocations are recycled between the players to avoid the garbage collection churn.
+ */
+public final class SharedAllocator {
+
+    private final DefaultAllocator allocator;
+
+    private final int capacityInBytes;
+
+    // guarded by "this"
+    private int activeClientCount;
+    private int focusedActiveClientCount;
+
+    /**
+     * @param capacityInBytes the maximum number of the bytes to be allocated by all the players
+     */
+    public SharedAllocator(int capacityInBytes) {
+        Preconditions.isTrue("The capacity must be positive.", (capacityInBytes > 0));
+
+        this.allocator = new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
+        this.capacityInBytes = capacityInBytes;
+    }
+
+    /**
+     * Creates a new {@link Client} (the allocator of a single player).
+     */
+    @NonNull
+    final Client newClient() {
+        return new Client();
+    }
+
+    /**
+     * Retrieves the total number of the bytes currently allocated by all the players.
+     */
+    public final int getTotalBytesAllocated() {
+        return this.allocator.getTotalBytesAllocated();
+    }
+
+    /**
+     * Retrieves the maximum number of the bytes to be allocated by all the players.
+     */
+    public final int getCapacity() {
+        return this.capacityInBytes;
+    }
+
+    /**
+     * Retrieves the number of the players that are currently prepared.
+     */
+    public final synchronized int getActiveClientCount() {
+        return this.activeClientCount;
+    }
+
+    private synchronized void onClientStateChanged(Client client, boolean wasActive, boolean wasFocused) {
+        this.activeClientCount += (toCount(client.isActive) - toCount(wasActive));
+        this.focusedActiveClientCount += (toCount(client.isActive && client.isFocused) - toCount(wasActive && wasFocused));
+
+        // the recycled allocations are no longer needed
+        if (this.activeClientCount == 0) {
+            this.allocator.trim();
+        }
+    }
+
+    private synchronized boolean canContinueLoading(Client client) {
+        final int totalBytesAllocated = getTotalBytesAllocated();
+
+        if (totalBytesAllocated >= this.capacityInBytes) {
+            return false;
+        }
+
+        if (client.isFocused) {
+            return true;
+        }
+
+        final int unfocusedCapacity = ((this.focusedActiveClientCount > 0) ? (this.capacityInBytes / 2) : this.capacityInBytes);
+        final int unfocusedClientCount = Math.max(1, (this.activeClientCount - this.focusedActiveClientCount));
+
+        return (
+            (totalBytesAllocated < unfocusedCapacity)
+                && (client.getTotalBytesAllocated() < (unfocusedCapacity / unfocusedClientCount))
+        );
+    }
+
+    private static int toCount(boolean condition) {
+        return (condition ? 1 : 0);
+    }
+
+    /**
+     * The {@link Allocator} of a single player, which tracks the player's allocations within the shared allocator.
+     */
+    final class Client implements Allocator {
+
+        // guarded by the enclosing SharedAllocator
+        private boolean isActive;
+        private boolean isFocused;
+
+        private int allocationCount;
+
+        private Client() {
+            this.isActive = false;
+            this.isFocused = true;
+        }
+
+        /**
+         * Sets whether the player is prepared (only the prepared players share the capacity).
+         */
+        final void setActive(boolean isActive) {
+            synchronized (SharedAllocator.this) {
+                final boolean wasActive = this.isActive;
+                this.isActive = isActive;
+                onClientStateChanged(this, wasActive, this.isFocused);
+            }
+        }
+
+        /**
+         * Sets whether the player is the focused one.
+         */
+        final void setFocused(boolean isFocused) {
+            synchronized (SharedAllocator.this) {
+                final boolean wasFocused = this.isFocused;
+                this.isFocused = isFocused;
+                onClientStateChanged(this, this.isActive, wasFocused);
+            }
+        }
+
+        /**
+         * Determines whether the player may continue loading without exceeding its share of the capacity.
+         */
+        final boolean canContinueLoading() {
+            return SharedAllocator.this.canContinueLoading(this);
+        }
+
+        @Override
+        public final Allocation allocate() {
+            final Allocation allocation = allocator.allocate();
+
+            synchronized (this) {
+                this.allocationCount++;
+            }
+
+            return allocation;
+        }
+
+        @Override
+        public final void release(Allocation allocation) {
+            allocator.release(allocation);
+
+            synchronized (this) {
+                this.allocationCount--;
+            }
+        }
+
+        @Override
+        public final void release(Allocation[] allocations) {
+            allocator.release(allocations);
+
+            synchronized (this) {
+                this.allocationCount -= allocations.length;
+            }
+        }
+
+        @Override
+        public final void trim() {
+            // the shared allocator gets trimmed once all the players are done with it
+        }
+
+        @Override
+        public final synchronized int getTotalBytesAllocated() {
+            return (this.allocationCount * allocator.getIndividualAllocationLength());
+        }
+
+        @Override
+        public final int getIndividualAllocationLength() {
+            return allocator.getIndividualAllocationLength();
+        }
+
+    }
+
+}
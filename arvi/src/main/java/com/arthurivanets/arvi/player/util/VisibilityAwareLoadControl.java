@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.player.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.upstream.Allocator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.arthurivanets.arvi.util.misc.Preconditions.checkNonNull;
+
+/**
+ * A {@link LoadControl} that adjusts the buffering of the player according to its focus state.
+ * <br>
+ * The focused player (the one the user is watching) buffers according to the delegate {@link LoadControl},
+ * while the unfocused one (e.g. paused when scrolled out of the focus) buffers only a small amount of the media,
+ * and only while none of the focused players of its {@link LoadingGroup} are loading (the low-priority loading).
+ * The focus changes take effect on the very next loading decision of the player.
+ * <br>
+ * If the {@link SharedAllocator} is provided, the player allocates its media buffers from it
+ * (instead of the allocator of the delegate), and loads only while it stays within its share of the allocator's capacity.
+ * <br>
+ * <strong>NOTE</strong>: meant to be used by a single player, along with its delegate (as both of them hold
+ * the state of the player), so every player must be given its own instance of the delegate (see {@link LoadControlFactory}).
+ */
+public final class VisibilityAwareLoadControl implements LoadControl {
+
+    public static final long DEFAULT_UNFOCUSED_BUFFER_DURATION_IN_MILLIS = 3000L;
+
+    private final LoadControl delegate;
+
+    private final LoadingGroup loadingGroup;
+
+    @Nullable
+    private final SharedAllocator.Client allocatorClient;
+
+    private final long unfocusedBufferDurationUs;
+
+    private volatile boolean isFocused;
+
+    // whether the player is counted as the focused loading one
+    private final AtomicBoolean isFocusedLoading;
+
+    /**
+     * @param delegate                        the load control to be used by the focused player
+     * @param unfocusedBufferDurationInMillis the maximum amount of the media to be buffered by the unfocused player
+     */
+    public VisibilityAwareLoadControl(@NonNull LoadControl delegate, long unfocusedBufferDurationInMillis) {
+        this(delegate, unfocusedBufferDurationInMillis, null, new LoadingGroup());
+    }
+
+    /**
+     * @param delegate                        the load control to be used by the focused player
+     * @param unfocusedBufferDurationInMillis the maximum amount of the media to be buffered by the unfocused player
+     * @param sharedAllocator                 the allocator to allocate the media buffers from, or null to use the allocator of the delegate
+     * @param loadingGroup                    the group of the players the unfocused player yields the loading to
+     */
+    public VisibilityAwareLoadControl(@NonNull LoadControl delegate,
+                                      long unfocusedBufferDurationInMillis,
+                                      @Nullable SharedAllocator sharedAllocator,
+                                      @NonNull LoadingGroup loadingGroup) {
+        Preconditions.isTrue("The unfocused buffer duration must not be negative.", (unfocusedBufferDurationInMillis >= 0L));
+
+        this.delegate = checkNonNull(delegate);
+        this.loadingGroup = checkNonNull(loadingGroup);
+        this.allocatorClient = ((sharedAllocator != null) ? sharedAllocator.newClient() : null);
+        this.unfocusedBufferDurationUs = (unfocusedBufferDurationInMillis * 1000L);
+        this.isFocused = true;
+        this.isFocusedLoading = new AtomicBoolean(false);
+    }
+
+    /**
+     * Sets the focus state of the player.
+     * (Can be invoked from any thread)
+     *
+     * @param isFocused whether the player is the focused one
+     */
+    public final void setFocused(boolean isFocused) {
+        this.isFocused = isFocused;
+
+        if (!isFocused) {
+            setFocusedLoading(false);
+        }
+
+        if (this.allocatorClient != null) {
+            this.allocatorClient.setFocused(isFocused);
+        }
+    }
+
+    public final boolean isFocused() {
+        return this.isFocused;
+    }
+
+    private void setFocusedLoading(boolean isFocusedLoading) {
+        if (this.isFocusedLoading.compareAndSet(!isFocusedLoading, isFocusedLoading)) {
+            this.loadingGroup.focusedLoadingPlayerCount.addAndGet(isFocusedLoading ? 1 : -1);
+        }
+    }
+
+    @Override
+    public final void onPrepared() {
+        if (this.allocatorClient != null) {
+            this.allocatorClient.setActive(true);
+        }
+
+        this.delegate.onPrepared();
+    }
+
+    @Override
+    public final void onTracksSelected(Renderer[] renderers,
+                                       TrackGroupArray trackGroups,
+                                       ExoTrackSelection[] trackSelections) {
+        this.delegate.onTracksSelected(renderers, trackGroups, trackSelections);
+    }
+
+    @Override
+    public final void onStopped() {
+        onInactive();
+        this.delegate.onStopped();
+    }
+
+    @Override
+    public final void onReleased() {
+        onInactive();
+        this.delegate.onReleased();
+    }
+
+    private void onInactive() {
+        setFocusedLoading(false);
+
+        if (this.allocatorClient != null) {
+            this.allocatorClient.setActive(false);
+        }
+    }
+
+    @Override
+    public final Allocator getAllocator() {
+        return ((this.allocatorClient != null) ? this.allocatorClient : this.delegate.getAllocator());
+    }
+
+    @Override
+    public final long getBackBufferDurationUs() {
+        return this.delegate.getBackBufferDurationUs();
+    }
+
+    @Override
+    public final boolean retainBackBufferFromKeyframe() {
+        return this.delegate.retainBackBufferFromKeyframe();
+    }
+
+    @Override
+    public final boolean shouldContinueLoading(long playbackPositionUs, long bufferedDurationUs, float playbackSpeed) {
+        final boolean shouldContinueLoading = (
+            this.delegate.shouldContinueLoading(playbackPositionUs, bufferedDurationUs, playbackSpeed)
+                && ((this.allocatorClient == null) || this.allocatorClient.canContinueLoading())
+        );
+
+        if (this.isFocused) {
+            setFocusedLoading(shouldContinueLoading);
+            return shouldContinueLoading;
+        }
+
+        setFocusedLoading(false);
+
+        return (
+            shouldContinueLoading
+                && (bufferedDurationUs < this.unfocusedBufferDurationUs)
+                && (this.loadingGroup.focusedLoadingPlayerCount.get() == 0)
+        );
+    }
+
+    @Override
+    public final boolean shouldStartPlayback(long bufferedDurationUs,
+                                             float playbackSpeed,
+                                             boolean rebuffering,
+                                             long targetLiveOffsetUs) {
+        return this.delegate.shouldStartPlayback(
+            bufferedDurationUs,
+            playbackSpeed,
+            rebuffering,
+            targetLiveOffsetUs
+        );
+    }
+
+    /**
+     * A group of the players (e.g. the ones created by the same {@link com.arthurivanets.arvi.player.creators.PlayerCreator})
+     * within which the unfocused players yield the loading to the focused ones.
+     * (Thread-safe)
+     */
+    public static final class LoadingGroup {
+
+        // the number of the focused players of the group that are currently loading
+        private final AtomicInteger focusedLoadingPlayerCount;
+
+        public LoadingGroup() {
+            this.focusedLoadingPlayerCount = new AtomicInteger();
+        }
+
+        /**
+         * Retrieves the number of the focused players of the group that are currently loading.
+         */
+        public final int getFocusedLoadingPlayerCount() {
+            return this.focusedLoadingPlayerCount.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+/**
+ * A base implementation of the {@link Cache}, which implements the convenience (default value and type casting)
+ * methods on top of the essential ones.
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+abstract class BaseCache<K, V> implements Cache<K, V> {
+
+    @Override
+    public final V get(K key) {
+        return get(key, null);
+    }
+
+    /**
+     * Retrieves the value via {@link #get(Object, Object)} and creates/puts the absent one via {@link #put(Object, Object)}.
+     * (Should be overridden by the thread-safe implementations to make the operation atomic)
+     */
+    @Override
+    public V getOrCreate(K key, ValueFactory<K, V> valueFactory) {
+        final V value = get(key, null);
+
+        if (value != null) {
+            return value;
+        }
+
+        final V createdValue = valueFactory.create(key);
+        put(key, createdValue);
+
+        return createdValue;
+    }
+
+    @Override
+    public final <RV> RV getAs(K key) {
+        return getAs(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final <RV> RV getAs(K key, RV defaultValue) {
+        final V value = get(key, null);
+        return ((value != null) ? (RV) value : defaultValue);
+    }
+
+    @Override
+    public final V remove(K key) {
+        return remove(key, null);
+    }
+
+    @Override
+    public final <RV> RV removeAs(K key) {
+        return removeAs(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final <RV> RV removeAs(K key, RV defaultValue) {
+        final V value = remove(key, null);
+        return ((value != null) ? (RV) value : defaultValue);
+    }
+
+}
@@ -52,6 +52,19 @@ public interface Cache<K, V> {
      */
     V get(K key, V defaultValue);
 
+    /**
+     * Retrieves the value {@link V} associated with the specified key {@link K}.
+     * In cases when the value {@link V} is not present within the cache, it gets created
+     * using the specified {@link ValueFactory} and put into the cache.
+     * <br>
+     * (Performs no allocations when the value is present, as long as the same {@link ValueFactory} instance is reused)
+     *
+     * @param key          the key to retrieve the value for
+     * @param valueFactory the factory to create the absent value with
+     * @return the corresponding value if it's present, or the newly created one otherwise
+     */
+    V getOrCreate(K key, ValueFactory<K, V> valueFactory);
+
     /**
      * Retrieves the value that corresponds to the specified key {@link K} and automatically
      * casts it to the desired value type, based on the type inference.
@@ -131,4 +144,23 @@ public interface Cache<K, V> {
      */
     boolean clear();
 
+    /**
+     * A factory of the values to be put into the {@link Cache} when they're absent.
+     * (See {@link Cache#getOrCreate(Object, ValueFactory)})
+     *
+     * @param <K> cache entry key type
+     * @param <V> cache entry type
+     */
+    interface ValueFactory<K, V> {
+
+        /**
+         * Creates the value for the specified key.
+         *
+         * @param key the key to create the value for
+         * @return the created value (must be non-null)
+         */
+        V create(K key);
+
+    }
+
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+
+import static com.arthurivanets.arvi.util.misc.Preconditions.checkNonNull;
+import static com.arthurivanets.arvi.util.misc.Preconditions.isTrue;
+
+/**
+ * {@link Cache} configuration. (See {@link CacheType})
+ */
+public final class CacheConfig {
+
+    /**
+     * The default maximum number of entries held by the capacity-bounded {@link Cache}s.
+     */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    @NonNull
+    public final CacheType cacheType;
+
+    public final int capacity;
+
+    @NonNull
+    public final EvictionPolicy evictionPolicy;
+
+    @Nullable
+    public final File persistenceFile;
+
+    public final boolean compact;
+
+    private CacheConfig(Builder builder) {
+        this.cacheType = builder.cacheType;
+        this.capacity = builder.capacity;
+        this.evictionPolicy = builder.evictionPolicy;
+        this.persistenceFile = builder.persistenceFile;
+        this.compact = builder.compact;
+    }
+
+    public static final class Builder {
+
+        private CacheType cacheType;
+
+        private int capacity;
+
+        private EvictionPolicy evictionPolicy;
+
+        private File persistenceFile;
+
+        private boolean compact;
+
+        public Builder() {
+            this.cacheType = CacheType.IN_MEMORY;
+            this.capacity = DEFAULT_CAPACITY;
+            this.evictionPolicy = EvictionPolicy.LRU;
+        }
+
+        public Builder cacheType(@NonNull CacheType cacheType) {
+            this.cacheType = checkNonNull(cacheType);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entries to be held by the capacity-bounded {@link Cache}s.
+         * (Ignored by the unbounded ones)
+         */
+        public Builder capacity(int capacity) {
+            isTrue("You must specify a valid Cache Capacity.", (capacity > 0));
+
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the {@link EvictionPolicy} to be used by the capacity-bounded {@link Cache}s.
+         * (Ignored by the unbounded ones)
+         */
+        public Builder evictionPolicy(@NonNull EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = checkNonNull(evictionPolicy);
+            return this;
+        }
+
+        /**
+         * Sets the file to be used by the {@link CacheType#PERSISTENT} {@link Cache}s to store their entries.
+         * (Required by the {@link CacheType#PERSISTENT} {@link Cache}s, ignored by the other ones)
+         */
+        public Builder persistenceFile(@NonNull File persistenceFile) {
+            this.persistenceFile = checkNonNull(persistenceFile);
+            return this;
+        }
+
+        /**
+         * Sets whether the {@link com.arthurivanets.arvi.model.PlaybackInfo} {@link Cache}s should keep their entries
+         * in a memory-efficient, primitive-array representation (about 34 bytes per entry), which stores only
+         * the hashes of the keys, as well as the copies of the values. (See {@link CompactPlaybackInfoCache})
+         * <br>
+         * <strong>NOTE</strong>: the keys are identified by their 64-bit and (independent) 32-bit hashes, so two distinct keys
+         * whose hashes both collide (which is astronomically unlikely) would share the same entry (i.e. the playback position).
+         * <br>
+         * Supported by the {@link CacheType#IN_MEMORY} {@link Cache}s only.
+         */
+        public Builder compact(boolean compact) {
+            this.compact = compact;
+            return this;
+        }
+
+        public CacheConfig build() {
+            isTrue(
+                "You must specify the Persistence File for the Persistent Cache.",
+                ((this.cacheType != CacheType.PERSISTENT) || (this.persistenceFile != null))
+            );
+            isTrue(
+                "The Compact representation is supported by the In-Memory Cache only.",
+                (!this.compact || (this.cacheType == CacheType.IN_MEMORY))
+            );
+
+            return new CacheConfig(this);
+        }
+
+    }
+
+}
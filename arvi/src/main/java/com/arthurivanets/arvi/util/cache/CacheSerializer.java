@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import androidx.annotation.NonNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A base contract to be implemented by the concrete serializers used by the persistent {@link Cache}s
+ * to convert the cache keys and values to/from their compact binary representation.
+ *
+ * @param <T> the type of the serialized objects
+ */
+public interface CacheSerializer<T> {
+
+    /**
+     * The {@link String} serializer (uses the modified UTF-8 encoding).
+     */
+    CacheSerializer<String> STRING = new CacheSerializer<String>() {
+
+        @Override
+        public void write(@NonNull String value, @NonNull DataOutput output) throws IOException {
+            output.writeUTF(value);
+        }
+
+        @NonNull
+        @Override
+        public String read(@NonNull DataInput input) throws IOException {
+            return input.readUTF();
+        }
+
+    };
+
+    /**
+     * Writes the binary representation of the specified object to the specified output.
+     *
+     * @param value  the object to be written
+     * @param output the output to write the object to
+     * @throws IOException if the writing fails
+     */
+    void write(@NonNull T value, @NonNull DataOutput output) throws IOException;
+
+    /**
+     * Reads the object from its binary representation.
+     *
+     * @param input the input to read the object from
+     * @return the read object
+     * @throws IOException if the reading fails
+     */
+    @NonNull
+    T read(@NonNull DataInput input) throws IOException;
+
+}
@@ -16,33 +16,113 @@
 
 package com.arthurivanets.arvi.util.cache;
 
-import androidx.annotation.RestrictTo;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.model.PlaybackInfo;
+
+import static com.arthurivanets.arvi.util.misc.Preconditions.isTrue;
 
 /**
  * The {@link Cache} factory.
  */
-@RestrictTo(RestrictTo.Scope.LIBRARY)
 public enum CacheType {
 
     /**
      * An in-memory (RAM) implementation of {@link Cache}.
+     * (The concurrent version is lock-free for reads, see {@link ConcurrentInMemoryCache})
+     * <br>
+     * The {@link PlaybackInfo} {@link Cache} can be made memory-efficient via the {@link CacheConfig#compact}
+     * (see {@link CompactPlaybackInfoCache}).
      */
     IN_MEMORY {
         @Override
-        <K, V> Cache<K, V> create(boolean concurrent) {
-            final Cache<K, V> cache = new InMemoryCache<>();
+        <K, V> Cache<K, V> create(boolean concurrent,
+                                  CacheConfig config,
+                                  CacheSerializer<K> keySerializer,
+                                  CacheSerializer<V> valueSerializer) {
+            return (concurrent ? new ConcurrentInMemoryCache<K, V>() : new InMemoryCache<K, V>());
+        }
+
+        @Override
+        Cache<String, PlaybackInfo> createPlaybackInfoCache(boolean concurrent, CacheConfig config) {
+            if (!config.compact) {
+                return super.createPlaybackInfoCache(concurrent, config);
+            }
+
+            final Cache<String, PlaybackInfo> cache = new CompactPlaybackInfoCache();
+            return (concurrent ? new ConcurrentCache<>(cache) : cache);
+        }
+    },
+
+    /**
+     * A capacity-bounded in-memory (RAM) implementation of {@link Cache}, which evicts the entries
+     * according to the configured {@link EvictionPolicy}. (See {@link CacheConfig})
+     */
+    BOUNDED {
+        @Override
+        <K, V> Cache<K, V> create(boolean concurrent,
+                                  CacheConfig config,
+                                  CacheSerializer<K> keySerializer,
+                                  CacheSerializer<V> valueSerializer) {
+            final Cache<K, V> cache = config.evictionPolicy.create(config.capacity);
             return (concurrent ? new ConcurrentCache<>(cache) : cache);
         }
+    },
+
+    /**
+     * A disk-backed implementation of {@link Cache}, which survives the process death.
+     * Keeps up to {@link CacheConfig#capacity} entries (in the LRU order) in memory, and persists them
+     * in the {@link CacheConfig#persistenceFile}. (Always thread-safe, see {@link PersistentCache})
+     * <br>
+     * Requires the key and value {@link CacheSerializer}s.
+     */
+    PERSISTENT {
+        @Override
+        <K, V> Cache<K, V> create(boolean concurrent,
+                                  CacheConfig config,
+                                  CacheSerializer<K> keySerializer,
+                                  CacheSerializer<V> valueSerializer) {
+            isTrue("You must specify the Persistence File for the Persistent Cache.", (config.persistenceFile != null));
+            isTrue("You must specify the Cache Serializers for the Persistent Cache.", ((keySerializer != null) && (valueSerializer != null)));
+
+            return new PersistentCache<>(
+                config.persistenceFile,
+                config.capacity,
+                keySerializer,
+                valueSerializer
+            );
+        }
     };
 
+
+    /**
+     * Creates a new instance of the {@link Cache} based on the specified {@link CacheConfig}.
+     * (The {@link CacheSerializer}s are required by the {@link #PERSISTENT} cache type only, and are ignored by the other ones)
+     *
+     * @param concurrent      whether to create a synchronized (thread-safe) version of {@link Cache}, or not
+     * @param config          the cache configuration
+     * @param keySerializer   the serializer of the cache keys
+     * @param valueSerializer the serializer of the cache values
+     * @param <K>             cache key type
+     * @param <V>             cache value type
+     * @return the created {@link Cache}
+     */
+    abstract <K, V> Cache<K, V> create(boolean concurrent,
+                                       @NonNull CacheConfig config,
+                                       @Nullable CacheSerializer<K> keySerializer,
+                                       @Nullable CacheSerializer<V> valueSerializer);
+
     /**
-     * Creates a new instance of the {@link Cache}.
+     * Creates a new instance of the {@link PlaybackInfo} {@link Cache} based on the specified {@link CacheConfig}.
+     * (The general-purpose cache types fall back to {@link #create(boolean, CacheConfig, CacheSerializer, CacheSerializer)})
      *
      * @param concurrent whether to create a synchronized (thread-safe) version of {@link Cache}, or not
-     * @param <K>        cache key type
-     * @param <V>        cache value type
+     * @param config     the cache configuration
      * @return the created {@link Cache}
      */
-    abstract <K, V> Cache<K, V> create(boolean concurrent);
+    Cache<String, PlaybackInfo> createPlaybackInfoCache(boolean concurrent, CacheConfig config) {
+        return create(concurrent, config, CacheSerializer.STRING, PlaybackInfoSerializer.INSTANCE);
+    }
 
 }
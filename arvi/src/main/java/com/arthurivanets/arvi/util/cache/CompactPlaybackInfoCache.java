@@ -0,0 +1,336 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.arthurivanets.arvi.model.PlaybackInfo;
+import com.arthurivanets.arvi.model.VolumeInfo;
+
+import java.util.Arrays;
+
+/**
+ * A memory-efficient implementation of the {@link Cache} of {@link PlaybackInfo}s, which keeps the
+ * playback position, duration, volume and flags in parallel primitive arrays, indexed by an open-addressing
+ * (linear probing) hash table of the 64-bit hashes of the keys. (About 34 bytes per entry, as opposed to
+ * ~150 bytes taken by a {@link java.util.HashMap} entry along with its {@link String} key, {@link PlaybackInfo} and {@link VolumeInfo})
+ * <br>
+ * <strong>NOTE</strong>: the keys are not retained, but identified by their 64-bit (FNV-1a) hashes along with
+ * the independent 32-bit ones ({@link String#hashCode()}), so the distinct keys get mixed up only if both of their hashes collide.
+ * The values are stored/retrieved as copies (the retrieved {@link PlaybackInfo}s must be put back into the cache
+ * for their modifications to take effect), and can be read into the reusable instances (see {@link #get(String, PlaybackInfo, PlaybackInfo)}).
+ * <br>
+ * The table grows as the entries are added, and shrinks as they are removed.
+ * <br>
+ * (Not thread-safe, treats the <strong>null</strong> values as absent ones)
+ */
+final class CompactPlaybackInfoCache extends BaseCache<String, PlaybackInfo> implements ReusableValueCache<String, PlaybackInfo> {
+
+    @VisibleForTesting
+    static final int DEFAULT_TABLE_SIZE = 1024;
+    private static final float MAX_LOAD_FACTOR = 0.75f;
+    private static final float MIN_LOAD_FACTOR = 0.25f;
+
+    // the marker of the free slots (the key hashes that happen to be 0 are remapped)
+    private static final long FREE_KEY = 0L;
+
+    // the replacement of the key hashes that happen to be equal to the FREE_KEY (the hash of an empty key)
+    @VisibleForTesting
+    static final long FREE_KEY_REPLACEMENT = 0xcbf29ce484222325L;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final byte FLAG_MUTED = 1;
+    private static final byte FLAG_ENDED = (1 << 1);
+
+    private long[] mKeys;
+    private int[] mKeyChecks;
+    private long[] mPlaybackPositions;
+    private long[] mDurations;
+    private float[] mVolumes;
+    private byte[] mFlags;
+
+    private int mSize;
+    private int mMaxSize;
+    private int mMinSize;
+
+    private String mLastKey;
+    private long mLastKeyHash;
+
+    CompactPlaybackInfoCache() {
+        allocate(DEFAULT_TABLE_SIZE);
+    }
+
+    @Override
+    public final PlaybackInfo put(String key, PlaybackInfo value) {
+        if (value == null) {
+            return remove(key, null);
+        }
+
+        final long keyHash = hash(key);
+        final int keyCheck = key.hashCode();
+        int index = indexOf(keyHash, keyCheck);
+        final PlaybackInfo previousValue;
+
+        if (index >= 0) {
+            previousValue = read(index, new PlaybackInfo());
+        } else {
+            if (mSize >= mMaxSize) {
+                resize(mKeys.length * 2);
+            }
+
+            index = freeSlotOf(keyHash);
+            mKeys[index] = keyHash;
+            mKeyChecks[index] = keyCheck;
+            mSize++;
+            previousValue = null;
+        }
+
+        write(index, value);
+
+        return previousValue;
+    }
+
+    @Override
+    public final PlaybackInfo get(String key, PlaybackInfo defaultValue) {
+        final int index = indexOf(key);
+        return ((index >= 0) ? read(index, new PlaybackInfo()) : defaultValue);
+    }
+
+    @Override
+    public final PlaybackInfo get(String key, PlaybackInfo defaultValue, PlaybackInfo reusableValue) {
+        final int index = indexOf(key);
+        return ((index >= 0) ? read(index, reusableValue) : defaultValue);
+    }
+
+    @Override
+    public final PlaybackInfo remove(String key, PlaybackInfo defaultValue) {
+        final int index = indexOf(key);
+
+        if (index < 0) {
+            return defaultValue;
+        }
+
+        final PlaybackInfo value = read(index, new PlaybackInfo());
+        removeAt(index);
+
+        if ((mSize < mMinSize) && (mKeys.length > DEFAULT_TABLE_SIZE)) {
+            resize(mKeys.length / 2);
+        }
+
+        return value;
+    }
+
+    @Override
+    public final boolean contains(String key) {
+        return (indexOf(key) >= 0);
+    }
+
+    @Override
+    public final boolean clear() {
+        if (mKeys.length > DEFAULT_TABLE_SIZE) {
+            allocate(DEFAULT_TABLE_SIZE);
+        } else {
+            Arrays.fill(mKeys, FREE_KEY);
+        }
+
+        mSize = 0;
+        return true;
+    }
+
+    /**
+     * Retrieves the number of the entries held by the cache.
+     */
+    final int size() {
+        return mSize;
+    }
+
+    /**
+     * Retrieves the number of the slots of the hash table.
+     */
+    @VisibleForTesting
+    final int tableSize() {
+        return mKeys.length;
+    }
+
+    private PlaybackInfo read(int index, PlaybackInfo value) {
+        final byte flags = mFlags[index];
+
+        value.getVolumeInfo()
+            .setVolume(mVolumes[index])
+            .setMuted((flags & FLAG_MUTED) != 0);
+
+        return value
+            .setPlaybackPosition(mPlaybackPositions[index])
+            .setDuration(mDurations[index])
+            .setEnded((flags & FLAG_ENDED) != 0);
+    }
+
+    private void write(int index, PlaybackInfo value) {
+        final VolumeInfo volumeInfo = value.getVolumeInfo();
+        byte flags = 0;
+        flags |= (volumeInfo.isMuted() ? FLAG_MUTED : 0);
+        flags |= (value.isEnded() ? FLAG_ENDED : 0);
+
+        mPlaybackPositions[index] = value.getPlaybackPosition();
+        mDurations[index] = value.getDuration();
+        mVolumes[index] = volumeInfo.getVolume();
+        mFlags[index] = flags;
+    }
+
+    private int indexOf(String key) {
+        return indexOf(hash(key), key.hashCode());
+    }
+
+    private int indexOf(long keyHash, int keyCheck) {
+        final int mask = (mKeys.length - 1);
+
+        for (int index = slotOf(keyHash, mask); ; index = ((index + 1) & mask)) {
+            final long key = mKeys[index];
+
+            if ((key == keyHash) && (mKeyChecks[index] == keyCheck)) {
+                return index;
+            } else if (key == FREE_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    private int freeSlotOf(long keyHash) {
+        final int mask = (mKeys.length - 1);
+        int index = slotOf(keyHash, mask);
+
+        while (mKeys[index] != FREE_KEY) {
+            index = ((index + 1) & mask);
+        }
+
+        return index;
+    }
+
+    /**
+     * Removes the entry by shifting the subsequent entries of the probe sequence backwards
+     * (so that no tombstones are required).
+     */
+    private void removeAt(int index) {
+        final int mask = (mKeys.length - 1);
+        int freeIndex = index;
+        int nextIndex = ((index + 1) & mask);
+
+        while (mKeys[nextIndex] != FREE_KEY) {
+            final int idealIndex = slotOf(mKeys[nextIndex], mask);
+
+            // moving the entry if its ideal slot doesn't lie (cyclically) within (freeIndex, nextIndex]
+            if (((nextIndex - idealIndex) & mask) >= ((nextIndex - freeIndex) & mask)) {
+                move(nextIndex, freeIndex);
+                freeIndex = nextIndex;
+            }
+
+            nextIndex = ((nextIndex + 1) & mask);
+        }
+
+        mKeys[freeIndex] = FREE_KEY;
+        mSize--;
+    }
+
+    private void move(int fromIndex, int toIndex) {
+        mKeys[toIndex] = mKeys[fromIndex];
+        mKeyChecks[toIndex] = mKeyChecks[fromIndex];
+        mPlaybackPositions[toIndex] = mPlaybackPositions[fromIndex];
+        mDurations[toIndex] = mDurations[fromIndex];
+        mVolumes[toIndex] = mVolumes[fromIndex];
+        mFlags[toIndex] = mFlags[fromIndex];
+    }
+
+    private void resize(int tableSize) {
+        final long[] keys = mKeys;
+        final int[] keyChecks = mKeyChecks;
+        final long[] playbackPositions = mPlaybackPositions;
+        final long[] durations = mDurations;
+        final float[] volumes = mVolumes;
+        final byte[] flags = mFlags;
+
+        allocate(tableSize);
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                final int index = freeSlotOf(keys[i]);
+                mKeys[index] = keys[i];
+                mKeyChecks[index] = keyChecks[i];
+                mPlaybackPositions[index] = playbackPositions[i];
+                mDurations[index] = durations[i];
+                mVolumes[index] = volumes[i];
+                mFlags[index] = flags[i];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        mKeys = new long[tableSize];
+        mKeyChecks = new int[tableSize];
+        mPlaybackPositions = new long[tableSize];
+        mDurations = new long[tableSize];
+        mVolumes = new float[tableSize];
+        mFlags = new byte[tableSize];
+        mMaxSize = (int) (tableSize * MAX_LOAD_FACTOR);
+        mMinSize = (int) (tableSize * MIN_LOAD_FACTOR);
+    }
+
+    private static int slotOf(long keyHash, int mask) {
+        // spreading the bits of the hash (the finalization step of the MurmurHash3)
+        long hash = keyHash;
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+
+        return (int) (hash & mask);
+    }
+
+    /**
+     * Computes the 64-bit hash of the key (see {@link #hash64(String)}).
+     * The keys are normally the memoized ones (see {@link com.arthurivanets.arvi.util.misc.PlayableKeyHandle}), so the hash
+     * of the most recently used key instance gets memoized (as the same key is usually used for several consecutive operations).
+     */
+    private long hash(String key) {
+        if (key != mLastKey) {
+            mLastKey = key;
+            mLastKeyHash = toKeyHash(hash64(key));
+        }
+
+        return mLastKeyHash;
+    }
+
+    /**
+     * Computes the 64-bit (FNV-1a) hash of the specified key.
+     */
+    @VisibleForTesting
+    static long hash64(String key) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0, length = key.length(); i < length; i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    private static long toKeyHash(long hash) {
+        return ((hash != FREE_KEY) ? hash : FREE_KEY_REPLACEMENT);
+    }
+
+}
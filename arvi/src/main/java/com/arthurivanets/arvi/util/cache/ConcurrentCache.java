@@ -28,7 +28,7 @@ import com.arthurivanets.arvi.util.misc.Preconditions;
  * @param <K> the cache key type
  * @param <V> the cache value type
  */
-final class ConcurrentCache<K, V> implements Cache<K, V> {
+final class ConcurrentCache<K, V> implements ReusableValueCache<K, V> {
 
     private final Object mLock;
 
@@ -60,6 +60,28 @@ final class ConcurrentCache<K, V> implements Cache<K, V> {
         }
     }
 
+    /**
+     * Reads the value into the reusable one, if the wrapped {@link Cache} is a {@link ReusableValueCache},
+     * or retrieves the value via the {@link #get(Object, Object)} otherwise.
+     */
+    @Override
+    public final V get(K key, V defaultValue, V reusableValue) {
+        synchronized (mLock) {
+            if (mCache instanceof ReusableValueCache) {
+                return ((ReusableValueCache<K, V>) mCache).get(key, defaultValue, reusableValue);
+            }
+
+            return mCache.get(key, defaultValue);
+        }
+    }
+
+    @Override
+    public final V getOrCreate(K key, ValueFactory<K, V> valueFactory) {
+        synchronized (mLock) {
+            return mCache.getOrCreate(key, valueFactory);
+        }
+    }
+
     @Override
     public final <RV> RV getAs(K key) {
         synchronized (mLock) {
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe implementation of the in-memory (RAM) {@link Cache}, based on the {@link ConcurrentHashMap}.
+ * Unlike the {@link ConcurrentCache}, it doesn't serialize the operations on a single lock (the reads are lock-free),
+ * and performs a single map lookup per operation.
+ * <br>
+ * (Just like the {@link InMemoryCache}, treats the <strong>null</strong> values as absent ones)
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+final class ConcurrentInMemoryCache<K, V> extends BaseCache<K, V> {
+
+    private final ConcurrentMap<K, V> mCacheMap;
+
+    ConcurrentInMemoryCache() {
+        mCacheMap = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public final V put(K key, V value) {
+        return ((value != null) ? mCacheMap.put(key, value) : mCacheMap.remove(key));
+    }
+
+    @Override
+    public final V get(K key, V defaultValue) {
+        final V value = mCacheMap.get(key);
+        return ((value != null) ? value : defaultValue);
+    }
+
+    @Override
+    public final V getOrCreate(K key, ValueFactory<K, V> valueFactory) {
+        final V value = mCacheMap.get(key);
+
+        if (value != null) {
+            return value;
+        }
+
+        // the racing creations are resolved in favor of the first put value
+        final V createdValue = valueFactory.create(key);
+        final V previousValue = mCacheMap.putIfAbsent(key, createdValue);
+
+        return ((previousValue != null) ? previousValue : createdValue);
+    }
+
+    @Override
+    public final V remove(K key, V defaultValue) {
+        final V value = mCacheMap.remove(key);
+        return ((value != null) ? value : defaultValue);
+    }
+
+    @Override
+    public final boolean contains(K key) {
+        return mCacheMap.containsKey(key);
+    }
+
+    @Override
+    public final boolean clear() {
+        mCacheMap.clear();
+        return true;
+    }
+
+}
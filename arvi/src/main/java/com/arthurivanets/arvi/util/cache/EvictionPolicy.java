@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+/**
+ * The eviction policies supported by the capacity-bounded {@link Cache}s. (See {@link CacheType#BOUNDED})
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Evicts the least recently used entry.
+     */
+    LRU {
+        @Override
+        <K, V> Cache<K, V> create(int capacity) {
+            return new LruCache<>(capacity);
+        }
+    },
+
+    /**
+     * Evicts the least frequently used entry (the least recently used one, among the entries of the same frequency).
+     */
+    LFU {
+        @Override
+        <K, V> Cache<K, V> create(int capacity) {
+            return new LfuCache<>(capacity);
+        }
+    },
+
+    /**
+     * Uses a small LRU admission window in front of a segmented LRU main space, with the admission to the main space
+     * being decided by the approximate access frequencies of the entries (Window TinyLFU).
+     * The sizes of the window, the main space segments and the frequency sketch are derived from the capacity.
+     */
+    W_TINY_LFU {
+        @Override
+        <K, V> Cache<K, V> create(int capacity) {
+            return new WTinyLfuCache<>(capacity);
+        }
+    };
+
+    /**
+     * Creates a new instance of the capacity-bounded {@link Cache} which uses the current policy.
+     *
+     * @param capacity the maximum number of entries to be held by the cache
+     * @param <K>      cache key type
+     * @param <V>      cache value type
+     * @return the created {@link Cache}
+     */
+    abstract <K, V> Cache<K, V> create(int capacity);
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+/**
+ * A Count-Min sketch of 4-bit counters, used to estimate the popularity (access frequency) of the cache entries
+ * within a time window. The counters are periodically halved, so that the stale popularity fades away over time.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L,
+        0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL,
+        0xcbf29ce484222325L
+    };
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private static final int MAX_FREQUENCY = 15;
+
+    private final long[] mTable;
+    private final int mTableMask;
+    private final int mSampleSize;
+
+    private int mSize;
+
+    FrequencySketch(int capacity) {
+        final int maximum = Math.max(1, Math.min(capacity, (1 << 30)));
+        final int tableLength = ((maximum == 1) ? 1 : Integer.highestOneBit(maximum - 1) << 1);
+
+        mTable = new long[tableLength];
+        mTableMask = (tableLength - 1);
+        mSampleSize = ((capacity <= (Integer.MAX_VALUE / 10)) ? (10 * maximum) : Integer.MAX_VALUE);
+        mSize = 0;
+    }
+
+    /**
+     * Estimates the number of occurrences of the specified element (up to the maximum of 15).
+     *
+     * @param element the element to estimate the frequency for
+     * @return the estimated frequency
+     */
+    int frequency(Object element) {
+        final int hash = spread(element.hashCode());
+        final int start = ((hash & 3) << 2);
+        int frequency = MAX_FREQUENCY;
+
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int) ((mTable[index] >>> ((start + i) << 2)) & 0xfL);
+
+            frequency = Math.min(frequency, count);
+        }
+
+        return frequency;
+    }
+
+    /**
+     * Increments the popularity of the specified element (unless it reached the maximum),
+     * and periodically ages all the counters.
+     *
+     * @param element the element to increment the frequency of
+     */
+    void increment(Object element) {
+        final int hash = spread(element.hashCode());
+        final int start = ((hash & 3) << 2);
+        boolean isAdded = false;
+
+        for (int i = 0; i < 4; i++) {
+            isAdded |= incrementAt(indexOf(hash, i), (start + i));
+        }
+
+        if (isAdded && (++mSize >= mSampleSize)) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counterIndex) {
+        final int offset = (counterIndex << 2);
+        final long mask = (0xfL << offset);
+
+        if ((mTable[index] & mask) != mask) {
+            mTable[index] += (1L << offset);
+            return true;
+        }
+
+        return false;
+    }
+
+    private void reset() {
+        int oddCount = 0;
+
+        for (int i = 0; i < mTable.length; i++) {
+            oddCount += Long.bitCount(mTable[i] & ONE_MASK);
+            mTable[i] = ((mTable[i] >>> 1) & RESET_MASK);
+        }
+
+        mSize = ((mSize >>> 1) - (oddCount >>> 2));
+    }
+
+    private int indexOf(int hash, int i) {
+        long value = ((hash + SEEDS[i]) * SEEDS[i]);
+        value += (value >>> 32);
+
+        return (((int) value) & mTableMask);
+    }
+
+    private static int spread(int hash) {
+        int value = (((hash >>> 16) ^ hash) * 0x45d9f3b);
+        value = (((value >>> 16) ^ value) * 0x45d9f3b);
+
+        return ((value >>> 16) ^ value);
+    }
+
+}
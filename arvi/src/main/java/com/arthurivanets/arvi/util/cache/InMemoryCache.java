@@ -45,7 +45,20 @@ final class InMemoryCache<K, V> implements Cache<K, V> {
 
     @Override
     public final V get(K key, V defaultValue) {
-        return (contains(key) ? mCacheMap.get(key) : defaultValue);
+        final V value = mCacheMap.get(key);
+        return ((value != null) ? value : defaultValue);
+    }
+
+    @Override
+    public final V getOrCreate(K key, ValueFactory<K, V> valueFactory) {
+        V value = mCacheMap.get(key);
+
+        if (value == null) {
+            value = valueFactory.create(key);
+            mCacheMap.put(key, value);
+        }
+
+        return value;
     }
 
     @Override
@@ -56,7 +69,8 @@ final class InMemoryCache<K, V> implements Cache<K, V> {
     @SuppressWarnings("unchecked")
     @Override
     public final <RV> RV getAs(K key, RV defaultValue) {
-        return (RV) (contains(key) ? mCacheMap.get(key) : defaultValue);
+        final V value = mCacheMap.get(key);
+        return ((value != null) ? (RV) value : defaultValue);
     }
 
     @Override
@@ -66,7 +80,8 @@ final class InMemoryCache<K, V> implements Cache<K, V> {
 
     @Override
     public final V remove(K key, V defaultValue) {
-        return (contains(key) ? mCacheMap.remove(key) : defaultValue);
+        final V value = mCacheMap.remove(key);
+        return ((value != null) ? value : defaultValue);
     }
 
     @Override
@@ -77,7 +92,8 @@ final class InMemoryCache<K, V> implements Cache<K, V> {
     @SuppressWarnings("unchecked")
     @Override
     public final <RV> RV removeAs(K key, RV defaultValue) {
-        return (RV) (contains(key) ? mCacheMap.remove(key) : defaultValue);
+        final V value = mCacheMap.remove(key);
+        return ((value != null) ? (RV) value : defaultValue);
     }
 
     @Override
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * A capacity-bounded in-memory {@link Cache} which evicts the least frequently used entries.
+ * (The least recently used entry is evicted among the entries of the same frequency)
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+final class LfuCache<K, V> extends BaseCache<K, V> {
+
+    private final int mCapacity;
+
+    private final Map<K, Node<V>> mNodeMap;
+    private final Map<Integer, LinkedHashSet<K>> mFrequencyKeysMap;
+
+    private int mMinFrequency;
+
+    LfuCache(int capacity) {
+        Preconditions.isTrue("You must specify a valid Cache Capacity.", (capacity > 0));
+
+        mCapacity = capacity;
+        mNodeMap = new HashMap<>();
+        mFrequencyKeysMap = new HashMap<>();
+        mMinFrequency = 0;
+    }
+
+    @Override
+    public final V put(K key, V value) {
+        final Node<V> node = mNodeMap.get(key);
+
+        if (node != null) {
+            final V oldValue = node.value;
+            node.value = value;
+            incrementFrequency(key, node);
+
+            return oldValue;
+        }
+
+        if (mNodeMap.size() >= mCapacity) {
+            evict();
+        }
+
+        mNodeMap.put(key, new Node<>(value));
+        getFrequencyKeys(1).add(key);
+        mMinFrequency = 1;
+
+        return null;
+    }
+
+    @Override
+    public final V get(K key, V defaultValue) {
+        final Node<V> node = mNodeMap.get(key);
+
+        if ((node == null) || (node.value == null)) {
+            return defaultValue;
+        }
+
+        incrementFrequency(key, node);
+
+        return node.value;
+    }
+
+    @Override
+    public final V remove(K key, V defaultValue) {
+        final Node<V> node = mNodeMap.remove(key);
+
+        if (node == null) {
+            return defaultValue;
+        }
+
+        removeFrequencyKey(key, node.frequency);
+
+        // the minimum frequency has to be recalculated only in cases of the arbitrary removal
+        if ((node.frequency == mMinFrequency) && !mFrequencyKeysMap.containsKey(mMinFrequency)) {
+            updateMinFrequency();
+        }
+
+        return ((node.value != null) ? node.value : defaultValue);
+    }
+
+    @Override
+    public final boolean contains(K key) {
+        final Node<V> node = mNodeMap.get(key);
+        return ((node != null) && (node.value != null));
+    }
+
+    @Override
+    public final boolean clear() {
+        mNodeMap.clear();
+        mFrequencyKeysMap.clear();
+        mMinFrequency = 0;
+
+        return true;
+    }
+
+    private void incrementFrequency(K key, Node<V> node) {
+        final int frequency = node.frequency;
+
+        removeFrequencyKey(key, frequency);
+
+        node.frequency = (frequency + 1);
+        getFrequencyKeys(node.frequency).add(key);
+
+        if ((frequency == mMinFrequency) && !mFrequencyKeysMap.containsKey(frequency)) {
+            mMinFrequency = node.frequency;
+        }
+    }
+
+    private void evict() {
+        final LinkedHashSet<K> keys = mFrequencyKeysMap.get(mMinFrequency);
+
+        if (keys == null) {
+            return;
+        }
+
+        final K key = keys.iterator().next();
+
+        removeFrequencyKey(key, mMinFrequency);
+        mNodeMap.remove(key);
+    }
+
+    private LinkedHashSet<K> getFrequencyKeys(int frequency) {
+        LinkedHashSet<K> keys = mFrequencyKeysMap.get(frequency);
+
+        if (keys == null) {
+            keys = new LinkedHashSet<>();
+            mFrequencyKeysMap.put(frequency, keys);
+        }
+
+        return keys;
+    }
+
+    private void removeFrequencyKey(K key, int frequency) {
+        final LinkedHashSet<K> keys = mFrequencyKeysMap.get(frequency);
+
+        if (keys == null) {
+            return;
+        }
+
+        keys.remove(key);
+
+        if (keys.isEmpty()) {
+            mFrequencyKeysMap.remove(frequency);
+        }
+    }
+
+    private void updateMinFrequency() {
+        int minFrequency = 0;
+
+        for (Integer frequency : mFrequencyKeysMap.keySet()) {
+            minFrequency = ((minFrequency == 0) ? frequency : Math.min(minFrequency, frequency));
+        }
+
+        mMinFrequency = minFrequency;
+    }
+
+    private static final class Node<V> {
+
+        V value;
+        int frequency;
+
+        Node(V value) {
+            this.value = value;
+            this.frequency = 1;
+        }
+
+    }
+
+}
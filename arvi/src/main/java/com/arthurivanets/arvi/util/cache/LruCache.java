@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A capacity-bounded in-memory {@link Cache} which evicts the least recently used entries.
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+final class LruCache<K, V> extends BaseCache<K, V> {
+
+    private final Map<K, V> mCacheMap;
+
+    LruCache(final int capacity) {
+        Preconditions.isTrue("You must specify a valid Cache Capacity.", (capacity > 0));
+
+        mCacheMap = new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return (size() > capacity);
+            }
+
+        };
+    }
+
+    @Override
+    public final V put(K key, V value) {
+        return mCacheMap.put(key, value);
+    }
+
+    @Override
+    public final V get(K key, V defaultValue) {
+        final V value = mCacheMap.get(key);
+        return ((value != null) ? value : defaultValue);
+    }
+
+    @Override
+    public final V remove(K key, V defaultValue) {
+        final V value = mCacheMap.remove(key);
+        return ((value != null) ? value : defaultValue);
+    }
+
+    @Override
+    public final boolean contains(K key) {
+        return mCacheMap.containsKey(key);
+    }
+
+    @Override
+    public final boolean clear() {
+        mCacheMap.clear();
+        return true;
+    }
+
+}
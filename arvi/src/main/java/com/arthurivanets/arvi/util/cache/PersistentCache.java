@@ -0,0 +1,558 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.arthurivanets.arvi.util.misc.Preconditions.checkNonNull;
+import static com.arthurivanets.arvi.util.misc.Preconditions.isTrue;
+
+/**
+ * A thread-safe, disk-backed implementation of the {@link Cache}, which survives the process death.
+ * <br>
+ * The entries are held in a capacity-bounded (LRU) in-memory map, while all the modifications
+ * are appended (in batches, on a dedicated background thread) to a log of compact binary records
+ * kept in a memory-mapped file. The file is read (on the background thread) upon the first access to the cache,
+ * and the reads ({@link #get(Object, Object)}, {@link #getOrCreate(Object, ValueFactory)}, {@link #contains(Object)})
+ * wait for it to complete (only once), so that the persisted entries are never missed (and never get overwritten with
+ * the default values created upon the misses), while the modifications never block on I/O.
+ * (The modifications made before the file is read take precedence over the persisted entries)
+ * <br>
+ * <strong>NOTE</strong>: only the values passed to the {@link #put(Object, Object)} get persisted, so the in-place
+ * modifications of the retrieved values must be put back into the cache to survive the process death.
+ * <br>
+ * Once the log outgrows the number of the live entries, it gets compacted (rewritten to contain only the live entries).
+ * <br>
+ * (Just like the {@link InMemoryCache}, treats the <strong>null</strong> values as absent ones)
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+final class PersistentCache<K, V> extends BaseCache<K, V> {
+
+    private static final String TAG = "PersistentCache";
+
+    private static final int MAGIC = 0x41525649;
+    private static final int VERSION = 1;
+
+    // [magic: int][version: int][data end: long]
+    private static final int DATA_END_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+
+    private static final int MIN_MAPPED_SIZE = (64 * 1024);
+    private static final int MIN_COMPACTION_RECORD_COUNT = 256;
+
+    private static final long FLUSH_DELAY_IN_MILLIS = 1000L;
+
+    private static final byte RECORD_TYPE_PUT = 1;
+    private static final byte RECORD_TYPE_REMOVE = 2;
+
+    // the marker of the pending removals
+    private static final Object REMOVED = new Object();
+
+    private final File mFile;
+    private final CacheSerializer<K> mKeySerializer;
+    private final CacheSerializer<V> mValueSerializer;
+
+    private final ScheduledExecutorService mExecutor;
+
+    // guarded by itself
+    private final Map<K, V> mCacheMap;
+
+    // guarded by mCacheMap (the modifications yet to be written to the file - the value, or the REMOVED marker)
+    private final Map<K, Object> mPendingWrites;
+
+    private final AtomicBoolean mIsLoadScheduled;
+    private final AtomicBoolean mIsFlushScheduled;
+
+    // released once the file is read
+    private final CountDownLatch mLoadLatch;
+
+    // guarded by mCacheMap (incremented on every clear(), so that the persisted entries read before it are dropped)
+    private int mClearCount;
+
+    // guarded by mCacheMap
+    private boolean mIsClearPending;
+
+    // accessed on the executor thread only
+    private RandomAccessFile mRandomAccessFile;
+    private MappedByteBuffer mBuffer;
+    private int mDataEnd;
+    private int mRecordCount;
+    private final ByteArrayOutputStream mRecordStream;
+    private final DataOutputStream mRecordOutput;
+
+    PersistentCache(@NonNull File file,
+                    int capacity,
+                    @NonNull CacheSerializer<K> keySerializer,
+                    @NonNull CacheSerializer<V> valueSerializer) {
+        isTrue("You must specify a valid Cache Capacity.", (capacity > 0));
+
+        mFile = checkNonNull(file);
+        mKeySerializer = checkNonNull(keySerializer);
+        mValueSerializer = checkNonNull(valueSerializer);
+        mExecutor = createExecutor();
+        mCacheMap = new BoundedMap<>(capacity);
+        mPendingWrites = new HashMap<>();
+        mIsLoadScheduled = new AtomicBoolean(false);
+        mIsFlushScheduled = new AtomicBoolean(false);
+        mLoadLatch = new CountDownLatch(1);
+        mRecordStream = new ByteArrayOutputStream();
+        mRecordOutput = new DataOutputStream(mRecordStream);
+    }
+
+    private static ScheduledExecutorService createExecutor() {
+        return new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                final Thread thread = new Thread(runnable, "ARVI-PersistentCache");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public final V put(K key, V value) {
+        if (value == null) {
+            return remove(key, null);
+        }
+
+        ensureLoaded();
+
+        final V previousValue;
+
+        synchronized (mCacheMap) {
+            previousValue = mCacheMap.put(key, value);
+            mPendingWrites.put(key, value);
+        }
+
+        scheduleFlush();
+
+        return previousValue;
+    }
+
+    @Override
+    public final V get(K key, V defaultValue) {
+        awaitLoaded();
+
+        final V value;
+
+        synchronized (mCacheMap) {
+            value = mCacheMap.get(key);
+        }
+
+        return ((value != null) ? value : defaultValue);
+    }
+
+    @Override
+    public final V getOrCreate(K key, ValueFactory<K, V> valueFactory) {
+        awaitLoaded();
+
+        synchronized (mCacheMap) {
+            final V value = mCacheMap.get(key);
+
+            if (value != null) {
+                return value;
+            }
+        }
+
+        // creating outside of the lock, the racing creations are resolved in favor of the first put value
+        final V createdValue = valueFactory.create(key);
+
+        synchronized (mCacheMap) {
+            final V value = mCacheMap.get(key);
+
+            if (value != null) {
+                return value;
+            }
+
+            // the created (default) values are not persisted
+            mCacheMap.put(key, createdValue);
+        }
+
+        return createdValue;
+    }
+
+    @Override
+    public final V remove(K key, V defaultValue) {
+        ensureLoaded();
+
+        final V value;
+
+        synchronized (mCacheMap) {
+            value = mCacheMap.remove(key);
+            mPendingWrites.put(key, REMOVED);
+        }
+
+        scheduleFlush();
+
+        return ((value != null) ? value : defaultValue);
+    }
+
+    @Override
+    public final boolean contains(K key) {
+        awaitLoaded();
+
+        synchronized (mCacheMap) {
+            return mCacheMap.containsKey(key);
+        }
+    }
+
+    @Override
+    public final boolean clear() {
+        ensureLoaded();
+
+        synchronized (mCacheMap) {
+            mCacheMap.clear();
+            mPendingWrites.clear();
+            mClearCount++;
+            mIsClearPending = true;
+        }
+
+        scheduleFlush();
+
+        return true;
+    }
+
+    /**
+     * Immediately writes all the pending modifications to the file (on the background thread).
+     *
+     * @return the {@link Future} of the write
+     */
+    @VisibleForTesting
+    final Future<?> flush() {
+        ensureLoaded();
+
+        return mExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                writePendingModifications();
+            }
+        });
+    }
+
+    private void ensureLoaded() {
+        if (!mIsLoadScheduled.get() && mIsLoadScheduled.compareAndSet(false, true)) {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    load();
+                }
+            });
+        }
+    }
+
+    private void awaitLoaded() {
+        ensureLoaded();
+
+        boolean isInterrupted = false;
+
+        // the reads must not miss the persisted entries (the loading is a one-time cost)
+        while (mLoadLatch.getCount() > 0) {
+            try {
+                mLoadLatch.await();
+            } catch (InterruptedException exception) {
+                isInterrupted = true;
+            }
+        }
+
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!mIsFlushScheduled.get() && mIsFlushScheduled.compareAndSet(false, true)) {
+            mExecutor.schedule(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        writePendingModifications();
+                    }
+                },
+                FLUSH_DELAY_IN_MILLIS,
+                TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    private void load() {
+        try {
+            loadPersistedEntries();
+        } finally {
+            mLoadLatch.countDown();
+        }
+    }
+
+    private void loadPersistedEntries() {
+        final int clearCount;
+
+        synchronized (mCacheMap) {
+            clearCount = mClearCount;
+        }
+
+        final Map<K, V> persistedEntries = new LinkedHashMap<>();
+
+        try {
+            openFile();
+            readRecords(persistedEntries);
+        } catch (IOException exception) {
+            Log.e(TAG, "Failed to read the persisted entries.", exception);
+            resetFile();
+        }
+
+        synchronized (mCacheMap) {
+            if (clearCount != mClearCount) {
+                return;
+            }
+
+            for (Map.Entry<K, V> entry : persistedEntries.entrySet()) {
+                final K key = entry.getKey();
+
+                // the modifications made in the meantime take precedence over the persisted entries
+                if (!mPendingWrites.containsKey(key) && !mCacheMap.containsKey(key)) {
+                    mCacheMap.put(key, entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void openFile() throws IOException {
+        final File parentDirectory = mFile.getParentFile();
+
+        if ((parentDirectory != null) && !parentDirectory.exists() && !parentDirectory.mkdirs()) {
+            throw new IOException("Failed to create the directory: " + parentDirectory);
+        }
+
+        mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+        mBuffer = map(Math.max(MIN_MAPPED_SIZE, (int) mRandomAccessFile.length()));
+
+        if ((mBuffer.getInt(0) != MAGIC) || (mBuffer.getInt(4) != VERSION)) {
+            writeHeader(HEADER_SIZE);
+        }
+
+        final long dataEnd = mBuffer.getLong(DATA_END_OFFSET);
+
+        if ((dataEnd < HEADER_SIZE) || (dataEnd > mBuffer.capacity())) {
+            throw new IOException("Corrupted file header.");
+        }
+
+        mDataEnd = (int) dataEnd;
+    }
+
+    private void readRecords(Map<K, V> entries) throws IOException {
+        int position = HEADER_SIZE;
+
+        while ((position + 4) <= mDataEnd) {
+            final int recordSize = mBuffer.getInt(position);
+
+            // dropping the corrupted tail of the log (if any)
+            if ((recordSize <= 0) || ((position + 4 + recordSize) > mDataEnd)) {
+                mDataEnd = position;
+                break;
+            }
+
+            final byte[] record = new byte[recordSize];
+            mBuffer.position(position + 4);
+            mBuffer.get(record);
+
+            final DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+            final byte recordType = input.readByte();
+            final K key = mKeySerializer.read(input);
+
+            if (recordType == RECORD_TYPE_PUT) {
+                entries.put(key, mValueSerializer.read(input));
+            } else {
+                entries.remove(key);
+            }
+
+            position += (4 + recordSize);
+            mRecordCount++;
+        }
+    }
+
+    private void writePendingModifications() {
+        mIsFlushScheduled.set(false);
+
+        if (mBuffer == null) {
+            return;
+        }
+
+        final boolean isClearPending;
+        final List<Map.Entry<K, Object>> pendingWrites;
+
+        // draining the modifications along with the clear flag, so that the ones made after the clear() are never lost
+        synchronized (mCacheMap) {
+            isClearPending = mIsClearPending;
+            mIsClearPending = false;
+            pendingWrites = new ArrayList<>(mPendingWrites.entrySet());
+            mPendingWrites.clear();
+        }
+
+        try {
+            if (isClearPending) {
+                mRecordCount = 0;
+                writeHeader(HEADER_SIZE);
+            }
+
+            for (Map.Entry<K, Object> pendingWrite : pendingWrites) {
+                writeRecord(pendingWrite.getKey(), pendingWrite.getValue());
+            }
+
+            mBuffer.putLong(DATA_END_OFFSET, mDataEnd);
+
+            if (shouldCompact()) {
+                compact();
+            }
+        } catch (IOException exception) {
+            Log.e(TAG, "Failed to persist the cache entries.", exception);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeRecord(K key, Object value) throws IOException {
+        mRecordStream.reset();
+
+        if (value == REMOVED) {
+            mRecordOutput.writeByte(RECORD_TYPE_REMOVE);
+            mKeySerializer.write(key, mRecordOutput);
+        } else {
+            mRecordOutput.writeByte(RECORD_TYPE_PUT);
+            mKeySerializer.write(key, mRecordOutput);
+            mValueSerializer.write((V) value, mRecordOutput);
+        }
+
+        final int recordSize = mRecordStream.size();
+        final int requiredSize = (mDataEnd + 4 + recordSize);
+
+        if (requiredSize > mBuffer.capacity()) {
+            mBuffer = map(Math.max(requiredSize, (mBuffer.capacity() * 2)));
+        }
+
+        mBuffer.position(mDataEnd);
+        mBuffer.putInt(recordSize);
+        mBuffer.put(mRecordStream.toByteArray());
+
+        mDataEnd = requiredSize;
+        mRecordCount++;
+    }
+
+    private boolean shouldCompact() {
+        final int entryCount;
+
+        synchronized (mCacheMap) {
+            entryCount = mCacheMap.size();
+        }
+
+        return ((mRecordCount > MIN_COMPACTION_RECORD_COUNT) && (mRecordCount > (entryCount * 2)));
+    }
+
+    private void compact() throws IOException {
+        final List<Map.Entry<K, V>> entries;
+
+        synchronized (mCacheMap) {
+            entries = new ArrayList<>(mCacheMap.entrySet());
+        }
+
+        mRecordCount = 0;
+        writeHeader(HEADER_SIZE);
+
+        for (Map.Entry<K, V> entry : entries) {
+            writeRecord(entry.getKey(), entry.getValue());
+        }
+
+        mBuffer.putLong(DATA_END_OFFSET, mDataEnd);
+        mBuffer.force();
+        mRandomAccessFile.setLength(Math.max(MIN_MAPPED_SIZE, mDataEnd));
+        mBuffer = map((int) mRandomAccessFile.length());
+    }
+
+    private void resetFile() {
+        try {
+            if (mRandomAccessFile == null) {
+                mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+            }
+
+            mRandomAccessFile.setLength(0);
+            mBuffer = map(MIN_MAPPED_SIZE);
+            mRecordCount = 0;
+            writeHeader(HEADER_SIZE);
+        } catch (IOException exception) {
+            Log.e(TAG, "Failed to reset the cache file.", exception);
+            mBuffer = null;
+        }
+    }
+
+    private void writeHeader(int dataEnd) {
+        mBuffer.putInt(0, MAGIC);
+        mBuffer.putInt(4, VERSION);
+        mBuffer.putLong(DATA_END_OFFSET, dataEnd);
+        mDataEnd = dataEnd;
+    }
+
+    private MappedByteBuffer map(int size) throws IOException {
+        return mRandomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * An access-ordered {@link LinkedHashMap} which evicts its least recently used entries
+     * once its capacity is exceeded.
+     */
+    private static final class BoundedMap<K, V> extends LinkedHashMap<K, V> {
+
+        private final int mCapacity;
+
+        BoundedMap(int capacity) {
+            super(16, 0.75f, true);
+            mCapacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return (size() > mCapacity);
+        }
+
+    }
+
+}
@@ -18,6 +18,7 @@ package com.arthurivanets.arvi.util.cache;
 
 import androidx.annotation.RestrictTo;
 
+import com.arthurivanets.arvi.ArviPlugins;
 import com.arthurivanets.arvi.model.PlaybackInfo;
 
 /**
@@ -26,12 +27,20 @@ import com.arthurivanets.arvi.model.PlaybackInfo;
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public final class PlaybackInfoCache implements Cache<String, PlaybackInfo> {
 
+    private static final ValueFactory<String, PlaybackInfo> PLAYBACK_INFO_FACTORY = new ValueFactory<String, PlaybackInfo>() {
+        @Override
+        public PlaybackInfo create(String key) {
+            return new PlaybackInfo();
+        }
+    };
+
     private static volatile PlaybackInfoCache sInstance;
 
     private final Cache<String, PlaybackInfo> mCache;
 
     /**
      * Lazily creates an instance of the {@link PlaybackInfoCache} (if necessary).
+     * The backing {@link Cache} is created based on the {@link ArviPlugins#getPlaybackInfoCacheConfig()}.
      *
      * @return the instance of the {@link PlaybackInfoCache}
      */
@@ -39,7 +48,7 @@ public final class PlaybackInfoCache implements Cache<String, PlaybackInfo> {
         if (sInstance == null) {
             synchronized (PlaybackInfoCache.class) {
                 if (sInstance == null) {
-                    sInstance = new PlaybackInfoCache();
+                    sInstance = new PlaybackInfoCache(ArviPlugins.getPlaybackInfoCacheConfig());
                 }
             }
         }
@@ -47,8 +56,8 @@ public final class PlaybackInfoCache implements Cache<String, PlaybackInfo> {
         return sInstance;
     }
 
-    private PlaybackInfoCache() {
-        mCache = CacheType.IN_MEMORY.create(true);
+    private PlaybackInfoCache(CacheConfig config) {
+        mCache = config.cacheType.createPlaybackInfoCache(true, config);
     }
 
     @Override
@@ -66,6 +75,42 @@ public final class PlaybackInfoCache implements Cache<String, PlaybackInfo> {
         return mCache.get(key, defaultValue);
     }
 
+    /**
+     * Retrieves the {@link PlaybackInfo} associated with the specified key (or the default one, if it's not present).
+     * <br>
+     * The caches that store the copies of the {@link PlaybackInfo}s (see {@link CacheConfig#compact}) read the present
+     * {@link PlaybackInfo} into the specified reusable one (so that the retrieval performs no allocations),
+     * while the rest of them return the cached instance.
+     *
+     * @param key           the key to retrieve the {@link PlaybackInfo} for
+     * @param defaultValue  the default {@link PlaybackInfo}
+     * @param reusableValue the {@link PlaybackInfo} to read the present one into (if the cache stores the copies)
+     * @return the corresponding {@link PlaybackInfo} if it's present, or the default one otherwise
+     */
+    public final PlaybackInfo get(String key, PlaybackInfo defaultValue, PlaybackInfo reusableValue) {
+        if (mCache instanceof ReusableValueCache) {
+            return ((ReusableValueCache<String, PlaybackInfo>) mCache).get(key, defaultValue, reusableValue);
+        }
+
+        return mCache.get(key, defaultValue);
+    }
+
+    @Override
+    public final PlaybackInfo getOrCreate(String key, ValueFactory<String, PlaybackInfo> valueFactory) {
+        return mCache.getOrCreate(key, valueFactory);
+    }
+
+    /**
+     * Retrieves the {@link PlaybackInfo} associated with the specified key, or creates (and puts) the default one,
+     * if it's not present yet. (Performs no allocations when the {@link PlaybackInfo} is present)
+     *
+     * @param key the key to retrieve the {@link PlaybackInfo} for
+     * @return the corresponding {@link PlaybackInfo}
+     */
+    public final PlaybackInfo getOrCreate(String key) {
+        return mCache.getOrCreate(key, PLAYBACK_INFO_FACTORY);
+    }
+
     @Override
     public final <RV> RV getAs(String key) {
         return mCache.getAs(key);
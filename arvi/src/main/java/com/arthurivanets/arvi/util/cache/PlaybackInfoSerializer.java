@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.model.PlaybackInfo;
+import com.arthurivanets.arvi.model.VolumeInfo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A {@link CacheSerializer} which writes the {@link PlaybackInfo} (along with its {@link VolumeInfo})
+ * as a fixed-size record of 21 bytes (position, duration, volume and a byte of flags).
+ */
+final class PlaybackInfoSerializer implements CacheSerializer<PlaybackInfo> {
+
+    static final PlaybackInfoSerializer INSTANCE = new PlaybackInfoSerializer();
+
+    private static final int FLAG_MUTED = 1;
+    private static final int FLAG_ENDED = (1 << 1);
+
+    private PlaybackInfoSerializer() {
+        // not instantiatable from the outside.
+    }
+
+    @Override
+    public final void write(@NonNull PlaybackInfo value, @NonNull DataOutput output) throws IOException {
+        final VolumeInfo volumeInfo = value.getVolumeInfo();
+        int flags = 0;
+        flags |= (volumeInfo.isMuted() ? FLAG_MUTED : 0);
+        flags |= (value.isEnded() ? FLAG_ENDED : 0);
+
+        output.writeLong(value.getPlaybackPosition());
+        output.writeLong(value.getDuration());
+        output.writeFloat(volumeInfo.getVolume());
+        output.writeByte(flags);
+    }
+
+    @NonNull
+    @Override
+    public final PlaybackInfo read(@NonNull DataInput input) throws IOException {
+        final long playbackPosition = input.readLong();
+        final long duration = input.readLong();
+        final float volume = input.readFloat();
+        final int flags = input.readByte();
+
+        return new PlaybackInfo()
+            .setPlaybackPosition(playbackPosition)
+            .setDuration(duration)
+            .setVolumeInfo(new VolumeInfo(volume, ((flags & FLAG_MUTED) != 0)))
+            .setEnded((flags & FLAG_ENDED) != 0);
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+/**
+ * A {@link Cache} which stores its values as copies, and is therefore able to read them
+ * into the caller-provided (reusable) instances, instead of allocating the new ones upon every retrieval.
+ *
+ * @param <K> cache entry key type
+ * @param <V> cache entry type
+ */
+interface ReusableValueCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Retrieves the value {@link V} associated with the specified key {@link K}, by reading it into
+     * the specified reusable value. In cases when the value {@link V} is not present within the cache,
+     * the specified default value is used instead.
+     *
+     * @param key           the key to retrieve the value for
+     * @param defaultValue  the default value
+     * @param reusableValue the value instance to read the present value into
+     * @return the reusable value (holding the present value), or the default one otherwise
+     */
+    V get(K key, V defaultValue, V reusableValue);
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A capacity-bounded in-memory {@link Cache} based on the Window TinyLFU eviction policy.
+ * <br>
+ * New entries are placed into a small LRU window (1% of the capacity); the entries evicted from the window
+ * compete against the eviction candidates of the main space (a segmented LRU which consists of the probation and
+ * protected segments), and the entry with the higher estimated access frequency ({@link FrequencySketch}) gets to stay.
+ * This allows the cache to retain the popular entries, while still being able to absorb the bursts of new ones.
+ *
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+final class WTinyLfuCache<K, V> extends BaseCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int mMaxSize;
+    private final int mMaxWindowSize;
+    private final int mMaxProtectedSize;
+
+    private final Map<K, Node<K, V>> mNodeMap;
+    private final FrequencySketch mSketch;
+
+    private final Node<K, V> mWindowHead;
+    private final Node<K, V> mProbationHead;
+    private final Node<K, V> mProtectedHead;
+
+    private int mWindowSize;
+    private int mProtectedSize;
+
+    WTinyLfuCache(int capacity) {
+        Preconditions.isTrue("You must specify a valid Cache Capacity.", (capacity > 0));
+
+        mMaxSize = capacity;
+        mMaxWindowSize = Math.max(1, (capacity / 100));
+        mMaxProtectedSize = (int) (0.8f * (capacity - mMaxWindowSize));
+        mNodeMap = new HashMap<>();
+        mSketch = new FrequencySketch(capacity);
+        mWindowHead = new Node<>(null, null);
+        mProbationHead = new Node<>(null, null);
+        mProtectedHead = new Node<>(null, null);
+    }
+
+    @Override
+    public final V put(K key, V value) {
+        mSketch.increment(key);
+
+        final Node<K, V> node = mNodeMap.get(key);
+
+        if (node != null) {
+            final V oldValue = node.value;
+            node.value = value;
+            onHit(node);
+
+            return oldValue;
+        }
+
+        final Node<K, V> newNode = new Node<>(key, value);
+
+        mNodeMap.put(key, newNode);
+        link(mWindowHead, newNode, WINDOW);
+
+        if (mWindowSize > mMaxWindowSize) {
+            onWindowOverflow();
+        }
+
+        return null;
+    }
+
+    @Override
+    public final V get(K key, V defaultValue) {
+        final Node<K, V> node = mNodeMap.get(key);
+
+        mSketch.increment(key);
+
+        if ((node == null) || (node.value == null)) {
+            return defaultValue;
+        }
+
+        onHit(node);
+
+        return node.value;
+    }
+
+    @Override
+    public final V remove(K key, V defaultValue) {
+        final Node<K, V> node = mNodeMap.remove(key);
+
+        if (node == null) {
+            return defaultValue;
+        }
+
+        unlink(node);
+
+        return ((node.value != null) ? node.value : defaultValue);
+    }
+
+    @Override
+    public final boolean contains(K key) {
+        final Node<K, V> node = mNodeMap.get(key);
+        return ((node != null) && (node.value != null));
+    }
+
+    @Override
+    public final boolean clear() {
+        mNodeMap.clear();
+        clearQueue(mWindowHead);
+        clearQueue(mProbationHead);
+        clearQueue(mProtectedHead);
+        mWindowSize = 0;
+        mProtectedSize = 0;
+
+        return true;
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.queue) {
+
+            case WINDOW:
+                unlink(node);
+                link(mWindowHead, node, WINDOW);
+                break;
+
+            case PROBATION:
+                // promoting the entry to the protected segment, and demoting the protected segment overflow (if any)
+                unlink(node);
+                link(mProtectedHead, node, PROTECTED);
+
+                if (mProtectedSize > mMaxProtectedSize) {
+                    final Node<K, V> demotedNode = mProtectedHead.next;
+
+                    unlink(demotedNode);
+                    link(mProbationHead, demotedNode, PROBATION);
+                }
+                break;
+
+            case PROTECTED:
+                unlink(node);
+                link(mProtectedHead, node, PROTECTED);
+                break;
+
+        }
+    }
+
+    private void onWindowOverflow() {
+        // moving the window victim to the main space, where it's going to compete against the main space victim
+        final Node<K, V> candidate = mWindowHead.next;
+
+        unlink(candidate);
+        link(mProbationHead, candidate, PROBATION);
+
+        if (mNodeMap.size() <= mMaxSize) {
+            return;
+        }
+
+        final Node<K, V> victim = mProbationHead.next;
+        final boolean isCandidateAdmitted = (
+            (victim != candidate)
+                && (mSketch.frequency(candidate.key) > mSketch.frequency(victim.key))
+        );
+
+        evict(isCandidateAdmitted ? victim : candidate);
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        mNodeMap.remove(node.key);
+    }
+
+    private void link(Node<K, V> head, Node<K, V> node, int queue) {
+        node.queue = queue;
+        node.previous = head.previous;
+        node.next = head;
+        head.previous.next = node;
+        head.previous = node;
+
+        if (queue == WINDOW) {
+            mWindowSize++;
+        } else if (queue == PROTECTED) {
+            mProtectedSize++;
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+
+        if (node.queue == WINDOW) {
+            mWindowSize--;
+        } else if (node.queue == PROTECTED) {
+            mProtectedSize--;
+        }
+    }
+
+    private static <K, V> void clearQueue(Node<K, V> head) {
+        head.previous = head;
+        head.next = head;
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+        V value;
+
+        int queue;
+
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+
+            // the queue heads point to themselves, which makes the queues circular
+            if (key == null) {
+                this.previous = this;
+                this.next = this;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.misc;
+
+import android.os.SystemClock;
+
+import androidx.annotation.RestrictTo;
+
+/**
+ * A source of the monotonic time (in millis), which lets the time-dependent components be driven by the fake clocks in tests.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public interface Clock {
+
+    /**
+     * The clock backed by the {@link SystemClock#elapsedRealtime()}.
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long elapsedRealtime() {
+            return SystemClock.elapsedRealtime();
+        }
+    };
+
+    /**
+     * Retrieves the time elapsed since the boot (including the deep sleep).
+     *
+     * @return the time in millis
+     */
+    long elapsedRealtime();
+
+}
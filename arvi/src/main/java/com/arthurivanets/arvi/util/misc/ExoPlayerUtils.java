@@ -17,10 +17,9 @@
 package com.arthurivanets.arvi.util.misc;
 
 import android.content.Context;
-import android.graphics.Point;
-import android.graphics.Rect;
 import android.os.Handler;
 import android.view.View;
+import android.view.ViewParent;
 
 import androidx.annotation.FloatRange;
 import androidx.annotation.NonNull;
@@ -79,7 +78,8 @@ public final class ExoPlayerUtils {
 
     /**
      * Calculates the amount of the visibility of the {@link com.google.android.exoplayer2.ui.PlayerView}
-     * on the screen.
+     * on the screen (see {@link VisibleAreaCalculator}; the containers performing the frequent calculations
+     * are expected to use their own calculator instances instead).
      * Used to determine the visibility area ratio (a value between 0.0 and 1.0), so that further
      * playback management related actions can be taken by the host {@link com.arthurivanets.arvi.widget.PlayableItemsContainer}.
      *
@@ -90,26 +90,13 @@ public final class ExoPlayerUtils {
     public static float getVisibleAreaOffset(@NonNull Playable playable) {
         Preconditions.nonNull(playable);
 
-        if (playable.getParent() == null) {
-            return 0f;
-        }
-
-        final View playerView = playable.getPlayerView();
-
-        final Rect drawRect = new Rect();
-        final Rect playerRect = new Rect();
+        final ViewParent itemView = playable.getParent();
 
-        playerView.getDrawingRect(drawRect);
-
-        final int drawArea = (drawRect.width() * drawRect.height());
-        final boolean isVisible = playerView.getGlobalVisibleRect(playerRect, new Point());
-
-        if (isVisible && (drawArea > 0)) {
-            final int visibleArea = (playerRect.height() * playerRect.width());
-            return (visibleArea / (float) drawArea);
+        if (!(itemView instanceof View)) {
+            return 0f;
         }
 
-        return 0f;
+        return new VisibleAreaCalculator().calculate(playable.getPlayerView(), (View) itemView);
     }
 
     /**
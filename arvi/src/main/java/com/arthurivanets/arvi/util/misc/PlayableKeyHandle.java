@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.misc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * A memoized key of the {@link com.arthurivanets.arvi.widget.Playable}, which gets recomputed
+ * only when the underlying Url or Tag changes (e.g. when the item view holder gets rebound).
+ * Makes the repeated key retrievals allocation-free (and lets the reused {@link String} key keep its cached hash code).
+ * <br>
+ * (Not thread-safe, meant to be used on the Main Thread)
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class PlayableKeyHandle {
+
+    private String mUrl;
+    private String mTag;
+    private String mKey;
+
+    /**
+     * Retrieves the key that corresponds to the specified Url and Tag (recomputes it only if they've changed).
+     *
+     * @param url the url of the Playable
+     * @param tag the tag of the Playable
+     * @return the key of the Playable
+     */
+    @NonNull
+    public final String getKey(@NonNull String url, @NonNull String tag) {
+        if ((mKey == null) || !url.equals(mUrl) || !tag.equals(mTag)) {
+            mUrl = url;
+            mTag = tag;
+            mKey = (url + tag);
+        }
+
+        return mKey;
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.misc;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import androidx.annotation.FloatRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * An allocation-free calculator of the visible area ratio of the Player Views within the item views of the scrollable containers
+ * (e.g. of the {@link androidx.recyclerview.widget.RecyclerView}).
+ * <br>
+ * The bounds of the Player View are computed relative to its item view and then offset by the bounds of the item view within its container
+ * (the ones assigned by the Layout Manager, along with the translation of the item), so that only the visible part of the container itself
+ * gets resolved against the window. The calculator reuses its scratch {@link Rect}s between the calls, and keeps no other state,
+ * so the results always reflect the current scroll/layout state of the container.
+ * <br>
+ * (Not thread-safe, each thread [normally, the Main Thread] is expected to use its own instance)
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class VisibleAreaCalculator {
+
+    private final Rect mItemRect;
+    private final Rect mClipRect;
+
+    public VisibleAreaCalculator() {
+        mItemRect = new Rect();
+        mClipRect = new Rect();
+    }
+
+    /**
+     * Calculates the visible area ratio of the specified Player View, which is hosted by the specified item view.
+     *
+     * @param playerView the player view (either the item view itself, or one of its descendants)
+     * @param itemView   the item view (a direct child of the scrollable container)
+     * @return the visible area ratio (a value between 0.0 and 1.0)
+     */
+    @FloatRange(from = 0.0, to = 1.0)
+    public final float calculate(@NonNull View playerView, @NonNull View itemView) {
+        Preconditions.nonNull(playerView);
+        Preconditions.nonNull(itemView);
+
+        final ViewParent container = itemView.getParent();
+
+        if ((playerView.getWidth() <= 0) || (playerView.getHeight() <= 0) || !(container instanceof ViewGroup)) {
+            return 0f;
+        }
+
+        // the bounds of the player view within the item view
+        mItemRect.set(0, 0, playerView.getWidth(), playerView.getHeight());
+
+        if ((playerView != itemView) && (itemView instanceof ViewGroup)) {
+            ((ViewGroup) itemView).offsetDescendantRectToMyCoords(playerView, mItemRect);
+        }
+
+        // the bounds of the player view within the container
+        mItemRect.offset(
+            (itemView.getLeft() + (int) itemView.getTranslationX()),
+            (itemView.getTop() + (int) itemView.getTranslationY())
+        );
+
+        if (!resolveClip((ViewGroup) container)) {
+            return 0f;
+        }
+
+        return calculateVisibleRatio(mItemRect, mClipRect);
+    }
+
+    /**
+     * Resolves the visible part of the specified container (in its own coordinates) into the clip {@link Rect}.
+     *
+     * @return <strong>true</strong> if the container is at least partially visible, <strong>false</strong> otherwise
+     */
+    private boolean resolveClip(ViewGroup container) {
+        if (!container.getLocalVisibleRect(mClipRect)) {
+            return false;
+        }
+
+        // the children are not drawn over the padding of the container (if it clips them)
+        if (container.getClipToPadding()) {
+            mClipRect.left = Math.max(mClipRect.left, container.getPaddingLeft());
+            mClipRect.top = Math.max(mClipRect.top, container.getPaddingTop());
+            mClipRect.right = Math.min(mClipRect.right, (container.getWidth() - container.getPaddingRight()));
+            mClipRect.bottom = Math.min(mClipRect.bottom, (container.getHeight() - container.getPaddingBottom()));
+        }
+
+        return true;
+    }
+
+    /**
+     * Calculates the ratio of the area of the specified bounds that lies within the specified clip
+     * (both are expected to be in the same coordinates, and are not modified).
+     *
+     * @param bounds the bounds
+     * @param clip   the clip
+     * @return the visible area ratio (a value between 0.0 and 1.0)
+     */
+    @VisibleForTesting
+    @FloatRange(from = 0.0, to = 1.0)
+    static float calculateVisibleRatio(@NonNull Rect bounds, @NonNull Rect clip) {
+        final long area = ((long) (bounds.right - bounds.left) * (bounds.bottom - bounds.top));
+        final int visibleWidth = (Math.min(bounds.right, clip.right) - Math.max(bounds.left, clip.left));
+        final int visibleHeight = (Math.min(bounds.bottom, clip.bottom) - Math.max(bounds.top, clip.top));
+
+        if ((area <= 0L) || (visibleWidth <= 0) || (visibleHeight <= 0)) {
+            return 0f;
+        }
+
+        return Math.min(1f, (((long) visibleWidth * visibleHeight) / (float) area));
+    }
+
+}
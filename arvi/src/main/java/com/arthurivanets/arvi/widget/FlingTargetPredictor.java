@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+/**
+ * Predicts the placement of the items of the {@link PlayableItemsContainer} once its fling settles, so that the
+ * {@link Playable} the fling is going to settle on can be prepared in advance (see {@link Playable#prepare()}).
+ * <br>
+ * The prediction starts with the total distance of the fling (see {@link #onFling(int, int)}), which then gets consumed
+ * by the actual scroll deltas (see {@link #onScrolled(int, int)}), until either the predicted distance is fully scrolled,
+ * or the prediction gets cancelled (see {@link #cancel()}).
+ * <br>
+ * (Not thread-safe, meant to be used on the Main Thread)
+ */
+final class FlingTargetPredictor {
+
+    private int mRemainingDistanceX;
+    private int mRemainingDistanceY;
+
+    private Playable mTarget;
+
+    /**
+     * Starts a new prediction for the fling of the specified (total) distance.
+     */
+    final void onFling(int distanceX, int distanceY) {
+        mRemainingDistanceX = distanceX;
+        mRemainingDistanceY = distanceY;
+        mTarget = null;
+    }
+
+    /**
+     * Consumes the specified scroll deltas (finishes the prediction when the predicted distance gets fully scrolled).
+     */
+    final void onScrolled(int dx, int dy) {
+        if (!isPredicting()) {
+            return;
+        }
+
+        mRemainingDistanceX = consume(mRemainingDistanceX, dx);
+        mRemainingDistanceY = consume(mRemainingDistanceY, dy);
+
+        if (!isPredicting()) {
+            mTarget = null;
+        }
+    }
+
+    private static int consume(int remainingDistance, int delta) {
+        final int distance = (remainingDistance - delta);
+
+        // scrolling past the predicted distance leaves nothing to predict
+        return ((Integer.signum(distance) == Integer.signum(remainingDistance)) ? distance : 0);
+    }
+
+    /**
+     * Cancels the ongoing prediction (if there's any).
+     */
+    final void cancel() {
+        mRemainingDistanceX = 0;
+        mRemainingDistanceY = 0;
+        mTarget = null;
+    }
+
+    /**
+     * Determines whether there's an ongoing prediction.
+     */
+    final boolean isPredicting() {
+        return ((mRemainingDistanceX != 0) || (mRemainingDistanceY != 0));
+    }
+
+    /**
+     * Records the specified {@link Playable} as the predicted target of the ongoing fling.
+     *
+     * @return <strong>true</strong> if the target differs from the previously recorded one (and thus needs to be prepared), <strong>false</strong> otherwise
+     */
+    final boolean updateTarget(@NonNull Playable target) {
+        Preconditions.nonNull(target);
+
+        if (target == mTarget) {
+            return false;
+        }
+
+        mTarget = target;
+
+        return true;
+    }
+
+    /**
+     * Calculates the fraction of the specified item bounds that is going to be within the specified viewport
+     * once the fling settles (all the bounds are relative to the container).
+     *
+     * @return the visible fraction (a value between 0.0 and 1.0)
+     */
+    final float getSettledVisibleFraction(int left, int top, int right, int bottom,
+                                          int viewportLeft, int viewportTop, int viewportRight, int viewportBottom) {
+        final long area = ((long) (right - left) * (bottom - top));
+
+        if ((area <= 0) || !isPredicting()) {
+            return 0f;
+        }
+
+        final int visibleLeft = Math.max((left - mRemainingDistanceX), viewportLeft);
+        final int visibleTop = Math.max((top - mRemainingDistanceY), viewportTop);
+        final int visibleRight = Math.min((right - mRemainingDistanceX), viewportRight);
+        final int visibleBottom = Math.min((bottom - mRemainingDistanceY), viewportBottom);
+
+        if ((visibleLeft >= visibleRight) || (visibleTop >= visibleBottom)) {
+            return 0f;
+        }
+
+        return (((long) (visibleRight - visibleLeft) * (visibleBottom - visibleTop)) / (float) area);
+    }
+
+    /**
+     * Clamps the specified fling distance to the scrollable range of the container.
+     *
+     * @param distance        the fling distance
+     * @param scrollOffset    the current scroll offset of the container
+     * @param maxScrollOffset the maximum scroll offset of the container
+     * @return the clamped distance
+     */
+    static int clampDistance(int distance, int scrollOffset, int maxScrollOffset) {
+        return Math.max(-scrollOffset, Math.min(distance, (maxScrollOffset - scrollOffset)));
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import androidx.annotation.FloatRange;
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import static com.arthurivanets.arvi.util.misc.Preconditions.checkNonNull;
+
+/**
+ * Defines how the {@link PlayableItemsContainer} decides which of its {@link Playable} items gets the focus (i.e. gets to play).
+ * <br>
+ * The item can get the focus once it wants to play, i.e. once its visible area ratio reaches its own trigger offset
+ * (see {@link Playable#wantsToPlay(float)} and {@link PlayableItemViewHolder#getTriggerOffset()}), while the focused item keeps the focus
+ * until its visible area ratio drops below the trigger offset lowered by the {@link #hysteresis} (the gap between the two keeps the items
+ * hovering near the trigger offset from flipping between the playing and paused states).
+ * Among the items that can get the focus, the one with the highest {@link Scorer} score wins,
+ * yet the focused item can be taken over by a higher scored item only after it's been focused for at least the {@link #minDwellTimeInMillis}.
+ * <br>
+ * (The {@link PlayableItemsContainer.AutoplayMode#MULTIPLE_SIMULTANEOUSLY} mode focuses all the items that can get the focus,
+ * so only the thresholds apply to it)
+ */
+public final class FocusPolicy {
+
+    public static final float DEFAULT_HYSTERESIS = 0.4f;
+    public static final long DEFAULT_MIN_DWELL_TIME_IN_MILLIS = 500L;
+
+    /**
+     * The default policy (with the {@link Scorer#IN_LAYOUT_ORDER} scoring).
+     */
+    public static final FocusPolicy DEFAULT = new Builder().build();
+
+    /**
+     * The policy that focuses the first item that wants to play right away, and unfocuses it as soon as it no longer wants to play
+     * (the policy without the hysteresis and the dwell time).
+     */
+    public static final FocusPolicy IMMEDIATE = new Builder()
+        .hysteresis(0f)
+        .minDwellTime(0L)
+        .build();
+
+    @FloatRange(from = 0.0, to = 1.0, toInclusive = false)
+    public final float hysteresis;
+
+    public final long minDwellTimeInMillis;
+
+    @NonNull
+    public final Scorer scorer;
+
+    private FocusPolicy(Builder builder) {
+        this.hysteresis = builder.hysteresis;
+        this.minDwellTimeInMillis = builder.minDwellTimeInMillis;
+        this.scorer = builder.scorer;
+    }
+
+    /**
+     * Scores the items that can get the focus (the higher the score, the more preferable the item is).
+     */
+    public interface Scorer {
+
+        /**
+         * Prefers the items that come first in the layout order.
+         */
+        Scorer IN_LAYOUT_ORDER = new Scorer() {
+            @Override
+            public float getScore(int position, float visibleAreaOffset, float centerOffset) {
+                return -position;
+            }
+        };
+
+        /**
+         * Prefers the most visible items (the ones that come first in the layout order win the ties).
+         */
+        Scorer MOST_VISIBLE = new Scorer() {
+            @Override
+            public float getScore(int position, float visibleAreaOffset, float centerOffset) {
+                return visibleAreaOffset;
+            }
+        };
+
+        /**
+         * Prefers the items that are the closest to the center of the container.
+         */
+        Scorer CLOSEST_TO_CENTER = new Scorer() {
+            @Override
+            public float getScore(int position, float visibleAreaOffset, float centerOffset) {
+                return -centerOffset;
+            }
+        };
+
+        /**
+         * Prefers the first of the fully visible items (or the most visible item, if none of them is fully visible).
+         */
+        Scorer FIRST_FULLY_VISIBLE = new Scorer() {
+            @Override
+            public float getScore(int position, float visibleAreaOffset, float centerOffset) {
+                return ((visibleAreaOffset >= 1f) ? (1f + (1f / (position + 1))) : visibleAreaOffset);
+            }
+        };
+
+        /**
+         * Calculates the score of the item.
+         *
+         * @param position          the position of the item among the candidate items (in the layout order)
+         * @param visibleAreaOffset the visible area ratio of the item (a value between 0.0 and 1.0)
+         * @param centerOffset      the distance between the center of the item and the center of the container
+         *                          (along the scroll axis), relative to the half of the container size
+         * @return the score
+         */
+        float getScore(int position, float visibleAreaOffset, float centerOffset);
+
+    }
+
+    public static final class Builder {
+
+        private float hysteresis;
+        private long minDwellTimeInMillis;
+        private Scorer scorer;
+
+        public Builder() {
+            this.hysteresis = DEFAULT_HYSTERESIS;
+            this.minDwellTimeInMillis = DEFAULT_MIN_DWELL_TIME_IN_MILLIS;
+            this.scorer = Scorer.IN_LAYOUT_ORDER;
+        }
+
+        /**
+         * Sets the share of the trigger offset of the item by which its visible area ratio can drop below the trigger offset
+         * before the focused item loses the focus (e.g. the default 0.4 unfocuses the items of the default 0.5 trigger offset
+         * once their visible area ratio drops below 0.3, and the ones of the 0.8 trigger offset - below 0.48).
+         * (0.0 unfocuses the items as soon as they no longer want to play)
+         */
+        public Builder hysteresis(@FloatRange(from = 0.0, to = 1.0, toInclusive = false) float hysteresis) {
+            Preconditions.isTrue("The hysteresis must be within [0.0, 1.0).", ((hysteresis >= 0f) && (hysteresis < 1f)));
+            this.hysteresis = hysteresis;
+            return this;
+        }
+
+        /**
+         * Sets the minimum amount of time the item stays focused before a higher scored item can take the focus over.
+         * (The item that drops below its lowered trigger offset loses the focus right away)
+         */
+        public Builder minDwellTime(long minDwellTimeInMillis) {
+            Preconditions.isTrue("The min dwell time must not be negative.", (minDwellTimeInMillis >= 0L));
+            this.minDwellTimeInMillis = minDwellTimeInMillis;
+            return this;
+        }
+
+        public Builder scorer(@NonNull Scorer scorer) {
+            this.scorer = checkNonNull(scorer);
+            return this;
+        }
+
+        public FocusPolicy build() {
+            return new FocusPolicy(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.util.misc.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Prepares the playback of the {@link Playable} items surrounding the focused one in advance (see {@link Playable#prepare()}),
+ * namely of the configured number of the items that follow the focused one in the direction of the scroll (the look-ahead ones),
+ * and of the ones that precede it (the look-behind ones).
+ * <br>
+ * The closer the item is to the focused one, the higher its priority is: the items are prepared in the order of their distance
+ * (the look-ahead ones go first within the same distance), and only as many of them as the specified limit allows
+ * (e.g. as the remaining Player budget allows). The items that drop out of the look-ahead window (e.g. when the scroll direction reverses)
+ * get their preparation cancelled (see {@link Playable#cancelPreparation()}).
+ * <br>
+ * (Not thread-safe, meant to be used on the Main Thread)
+ */
+final class LookAheadPreloader {
+
+    /**
+     * The direction towards the items of the greater adapter positions.
+     */
+    static final int DIRECTION_FORWARD = 1;
+
+    /**
+     * The direction towards the items of the lesser adapter positions.
+     */
+    static final int DIRECTION_BACKWARD = -1;
+
+    private int mAheadItemCount;
+    private int mBehindItemCount;
+
+    // the items prepared by the preloader (in the order of their priority), and the ones selected by the ongoing update
+    private Playable[] mPreloadedItems;
+    private int mPreloadedItemCount;
+    private Playable[] mSelectedItems;
+    private int mSelectedItemCount;
+
+    LookAheadPreloader() {
+        mPreloadedItems = new Playable[0];
+        mSelectedItems = new Playable[0];
+    }
+
+    /**
+     * Sets the number of the look-ahead and look-behind items (cancels the preparation of all the currently preloaded items).
+     */
+    final void setLookAhead(int aheadItemCount, int behindItemCount) {
+        Preconditions.isTrue("The look-ahead item count cannot be negative.", (aheadItemCount >= 0));
+        Preconditions.isTrue("The look-behind item count cannot be negative.", (behindItemCount >= 0));
+
+        cancel();
+
+        mAheadItemCount = aheadItemCount;
+        mBehindItemCount = behindItemCount;
+        mPreloadedItems = new Playable[aheadItemCount + behindItemCount];
+        mSelectedItems = new Playable[aheadItemCount + behindItemCount];
+    }
+
+    final int getAheadItemCount() {
+        return mAheadItemCount;
+    }
+
+    final int getBehindItemCount() {
+        return mBehindItemCount;
+    }
+
+    /**
+     * Determines whether the preloading is enabled (i.e. whether there's at least one look-ahead or look-behind item).
+     */
+    final boolean isEnabled() {
+        return ((mAheadItemCount + mBehindItemCount) > 0);
+    }
+
+    /**
+     * Calculates the max number of the items that can be preloaded without exceeding the Player budget,
+     * and without making the Player Pool reassign the players of the active items (the pool reassigns its players once it's full).
+     *
+     * @param playerBudget    the Player budget (see {@link com.arthurivanets.arvi.PlayerProvider#getPlayerBudget()})
+     * @param poolMaxSize     the max size of the Player Pool of the focused item
+     * @param activeItemCount the number of the active (playing) items
+     * @return the max number of the items that can be preloaded
+     */
+    static int getMaxPreloadCount(int playerBudget, int poolMaxSize, int activeItemCount) {
+        return Math.max(0, (Math.min(playerBudget, poolMaxSize) - Math.max(1, activeItemCount)));
+    }
+
+    /**
+     * Updates the preloaded items based on the candidates of the specified {@link PlaybackArbitrator} and its focused (first active) candidate.
+     * (The preloaded items are left intact if there's no focused candidate)
+     *
+     * @param arbitrator      the arbitrator (after the arbitration)
+     * @param direction       the direction of the scroll ({@link #DIRECTION_FORWARD} or {@link #DIRECTION_BACKWARD})
+     * @param maxPreloadCount the max number of the items that can be preloaded
+     */
+    final void update(@NonNull PlaybackArbitrator arbitrator, int direction, int maxPreloadCount) {
+        Preconditions.nonNull(arbitrator);
+        Preconditions.isTrue("Unknown direction.", ((direction == DIRECTION_FORWARD) || (direction == DIRECTION_BACKWARD)));
+
+        final int focusedIndex = arbitrator.getActiveCandidateIndex();
+
+        if (!isEnabled() || (focusedIndex < 0)) {
+            return;
+        }
+
+        final int candidateCount = arbitrator.getCandidateCount();
+        final int preloadLimit = Math.min(maxPreloadCount, mSelectedItems.length);
+        final int maxDistance = Math.max(mAheadItemCount, mBehindItemCount);
+
+        mSelectedItemCount = 0;
+
+        // selecting the items in the order of their priority
+        for (int distance = 1; (distance <= maxDistance) && (mSelectedItemCount < preloadLimit); distance++) {
+            if (distance <= mAheadItemCount) {
+                select(arbitrator, (focusedIndex + (distance * direction)), candidateCount);
+            }
+
+            if ((distance <= mBehindItemCount) && (mSelectedItemCount < preloadLimit)) {
+                select(arbitrator, (focusedIndex - (distance * direction)), candidateCount);
+            }
+        }
+
+        // cancelling the preparation of the items that are no longer within the window
+        Playable playable;
+
+        for (int i = 0; i < mPreloadedItemCount; i++) {
+            playable = mPreloadedItems[i];
+
+            if (!contains(mSelectedItems, mSelectedItemCount, playable) && !playable.isPlaying()) {
+                playable.cancelPreparation();
+            }
+        }
+
+        // preparing the newly selected ones
+        for (int i = 0; i < mSelectedItemCount; i++) {
+            playable = mSelectedItems[i];
+
+            if (!contains(mPreloadedItems, mPreloadedItemCount, playable)) {
+                playable.prepare();
+            }
+        }
+
+        // swapping the buffers
+        final Playable[] preloadedItems = mPreloadedItems;
+
+        mPreloadedItems = mSelectedItems;
+        mSelectedItems = preloadedItems;
+        Arrays.fill(mSelectedItems, 0, mPreloadedItemCount, null);
+        mPreloadedItemCount = mSelectedItemCount;
+        mSelectedItemCount = 0;
+    }
+
+    private void select(PlaybackArbitrator arbitrator, int index, int candidateCount) {
+        if ((index < 0) || (index >= candidateCount)) {
+            return;
+        }
+
+        final Playable candidate = arbitrator.getCandidate(index);
+
+        if (!candidate.isPlaying()) {
+            mSelectedItems[mSelectedItemCount++] = candidate;
+        }
+    }
+
+    private static boolean contains(Playable[] items, int count, Playable playable) {
+        for (int i = 0; i < count; i++) {
+            if (items[i] == playable) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Forgets the specified item (e.g. when it gets detached), without cancelling its preparation.
+     */
+    final void remove(@NonNull Playable playable) {
+        Preconditions.nonNull(playable);
+
+        for (int i = 0; i < mPreloadedItemCount; i++) {
+            if (mPreloadedItems[i] == playable) {
+                System.arraycopy(mPreloadedItems, (i + 1), mPreloadedItems, i, (mPreloadedItemCount - i - 1));
+                mPreloadedItems[--mPreloadedItemCount] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cancels the preparation of all the preloaded items (except for the ones that are already playing).
+     */
+    final void cancel() {
+        Playable playable;
+
+        for (int i = 0; i < mPreloadedItemCount; i++) {
+            playable = mPreloadedItems[i];
+
+            if (!playable.isPlaying()) {
+                playable.cancelPreparation();
+            }
+
+            mPreloadedItems[i] = null;
+        }
+
+        mPreloadedItemCount = 0;
+    }
+
+    /**
+     * Retrieves the number of the currently preloaded items.
+     */
+    final int getPreloadedItemCount() {
+        return mPreloadedItemCount;
+    }
+
+}
@@ -19,6 +19,7 @@ package com.arthurivanets.arvi.widget;
 import android.view.View;
 import android.view.ViewParent;
 
+import androidx.annotation.FloatRange;
 import androidx.annotation.NonNull;
 
 import com.arthurivanets.arvi.Config;
@@ -34,6 +35,18 @@ public interface Playable extends PlayabilityStateChangeObserver {
      */
     void start();
 
+    /**
+     * Prepares the playback in advance (acquires the player and prepares the media source), while holding it
+     * until the {@link #start()} gets called (which then starts the playback without preparing it anew).
+     */
+    void prepare();
+
+    /**
+     * Cancels the in-advance preparation of the playback (see {@link #prepare()}), if there's any,
+     * giving the prepared player back (while keeping the playback position intact).
+     */
+    void cancelPreparation();
+
     /**
      * Restarts the playback.
      */
@@ -118,6 +131,7 @@ public interface Playable extends PlayabilityStateChangeObserver {
     /**
      * Composes the key out the url {@link #getUrl()}  and tag {@link #getTag()} to be used
      * for the internal management of the {@link com.arthurivanets.arvi.player.Player} instances.
+     * (The key is expected to be a stable [e.g. memoized] instance, as it's used for the frequent lookups)
      * (override the {@link #getTag()} in cases when you need to prevent the sharing of the {@link com.arthurivanets.arvi.player.Player}
      * instances and corresponding {@link PlaybackInfo}s between the {@link Playable}s with the same media urls.)
      *
@@ -165,4 +179,17 @@ public interface Playable extends PlayabilityStateChangeObserver {
      */
     boolean wantsToPlay();
 
+    /**
+     * Determines if the current item is visible enough to be able to start the playback, given its already calculated
+     * visible area ratio (see {@link com.arthurivanets.arvi.util.misc.ExoPlayerUtils#getVisibleAreaOffset(Playable)}),
+     * so that the callers which have just calculated the ratio don't make the item recalculate it.
+     * (By default, falls back to {@link #wantsToPlay()})
+     *
+     * @param visibleAreaOffset the visible area ratio of the item (a value between 0.0 and 1.0)
+     * @return whether the item wants to start the playback
+     */
+    default boolean wantsToPlay(@FloatRange(from = 0.0, to = 1.0) float visibleAreaOffset) {
+        return wantsToPlay();
+    }
+
 }
@@ -27,12 +27,14 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.arthurivanets.arvi.Config;
+import com.arthurivanets.arvi.PlaybackQoeTracker;
 import com.arthurivanets.arvi.PlayerProviderImpl;
 import com.arthurivanets.arvi.model.PlaybackInfo;
 import com.arthurivanets.arvi.model.VolumeInfo;
 import com.arthurivanets.arvi.player.Player;
 import com.arthurivanets.arvi.util.cache.PlaybackInfoCache;
 import com.arthurivanets.arvi.util.misc.ExoPlayerUtils;
+import com.arthurivanets.arvi.util.misc.PlayableKeyHandle;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.TrackGroupArray;
@@ -64,14 +66,29 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
 
     private static final float DEFAULT_TRIGGER_OFFSET = 0.5f;
 
+    // the fallback of the absent PlaybackInfos used by the read-only lookups (must never be modified)
+    private static final PlaybackInfo DEFAULT_PLAYBACK_INFO = new PlaybackInfo();
+
     public final ViewGroup mParentViewGroup;
     public final PlayerView mPlayerView;
 
+    private final PlayableKeyHandle mKeyHandle;
+    private final PlaybackQoeTracker mQoeTracker;
+
+    // the instance the read-only lookups read the copied PlaybackInfos into (see CacheConfig#compact)
+    private final PlaybackInfo mPeekedPlaybackInfo;
+
+    // the media source the player has been prepared with in advance (if there's any)
+    private MediaSource mPreparedMediaSource;
+
     public PlayableItemViewHolder(ViewGroup parentViewGroup, View itemView) {
         super(itemView);
 
         mParentViewGroup = parentViewGroup;
         mPlayerView = itemView.findViewById(com.arthurivanets.arvi.R.id.player_view);
+        mKeyHandle = new PlayableKeyHandle();
+        mQoeTracker = new PlaybackQoeTracker();
+        mPeekedPlaybackInfo = new PlaybackInfo();
     }
 
     @Override
@@ -85,6 +102,24 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
         }
     }
 
+    @Override
+    public final void prepare() {
+        if (!isTrulyPlayable() || isPlaying()) {
+            return;
+        }
+
+        preparePlayer();
+    }
+
+    @Override
+    public final void cancelPreparation() {
+        if (!isTrulyPlayable() || (mPreparedMediaSource == null)) {
+            return;
+        }
+
+        cancelPlayerPreparation();
+    }
+
     @Override
     public final void restart() {
         if (!isTrulyPlayable()) {
@@ -126,36 +161,99 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
     }
 
     private boolean startPlayer() {
-        // creating/updating the PlaybackInfo for this particular Playable
-        final PlaybackInfo playbackInfo = getPlaybackInfo();
+        // reading the PlaybackInfo for this particular Playable (the default one gets put into the cache only once modified)
+        final PlaybackInfo playbackInfo = peekPlaybackInfo();
         final VolumeInfo volumeInfo = playbackInfo.getVolumeInfo();
 
-        setPlaybackInfo(playbackInfo);
-
         // determining whether the current Playable should play this time
         final boolean shouldPlay = (isLooping() || !playbackInfo.isEnded() || canStartPlaying());
 
-        // preparing the Player
+        // preparing the Player (unless it's been prepared in advance)
         final Player player = getOrInitPlayer();
+        final boolean isPreparedInAdvance = isPreparedInAdvance(player);
+
+        mPreparedMediaSource = null;
+
         player.init();
         player.attach(mPlayerView);
         player.getVolumeController().setVolume(volumeInfo.getVolume());
         player.getVolumeController().setMuted(volumeInfo.isMuted());
-        player.setMediaSource(createMediaSource());
+
+        if (!isPreparedInAdvance) {
+            player.setMediaSource(createMediaSource());
+        }
+
         player.setAttachmentStateDelegate(this);
         player.addEventListener(this);
 
         // performing the playing related operations (if necessary)
         if (shouldPlay) {
-            player.seek(playbackInfo.getPlaybackPosition());
-            player.prepare(false);
+            mQoeTracker.start(getKey(), player, isPreparedInAdvance);
+            player.setFocused(true);
+
+            if (!isPreparedInAdvance) {
+                player.seek(playbackInfo.getPlaybackPosition());
+                player.prepare(false);
+            }
+
             player.play();
         }
 
         return shouldPlay;
     }
 
+    private void preparePlayer() {
+        final PlaybackInfo playbackInfo = peekPlaybackInfo();
+
+        // the ended playback won't be started again, so there's nothing to prepare
+        if (!isLooping() && playbackInfo.isEnded() && !canStartPlaying()) {
+            return;
+        }
+
+        final Player player = getOrInitPlayer();
+
+        if (isPreparedInAdvance(player)) {
+            return;
+        }
+
+        // preparing the Player (muted, paused and unfocused, so that it buffers less than the focused one)
+        player.init();
+        player.attach(mPlayerView);
+        player.getVolumeController().setMuted(true);
+        player.setMediaSource(createMediaSource());
+        player.setAttachmentStateDelegate(this);
+        player.setFocused(false);
+        player.pause();
+        player.seek(playbackInfo.getPlaybackPosition());
+        player.prepare(false);
+
+        mPreparedMediaSource = player.getMediaSource();
+    }
+
+    private void cancelPlayerPreparation() {
+        final Player player = getPlayer();
+        final boolean isPreparedInAdvance = ((player != null) && isPreparedInAdvance(player));
+
+        mPreparedMediaSource = null;
+
+        // giving the Player back to the pool (while keeping the PlaybackInfo)
+        if (isPreparedInAdvance) {
+            player.stop(false);
+            player.detach(mPlayerView);
+            player.setAttachmentStateDelegate(null);
+            unregisterPlayer();
+        }
+    }
+
+    private boolean isPreparedInAdvance(Player player) {
+        return ((mPreparedMediaSource != null)
+            && (mPreparedMediaSource == player.getMediaSource())
+            && (player.getPlaybackState() != Player.PlaybackState.IDLE));
+    }
+
     private void restartPlayer() {
+        mPreparedMediaSource = null;
+
         // updating the PlaybackInfo
         final PlaybackInfo playbackInfo = getPlaybackInfo();
         playbackInfo.setPlaybackPosition(0);
@@ -174,26 +272,33 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
         player.setAttachmentStateDelegate(this);
         player.removeEventListener(this);
         player.addEventListener(this);
+        mQoeTracker.start(getKey(), player);
+        player.setFocused(true);
         player.seek(playbackInfo.getPlaybackPosition());
         player.prepare(false);
         player.play();
     }
 
     private void pausePlayer() {
+        mQoeTracker.finish();
+
         final Player player = getPlayer();
-        final PlaybackInfo playbackInfo = getPlaybackInfo();
 
         if (player != null) {
             player.pause();
+            player.setFocused(false);
             player.removeEventListener(this);
 
+            final PlaybackInfo playbackInfo = getPlaybackInfo();
             playbackInfo.setPlaybackPosition(player.getPlaybackPosition());
             setPlaybackInfo(playbackInfo);
         }
     }
 
     private void stopPlayer() {
-        final PlaybackInfo playbackInfo = getPlaybackInfo();
+        mPreparedMediaSource = null;
+        mQoeTracker.finish();
+
         final Player player = getPlayer();
 
         if (player != null) {
@@ -203,12 +308,16 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
             player.setAttachmentStateDelegate(null);
             player.removeEventListener(this);
 
+            final PlaybackInfo playbackInfo = getPlaybackInfo();
             playbackInfo.setPlaybackPosition(0L);
             setPlaybackInfo(playbackInfo);
         }
     }
 
     private void releasePlayer() {
+        mPreparedMediaSource = null;
+        mQoeTracker.finish();
+
         final Player player = getPlayer();
         unregisterPlayer();
         removePlaybackInfo();
@@ -224,11 +333,12 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
 
     @Override
     public final void seekTo(long positionInMillis) {
-        final PlaybackInfo playbackInfo = getPlaybackInfo();
         final Player player = getPlayer();
 
         if (player != null) {
             player.seek(positionInMillis);
+
+            final PlaybackInfo playbackInfo = getPlaybackInfo();
             playbackInfo.setPlaybackPosition(positionInMillis);
             setPlaybackInfo(playbackInfo);
         }
@@ -282,7 +392,18 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
 
     @Override
     public final PlaybackInfo getPlaybackInfo() {
-        return PlaybackInfoCache.getInstance().get(getKey(), new PlaybackInfo());
+        final PlaybackInfo playbackInfo = PlaybackInfoCache.getInstance().get(getKey());
+
+        // the default PlaybackInfo gets put into the cache only once it's modified (see setPlaybackInfo())
+        return ((playbackInfo != null) ? playbackInfo : new PlaybackInfo());
+    }
+
+    /**
+     * Retrieves the cached {@link PlaybackInfo} for the read-only purposes
+     * (neither puts nor creates the absent one, the returned instance must never be modified).
+     */
+    private PlaybackInfo peekPlaybackInfo() {
+        return PlaybackInfoCache.getInstance().get(getKey(), DEFAULT_PLAYBACK_INFO, mPeekedPlaybackInfo);
     }
 
     private void removePlaybackInfo() {
@@ -309,7 +430,7 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
     @NonNull
     @Override
     public final String getKey() {
-        return (getUrl() + getTag());
+        return mKeyHandle.getKey(getUrl(), getTag());
     }
 
     /**
@@ -363,10 +484,8 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
      */
     @FloatRange(from = 0.0, to = 1.0)
     protected final float getVolume() {
-        final PlaybackInfo playbackInfo = getPlaybackInfo();
         final Player player = getPlayer();
-
-        return ((player != null) ? player.getVolumeController().getVolume() : playbackInfo.getVolumeInfo().getVolume());
+        return ((player != null) ? player.getVolumeController().getVolume() : peekPlaybackInfo().getVolumeInfo().getVolume());
     }
 
     /**
@@ -398,10 +517,8 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
      * @return the muted state of the audio.
      */
     protected final boolean isMuted() {
-        final PlaybackInfo playbackInfo = getPlaybackInfo();
         final Player player = getPlayer();
-
-        return ((player != null) ? player.getVolumeController().isMuted() : playbackInfo.getVolumeInfo().isMuted());
+        return ((player != null) ? player.getVolumeController().isMuted() : peekPlaybackInfo().getVolumeInfo().isMuted());
     }
 
     @Override
@@ -432,7 +549,12 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
 
     @Override
     public final boolean wantsToPlay() {
-        return (ExoPlayerUtils.getVisibleAreaOffset(this) >= getTriggerOffset());
+        return wantsToPlay(ExoPlayerUtils.getVisibleAreaOffset(this));
+    }
+
+    @Override
+    public final boolean wantsToPlay(float visibleAreaOffset) {
+        return (visibleAreaOffset >= getTriggerOffset());
     }
 
     /**
@@ -503,19 +625,19 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
     }
 
     private void onPlaybackIdle() {
-        getPlaybackInfo().setEnded(isEnded());
+        updateEndedState();
 
         onStateChanged(PlaybackState.STOPPED);
     }
 
     private void onPlaybackBuffering() {
-        getPlaybackInfo().setEnded(isEnded());
+        updateEndedState();
 
         onStateChanged(PlaybackState.BUFFERING);
     }
 
     private void onPlaybackReady() {
-        getPlaybackInfo().setEnded(isEnded());
+        updateEndedState();
 
         onStateChanged(PlaybackState.READY);
     }
@@ -529,6 +651,17 @@ public abstract class PlayableItemViewHolder extends RecyclerView.ViewHolder imp
         setPlaybackInfo(playbackInfo);
     }
 
+    private void updateEndedState() {
+        final boolean isEnded = isEnded();
+
+        // putting the PlaybackInfo back (the in-place modifications are not necessarily visible to the cache)
+        if (peekPlaybackInfo().isEnded() != isEnded) {
+            final PlaybackInfo playbackInfo = getPlaybackInfo();
+            playbackInfo.setEnded(isEnded);
+            setPlaybackInfo(playbackInfo);
+        }
+    }
+
     @Override
     public final void onLoadingChanged(boolean isLoading) {
         // do nothing.
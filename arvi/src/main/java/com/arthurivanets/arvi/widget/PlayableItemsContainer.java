@@ -129,4 +129,45 @@ public interface PlayableItemsContainer {
      */
     boolean isAutoplayEnabled();
 
+    /**
+     * Sets the {@link FocusPolicy}, which is going to define which of the {@link Playable} items
+     * get the focus (i.e. get to play), and when the focus moves from one item to another.
+     *
+     * @param focusPolicy the focus policy
+     */
+    void setFocusPolicy(@NonNull FocusPolicy focusPolicy);
+
+    /**
+     * Retrieves the current {@link FocusPolicy}.
+     *
+     * @return the current Focus Policy
+     */
+    @NonNull
+    FocusPolicy getFocusPolicy();
+
+    /**
+     * Sets the number of the {@link Playable} items whose playback is to be prepared in advance (see {@link Playable#prepare()}),
+     * namely of the items that follow the focused one in the direction of the scroll (the look-ahead ones),
+     * and of the ones that precede it (the look-behind ones). The closer items are prepared first,
+     * and only as many of them as the Player budget allows. (Both counts default to 0, which disables the preloading)
+     *
+     * @param aheadItemCount  the number of the look-ahead items
+     * @param behindItemCount the number of the look-behind items
+     */
+    void setLookAhead(int aheadItemCount, int behindItemCount);
+
+    /**
+     * Retrieves the number of the look-ahead items (see {@link #setLookAhead(int, int)}).
+     *
+     * @return the number of the look-ahead items
+     */
+    int getLookAheadItemCount();
+
+    /**
+     * Retrieves the number of the look-behind items (see {@link #setLookAhead(int, int)}).
+     *
+     * @return the number of the look-behind items
+     */
+    int getLookBehindItemCount();
+
 }
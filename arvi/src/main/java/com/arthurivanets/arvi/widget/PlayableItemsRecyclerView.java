@@ -18,19 +18,22 @@ package com.arthurivanets.arvi.widget;
 
 import android.content.Context;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.View;
+import android.widget.OverScroller;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.arthurivanets.arvi.Config;
+import com.arthurivanets.arvi.PlayerProvider;
 import com.arthurivanets.arvi.PlayerProviderImpl;
 import com.arthurivanets.arvi.player.Player;
 import com.arthurivanets.arvi.util.misc.Preconditions;
+import com.arthurivanets.arvi.util.misc.VisibleAreaCalculator;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import static com.arthurivanets.arvi.util.misc.CollectionUtils.hashSetOf;
@@ -48,13 +51,50 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
 
     private final Set<PlaybackTriggeringState> mPlaybackTriggeringStates = new HashSet<>();
 
+    // supplies the item distances from the viewport, so that the players of the furthest items get evicted first
+    private final ViewportDistanceTracker mViewportDistanceTracker = new ViewportDistanceTracker();
+
+    private final PlaybackArbitrator mPlaybackArbitrator = new PlaybackArbitrator();
+
+    // calculates the visible area ratios of the items (reusing its scratch objects between the evaluations)
+    private final VisibleAreaCalculator mVisibleAreaCalculator = new VisibleAreaCalculator();
+
+    // predicts the item the fling settles on, so that its player can be prepared before the scroll ends
+    private final FlingTargetPredictor mFlingTargetPredictor = new FlingTargetPredictor();
+
+    // prepares the items surrounding the focused one (in the direction of the scroll)
+    private final LookAheadPreloader mLookAheadPreloader = new LookAheadPreloader();
+
+    // coalesces the scroll-triggered playback evaluations (at most one per frame)
+    private final Choreographer.FrameCallback mPlaybackFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mIsPlaybackEvaluationScheduled = false;
+            handleItemPlayback(canPlay(), false);
+        }
+    };
+
+    // applies the focus change that's been waiting for the dwell time to pass (even if the scroll has gone idle by then)
+    private final Choreographer.FrameCallback mFocusChangeFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mIsFocusChangeEvaluationScheduled = false;
+            handleItemPlayback(canPlay(), false);
+        }
+    };
+
     private int mPreviousScrollDeltaX;
     private int mPreviousScrollDeltaY;
+    private int mScrollDirection;
 
     private AutoplayMode mAutoplayMode;
 
+    private OverScroller mFlingDistanceCalculator;
+
     private boolean mIsAutoplayEnabled;
     private boolean mIsScrolling;
+    private boolean mIsPlaybackEvaluationScheduled;
+    private boolean mIsFocusChangeEvaluationScheduled;
 
     public PlayableItemsRecyclerView(Context context) {
         super(context);
@@ -74,8 +114,10 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
     private void init() {
         mPreviousScrollDeltaX = 0;
         mPreviousScrollDeltaY = 0;
+        mScrollDirection = LookAheadPreloader.DIRECTION_FORWARD;
         mAutoplayMode = AutoplayMode.ONE_AT_A_TIME;
         mIsAutoplayEnabled = true;
+        mFlingDistanceCalculator = new OverScroller(getContext());
 
         mPlaybackTriggeringStates.addAll(DEFAULT_PLAYBACK_TRIGGERING_STATES);
 
@@ -84,29 +126,38 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
 
     @Override
     public final void startPlayback() {
-        handleItemPlayback(true);
+        handleItemPlayback(true, true);
     }
 
     @Override
     public final void stopPlayback() {
+        mLookAheadPreloader.cancel();
         stopItemPlayback();
     }
 
     @Override
     public final void pausePlayback() {
+        mLookAheadPreloader.cancel();
         pauseItemPlayback();
     }
 
     @Override
     protected final void onAttachedToWindow() {
         super.onAttachedToWindow();
+        PlayerProviderImpl.getInstance(getContext()).registerViewportDistanceProvider(mViewportDistanceTracker);
         startPlayback();
     }
 
     @Override
     protected final void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        cancelItemPlaybackEvaluation();
+        mFlingTargetPredictor.cancel();
+        mLookAheadPreloader.cancel();
         releaseAllItems();
+        PlayerProviderImpl.getInstance(getContext()).unregisterViewportDistanceProvider(mViewportDistanceTracker);
+        mViewportDistanceTracker.reset();
+        mPlaybackArbitrator.reset();
     }
 
     @Override
@@ -143,6 +194,7 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
 
         // releasing the associated player (Playable-wise) and other resources
         final Playable playable = (Playable) viewHolder;
+        mLookAheadPreloader.remove(playable);
         playable.release();
     }
 
@@ -175,43 +227,233 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
         playable.release();
     }
 
-    private void handleItemPlayback(boolean allowPlay) {
-        final List<Playable> playableItems = new ArrayList<>();
+    /**
+     * Schedules the evaluation of the item playback on the next frame (unless it's been already scheduled).
+     */
+    private void scheduleItemPlaybackEvaluation() {
+        if (mIsPlaybackEvaluationScheduled) {
+            return;
+        }
+
+        mIsPlaybackEvaluationScheduled = true;
+        Choreographer.getInstance().postFrameCallback(mPlaybackFrameCallback);
+    }
+
+    /**
+     * Schedules the evaluation of the item playback for the time the pending focus change becomes due
+     * (unless it's been already scheduled, the earlier scheduled evaluation simply reschedules it, if necessary).
+     */
+    private void scheduleFocusChangeEvaluation(long delayInMillis) {
+        if (mIsFocusChangeEvaluationScheduled) {
+            return;
+        }
+
+        mIsFocusChangeEvaluationScheduled = true;
+        Choreographer.getInstance().postFrameCallbackDelayed(mFocusChangeFrameCallback, delayInMillis);
+    }
+
+    private void cancelItemPlaybackEvaluation() {
+        if (mIsPlaybackEvaluationScheduled) {
+            mIsPlaybackEvaluationScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mPlaybackFrameCallback);
+        }
+
+        if (mIsFocusChangeEvaluationScheduled) {
+            mIsFocusChangeEvaluationScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mFocusChangeFrameCallback);
+        }
+    }
+
+    private void handleItemPlayback(boolean allowPlay, boolean force) {
+        mViewportDistanceTracker.update(this);
+        mPlaybackArbitrator.beginEvaluation();
+
+        final LayoutManager layoutManager = getLayoutManager();
+        final boolean isHorizontal = ((layoutManager != null) && layoutManager.canScrollHorizontally() && !layoutManager.canScrollVertically());
+        final boolean clipToPadding = getClipToPadding();
+        final int viewportStart;
+        final int viewportEnd;
+
+        // the viewport along the scroll axis
+        if (isHorizontal) {
+            viewportStart = (clipToPadding ? getPaddingLeft() : 0);
+            viewportEnd = (getWidth() - (clipToPadding ? getPaddingRight() : 0));
+        } else {
+            viewportStart = (clipToPadding ? getPaddingTop() : 0);
+            viewportEnd = (getHeight() - (clipToPadding ? getPaddingBottom() : 0));
+        }
+
+        final float viewportCenter = ((viewportStart + viewportEnd) / 2f);
+        final float viewportHalfSize = Math.max(1f, ((viewportEnd - viewportStart) / 2f));
         final int childCount = getChildCount();
-        final boolean canHaveMultipleActiveItems = AutoplayMode.MULTIPLE_SIMULTANEOUSLY.equals(mAutoplayMode);
 
         RecyclerView.ViewHolder viewHolder;
-        boolean isInPlayableArea;
-        boolean hasActiveItem = false;
+        View child;
+        float childCenter;
 
-        // extracting all the playable visible items
+        // extracting all the playable visible items (along with their visibility and distance from the center)
         for (int i = 0; i < childCount; i++) {
-            viewHolder = findContainingViewHolder(getChildAt(i));
+            child = getChildAt(i);
+            viewHolder = findContainingViewHolder(child);
 
             if ((viewHolder instanceof Playable)
                 && ((Playable) viewHolder).isTrulyPlayable()) {
-                playableItems.add((Playable) viewHolder);
+                childCenter = (isHorizontal
+                    ? (child.getLeft() + child.getTranslationX() + (child.getWidth() / 2f))
+                    : (child.getTop() + child.getTranslationY() + (child.getHeight() / 2f)));
+
+                mPlaybackArbitrator.addCandidate(
+                    (Playable) viewHolder,
+                    mVisibleAreaCalculator.calculate(((Playable) viewHolder).getPlayerView(), child),
+                    (Math.abs(childCenter - viewportCenter) / viewportHalfSize)
+                );
             }
         }
 
         // processing the extracted Playable items
-        for (Playable playable : playableItems) {
-            isInPlayableArea = playable.wantsToPlay();
-
-            // handling the playback state
-            if (isInPlayableArea && (!hasActiveItem || canHaveMultipleActiveItems)) {
-                if (!playable.isPlaying()
-                    && mIsAutoplayEnabled
-                    && allowPlay) {
-                    playable.start();
-                }
-
-                hasActiveItem = true;
-            } else if (playable.isPlaying()) {
-                playable.pause();
+        mPlaybackArbitrator.arbitrate(
+            allowPlay,
+            mIsAutoplayEnabled,
+            mAutoplayMode,
+            force
+        );
+
+        // the scroll may go idle before the pending focus change becomes due, so it has to be re-evaluated on its own
+        final long focusChangeDelay = mPlaybackArbitrator.getPendingFocusChangeDelay();
+
+        if (focusChangeDelay != PlaybackArbitrator.NO_PENDING_FOCUS_CHANGE) {
+            scheduleFocusChangeEvaluation(focusChangeDelay);
+        }
+
+        prepareFlingTarget();
+        preloadItems();
+    }
+
+    /**
+     * Prepares the look-ahead/look-behind items of the focused {@link Playable} item (see {@link #setLookAhead(int, int)}),
+     * leaving the room within the Player budget (and within the Player Pool of the focused item) for the players of the active items.
+     */
+    private void preloadItems() {
+        if (!mLookAheadPreloader.isEnabled()) {
+            return;
+        }
+
+        if (!mIsAutoplayEnabled) {
+            mLookAheadPreloader.cancel();
+            return;
+        }
+
+        final int focusedIndex = mPlaybackArbitrator.getActiveCandidateIndex();
+
+        if (focusedIndex < 0) {
+            return;
+        }
+
+        // the preloaded items share the Player Pool of the focused one (mostly), which must not reassign the players of the active items
+        final PlayerProvider playerProvider = PlayerProviderImpl.getInstance(getContext());
+        final Config focusedItemConfig = mPlaybackArbitrator.getCandidate(focusedIndex).getConfig();
+        final int maxPreloadCount = LookAheadPreloader.getMaxPreloadCount(
+            playerProvider.getPlayerBudget(),
+            playerProvider.getPlayerPoolMaxSize(focusedItemConfig),
+            mPlaybackArbitrator.getActiveCandidateCount()
+        );
+
+        mLookAheadPreloader.update(mPlaybackArbitrator, mScrollDirection, maxPreloadCount);
+    }
+
+    /**
+     * Predicts the total distance of the fling of the specified velocity (the same way the {@link RecyclerView} itself flings),
+     * and starts the prediction of the item the fling is going to settle on.
+     */
+    private void predictFlingTarget(int velocityX, int velocityY) {
+        final LayoutManager layoutManager = getLayoutManager();
+
+        if (layoutManager == null) {
+            return;
+        }
+
+        final int maxVelocity = getMaxFlingVelocity();
+        final int clampedVelocityX = (layoutManager.canScrollHorizontally() ? Math.max(-maxVelocity, Math.min(velocityX, maxVelocity)) : 0);
+        final int clampedVelocityY = (layoutManager.canScrollVertically() ? Math.max(-maxVelocity, Math.min(velocityY, maxVelocity)) : 0);
+
+        mFlingDistanceCalculator.fling(
+            0, 0,
+            clampedVelocityX, clampedVelocityY,
+            Integer.MIN_VALUE, Integer.MAX_VALUE,
+            Integer.MIN_VALUE, Integer.MAX_VALUE
+        );
+
+        final int distanceX = FlingTargetPredictor.clampDistance(
+            mFlingDistanceCalculator.getFinalX(),
+            computeHorizontalScrollOffset(),
+            (computeHorizontalScrollRange() - computeHorizontalScrollExtent())
+        );
+        final int distanceY = FlingTargetPredictor.clampDistance(
+            mFlingDistanceCalculator.getFinalY(),
+            computeVerticalScrollOffset(),
+            (computeVerticalScrollRange() - computeVerticalScrollExtent())
+        );
+
+        mFlingDistanceCalculator.forceFinished(true);
+        mFlingTargetPredictor.onFling(distanceX, distanceY);
+    }
+
+    /**
+     * Prepares (muted and paused) the player of the attached {@link Playable} item that's going to be the most visible one
+     * once the ongoing fling settles (if there's any), so that its playback can start right away.
+     */
+    private void prepareFlingTarget() {
+        if (!mIsAutoplayEnabled || !mFlingTargetPredictor.isPredicting()) {
+            return;
+        }
+
+        final boolean clipToPadding = getClipToPadding();
+        final int viewportLeft = (clipToPadding ? getPaddingLeft() : 0);
+        final int viewportTop = (clipToPadding ? getPaddingTop() : 0);
+        final int viewportRight = (getWidth() - (clipToPadding ? getPaddingRight() : 0));
+        final int viewportBottom = (getHeight() - (clipToPadding ? getPaddingBottom() : 0));
+        final int childCount = getChildCount();
+
+        RecyclerView.ViewHolder viewHolder;
+        View child;
+        Playable target = null;
+        float targetVisibleFraction = 0f;
+        float visibleFraction;
+        int left;
+        int top;
+
+        for (int i = 0; i < childCount; i++) {
+            child = getChildAt(i);
+            viewHolder = findContainingViewHolder(child);
+
+            if (!(viewHolder instanceof Playable)
+                || !((Playable) viewHolder).isTrulyPlayable()) {
+                continue;
+            }
+
+            left = (child.getLeft() + (int) child.getTranslationX());
+            top = (child.getTop() + (int) child.getTranslationY());
+            visibleFraction = mFlingTargetPredictor.getSettledVisibleFraction(
+                left,
+                top,
+                (left + child.getWidth()),
+                (top + child.getHeight()),
+                viewportLeft,
+                viewportTop,
+                viewportRight,
+                viewportBottom
+            );
+
+            if (visibleFraction > targetVisibleFraction) {
+                target = (Playable) viewHolder;
+                targetVisibleFraction = visibleFraction;
             }
+        }
 
-            playable.onPlayabilityStateChanged(isInPlayableArea);
+        if ((target != null)
+            && !target.isPlaying()
+            && mFlingTargetPredictor.updateTarget(target)) {
+            target.prepare();
         }
     }
 
@@ -286,6 +528,49 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
         return mPlaybackTriggeringStates;
     }
 
+    @Override
+    public final void setFocusPolicy(@NonNull FocusPolicy focusPolicy) {
+        mPlaybackArbitrator.setFocusPolicy(focusPolicy);
+        scheduleItemPlaybackEvaluation();
+    }
+
+    @NonNull
+    @Override
+    public final FocusPolicy getFocusPolicy() {
+        return mPlaybackArbitrator.getFocusPolicy();
+    }
+
+    @Override
+    public final void setLookAhead(int aheadItemCount, int behindItemCount) {
+        mLookAheadPreloader.setLookAhead(aheadItemCount, behindItemCount);
+        scheduleItemPlaybackEvaluation();
+    }
+
+    @Override
+    public final int getLookAheadItemCount() {
+        return mLookAheadPreloader.getAheadItemCount();
+    }
+
+    @Override
+    public final int getLookBehindItemCount() {
+        return mLookAheadPreloader.getBehindItemCount();
+    }
+
+    /**
+     * Sets the maximum number of consecutive scroll-triggered playback evaluations that can be skipped
+     * when neither the visible {@link Playable} items nor their states have changed since the last applied evaluation
+     * (<strong>0</strong> makes every frame that follows a scroll event re-evaluate the playback).
+     *
+     * @param skipBudget the skip budget (16 by default)
+     */
+    public final void setPlaybackEvaluationSkipBudget(int skipBudget) {
+        mPlaybackArbitrator.setSkipBudget(skipBudget);
+    }
+
+    public final int getPlaybackEvaluationSkipBudget() {
+        return mPlaybackArbitrator.getSkipBudget();
+    }
+
     private PlaybackTriggeringState getPlaybackStateForScrollState(int scrollState) {
         switch (scrollState) {
 
@@ -317,10 +602,27 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
         return mIsAutoplayEnabled;
     }
 
+    @Override
+    public final boolean fling(int velocityX, int velocityY) {
+        final boolean isFlinging = super.fling(velocityX, velocityY);
+
+        // the flings handled by the OnFlingListener (e.g. by the SnapHelper) settle the way that cannot be predicted here
+        if (isFlinging && (getOnFlingListener() == null)) {
+            predictFlingTarget(velocityX, velocityY);
+        }
+
+        return isFlinging;
+    }
+
     @Override
     public final void onScrollStateChanged(int state) {
         super.onScrollStateChanged(state);
-        handleItemPlayback(canPlay());
+
+        if (state != SCROLL_STATE_SETTLING) {
+            mFlingTargetPredictor.cancel();
+        }
+
+        scheduleItemPlaybackEvaluation();
     }
 
     @Override
@@ -328,8 +630,16 @@ public final class PlayableItemsRecyclerView extends RecyclerView implements Pla
         super.onScrolled(dx, dy);
 
         mIsScrolling = ((Math.abs(mPreviousScrollDeltaX - dx) > 0) || (Math.abs(mPreviousScrollDeltaY - dy) > 0));
+        mFlingTargetPredictor.onScrolled(dx, dy);
+
+        // the direction of the look-ahead preloading
+        final int scrollDelta = ((dy != 0) ? dy : dx);
+
+        if (scrollDelta != 0) {
+            mScrollDirection = ((scrollDelta > 0) ? LookAheadPreloader.DIRECTION_FORWARD : LookAheadPreloader.DIRECTION_BACKWARD);
+        }
 
-        handleItemPlayback(canPlay());
+        scheduleItemPlaybackEvaluation();
 
         mPreviousScrollDeltaX = dx;
         mPreviousScrollDeltaY = dy;
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.arthurivanets.arvi.util.misc.Clock;
+import com.arthurivanets.arvi.util.misc.Preconditions;
+import com.arthurivanets.arvi.widget.PlayableItemsContainer.AutoplayMode;
+
+import java.util.Arrays;
+
+/**
+ * Makes the playback decisions (which of the visible {@link Playable} items should be started, and which - paused)
+ * for the {@link PlayableItemsContainer}, independently of the container's views.
+ * <br>
+ * The candidates (the visible truly playable items, in their layout order) are collected anew for every evaluation
+ * (see {@link #beginEvaluation()} and {@link #addCandidate(Playable, float, float)}), while the decisions are applied in {@link #arbitrate(boolean, boolean, AutoplayMode, boolean)}.
+ * The focus is assigned according to the {@link FocusPolicy} (with the hysteresis relative to the trigger offsets of the items, and the min dwell time of the focused item).
+ * <br>
+ * If the candidates, their states and the arbitration inputs are the same as right after the last applied evaluation (and there's no pending
+ * change of the focus, waiting for the dwell time to pass), the evaluation gets skipped, but only for up to the {@link #getSkipBudget()}
+ * consecutive times (to pick up the changes the arbitrator cannot observe).
+ * <br>
+ * The candidate buffers are reused between the evaluations (to keep them allocation-free).
+ * <br>
+ * (Not thread-safe, meant to be used on the Main Thread)
+ */
+final class PlaybackArbitrator {
+
+    /**
+     * The default number of consecutive unchanged evaluations that can be skipped.
+     */
+    static final int DEFAULT_SKIP_BUDGET = 16;
+
+    static final long NO_PENDING_FOCUS_CHANGE = -1L;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final int NO_INDEX = -1;
+
+    private static final int STATE_WANTS_TO_PLAY = 1;
+    private static final int STATE_PLAYING = (1 << 1);
+    private static final int STATE_CAN_KEEP_FOCUS = (1 << 2);
+
+    private final Clock mClock;
+
+    // the candidates of the current evaluation
+    private Playable[] mCandidates;
+    private int[] mCandidateStates;
+    private float[] mCandidateVisibleAreaOffsets;
+    private float[] mCandidateCenterOffsets;
+    private int mCandidateCount;
+
+    // the candidates of the last applied evaluation
+    private Playable[] mAppliedCandidates;
+    private int[] mAppliedCandidateStates;
+    private float[] mAppliedCandidateVisibleAreaOffsets;
+    private float[] mAppliedCandidateCenterOffsets;
+    private int mAppliedCandidateCount;
+
+    private AutoplayMode mAppliedAutoplayMode;
+    private boolean mAppliedAllowPlay;
+    private boolean mAppliedAutoplayEnabled;
+    private boolean mHasAppliedEvaluation;
+
+    // the outcome of the last applied evaluation
+    private int mActiveCandidateIndex;
+    private int mActiveCandidateCount;
+
+    // the focused item (of the AutoplayMode.ONE_AT_A_TIME mode)
+    private Playable mFocusedCandidate;
+    private String mFocusedCandidateKey;
+    private long mFocusStartTime;
+    private boolean mHasPendingFocusChange;
+
+    private FocusPolicy mFocusPolicy;
+
+    private int mSkipBudget;
+    private int mSkippedEvaluationCount;
+
+    PlaybackArbitrator() {
+        this(Clock.SYSTEM);
+    }
+
+    @VisibleForTesting
+    PlaybackArbitrator(@NonNull Clock clock) {
+        mClock = Preconditions.checkNonNull(clock);
+        mCandidates = new Playable[INITIAL_CAPACITY];
+        mCandidateStates = new int[INITIAL_CAPACITY];
+        mCandidateVisibleAreaOffsets = new float[INITIAL_CAPACITY];
+        mCandidateCenterOffsets = new float[INITIAL_CAPACITY];
+        mAppliedCandidates = new Playable[INITIAL_CAPACITY];
+        mAppliedCandidateStates = new int[INITIAL_CAPACITY];
+        mAppliedCandidateVisibleAreaOffsets = new float[INITIAL_CAPACITY];
+        mAppliedCandidateCenterOffsets = new float[INITIAL_CAPACITY];
+        mActiveCandidateIndex = NO_INDEX;
+        mFocusPolicy = FocusPolicy.DEFAULT;
+        mSkipBudget = DEFAULT_SKIP_BUDGET;
+    }
+
+    /**
+     * Starts a new evaluation (drops the previously collected candidates).
+     */
+    final void beginEvaluation() {
+        Arrays.fill(mCandidates, 0, mCandidateCount, null);
+        mCandidateCount = 0;
+    }
+
+    /**
+     * Adds the next candidate of the current evaluation (capturing its current state).
+     *
+     * @param playable          the candidate
+     * @param visibleAreaOffset the visible area ratio of the candidate (a value between 0.0 and 1.0)
+     * @param centerOffset      the distance between the center of the candidate and the center of the container
+     *                          (along the scroll axis), relative to the half of the container size
+     */
+    final void addCandidate(@NonNull Playable playable, float visibleAreaOffset, float centerOffset) {
+        Preconditions.nonNull(playable);
+
+        if (mCandidateCount == mCandidates.length) {
+            final int capacity = (mCandidates.length * 2);
+            mCandidates = Arrays.copyOf(mCandidates, capacity);
+            mCandidateStates = Arrays.copyOf(mCandidateStates, capacity);
+            mCandidateVisibleAreaOffsets = Arrays.copyOf(mCandidateVisibleAreaOffsets, capacity);
+            mCandidateCenterOffsets = Arrays.copyOf(mCandidateCenterOffsets, capacity);
+        }
+
+        int state = 0;
+
+        if (playable.wantsToPlay(visibleAreaOffset)) {
+            state |= (STATE_WANTS_TO_PLAY | STATE_CAN_KEEP_FOCUS);
+        } else if (canKeepFocus(playable, visibleAreaOffset)) {
+            state |= STATE_CAN_KEEP_FOCUS;
+        }
+
+        if (playable.isPlaying()) {
+            state |= STATE_PLAYING;
+        }
+
+        mCandidates[mCandidateCount] = playable;
+        mCandidateStates[mCandidateCount] = state;
+        mCandidateVisibleAreaOffsets[mCandidateCount] = visibleAreaOffset;
+        mCandidateCenterOffsets[mCandidateCount] = centerOffset;
+        mCandidateCount++;
+    }
+
+    /**
+     * Applies the playback decisions to the collected candidates, unless nothing has changed since the last applied evaluation
+     * (and the skip budget hasn't been exhausted yet).
+     *
+     * @param allowPlay         whether the candidates are allowed to be started
+     * @param isAutoplayEnabled whether the autoplay is enabled
+     * @param autoplayMode      the autoplay mode
+     * @param force             whether the evaluation must not be skipped
+     * @return <strong>true</strong> if the decisions were applied, <strong>false</strong> if the evaluation was skipped
+     */
+    final boolean arbitrate(boolean allowPlay,
+                            boolean isAutoplayEnabled,
+                            @NonNull AutoplayMode autoplayMode,
+                            boolean force) {
+        Preconditions.nonNull(autoplayMode);
+
+        if (!force
+            && !mHasPendingFocusChange
+            && (mSkippedEvaluationCount < mSkipBudget)
+            && isSameAsApplied(allowPlay, isAutoplayEnabled, autoplayMode)) {
+            mSkippedEvaluationCount++;
+            return false;
+        }
+
+        final boolean canHaveMultipleActiveItems = AutoplayMode.MULTIPLE_SIMULTANEOUSLY.equals(autoplayMode);
+        final int focusedIndex = (canHaveMultipleActiveItems ? NO_INDEX : updateFocus());
+
+        Playable playable;
+        boolean isActive;
+
+        mActiveCandidateIndex = NO_INDEX;
+        mActiveCandidateCount = 0;
+
+        for (int i = 0; i < mCandidateCount; i++) {
+            playable = mCandidates[i];
+            isActive = (canHaveMultipleActiveItems ? canBeFocused(i, isPlaying(i)) : (i == focusedIndex));
+
+            // handling the playback state
+            if (isActive) {
+                if (!isPlaying(i)
+                    && isAutoplayEnabled
+                    && allowPlay) {
+                    playable.start();
+                }
+
+                if (mActiveCandidateIndex == NO_INDEX) {
+                    mActiveCandidateIndex = i;
+                }
+
+                mActiveCandidateCount++;
+            } else if (isPlaying(i)) {
+                playable.pause();
+            }
+
+            playable.onPlayabilityStateChanged(wantsToPlay(i));
+
+            // capturing the resulting state (so that the subsequent external changes can be detected)
+            if (playable.isPlaying()) {
+                mCandidateStates[i] |= STATE_PLAYING;
+            } else {
+                mCandidateStates[i] &= ~STATE_PLAYING;
+            }
+        }
+
+        saveAppliedEvaluation(allowPlay, isAutoplayEnabled, autoplayMode);
+
+        return true;
+    }
+
+    /**
+     * Determines which of the candidates holds the focus (with the hysteresis of the {@link FocusPolicy}).
+     *
+     * @return the index of the focused candidate, or {@link #NO_INDEX} if there's none
+     */
+    private int updateFocus() {
+        final long time = mClock.elapsedRealtime();
+
+        // the focused item keeps the focus as long as it stays above its trigger offset lowered by the hysteresis
+        int focusedIndex = indexOfFocusedCandidate();
+
+        if ((focusedIndex != NO_INDEX) && !canBeFocused(focusedIndex, true)) {
+            focusedIndex = NO_INDEX;
+        }
+
+        // the best of the items that can take the focus over
+        int bestIndex = NO_INDEX;
+        float bestScore = 0f;
+        float score;
+
+        for (int i = 0; i < mCandidateCount; i++) {
+            if ((i == focusedIndex) || !canBeFocused(i, false)) {
+                continue;
+            }
+
+            score = getScore(i);
+
+            if ((bestIndex == NO_INDEX) || (score > bestScore)) {
+                bestIndex = i;
+                bestScore = score;
+            }
+        }
+
+        mHasPendingFocusChange = false;
+
+        if (focusedIndex == NO_INDEX) {
+            setFocusedCandidate(bestIndex, time);
+            return bestIndex;
+        }
+
+        if ((bestIndex != NO_INDEX) && (bestScore > getScore(focusedIndex))) {
+            if ((time - mFocusStartTime) >= mFocusPolicy.minDwellTimeInMillis) {
+                setFocusedCandidate(bestIndex, time);
+                return bestIndex;
+            }
+
+            // waiting for the dwell time to pass
+            mHasPendingFocusChange = true;
+        }
+
+        return focusedIndex;
+    }
+
+    private int indexOfFocusedCandidate() {
+        if (mFocusedCandidate != null) {
+            for (int i = 0; i < mCandidateCount; i++) {
+                if ((mCandidates[i] == mFocusedCandidate)
+                    && mFocusedCandidateKey.equals(mCandidates[i].getKey())) {
+                    return i;
+                }
+            }
+        }
+
+        // adopting the item that's already playing (e.g. the one that's been playing before the reset)
+        for (int i = 0; i < mCandidateCount; i++) {
+            if (isPlaying(i)) {
+                setFocusedCandidate(i, mClock.elapsedRealtime());
+                return i;
+            }
+        }
+
+        return NO_INDEX;
+    }
+
+    private void setFocusedCandidate(int index, long time) {
+        if (index == NO_INDEX) {
+            mFocusedCandidate = null;
+            mFocusedCandidateKey = null;
+            return;
+        }
+
+        mFocusedCandidate = mCandidates[index];
+        mFocusedCandidateKey = mFocusedCandidate.getKey();
+        mFocusStartTime = time;
+    }
+
+    /**
+     * Determines whether the focused candidate (which no longer wants to play) is still above its trigger offset lowered by the hysteresis.
+     * (As the trigger offset is only known to the candidate itself, its visible area ratio gets raised by the hysteresis instead, i.e.
+     * the candidate can keep the focus as long as it would want to play with its visible area ratio of {@code (ratio / (1 - hysteresis))}.
+     * The raised ratio is capped at 1.0, which doesn't change the outcome, as the trigger offsets don't exceed 1.0 either)
+     */
+    private boolean canKeepFocus(Playable playable, float visibleAreaOffset) {
+        final float hysteresis = mFocusPolicy.hysteresis;
+
+        if ((hysteresis <= 0f) || (visibleAreaOffset <= 0f)) {
+            return false;
+        }
+
+        return playable.wantsToPlay(Math.min(1f, (visibleAreaOffset / (1f - hysteresis))));
+    }
+
+    /**
+     * Determines whether the candidate can get (or, if it's already focused, keep) the focus.
+     */
+    private boolean canBeFocused(int index, boolean isFocused) {
+        return ((mCandidateStates[index] & (isFocused ? STATE_CAN_KEEP_FOCUS : STATE_WANTS_TO_PLAY)) != 0);
+    }
+
+    private float getScore(int index) {
+        return mFocusPolicy.scorer.getScore(
+            index,
+            mCandidateVisibleAreaOffsets[index],
+            mCandidateCenterOffsets[index]
+        );
+    }
+
+    private boolean wantsToPlay(int index) {
+        return ((mCandidateStates[index] & STATE_WANTS_TO_PLAY) != 0);
+    }
+
+    private boolean isPlaying(int index) {
+        return ((mCandidateStates[index] & STATE_PLAYING) != 0);
+    }
+
+    private boolean isSameAsApplied(boolean allowPlay, boolean isAutoplayEnabled, AutoplayMode autoplayMode) {
+        if (!mHasAppliedEvaluation
+            || (mAppliedCandidateCount != mCandidateCount)
+            || (mAppliedAllowPlay != allowPlay)
+            || (mAppliedAutoplayEnabled != isAutoplayEnabled)
+            || (mAppliedAutoplayMode != autoplayMode)) {
+            return false;
+        }
+
+        for (int i = 0; i < mCandidateCount; i++) {
+            if ((mAppliedCandidates[i] != mCandidates[i])
+                || (mAppliedCandidateStates[i] != mCandidateStates[i])
+                || (mAppliedCandidateVisibleAreaOffsets[i] != mCandidateVisibleAreaOffsets[i])
+                || (mAppliedCandidateCenterOffsets[i] != mCandidateCenterOffsets[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void saveAppliedEvaluation(boolean allowPlay, boolean isAutoplayEnabled, AutoplayMode autoplayMode) {
+        if (mAppliedCandidates.length < mCandidateCount) {
+            mAppliedCandidates = new Playable[mCandidates.length];
+            mAppliedCandidateStates = new int[mCandidates.length];
+            mAppliedCandidateVisibleAreaOffsets = new float[mCandidates.length];
+            mAppliedCandidateCenterOffsets = new float[mCandidates.length];
+        } else if (mAppliedCandidateCount > mCandidateCount) {
+            Arrays.fill(mAppliedCandidates, mCandidateCount, mAppliedCandidateCount, null);
+        }
+
+        System.arraycopy(mCandidates, 0, mAppliedCandidates, 0, mCandidateCount);
+        System.arraycopy(mCandidateStates, 0, mAppliedCandidateStates, 0, mCandidateCount);
+        System.arraycopy(mCandidateVisibleAreaOffsets, 0, mAppliedCandidateVisibleAreaOffsets, 0, mCandidateCount);
+        System.arraycopy(mCandidateCenterOffsets, 0, mAppliedCandidateCenterOffsets, 0, mCandidateCount);
+
+        mAppliedCandidateCount = mCandidateCount;
+        mAppliedAllowPlay = allowPlay;
+        mAppliedAutoplayEnabled = isAutoplayEnabled;
+        mAppliedAutoplayMode = autoplayMode;
+        mHasAppliedEvaluation = true;
+        mSkippedEvaluationCount = 0;
+    }
+
+    /**
+     * Forgets all the candidates (including the ones of the last applied evaluation, and the focused one),
+     * so that the next evaluation doesn't get skipped.
+     */
+    final void reset() {
+        beginEvaluation();
+        Arrays.fill(mAppliedCandidates, 0, mAppliedCandidateCount, null);
+        mAppliedCandidateCount = 0;
+        mAppliedAutoplayMode = null;
+        mHasAppliedEvaluation = false;
+        mActiveCandidateIndex = NO_INDEX;
+        mActiveCandidateCount = 0;
+        mFocusedCandidate = null;
+        mFocusedCandidateKey = null;
+        mHasPendingFocusChange = false;
+        mSkippedEvaluationCount = 0;
+    }
+
+    /**
+     * Sets the {@link FocusPolicy} (the next evaluation doesn't get skipped).
+     */
+    final void setFocusPolicy(@NonNull FocusPolicy focusPolicy) {
+        mFocusPolicy = Preconditions.checkNonNull(focusPolicy);
+        mHasAppliedEvaluation = false;
+    }
+
+    @NonNull
+    final FocusPolicy getFocusPolicy() {
+        return mFocusPolicy;
+    }
+
+    /**
+     * Sets the maximum number of consecutive unchanged evaluations that can be skipped
+     * (<strong>0</strong> disables the skipping altogether).
+     */
+    final void setSkipBudget(int skipBudget) {
+        Preconditions.isTrue("The skip budget cannot be negative.", (skipBudget >= 0));
+        mSkipBudget = skipBudget;
+    }
+
+    final int getSkipBudget() {
+        return mSkipBudget;
+    }
+
+    /**
+     * Retrieves the number of candidates collected for the current evaluation.
+     */
+    final int getCandidateCount() {
+        return mCandidateCount;
+    }
+
+    /**
+     * Retrieves the candidate of the current evaluation at the specified index.
+     */
+    @NonNull
+    final Playable getCandidate(int index) {
+        Preconditions.isTrue("The index is out of bounds.", ((index >= 0) && (index < mCandidateCount)));
+        return mCandidates[index];
+    }
+
+    /**
+     * Retrieves the index of the first candidate that's been chosen to be active (to play) during the last applied evaluation
+     * (which is valid for the current evaluation too, if it's been skipped), or <strong>-1</strong> if there's none.
+     */
+    final int getActiveCandidateIndex() {
+        return mActiveCandidateIndex;
+    }
+
+    /**
+     * Retrieves the number of the candidates that have been chosen to be active (to play) during the last applied evaluation.
+     */
+    final int getActiveCandidateCount() {
+        return mActiveCandidateCount;
+    }
+
+    /**
+     * Retrieves the time left until the focus change that's waiting for the dwell time to pass (see {@link FocusPolicy#minDwellTimeInMillis})
+     * can be applied, or {@link #NO_PENDING_FOCUS_CHANGE} if there's none. (The change gets applied by the first evaluation made after that)
+     */
+    final long getPendingFocusChangeDelay() {
+        if (!mHasPendingFocusChange) {
+            return NO_PENDING_FOCUS_CHANGE;
+        }
+
+        final long dwellTime = (mClock.elapsedRealtime() - mFocusStartTime);
+
+        return Math.max(0L, (mFocusPolicy.minDwellTimeInMillis - dwellTime));
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.widget;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.arthurivanets.arvi.ViewportDistanceProvider;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ViewportDistanceProvider} that keeps track of the adapter positions of the {@link Playable} items
+ * attached to the {@link RecyclerView}, as well as of the range of the visible adapter positions.
+ * <br>
+ * Gets updated on the Main Thread (see {@link #update(RecyclerView)}), while the distances can be queried from any thread.
+ * The items that are not attached to the {@link RecyclerView} are considered to be of the {@link #UNKNOWN_DISTANCE}.
+ */
+final class ViewportDistanceTracker implements ViewportDistanceProvider {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // the parallel arrays are reused between the updates (to keep the updates allocation-free)
+    private String[] mKeys;
+    private int[] mPositions;
+    private int mSize;
+
+    private int mFirstVisiblePosition;
+    private int mLastVisiblePosition;
+
+    ViewportDistanceTracker() {
+        mKeys = new String[INITIAL_CAPACITY];
+        mPositions = new int[INITIAL_CAPACITY];
+        reset();
+    }
+
+    /**
+     * Captures the adapter positions of the attached {@link Playable} items, as well as the visible adapter position range
+     * of the specified {@link RecyclerView}.
+     */
+    final synchronized void update(@NonNull RecyclerView recyclerView) {
+        reset();
+
+        final int childCount = recyclerView.getChildCount();
+        final int width = recyclerView.getWidth();
+        final int height = recyclerView.getHeight();
+
+        for (int i = 0; i < childCount; i++) {
+            final View child = recyclerView.getChildAt(i);
+            final RecyclerView.ViewHolder viewHolder = recyclerView.getChildViewHolder(child);
+            final int position = ((viewHolder != null) ? viewHolder.getAdapterPosition() : RecyclerView.NO_POSITION);
+
+            if (position == RecyclerView.NO_POSITION) {
+                continue;
+            }
+
+            final boolean isVisible = ((child.getRight() > 0)
+                && (child.getLeft() < width)
+                && (child.getBottom() > 0)
+                && (child.getTop() < height));
+
+            add(((viewHolder instanceof Playable) ? ((Playable) viewHolder).getKey() : null), position, isVisible);
+        }
+    }
+
+    /**
+     * Registers the item at the specified adapter position.
+     *
+     * @param key       the player key of the item, or null if the item is not a {@link Playable} one
+     * @param position  the adapter position of the item
+     * @param isVisible whether the item is visible
+     */
+    final synchronized void add(String key, int position, boolean isVisible) {
+        if (isVisible) {
+            mFirstVisiblePosition = ((mFirstVisiblePosition == RecyclerView.NO_POSITION) ? position : Math.min(mFirstVisiblePosition, position));
+            mLastVisiblePosition = Math.max(mLastVisiblePosition, position);
+        }
+
+        if (key == null) {
+            return;
+        }
+
+        if (mSize == mKeys.length) {
+            mKeys = Arrays.copyOf(mKeys, (mSize * 2));
+            mPositions = Arrays.copyOf(mPositions, (mSize * 2));
+        }
+
+        mKeys[mSize] = key;
+        mPositions[mSize] = position;
+        mSize++;
+    }
+
+    /**
+     * Forgets about all the tracked items.
+     */
+    final synchronized void reset() {
+        Arrays.fill(mKeys, 0, mSize, null);
+        mSize = 0;
+        mFirstVisiblePosition = RecyclerView.NO_POSITION;
+        mLastVisiblePosition = RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    public final synchronized int getViewportDistance(@NonNull String key) {
+        if (mFirstVisiblePosition == RecyclerView.NO_POSITION) {
+            return UNKNOWN_DISTANCE;
+        }
+
+        for (int i = 0; i < mSize; i++) {
+            if (mKeys[i].equals(key)) {
+                return getDistance(mPositions[i]);
+            }
+        }
+
+        return UNKNOWN_DISTANCE;
+    }
+
+    private int getDistance(int position) {
+        if (position < mFirstVisiblePosition) {
+            return (mFirstVisiblePosition - position);
+        } else if (position > mLastVisiblePosition) {
+            return (position - mLastVisiblePosition);
+        }
+
+        return 0;
+    }
+
+}
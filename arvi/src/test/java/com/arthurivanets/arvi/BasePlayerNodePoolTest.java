@@ -0,0 +1,385 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import com.arthurivanets.arvi.player.Player;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A set of {@link PlayerNodePool} contract tests shared by all the pool implementations,
+ * to ensure that they behave the same.
+ */
+public abstract class BasePlayerNodePoolTest {
+
+    protected abstract PlayerNodePool createPool(int maxSize);
+
+    private static PlayerNode node(long lastAccessTime, String key) {
+        return new PlayerNode(lastAccessTime, new TestPlayer()).setKey(key);
+    }
+
+    private static ViewportDistanceProvider distanceProvider(final Map<String, Integer> distances) {
+        return new ViewportDistanceProvider() {
+            @Override
+            public int getViewportDistance(String key) {
+                final Integer distance = distances.get(key);
+                return ((distance != null) ? distance : UNKNOWN_DISTANCE);
+            }
+        };
+    }
+
+    @Test
+    public void add_makesTheNodeRetrievableByKey() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode playerNode = node(1L, "a");
+
+        pool.add(playerNode);
+
+        assertTrue(pool.contains("a"));
+        assertSame(playerNode, pool.get("a"));
+        assertEquals(1, pool.getPlayerCount());
+    }
+
+    @Test
+    public void freeNode_isHandedOffUponAcquisition() {
+        final PlayerNodePool pool = createPool(2);
+        final TestPlayer player = new TestPlayer();
+        final PlayerNode playerNode = new PlayerNode(1L, player);
+        player.init();
+
+        pool.add(playerNode);
+
+        assertEquals(1, pool.getPlayerCount());
+        assertSame(playerNode, pool.getFree());
+        assertSame(playerNode, pool.acquireFree("a"));
+        assertSame(playerNode, pool.get("a"));
+        assertTrue(player.isInitialized());
+        assertEquals(1, pool.getPlayerCount());
+        assertNull(pool.getFree());
+    }
+
+    @Test
+    public void stopDetached_stopsOnlyTheActiveDetachedPlayers() {
+        final PlayerNodePool pool = createPool(3);
+        final PlayerNode detachedNode = node(1L, "a");
+        final PlayerNode attachedNode = node(2L, "b");
+        final PlayerNode idleNode = node(3L, "c");
+        ((TestPlayer) detachedNode.getPlayer()).playbackState = Player.PlaybackState.READY;
+        ((TestPlayer) attachedNode.getPlayer()).playbackState = Player.PlaybackState.READY;
+        ((TestPlayer) attachedNode.getPlayer()).isAttached = true;
+
+        pool.add(detachedNode);
+        pool.add(attachedNode);
+        pool.add(idleNode);
+
+        assertEquals(1, pool.stopDetached());
+        assertEquals(1, ((TestPlayer) detachedNode.getPlayer()).stopCount);
+        assertEquals(0, ((TestPlayer) attachedNode.getPlayer()).stopCount);
+        assertEquals(0, ((TestPlayer) idleNode.getPlayer()).stopCount);
+        assertSame(detachedNode, pool.get("a"));
+        assertEquals(3, pool.getPlayerCount());
+    }
+
+    @Test
+    public void releaseFree_evictsOnlyTheFreeNodes() {
+        final PlayerNodePool pool = createPool(3);
+        final TestPlayer freePlayer = new TestPlayer();
+
+        pool.add(new PlayerNode(1L, freePlayer));
+        pool.add(node(2L, "a"));
+
+        assertEquals(1, pool.releaseFree());
+        assertTrue(freePlayer.isReleased);
+        assertEquals(1, pool.getPlayerCount());
+        assertNull(pool.getFree());
+        assertTrue(pool.contains("a"));
+    }
+
+    @Test
+    public void trimToSize_evictsTheFreeThenTheOldestDetachedNodes() {
+        final PlayerNodePool pool = createPool(4);
+        final PlayerNode freeNode = new PlayerNode(4L, new TestPlayer());
+        final PlayerNode attachedNode = node(1L, "a");
+        ((TestPlayer) attachedNode.getPlayer()).isAttached = true;
+
+        pool.add(attachedNode);
+        pool.add(node(2L, "b"));
+        pool.add(node(3L, "c"));
+        pool.add(freeNode);
+
+        assertEquals(2, pool.trimToSize(2));
+        assertEquals(2, pool.getPlayerCount());
+        assertNull(pool.getFree());
+        assertFalse(pool.contains("b"));
+        assertTrue(pool.contains("c"));
+
+        // the attached nodes are never evicted
+        assertEquals(1, pool.trimToSize(0));
+        assertEquals(1, pool.getPlayerCount());
+        assertTrue(pool.contains("a"));
+    }
+
+    @Test
+    public void isFull_respectsTheChangedMaxSize() {
+        final PlayerNodePool pool = createPool(3);
+
+        pool.add(node(1L, "a"));
+        pool.add(node(2L, "b"));
+        assertFalse(pool.isFull());
+
+        pool.setMaxSize(1);
+        assertEquals(1, pool.getMaxSize());
+        assertTrue(pool.isFull());
+
+        pool.setMaxSize(3);
+        assertFalse(pool.isFull());
+    }
+
+    @Test
+    public void get_returnsNullForUnknownKey() {
+        final PlayerNodePool pool = createPool(2);
+
+        pool.add(node(1L, "a"));
+
+        assertFalse(pool.contains("b"));
+        assertNull(pool.get("b"));
+    }
+
+    @Test
+    public void isFull_reflectsTheMaxSize() {
+        final PlayerNodePool pool = createPool(2);
+
+        pool.add(node(1L, "a"));
+        assertFalse(pool.isFull());
+
+        pool.add(node(2L, "b"));
+        assertTrue(pool.isFull());
+    }
+
+    @Test
+    public void getFree_returnsNullWhenAllNodesAreBound() {
+        final PlayerNodePool pool = createPool(2);
+
+        pool.add(node(1L, "a"));
+        pool.add(node(2L, "b"));
+
+        assertNull(pool.getFree());
+        assertNull(pool.acquireFree("c"));
+    }
+
+    @Test
+    public void unregister_makesTheNodeFree() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode playerNode = node(1L, "a");
+        final TestPlayer player = (TestPlayer) playerNode.getPlayer();
+
+        pool.add(playerNode);
+        pool.add(node(2L, "b"));
+        pool.unregister("a");
+
+        assertFalse(pool.contains("a"));
+        assertFalse(playerNode.isKeySet());
+        assertEquals(1, player.stopCount);
+        assertEquals(1, player.removeAllEventListenersCount);
+        assertEquals(2, pool.getPlayerCount());
+
+        assertSame(playerNode, pool.acquireFree("c"));
+        assertTrue(pool.contains("c"));
+        assertEquals("c", playerNode.getKey());
+        assertNull(pool.acquireFree("d"));
+    }
+
+    @Test
+    public void getFree_skipsTheAttachedNodes() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode playerNode = node(1L, "a");
+
+        pool.add(playerNode);
+        pool.unregister("a");
+        ((TestPlayer) playerNode.getPlayer()).isAttached = true;
+
+        assertNull(pool.getFree());
+    }
+
+    @Test
+    public void getOldest_returnsTheLeastRecentlyAccessedNode() {
+        final PlayerNodePool pool = createPool(3);
+        final PlayerNode first = node(1L, "a");
+        final PlayerNode second = node(2L, "b");
+        final PlayerNode third = node(3L, "c");
+
+        pool.add(first);
+        pool.add(second);
+        pool.add(third);
+
+        // touching the first node makes the second one the oldest
+        pool.get("a");
+
+        assertSame(second, pool.getOldest());
+
+        // the retrieval counts as an access as well
+        pool.get("a");
+
+        assertSame(third, pool.getOldest());
+    }
+
+    @Test
+    public void acquireOldest_rebindsTheOldestNode() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode first = node(1L, "a");
+        final PlayerNode second = node(2L, "b");
+
+        pool.add(first);
+        pool.add(second);
+
+        final PlayerNode acquired = pool.acquireOldest("c");
+
+        assertSame(first, acquired);
+        assertEquals("c", acquired.getKey());
+        assertTrue(pool.contains("c"));
+        assertEquals(1, ((TestPlayer) acquired.getPlayer()).stopCount);
+        assertEquals(2, pool.getPlayerCount());
+        assertSame(second, pool.getOldest());
+    }
+
+    @Test
+    public void acquireOldest_evictsTheNodeFurthestFromTheViewport() {
+        final PlayerNodePool pool = createPool(3);
+        final PlayerNode first = node(1L, "a");
+        final PlayerNode second = node(2L, "b");
+        final PlayerNode third = node(3L, "c");
+        final Map<String, Integer> distances = new HashMap<>();
+        distances.put("a", 0);
+        distances.put("b", 4);
+        distances.put("c", 7);
+
+        pool.add(first);
+        pool.add(second);
+        pool.add(third);
+        pool.setViewportDistanceProvider(distanceProvider(distances));
+
+        // the least recently used node is on screen, so the furthest one gets evicted instead
+        assertSame(third, pool.acquireOldest("d"));
+        assertEquals("d", third.getKey());
+        assertSame(first, pool.get("a"));
+        assertSame(second, pool.get("b"));
+    }
+
+    @Test
+    public void acquireOldest_fallsBackToTheLeastRecentlyUsedNodeForEqualDistances() {
+        final PlayerNodePool pool = createPool(3);
+        final PlayerNode first = node(1L, "a");
+        final PlayerNode second = node(2L, "b");
+        final PlayerNode third = node(3L, "c");
+        final Map<String, Integer> distances = new HashMap<>();
+        distances.put("a", 0);
+        distances.put("b", 5);
+        distances.put("c", 5);
+
+        pool.add(first);
+        pool.add(second);
+        pool.add(third);
+        pool.setViewportDistanceProvider(distanceProvider(distances));
+
+        assertSame(second, pool.acquireOldest("d"));
+
+        // the unknown items are considered the furthest ones
+        distances.remove("a");
+
+        assertSame(first, pool.acquireOldest("e"));
+
+        // removing the provider restores the plain least recently used eviction
+        pool.setViewportDistanceProvider(null);
+
+        assertSame(third, pool.acquireOldest("f"));
+    }
+
+    @Test
+    public void acquire_prefersFreeNodesOverTheOldestOnes() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode first = node(1L, "a");
+        final PlayerNode second = node(2L, "b");
+
+        pool.add(first);
+        pool.add(second);
+        pool.unregister("b");
+
+        assertSame(second, pool.acquire("c"));
+        assertSame(first, pool.acquire("d"));
+        assertNotSame(pool.get("c"), pool.get("d"));
+    }
+
+    @Test
+    public void remove_takesTheNodeOutOfThePool() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode playerNode = node(1L, "a");
+
+        pool.add(playerNode);
+
+        assertSame(playerNode, pool.remove("a"));
+        assertFalse(pool.contains("a"));
+        assertFalse(playerNode.isKeySet());
+        assertEquals(0, pool.getPlayerCount());
+        assertNull(pool.remove("a"));
+    }
+
+    @Test
+    public void release_releasesThePlayerAndRemovesTheNode() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode playerNode = node(1L, "a");
+        final TestPlayer player = (TestPlayer) playerNode.getPlayer();
+
+        pool.add(playerNode);
+        pool.add(node(2L, "b"));
+        pool.release("a");
+
+        assertTrue(player.isReleased);
+        assertFalse(playerNode.hasPlayer());
+        assertFalse(pool.contains("a"));
+        assertEquals(1, pool.getPlayerCount());
+    }
+
+    @Test
+    public void release_releasesAllThePlayers() {
+        final PlayerNodePool pool = createPool(2);
+        final PlayerNode first = node(1L, "a");
+        final PlayerNode second = node(2L, "b");
+        final TestPlayer firstPlayer = (TestPlayer) first.getPlayer();
+        final TestPlayer secondPlayer = (TestPlayer) second.getPlayer();
+
+        pool.add(first);
+        pool.add(second);
+        pool.release();
+
+        assertTrue(firstPlayer.isReleased);
+        assertTrue(secondPlayer.isReleased);
+        assertEquals(0, pool.getPlayerCount());
+        assertFalse(pool.contains("a"));
+        assertFalse(pool.contains("b"));
+    }
+
+}
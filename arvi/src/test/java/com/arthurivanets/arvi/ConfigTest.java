@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import com.arthurivanets.arvi.player.creators.PlayerCreator;
+import com.arthurivanets.arvi.player.util.LoadControlFactory;
+import com.arthurivanets.arvi.player.util.MediaSourceBuilder;
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.LoadControl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ConfigTest {
+
+    @Test
+    public void equivalentConfigs_areInterned() {
+        final Config config1 = new Config.Builder().build();
+        final Config config2 = new Config.Builder().build();
+        final Config config3 = new Config.Builder().looping(true).build();
+        final Config config4 = new Config.Builder().looping(true).build();
+
+        assertSame(config1, config2);
+        assertSame(config3, config4);
+        assertNotSame(config1, config3);
+        assertNotEquals(config1, config3);
+    }
+
+    @Test
+    public void decoderRetention_distinguishesConfigs() {
+        final Config config1 = new Config.Builder().build();
+        final Config config2 = new Config.Builder().retainDecoders(true).build();
+
+        assertNotEquals(config1, config2);
+        assertSame(config2, new Config.Builder().retainDecoders(true).build());
+    }
+
+    @Test
+    public void configsWithDistinctComponents_areNotInterned() {
+        final Config config1 = new Config.Builder().loadControlFactory(newLoadControlFactory()).build();
+        final Config config2 = new Config.Builder().loadControlFactory(newLoadControlFactory()).build();
+
+        assertNotSame(config1, config2);
+        assertNotEquals(config1, config2);
+    }
+
+    @Test
+    public void defaultConfigs_createDedicatedLoadControls() {
+        final Config config1 = new Config.Builder().build();
+        final Config config2 = new Config.Builder().build();
+
+        // the equivalent configs share the factory, but never the (stateful) load controls
+        assertSame(config1.loadControlFactory, config2.loadControlFactory);
+        assertNotSame(config1.loadControlFactory.create(), config2.loadControlFactory.create());
+        assertNotSame(config1.loadControlFactory.create(), config1.loadControlFactory.create());
+    }
+
+    @Test
+    public void equivalentConfigs_shareSamePool() {
+        final PlayerPoolRegistry registry = new PlayerPoolRegistry(
+            PlayerPoolRegistryTest.newDummy(PlayerProvider.class),
+            new PlayerCreatorFactory() {
+                @Override
+                public PlayerCreator create(PlayerProvider playerProvider, Config config) {
+                    return PlayerPoolRegistryTest.newDummy(PlayerCreator.class);
+                }
+            },
+            new DefaultPlayerNodePoolFactory(),
+            null
+        );
+
+        final Config config1 = new Config.Builder().mediaSourceBuilder(MediaSourceBuilder.LOOPING).build();
+        final Config config2 = new Config.Builder().looping(true).build();
+
+        registry.getOrInitNodePool(registry.getOrInitCreator(config1));
+        registry.getOrInitNodePool(registry.getOrInitCreator(config2));
+
+        assertEquals(1, registry.getPools().size());
+        assertSame(registry.getPool(config1), registry.getPool(config2));
+    }
+
+    @Test
+    public void hashCode_isStable() {
+        final Config config = new Config.Builder().extensionMode(1).build();
+
+        assertEquals(config.hashCode(), config.hashCode());
+        assertEquals(config, new Config.Builder().extensionMode(1).build());
+    }
+
+    /**
+     * Creates a distinct {@link LoadControlFactory}, which makes the configs non-equivalent.
+     */
+    static LoadControlFactory newLoadControlFactory() {
+        return new LoadControlFactory() {
+            @Override
+            public LoadControl create() {
+                return new DefaultLoadControl();
+            }
+        };
+    }
+
+}
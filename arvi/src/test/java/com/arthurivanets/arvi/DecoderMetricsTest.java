@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import com.arthurivanets.arvi.DecoderMetricsListener.DecoderReuse;
+import com.arthurivanets.arvi.DecoderMetricsListener.DecoderType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DecoderMetricsTest {
+
+    private DecoderMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new DecoderMetrics();
+    }
+
+    @Test
+    public void reuseEvaluations_areAggregatedPerDecoderType() {
+        metrics.onDecoderReuseEvaluated(DecoderType.VIDEO, DecoderReuse.UNAVAILABLE);
+        metrics.onDecoderReuseEvaluated(DecoderType.VIDEO, DecoderReuse.REUSED);
+        metrics.onDecoderReuseEvaluated(DecoderType.VIDEO, DecoderReuse.REUSED_WITH_FLUSH);
+        metrics.onDecoderReuseEvaluated(DecoderType.VIDEO, DecoderReuse.NOT_REUSED);
+        metrics.onDecoderReuseEvaluated(DecoderType.AUDIO, DecoderReuse.REUSED_WITH_RECONFIGURATION);
+
+        assertEquals(1, metrics.getCount(DecoderType.VIDEO, DecoderReuse.REUSED));
+        assertEquals(2, metrics.getReusedCount(DecoderType.VIDEO));
+        assertEquals(4, metrics.getEvaluationCount(DecoderType.VIDEO));
+        assertEquals(0.5f, metrics.getReuseRate(DecoderType.VIDEO), 0f);
+
+        assertEquals(1, metrics.getReusedCount(DecoderType.AUDIO));
+        assertEquals(1, metrics.getEvaluationCount(DecoderType.AUDIO));
+        assertEquals(1f, metrics.getReuseRate(DecoderType.AUDIO), 0f);
+    }
+
+    @Test
+    public void initializations_areAggregatedPerDecoderType() {
+        metrics.onDecoderInitialized(DecoderType.VIDEO, 120L);
+        metrics.onDecoderInitialized(DecoderType.VIDEO, 80L);
+        metrics.onDecoderInitialized(DecoderType.AUDIO, 15L);
+
+        assertEquals(2, metrics.getInitializationCount(DecoderType.VIDEO));
+        assertEquals(200L, metrics.getTotalInitializationDuration(DecoderType.VIDEO));
+        assertEquals(1, metrics.getInitializationCount(DecoderType.AUDIO));
+        assertEquals(15L, metrics.getTotalInitializationDuration(DecoderType.AUDIO));
+    }
+
+    @Test
+    public void reuseRate_isZeroWithoutEvaluations() {
+        assertEquals(0f, metrics.getReuseRate(DecoderType.VIDEO), 0f);
+    }
+
+    @Test
+    public void reset_discardsMetrics() {
+        metrics.onDecoderReuseEvaluated(DecoderType.VIDEO, DecoderReuse.REUSED);
+        metrics.onDecoderInitialized(DecoderType.VIDEO, 100L);
+        metrics.reset();
+
+        assertEquals(0, metrics.getEvaluationCount(DecoderType.VIDEO));
+        assertEquals(0, metrics.getInitializationCount(DecoderType.VIDEO));
+        assertEquals(0L, metrics.getTotalInitializationDuration(DecoderType.VIDEO));
+    }
+
+}
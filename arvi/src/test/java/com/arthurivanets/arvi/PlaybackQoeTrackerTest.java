@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import com.arthurivanets.arvi.PlaybackQoe.ErrorCause;
+import com.arthurivanets.arvi.player.Player;
+import com.arthurivanets.arvi.util.misc.Clock;
+import com.google.android.exoplayer2.ExoPlaybackException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlaybackQoeTrackerTest {
+
+    private static final int DISCONTINUITY_REASON_SEEK = com.google.android.exoplayer2.Player.DISCONTINUITY_REASON_SEEK;
+
+    private final List<PlaybackQoe> reports = new ArrayList<>();
+    private final PlaybackQoeListener listener = new PlaybackQoeListener() {
+        @Override
+        public void onPlaybackSessionFinished(PlaybackQoe qoe) {
+            reports.add(qoe);
+        }
+    };
+
+    private long time;
+    private PlaybackQoeTracker tracker;
+
+    @Before
+    public void setUp() {
+        time = 1_000L;
+        tracker = new PlaybackQoeTracker(new Clock() {
+            @Override
+            public long elapsedRealtime() {
+                return time;
+            }
+        });
+
+        ArviPlugins.setPlaybackQoeListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        ArviPlugins.setPlaybackQoeListener(null);
+    }
+
+    @Test
+    public void session_recordsTimeToFirstFrameAndPlayingDuration() {
+        tracker.start("key", new TestPlayer());
+        tracker.onPlayerStateChanged(Player.PlaybackState.BUFFERING);
+        time += 150L;
+        tracker.onPlayerStateChanged(Player.PlaybackState.READY);
+        time += 30L;
+        tracker.onRenderedFirstFrame();
+        tracker.onBytesLoaded(1_000L);
+        tracker.onBytesLoaded(500L);
+        time += 820L;
+        tracker.finish();
+
+        assertEquals(1, reports.size());
+
+        final PlaybackQoe qoe = reports.get(0);
+
+        assertEquals("key", qoe.getKey());
+        assertEquals(180L, qoe.getTimeToFirstFrame());
+        assertEquals(850L, qoe.getPlayingDuration());
+        assertEquals(0, qoe.getRebufferCount());
+        assertEquals(1_500L, qoe.getBytesTransferred());
+        assertFalse(qoe.hasError());
+        assertFalse(tracker.isActive());
+    }
+
+    @Test
+    public void sessionOfPlayerPreparedInAdvance_startsWithFirstFrameRendered() {
+        final TestPlayer player = new TestPlayer();
+        player.playbackState = Player.PlaybackState.READY;
+
+        tracker.start("key", player, true);
+        time += 500L;
+        tracker.finish();
+
+        final PlaybackQoe qoe = reports.get(0);
+
+        assertEquals(0L, qoe.getTimeToFirstFrame());
+        assertEquals(500L, qoe.getPlayingDuration());
+    }
+
+    @Test
+    public void sessionOfPlayerStillPreparingInAdvance_waitsForFirstFrame() {
+        final TestPlayer player = new TestPlayer();
+        player.playbackState = Player.PlaybackState.BUFFERING;
+
+        tracker.start("key", player, true);
+        time += 100L;
+        tracker.onPlayerStateChanged(Player.PlaybackState.READY);
+        tracker.onRenderedFirstFrame();
+        tracker.finish();
+
+        assertEquals(100L, reports.get(0).getTimeToFirstFrame());
+    }
+
+    @Test
+    public void stallsAfterFirstFrame_areRecordedAsRebuffers() {
+        startAndRenderFirstFrame();
+
+        time += 300L;
+        tracker.onPlayerStateChanged(Player.PlaybackState.BUFFERING);
+        time += 100L;
+        tracker.onPlayerStateChanged(Player.PlaybackState.READY);
+        time += 500L;
+        tracker.onPlayerStateChanged(Player.PlaybackState.BUFFERING);
+        time += 100L;
+        tracker.finish();
+
+        final PlaybackQoe qoe = reports.get(0);
+
+        assertEquals(2, qoe.getRebufferCount());
+        assertEquals(200L, qoe.getRebufferDuration());
+        assertEquals(800L, qoe.getPlayingDuration());
+        assertEquals(0.2f, qoe.getRebufferRatio(), 0.0001f);
+    }
+
+    @Test
+    public void stallsCausedBySeeks_areNotRecordedAsRebuffers() {
+        startAndRenderFirstFrame();
+
+        tracker.onPositionDiscontinuity(DISCONTINUITY_REASON_SEEK);
+        tracker.onPlayerStateChanged(Player.PlaybackState.BUFFERING);
+        time += 100L;
+        tracker.onPlayerStateChanged(Player.PlaybackState.READY);
+        tracker.finish();
+
+        assertEquals(0, reports.get(0).getRebufferCount());
+        assertEquals(0L, reports.get(0).getRebufferDuration());
+    }
+
+    @Test
+    public void errorBeforeFirstFrame_finishesSessionAsStartupFailure() {
+        tracker.start("key", new TestPlayer());
+        tracker.onPlayerStateChanged(Player.PlaybackState.BUFFERING);
+        tracker.onPlayerError(ExoPlaybackException.createForSource(new IOException()));
+
+        final PlaybackQoe qoe = reports.get(0);
+
+        assertEquals(ErrorCause.SOURCE, qoe.getErrorCause());
+        assertTrue(qoe.isStartupFailure());
+        assertFalse(qoe.hasRenderedFirstFrame());
+        assertFalse(tracker.isActive());
+
+        tracker.finish();
+
+        assertEquals(1, reports.size());
+    }
+
+    @Test
+    public void startingNewSession_finishesOngoingOne() {
+        tracker.start("key1", new TestPlayer());
+        tracker.start("key2", new TestPlayer());
+        tracker.finish();
+
+        assertEquals(2, reports.size());
+        assertEquals("key1", reports.get(0).getKey());
+        assertEquals("key2", reports.get(1).getKey());
+    }
+
+    @Test
+    public void sessions_areNotTrackedWithoutListener() {
+        ArviPlugins.setPlaybackQoeListener(null);
+
+        tracker.start("key", new TestPlayer());
+
+        assertFalse(tracker.isActive());
+    }
+
+    @Test
+    public void summary_aggregatesSessions() {
+        final PlaybackQoeSummary summary = new PlaybackQoeSummary();
+
+        summary.onPlaybackSessionFinished(new PlaybackQoe("a", 100L, 1, 100L, 900L, 2_000L, null));
+        summary.onPlaybackSessionFinished(new PlaybackQoe("b", 300L, 0, 0L, 1_000L, 3_000L, ErrorCause.RENDERER));
+        summary.onPlaybackSessionFinished(new PlaybackQoe("c", PlaybackQoe.NO_FIRST_FRAME, 0, 0L, 0L, 0L, ErrorCause.SOURCE));
+
+        assertEquals(3, summary.getSessionCount());
+        assertEquals(2, summary.getFirstFrameCount());
+        assertEquals(200L, summary.getAverageTimeToFirstFrame());
+        assertEquals(1, summary.getRebufferCount());
+        assertEquals(0.05f, summary.getRebufferRatio(), 0.0001f);
+        assertEquals(5_000L, summary.getBytesTransferred());
+        assertEquals(1, summary.getStartupFailureCount());
+        assertEquals(1, summary.getErrorCount(ErrorCause.RENDERER));
+        assertEquals(1, summary.getErrorCount(ErrorCause.SOURCE));
+
+        final long[] histogram = summary.getTimeToFirstFrameHistogram();
+
+        assertEquals(1, histogram[PlaybackQoeSummary.getTimeToFirstFrameBucket(100L)]);
+        assertEquals(1, histogram[PlaybackQoeSummary.getTimeToFirstFrameBucket(300L)]);
+        assertEquals((PlaybackQoeSummary.TIME_TO_FIRST_FRAME_BUCKET_COUNT - 1), PlaybackQoeSummary.getTimeToFirstFrameBucket(Long.MAX_VALUE));
+
+        summary.reset();
+
+        assertEquals(0, summary.getSessionCount());
+        assertEquals(0L, summary.getAverageTimeToFirstFrame());
+    }
+
+    private void startAndRenderFirstFrame() {
+        tracker.start("key", new TestPlayer());
+        tracker.onPlayerStateChanged(Player.PlaybackState.BUFFERING);
+        tracker.onPlayerStateChanged(Player.PlaybackState.READY);
+        tracker.onRenderedFirstFrame();
+    }
+
+}
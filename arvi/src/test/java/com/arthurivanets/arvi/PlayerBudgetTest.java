@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerBudgetTest {
+
+    private PlayerNodePool feedPool;
+    private PlayerNodePool storiesPool;
+    private PlayerNodePool adsPool;
+    private PlayerBudget budget;
+
+    @Before
+    public void setUp() {
+        final List<PlayerNodePool> pools = new ArrayList<>();
+        feedPool = new LruPlayerNodePool(4);
+        storiesPool = new LruPlayerNodePool(4);
+        adsPool = new LruPlayerNodePool(4);
+
+        pools.add(feedPool);
+        pools.add(storiesPool);
+        pools.add(adsPool);
+
+        budget = new PlayerBudget(pools, 4);
+    }
+
+    private static PlayerNode node(String key, boolean isAttached) {
+        final TestPlayer player = new TestPlayer();
+        player.isAttached = isAttached;
+
+        return new PlayerNode(player).setKey(key);
+    }
+
+    @Test
+    public void playerCount_isSharedByAllThePools() {
+        feedPool.add(node("a", true));
+        feedPool.add(node("b", false));
+        storiesPool.add(node("c", false));
+
+        assertEquals(3, budget.getPlayerCount());
+        assertFalse(budget.isExhausted());
+
+        adsPool.add(node("d", false));
+
+        assertEquals(4, budget.getPlayerCount());
+        assertTrue(budget.isExhausted());
+    }
+
+    @Test
+    public void unboundedBudget_isNeverExhausted() {
+        budget.setMaxPlayerCount(PlayerBudget.UNBOUNDED_PLAYER_COUNT);
+
+        for (int i = 0; i < 4; i++) {
+            feedPool.add(node(("feed_" + i), false));
+            storiesPool.add(node(("stories_" + i), false));
+        }
+
+        assertEquals(8, budget.getPlayerCount());
+        assertFalse(budget.isExhausted());
+    }
+
+    @Test
+    public void playerCount_tracksTheRemovalsAndEvictions() {
+        feedPool.add(node("a", false));
+        feedPool.add(node("b", false));
+        storiesPool.add(node("c", false));
+
+        feedPool.remove("a");
+        storiesPool.trimToSize(0);
+
+        assertEquals(1, budget.getPlayerCount());
+    }
+
+    @Test
+    public void reclaim_releasesThePlayerOfTheLeastRecentlyUsedPool() {
+        feedPool.add(node("a", false));
+        storiesPool.add(node("b", false));
+        adsPool.add(node("c", false));
+        adsPool.add(node("d", false));
+
+        budget.onPoolUsed(adsPool);
+        budget.onPoolUsed(storiesPool);
+        budget.onPoolUsed(feedPool);
+
+        assertTrue(budget.reclaim(feedPool));
+        assertEquals(1, adsPool.getPlayerCount());
+        assertEquals(1, storiesPool.getPlayerCount());
+        assertEquals(1, feedPool.getPlayerCount());
+        assertFalse(budget.isExhausted());
+    }
+
+    @Test
+    public void reclaim_skipsThePoolsWithoutDetachedPlayers() {
+        feedPool.add(node("a", false));
+        storiesPool.add(node("b", false));
+        adsPool.add(node("c", true));
+
+        budget.onPoolUsed(adsPool);
+        budget.onPoolUsed(storiesPool);
+        budget.onPoolUsed(feedPool);
+
+        assertTrue(budget.reclaim(feedPool));
+        assertEquals(1, adsPool.getPlayerCount());
+        assertEquals(0, storiesPool.getPlayerCount());
+    }
+
+    @Test
+    public void reclaim_neverTakesThePlayersOfTheRequestingPool() {
+        feedPool.add(node("a", false));
+        feedPool.add(node("b", false));
+        storiesPool.add(node("c", true));
+
+        assertFalse(budget.reclaim(feedPool));
+        assertEquals(2, feedPool.getPlayerCount());
+        assertEquals(1, storiesPool.getPlayerCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void setMaxPlayerCount_rejectsNonPositiveCounts() {
+        budget.setMaxPlayerCount(0);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import com.arthurivanets.arvi.PlayerPoolMetricsListener.Acquisition;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class PlayerPoolMetricsTest {
+
+    private PlayerPoolMetrics metrics;
+    private Config config1;
+    private Config config2;
+
+    @Before
+    public void setUp() {
+        metrics = new PlayerPoolMetrics();
+        config1 = new Config.Builder().loadControlFactory(ConfigTest.newLoadControlFactory()).build();
+        config2 = new Config.Builder().loadControlFactory(ConfigTest.newLoadControlFactory()).build();
+    }
+
+    @Test
+    public void acquisitions_areAggregatedPerConfig() {
+        metrics.onPlayerAcquired(config1, Acquisition.COLD_CREATION, 5_000_000L, 1);
+        metrics.onPlayerAcquired(config1, Acquisition.HIT, 500L, 1);
+        metrics.onPlayerAcquired(config1, Acquisition.HIT, 800L, 1);
+        metrics.onPlayerAcquired(config1, Acquisition.FREE_REUSE, 3_000L, 2);
+        metrics.onPlayerAcquired(config1, Acquisition.EVICTION, 10_000L, 2);
+        metrics.onPlayerAcquired(config2, Acquisition.COLD_CREATION, 4_000_000L, 1);
+
+        final PlayerPoolMetrics.ConfigMetrics configMetrics1 = metrics.getMetrics(config1);
+        final PlayerPoolMetrics.ConfigMetrics configMetrics2 = metrics.getMetrics(config2);
+
+        assertNotNull(configMetrics1);
+        assertEquals(2, configMetrics1.getHitCount());
+        assertEquals(1, configMetrics1.getFreeReuseCount());
+        assertEquals(1, configMetrics1.getEvictionCount());
+        assertEquals(1, configMetrics1.getColdCreationCount());
+        assertEquals(5, configMetrics1.getAcquisitionCount());
+        assertEquals(2, configMetrics1.getLivePlayerCount());
+
+        assertNotNull(configMetrics2);
+        assertEquals(1, configMetrics2.getColdCreationCount());
+        assertEquals(1, configMetrics2.getAcquisitionCount());
+        assertEquals(2, metrics.getAllMetrics().size());
+    }
+
+    @Test
+    public void latencies_areBucketedByPowersOfTwo() {
+        assertEquals(0, PlayerPoolMetrics.getLatencyBucket(-1L));
+        assertEquals(0, PlayerPoolMetrics.getLatencyBucket(999L));
+        assertEquals(1, PlayerPoolMetrics.getLatencyBucket(1_000L));
+        assertEquals(2, PlayerPoolMetrics.getLatencyBucket(2_000L));
+        assertEquals(2, PlayerPoolMetrics.getLatencyBucket(3_999L));
+        assertEquals(11, PlayerPoolMetrics.getLatencyBucket(1_024_000L));
+        assertEquals((PlayerPoolMetrics.LATENCY_BUCKET_COUNT - 1), PlayerPoolMetrics.getLatencyBucket(Long.MAX_VALUE));
+
+        metrics.onPlayerAcquired(config1, Acquisition.HIT, 500L, 1);
+        metrics.onPlayerAcquired(config1, Acquisition.HIT, 700L, 1);
+        metrics.onPlayerAcquired(config1, Acquisition.COLD_CREATION, 2_500L, 1);
+
+        final long[] histogram = metrics.getMetrics(config1).getLatencyHistogram();
+
+        assertEquals(PlayerPoolMetrics.LATENCY_BUCKET_COUNT, histogram.length);
+        assertEquals(2, histogram[0]);
+        assertEquals(1, histogram[2]);
+    }
+
+    @Test
+    public void reset_discardsMetrics() {
+        metrics.onPlayerAcquired(config1, Acquisition.HIT, 500L, 1);
+        metrics.reset();
+
+        assertNull(metrics.getMetrics(config1));
+        assertEquals(0, metrics.getAllMetrics().size());
+    }
+
+}
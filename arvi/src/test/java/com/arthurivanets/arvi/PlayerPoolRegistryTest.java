@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi;
+
+import com.arthurivanets.arvi.player.creators.PlayerCreator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerPoolRegistryTest {
+
+    private static final int THREAD_COUNT = 16;
+    private static final int CONFIG_COUNT = 8;
+    private static final int ITERATION_COUNT = 2_000;
+
+    private AtomicInteger createdCreatorCount;
+    private AtomicInteger createdPoolCount;
+    private PlayerPoolRegistry registry;
+    private List<Config> configs;
+
+    @Before
+    public void setUp() {
+        createdCreatorCount = new AtomicInteger();
+        createdPoolCount = new AtomicInteger();
+        registry = new PlayerPoolRegistry(
+            newDummy(PlayerProvider.class),
+            new PlayerCreatorFactory() {
+                @Override
+                public PlayerCreator create(PlayerProvider playerProvider, Config config) {
+                    createdCreatorCount.incrementAndGet();
+                    return newDummy(PlayerCreator.class);
+                }
+            },
+            new PlayerNodePoolFactory() {
+                @Override
+                public PlayerNodePool create() {
+                    createdPoolCount.incrementAndGet();
+                    return new LruPlayerNodePool(4);
+                }
+            },
+            null
+        );
+        configs = new ArrayList<>();
+
+        for (int i = 0; i < CONFIG_COUNT; i++) {
+            // distinct load control factories make the configs non-equivalent
+            configs.add(new Config.Builder().loadControlFactory(ConfigTest.newLoadControlFactory()).build());
+        }
+    }
+
+    @Test
+    public void concurrentAccess_createsSingleCreatorAndPoolPerConfig() throws Exception {
+        final Set<PlayerCreator> seenCreators = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<PlayerCreator, Boolean>())
+        );
+        final Set<PlayerNodePool> seenPools = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<PlayerNodePool, Boolean>())
+        );
+
+        runConcurrently(new Task() {
+            @Override
+            public void run(int threadIndex, int iteration) {
+                final Config config = configs.get((threadIndex + iteration) % CONFIG_COUNT);
+                final PlayerCreator creator = registry.getOrInitCreator(config);
+                final PlayerNodePool pool = registry.getOrInitNodePool(creator);
+
+                seenCreators.add(creator);
+                seenPools.add(pool);
+
+                // mutating the pool the way the provider does (under the per-pool lock)
+                synchronized (pool) {
+                    final String key = ("key_" + threadIndex + "_" + (iteration % 8));
+
+                    if (pool.get(key) == null) {
+                        final PlayerNode freeNode = pool.acquireFree(key);
+
+                        if (freeNode == null) {
+                            if (pool.isFull()) {
+                                pool.acquireOldest(key);
+                            } else {
+                                pool.add(new PlayerNode(new TestPlayer()).setKey(key));
+                            }
+                        }
+                    }
+
+                    assertTrue(pool.getPlayerCount() <= pool.getMaxSize());
+                }
+            }
+        });
+
+        assertEquals(CONFIG_COUNT, createdCreatorCount.get());
+        assertEquals(CONFIG_COUNT, createdPoolCount.get());
+        assertEquals(CONFIG_COUNT, seenCreators.size());
+        assertEquals(CONFIG_COUNT, seenPools.size());
+        assertEquals(CONFIG_COUNT, registry.getPools().size());
+
+        // no lost pools - every config still maps to the very pool that was handed out
+        for (Config config : configs) {
+            final PlayerNodePool pool = registry.getPool(config);
+
+            assertTrue(seenPools.contains(pool));
+            assertSame(pool, registry.getOrInitNodePool(registry.getOrInitCreator(config)));
+        }
+    }
+
+    @Test
+    public void concurrentRemoval_doesNotLeakPools() throws Exception {
+        runConcurrently(new Task() {
+            @Override
+            public void run(int threadIndex, int iteration) {
+                final Config config = configs.get(iteration % CONFIG_COUNT);
+
+                if ((threadIndex % 2) == 0) {
+                    registry.getOrInitNodePool(registry.getOrInitCreator(config));
+                } else {
+                    registry.removePool(config);
+                }
+            }
+        });
+
+        // the creators are created once and survive the pool removals
+        assertEquals(CONFIG_COUNT, createdCreatorCount.get());
+
+        final List<PlayerNodePool> removedPools = registry.clear();
+
+        assertTrue(removedPools.size() <= CONFIG_COUNT);
+        assertTrue(registry.getPools().isEmpty());
+
+        for (Config config : configs) {
+            assertNull(registry.getPool(config));
+        }
+    }
+
+    private void runConcurrently(final Task task) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Future<Void>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                final int threadIndex = i;
+
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        startLatch.await();
+
+                        for (int iteration = 0; iteration < ITERATION_COUNT; iteration++) {
+                            task.run(threadIndex, iteration);
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            startLatch.countDown();
+
+            // propagating the failures (if there are any)
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T newDummy(Class<T> type) {
+        return (T) Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return (proxy == args[0]);
+                        default:
+                            return null;
+                    }
+                }
+            }
+        );
+    }
+
+    private interface Task {
+
+        void run(int threadIndex, int iteration);
+
+    }
+
+}
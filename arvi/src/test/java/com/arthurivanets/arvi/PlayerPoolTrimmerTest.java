@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import android.content.ComponentCallbacks2;
+
+import com.arthurivanets.arvi.player.Player;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerPoolTrimmerTest {
+
+    private PlayerNodePool pool;
+    private PlayerPoolTrimmer trimmer;
+    private List<String> reportedSteps;
+
+    @Before
+    public void setUp() {
+        pool = new LruPlayerNodePool(4);
+        trimmer = new PlayerPoolTrimmer(Arrays.asList(pool), 0L);
+        reportedSteps = new ArrayList<>();
+
+        trimmer.setMemoryTrimListener(new MemoryTrimListener() {
+            @Override
+            public void onMemoryTrimStep(MemoryTrimListener.Step step, int trimLevel, int affectedCount) {
+                reportedSteps.add(step + ":" + affectedCount);
+            }
+        });
+
+        final TestPlayer activePlayer = new TestPlayer();
+        activePlayer.playbackState = Player.PlaybackState.READY;
+
+        pool.add(new PlayerNode(1L, activePlayer).setKey("a"));
+        pool.add(new PlayerNode(2L, new TestPlayer()).setKey("b"));
+        pool.add(new PlayerNode(3L, new TestPlayer()).setKey("c"));
+        pool.add(new PlayerNode(4L, new TestPlayer()));
+    }
+
+    @Test
+    public void moderatePressure_releasesTheDecodersOnly() {
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+
+        assertEquals(Arrays.asList("RELEASE_DECODERS:1"), reportedSteps);
+        assertEquals(4, pool.getPlayerCount());
+        assertEquals(4, pool.getMaxSize());
+    }
+
+    @Test
+    public void moderatePressure_releasesTheRetainedDecodersOfTheStoppedPlayers() {
+        final TestPlayer stoppedPlayer = ((TestPlayer) pool.get("b").getPlayer());
+        stoppedPlayer.hasRetainedDecoders = true;
+
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+
+        assertEquals(Arrays.asList("RELEASE_DECODERS:2"), reportedSteps);
+        assertFalse(stoppedPlayer.hasRetainedDecoders);
+        assertEquals(0, stoppedPlayer.stopCount);
+    }
+
+    @Test
+    public void lowPressure_releasesTheIdlePlayersAndHalvesThePool() {
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+        assertEquals(Arrays.asList("RELEASE_DECODERS:1", "RELEASE_IDLE_PLAYERS:1", "SHRINK_POOLS:1"), reportedSteps);
+        assertEquals(2, pool.getMaxSize());
+        assertEquals(2, pool.getPlayerCount());
+        assertTrue(pool.contains("b") && pool.contains("c"));
+    }
+
+    @Test
+    public void growingPressure_shrinksThePoolStepByStep() {
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(2, pool.getMaxSize());
+
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_MODERATE);
+        assertEquals(1, pool.getMaxSize());
+        assertEquals(1, pool.getPlayerCount());
+
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertEquals(1, pool.getMaxSize());
+        assertEquals(0, pool.getPlayerCount());
+        assertEquals("RELEASE_PLAYERS:1", reportedSteps.get(reportedSteps.size() - 1));
+    }
+
+    @Test
+    public void relievedPressure_restoresThePoolSize() {
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        assertEquals(1, pool.getMaxSize());
+
+        trimmer.restoreIfRelieved();
+        assertEquals(4, pool.getMaxSize());
+        assertEquals("RESTORE_POOLS:1", reportedSteps.get(reportedSteps.size() - 1));
+
+        // nothing to restore anymore
+        reportedSteps.clear();
+        trimmer.restoreIfRelieved();
+        assertTrue(reportedSteps.isEmpty());
+    }
+
+    @Test
+    public void forgottenPools_areNotRetained() {
+        trimmer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        assertEquals(1, trimmer.getShrunkPoolCount());
+
+        trimmer.forget(pool);
+        assertEquals(0, trimmer.getShrunkPoolCount());
+
+        // nothing to restore anymore
+        reportedSteps.clear();
+        trimmer.restoreIfRelieved();
+        assertTrue(reportedSteps.isEmpty());
+        assertEquals(1, pool.getMaxSize());
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.arthurivanets.arvi.player.Player;
+import com.arthurivanets.arvi.player.util.VolumeController;
+import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.ui.PlayerView;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A lightweight {@link Player} implementation that records the calls made to it.
+ */
+class TestPlayer implements Player {
+
+    int stopCount;
+    int removeAllEventListenersCount;
+
+    boolean isInitialized;
+    boolean isReleased;
+    boolean isAttached;
+    boolean isFocused = true;
+    boolean hasRetainedDecoders;
+
+    int playbackState = PlaybackState.IDLE;
+
+    private AttachmentStateDelegate attachmentStateDelegate;
+    private MediaSource mediaSource;
+
+    @Override
+    public void init() {
+        this.isInitialized = true;
+    }
+
+    @Override
+    public void initAsync(@NonNull Executor executor) {
+        init();
+    }
+
+    @Override
+    public void prepare(boolean resetPosition) {
+        // do nothing.
+    }
+
+    @Override
+    public void play() {
+        // do nothing.
+    }
+
+    @Override
+    public void pause() {
+        // do nothing.
+    }
+
+    @Override
+    public void stop(boolean resetPosition) {
+        this.stopCount++;
+        this.playbackState = PlaybackState.IDLE;
+    }
+
+    @Override
+    public boolean releaseDecoders() {
+        final boolean isActive = (this.playbackState != PlaybackState.IDLE);
+        final boolean hadRetainedDecoders = this.hasRetainedDecoders;
+
+        if (isActive) {
+            stop(false);
+        }
+
+        this.hasRetainedDecoders = false;
+
+        return (isActive || hadRetainedDecoders);
+    }
+
+    @Override
+    public void setFocused(boolean isFocused) {
+        this.isFocused = isFocused;
+    }
+
+    @Override
+    public void seek(long positionInMillis) {
+        // do nothing.
+    }
+
+    @Override
+    public void release() {
+        this.isReleased = true;
+        this.isInitialized = false;
+    }
+
+    @Override
+    public void attach(@NonNull PlayerView playerView) {
+        // do nothing.
+    }
+
+    @Override
+    public void detach(@NonNull PlayerView playerView) {
+        // do nothing.
+    }
+
+    @Override
+    public void postAttachedEvent() {
+        if (this.attachmentStateDelegate != null) {
+            this.attachmentStateDelegate.onAttach(this);
+        }
+    }
+
+    @Override
+    public void postDetachedEvent() {
+        if (this.attachmentStateDelegate != null) {
+            this.attachmentStateDelegate.onDetach(this);
+        }
+    }
+
+    @Override
+    public void setAttachmentStateDelegate(@Nullable AttachmentStateDelegate attachmentStateDelegate) {
+        this.attachmentStateDelegate = attachmentStateDelegate;
+    }
+
+    @Override
+    public void addEventListener(@NonNull EventListener eventListener) {
+        // do nothing.
+    }
+
+    @Override
+    public void removeEventListener(@NonNull EventListener eventListener) {
+        // do nothing.
+    }
+
+    @Override
+    public void removeAllEventListeners() {
+        this.removeAllEventListenersCount++;
+    }
+
+    @Override
+    public void setMediaSource(@NonNull MediaSource mediaSource) {
+        this.mediaSource = mediaSource;
+    }
+
+    @Nullable
+    @Override
+    public MediaSource getMediaSource() {
+        return this.mediaSource;
+    }
+
+    @NonNull
+    @Override
+    public VolumeController getVolumeController() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getPlaybackState() {
+        return this.playbackState;
+    }
+
+    @Override
+    public long getPlaybackPosition() {
+        return 0L;
+    }
+
+    @Override
+    public long getDuration() {
+        return 0L;
+    }
+
+    @Override
+    public float getBufferedPercentage() {
+        return 0f;
+    }
+
+    @Override
+    public boolean isLooping() {
+        return false;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return this.isInitialized;
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return false;
+    }
+
+    @Override
+    public boolean isAttached(@NonNull PlayerView playerView) {
+        return this.isAttached;
+    }
+
+    @Override
+    public boolean isAttached() {
+        return this.isAttached;
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.player.util;
+
+import com.arthurivanets.arvi.player.Player;
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PlayerEventListenerRegistryTest {
+
+    private PlayerEventListenerRegistry registry;
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        registry = new PlayerEventListenerRegistry();
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void events_areDispatchedInRegistrationOrder() {
+        registry.addListener(new RecordingListener("a"));
+        registry.addListener(new RecordingListener("b"));
+
+        registry.onPlayerStateChanged(true, Player.PlaybackState.READY);
+        registry.onLoadingChanged(true);
+
+        assertEquals(Arrays.asList("a:state", "b:state", "a:loading", "b:loading"), events);
+    }
+
+    @Test
+    public void duplicateListeners_areIgnored() {
+        final RecordingListener listener = new RecordingListener("a");
+
+        registry.addListener(listener);
+        registry.addListener(listener);
+        registry.onLoadingChanged(true);
+
+        assertEquals(1, registry.getListenerCount());
+        assertEquals(Arrays.asList("a:loading"), events);
+    }
+
+    @Test
+    public void listenerRemovingItselfDuringDispatch_stopsReceivingEvents() {
+        final RecordingListener first = new RecordingListener("a") {
+            @Override
+            public void onPlayerStateChanged(int playbackState) {
+                super.onPlayerStateChanged(playbackState);
+                registry.removeListener(this);
+            }
+        };
+
+        registry.addListener(first);
+        registry.addListener(new RecordingListener("b"));
+
+        registry.onPlayerStateChanged(true, Player.PlaybackState.BUFFERING);
+        registry.onPlayerStateChanged(true, Player.PlaybackState.READY);
+
+        assertEquals(Arrays.asList("a:state", "b:state", "b:state"), events);
+        assertEquals(1, registry.getListenerCount());
+    }
+
+    @Test
+    public void listenerRemovingOthersDuringDispatch_takesEffectWithNextEvent() {
+        final RecordingListener second = new RecordingListener("b");
+
+        registry.addListener(new RecordingListener("a") {
+            @Override
+            public void onLoadingChanged(boolean isLoading) {
+                super.onLoadingChanged(isLoading);
+                registry.removeListener(second);
+            }
+        });
+        registry.addListener(second);
+
+        registry.onLoadingChanged(true);
+        registry.onLoadingChanged(false);
+
+        assertEquals(Arrays.asList("a:loading", "b:loading", "a:loading"), events);
+    }
+
+    @Test
+    public void listenerAddedDuringDispatch_receivesNextEvent() {
+        final RecordingListener added = new RecordingListener("c");
+
+        registry.addListener(new RecordingListener("a") {
+            @Override
+            public void onLoadingChanged(boolean isLoading) {
+                super.onLoadingChanged(isLoading);
+                registry.addListener(added);
+            }
+        });
+
+        registry.onLoadingChanged(true);
+        registry.onLoadingChanged(false);
+
+        assertEquals(Arrays.asList("a:loading", "a:loading", "c:loading"), events);
+    }
+
+    @Test
+    public void removeAllListenersDuringDispatch_completesCurrentEvent() {
+        registry.addListener(new RecordingListener("a") {
+            @Override
+            public void onPlayerError(ExoPlaybackException error) {
+                super.onPlayerError(error);
+                registry.removeAllListeners();
+            }
+        });
+        registry.addListener(new RecordingListener("b"));
+
+        registry.onPlayerError(null);
+        registry.onPlayerError(null);
+
+        assertEquals(Arrays.asList("a:error", "b:error"), events);
+        assertEquals(0, registry.getListenerCount());
+    }
+
+    @Test
+    public void removingMiddleListener_keepsOrderOfRemainingOnes() {
+        final RecordingListener second = new RecordingListener("b");
+
+        registry.addListener(new RecordingListener("a"));
+        registry.addListener(second);
+        registry.addListener(new RecordingListener("c"));
+        registry.removeListener(second);
+        registry.removeListener(second);
+
+        registry.onTracksChanged(null, null);
+
+        assertEquals(Arrays.asList("a:tracks", "c:tracks"), events);
+    }
+
+    private class RecordingListener implements Player.EventListener {
+
+        private final String name;
+
+        RecordingListener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onPlayerStateChanged(int playbackState) {
+            events.add(name + ":state");
+        }
+
+        @Override
+        public void onLoadingChanged(boolean isLoading) {
+            events.add(name + ":loading");
+        }
+
+        @Override
+        public void onTracksChanged(TrackGroupArray trackGroups, TrackSelectionArray trackSelections) {
+            events.add(name + ":tracks");
+        }
+
+        @Override
+        public void onPlayerError(ExoPlaybackException error) {
+            events.add(name + ":error");
+        }
+
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.player.util;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.Allocation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SharedAllocatorTest {
+
+    private static final int SEGMENT_SIZE = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+
+    private SharedAllocator sharedAllocator;
+
+    @Before
+    public void setUp() {
+        sharedAllocator = new SharedAllocator(8 * SEGMENT_SIZE);
+    }
+
+    @Test
+    public void allocations_areTrackedPerClientAndInTotal() {
+        final SharedAllocator.Client client1 = newActiveClient(true);
+        final SharedAllocator.Client client2 = newActiveClient(false);
+
+        final List<Allocation> allocations = allocate(client1, 3);
+        allocate(client2, 2);
+
+        assertEquals(3 * SEGMENT_SIZE, client1.getTotalBytesAllocated());
+        assertEquals(2 * SEGMENT_SIZE, client2.getTotalBytesAllocated());
+        assertEquals(5 * SEGMENT_SIZE, sharedAllocator.getTotalBytesAllocated());
+
+        client1.release(allocations.toArray(new Allocation[0]));
+
+        assertEquals(0, client1.getTotalBytesAllocated());
+        assertEquals(2 * SEGMENT_SIZE, sharedAllocator.getTotalBytesAllocated());
+    }
+
+    @Test
+    public void loading_stopsOnceCapacityIsReached() {
+        final SharedAllocator.Client client = newActiveClient(true);
+
+        allocate(client, 7);
+
+        assertTrue(client.canContinueLoading());
+
+        allocate(client, 1);
+
+        assertFalse(client.canContinueLoading());
+    }
+
+    @Test
+    public void unfocusedClients_shareCapacityFairly() {
+        final SharedAllocator.Client client1 = newActiveClient(false);
+        final SharedAllocator.Client client2 = newActiveClient(false);
+
+        allocate(client1, 4);
+
+        assertFalse(client1.canContinueLoading());
+        assertTrue(client2.canContinueLoading());
+    }
+
+    @Test
+    public void unfocusedClients_leaveHalfOfCapacityToFocusedOnes() {
+        final SharedAllocator.Client focusedClient = newActiveClient(true);
+        final SharedAllocator.Client unfocusedClient = newActiveClient(false);
+
+        allocate(unfocusedClient, 4);
+
+        assertFalse(unfocusedClient.canContinueLoading());
+        assertTrue(focusedClient.canContinueLoading());
+
+        // without the focused clients, the whole capacity is available
+        focusedClient.setActive(false);
+
+        assertTrue(unfocusedClient.canContinueLoading());
+    }
+
+    @Test
+    public void focusChanges_updateShares() {
+        final SharedAllocator.Client client1 = newActiveClient(true);
+        final SharedAllocator.Client client2 = newActiveClient(false);
+
+        allocate(client1, 5);
+
+        assertTrue(client1.canContinueLoading());
+        assertFalse(client2.canContinueLoading());
+
+        client1.setFocused(false);
+        client2.setFocused(true);
+
+        assertFalse(client1.canContinueLoading());
+        assertTrue(client2.canContinueLoading());
+    }
+
+    @Test
+    public void activeClients_areCounted() {
+        final SharedAllocator.Client client = newActiveClient(true);
+
+        assertEquals(1, sharedAllocator.getActiveClientCount());
+
+        client.setActive(false);
+        client.setActive(false);
+
+        assertEquals(0, sharedAllocator.getActiveClientCount());
+    }
+
+    private SharedAllocator.Client newActiveClient(boolean isFocused) {
+        final SharedAllocator.Client client = sharedAllocator.newClient();
+        client.setFocused(isFocused);
+        client.setActive(true);
+
+        return client;
+    }
+
+    private static List<Allocation> allocate(SharedAllocator.Client client, int count) {
+        final List<Allocation> allocations = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            allocations.add(client.allocate());
+        }
+
+        return allocations;
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.player.util;
+
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.ExoTrackSelection;
+import com.google.android.exoplayer2.upstream.Allocator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VisibilityAwareLoadControlTest {
+
+    private static final long UNFOCUSED_BUFFER_DURATION_IN_MILLIS = 2000L;
+
+    private TestLoadControl delegate;
+    private VisibilityAwareLoadControl.LoadingGroup loadingGroup;
+    private VisibilityAwareLoadControl focusedLoadControl;
+    private VisibilityAwareLoadControl unfocusedLoadControl;
+
+    @Before
+    public void setUp() {
+        delegate = new TestLoadControl();
+        loadingGroup = new VisibilityAwareLoadControl.LoadingGroup();
+        focusedLoadControl = new VisibilityAwareLoadControl(delegate, UNFOCUSED_BUFFER_DURATION_IN_MILLIS, null, loadingGroup);
+        unfocusedLoadControl = new VisibilityAwareLoadControl(delegate, UNFOCUSED_BUFFER_DURATION_IN_MILLIS, null, loadingGroup);
+        unfocusedLoadControl.setFocused(false);
+    }
+
+    @After
+    public void tearDown() {
+        focusedLoadControl.onReleased();
+        unfocusedLoadControl.onReleased();
+    }
+
+    @Test
+    public void focusedPlayer_buffersAccordingToDelegate() {
+        assertTrue(focusedLoadControl.shouldContinueLoading(0L, 30_000_000L, 1f));
+
+        delegate.shouldContinueLoading = false;
+
+        assertFalse(focusedLoadControl.shouldContinueLoading(0L, 0L, 1f));
+    }
+
+    @Test
+    public void unfocusedPlayer_buffersOnlyUpToUnfocusedBufferDuration() {
+        assertTrue(unfocusedLoadControl.shouldContinueLoading(0L, 1_999_999L, 1f));
+        assertFalse(unfocusedLoadControl.shouldContinueLoading(0L, 2_000_000L, 1f));
+
+        delegate.shouldContinueLoading = false;
+
+        assertFalse(unfocusedLoadControl.shouldContinueLoading(0L, 0L, 1f));
+    }
+
+    @Test
+    public void unfocusedPlayer_yieldsToLoadingFocusedPlayer() {
+        assertTrue(focusedLoadControl.shouldContinueLoading(0L, 0L, 1f));
+        assertEquals(1, loadingGroup.getFocusedLoadingPlayerCount());
+        assertFalse(unfocusedLoadControl.shouldContinueLoading(0L, 0L, 1f));
+
+        // the focused player has buffered enough
+        delegate.shouldContinueLoading = false;
+        focusedLoadControl.shouldContinueLoading(0L, 50_000_000L, 1f);
+        delegate.shouldContinueLoading = true;
+
+        assertEquals(0, loadingGroup.getFocusedLoadingPlayerCount());
+        assertTrue(unfocusedLoadControl.shouldContinueLoading(0L, 0L, 1f));
+    }
+
+    @Test
+    public void unfocusedPlayer_ignoresLoadingFocusedPlayersOfOtherGroups() {
+        final VisibilityAwareLoadControl otherGroupLoadControl = new VisibilityAwareLoadControl(
+            new TestLoadControl(),
+            UNFOCUSED_BUFFER_DURATION_IN_MILLIS,
+            null,
+            new VisibilityAwareLoadControl.LoadingGroup()
+        );
+
+        assertTrue(otherGroupLoadControl.shouldContinueLoading(0L, 0L, 1f));
+        assertEquals(0, loadingGroup.getFocusedLoadingPlayerCount());
+        assertTrue(unfocusedLoadControl.shouldContinueLoading(0L, 0L, 1f));
+
+        otherGroupLoadControl.onReleased();
+    }
+
+    @Test
+    public void focusChanges_takeEffectImmediately() {
+        assertFalse(unfocusedLoadControl.shouldContinueLoading(0L, 5_000_000L, 1f));
+
+        unfocusedLoadControl.setFocused(true);
+
+        assertTrue(unfocusedLoadControl.shouldContinueLoading(0L, 5_000_000L, 1f));
+
+        focusedLoadControl.shouldContinueLoading(0L, 0L, 1f);
+        focusedLoadControl.setFocused(false);
+
+        // only the newly focused player is still loading
+        assertEquals(1, loadingGroup.getFocusedLoadingPlayerCount());
+        assertFalse(focusedLoadControl.shouldContinueLoading(0L, 5_000_000L, 1f));
+    }
+
+    @Test
+    public void stoppedFocusedPlayer_isNoLongerConsideredLoading() {
+        focusedLoadControl.shouldContinueLoading(0L, 0L, 1f);
+        focusedLoadControl.onStopped();
+
+        assertEquals(0, loadingGroup.getFocusedLoadingPlayerCount());
+        assertEquals(1, delegate.stopCount);
+    }
+
+    private static final class TestLoadControl implements LoadControl {
+
+        boolean shouldContinueLoading = true;
+        int stopCount;
+
+        @Override
+        public void onPrepared() {
+            // do nothing.
+        }
+
+        @Override
+        public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups, ExoTrackSelection[] trackSelections) {
+            // do nothing.
+        }
+
+        @Override
+        public void onStopped() {
+            stopCount++;
+        }
+
+        @Override
+        public void onReleased() {
+            // do nothing.
+        }
+
+        @Override
+        public Allocator getAllocator() {
+            return null;
+        }
+
+        @Override
+        public long getBackBufferDurationUs() {
+            return 0L;
+        }
+
+        @Override
+        public boolean retainBackBufferFromKeyframe() {
+            return false;
+        }
+
+        @Override
+        public boolean shouldContinueLoading(long playbackPositionUs, long bufferedDurationUs, float playbackSpeed) {
+            return shouldContinueLoading;
+        }
+
+        @Override
+        public boolean shouldStartPlayback(long bufferedDurationUs, float playbackSpeed, boolean rebuffering, long targetLiveOffsetUs) {
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest {
+
+    private static Cache<String, Integer> create(EvictionPolicy evictionPolicy, int capacity) {
+        return CacheType.BOUNDED.create(false, new CacheConfig.Builder()
+            .cacheType(CacheType.BOUNDED)
+            .capacity(capacity)
+            .evictionPolicy(evictionPolicy)
+            .build(),
+            null,
+            null
+        );
+    }
+
+    @Test
+    public void allPolicies_honorTheBasicContract() {
+        for (EvictionPolicy evictionPolicy : EvictionPolicy.values()) {
+            final Cache<String, Integer> cache = create(evictionPolicy, 10);
+
+            assertNull(cache.put("a", 1));
+            assertEquals(Integer.valueOf(1), cache.put("a", 2));
+            assertEquals(Integer.valueOf(2), cache.get("a"));
+            assertEquals(Integer.valueOf(5), cache.get("b", 5));
+            assertTrue(cache.contains("a"));
+            assertFalse(cache.contains("b"));
+            assertEquals(Integer.valueOf(2), cache.remove("a"));
+            assertEquals(Integer.valueOf(7), cache.remove("a", 7));
+            assertFalse(cache.contains("a"));
+
+            cache.put("c", 3);
+
+            assertTrue(cache.clear());
+            assertFalse(cache.contains("c"));
+        }
+    }
+
+    @Test
+    public void allPolicies_neverExceedTheCapacity() {
+        for (EvictionPolicy evictionPolicy : EvictionPolicy.values()) {
+            final Cache<String, Integer> cache = create(evictionPolicy, 50);
+
+            for (int i = 0; i < 1000; i++) {
+                cache.put(("key" + i), i);
+            }
+
+            int count = 0;
+
+            for (int i = 0; i < 1000; i++) {
+                count += (cache.contains("key" + i) ? 1 : 0);
+            }
+
+            assertEquals(evictionPolicy.name(), 50, count);
+        }
+    }
+
+    @Test
+    public void lru_evictsTheLeastRecentlyUsedEntry() {
+        final Cache<String, Integer> cache = create(EvictionPolicy.LRU, 2);
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+    }
+
+    @Test
+    public void lfu_evictsTheLeastFrequentlyUsedEntry() {
+        final Cache<String, Integer> cache = create(EvictionPolicy.LFU, 2);
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.put("c", 3);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+
+        // the newcomer is the least frequently used one now
+        cache.put("d", 4);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("c"));
+        assertTrue(cache.contains("d"));
+    }
+
+    @Test
+    public void lfu_recoversTheMinFrequencyAfterRemoval() {
+        final Cache<String, Integer> cache = create(EvictionPolicy.LFU, 2);
+
+        cache.put("a", 1);
+        cache.get("a");
+        cache.put("b", 2);
+        cache.get("b");
+        cache.get("b");
+        cache.remove("a");
+        cache.put("c", 3);
+        cache.get("c");
+        cache.get("c");
+        cache.get("c");
+        cache.put("d", 4);
+
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.contains("d"));
+    }
+
+    @Test
+    public void wTinyLfu_retainsThePopularEntriesDuringTheScans() {
+        final Cache<String, Integer> cache = create(EvictionPolicy.W_TINY_LFU, 100);
+
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.put(("hot" + i), i);
+                cache.get("hot" + i);
+            }
+        }
+
+        // a one-off scan that's much larger than the cache itself
+        for (int i = 0; i < 1000; i++) {
+            cache.put(("cold" + i), i);
+        }
+
+        int hotCount = 0;
+
+        for (int i = 0; i < 50; i++) {
+            hotCount += (cache.contains("hot" + i) ? 1 : 0);
+        }
+
+        assertEquals(50, hotCount);
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import com.arthurivanets.arvi.model.PlaybackInfo;
+import com.arthurivanets.arvi.model.VolumeInfo;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactPlaybackInfoCacheTest {
+
+    @Test
+    public void values_areStoredAsCopies() {
+        final Cache<String, PlaybackInfo> cache = CacheType.IN_MEMORY.createPlaybackInfoCache(false, new CacheConfig.Builder().compact(true).build());
+        final PlaybackInfo playbackInfo = new PlaybackInfo()
+            .setPlaybackPosition(1500L)
+            .setDuration(60000L)
+            .setVolumeInfo(new VolumeInfo(0.25f, true))
+            .setEnded(true);
+
+        assertNull(cache.put("a", playbackInfo));
+
+        final PlaybackInfo storedPlaybackInfo = cache.get("a");
+        assertNotSame(playbackInfo, storedPlaybackInfo);
+        assertEquals(1500L, storedPlaybackInfo.getPlaybackPosition());
+        assertEquals(60000L, storedPlaybackInfo.getDuration());
+        assertEquals(0.25f, storedPlaybackInfo.getVolumeInfo().getVolume(), 0f);
+        assertTrue(storedPlaybackInfo.getVolumeInfo().isMuted());
+        assertTrue(storedPlaybackInfo.isEnded());
+
+        // the modifications take effect only once put back
+        storedPlaybackInfo.setPlaybackPosition(3000L);
+        assertEquals(1500L, cache.get("a").getPlaybackPosition());
+        assertEquals(1500L, cache.put("a", storedPlaybackInfo).getPlaybackPosition());
+        assertEquals(3000L, cache.get("a").getPlaybackPosition());
+
+        cache.put("a", null);
+        assertFalse(cache.contains("a"));
+    }
+
+    @Test
+    public void randomOperations_matchTheReferenceMap() {
+        final CompactPlaybackInfoCache cache = new CompactPlaybackInfoCache();
+        final Map<String, Long> referenceMap = new HashMap<>();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            final String key = ("https://example.com/video_" + random.nextInt(20_000) + ".mp4");
+            final int operation = random.nextInt(10);
+
+            if (operation < 6) {
+                final long position = random.nextInt(1_000_000);
+                cache.put(key, new PlaybackInfo().setPlaybackPosition(position));
+                referenceMap.put(key, position);
+            } else if (operation < 9) {
+                final PlaybackInfo removedValue = cache.remove(key);
+                final Long removedPosition = referenceMap.remove(key);
+                assertEquals(removedPosition, ((removedValue != null) ? removedValue.getPlaybackPosition() : null));
+            } else {
+                final PlaybackInfo value = cache.get(key);
+                final Long position = referenceMap.get(key);
+                assertEquals(position, ((value != null) ? value.getPlaybackPosition() : null));
+            }
+        }
+
+        assertEquals(referenceMap.size(), cache.size());
+
+        for (Map.Entry<String, Long> entry : referenceMap.entrySet()) {
+            assertEquals(entry.getValue().longValue(), cache.get(entry.getKey()).getPlaybackPosition());
+        }
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertFalse(cache.contains(referenceMap.keySet().iterator().next()));
+    }
+
+    @Test
+    public void reusableValues_areReadInto() {
+        final PlaybackInfoCache cache = PlaybackInfoCache.getInstance();
+        final ReusableValueCache<String, PlaybackInfo> compactCache = (ReusableValueCache<String, PlaybackInfo>) CacheType.IN_MEMORY.createPlaybackInfoCache(
+            true,
+            new CacheConfig.Builder().compact(true).build()
+        );
+        final PlaybackInfo defaultValue = new PlaybackInfo();
+        final PlaybackInfo reusableValue = new PlaybackInfo();
+
+        compactCache.put("a", new PlaybackInfo().setPlaybackPosition(1500L).setVolumeInfo(new VolumeInfo(0.5f, true)));
+
+        assertSame(reusableValue, compactCache.get("a", defaultValue, reusableValue));
+        assertEquals(1500L, reusableValue.getPlaybackPosition());
+        assertEquals(0.5f, reusableValue.getVolumeInfo().getVolume(), 0f);
+        assertTrue(reusableValue.getVolumeInfo().isMuted());
+        assertSame(defaultValue, compactCache.get("b", defaultValue, reusableValue));
+
+        // the caches which hold the instances return them as they are
+        final PlaybackInfo playbackInfo = new PlaybackInfo();
+        cache.put("reusableValues_key", playbackInfo);
+
+        assertSame(playbackInfo, cache.get("reusableValues_key", defaultValue, reusableValue));
+        cache.remove("reusableValues_key");
+    }
+
+    @Test
+    public void table_shrinksAsTheEntriesAreRemoved() {
+        final CompactPlaybackInfoCache cache = new CompactPlaybackInfoCache();
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(("key_" + i), new PlaybackInfo().setPlaybackPosition(i));
+        }
+
+        final int grownTableSize = cache.tableSize();
+        assertTrue(grownTableSize > CompactPlaybackInfoCache.DEFAULT_TABLE_SIZE);
+
+        for (int i = 0; i < 9_900; i++) {
+            cache.remove("key_" + i);
+        }
+
+        assertTrue(cache.tableSize() < grownTableSize);
+
+        for (int i = 9_900; i < 10_000; i++) {
+            assertEquals(i, cache.get("key_" + i).getPlaybackPosition());
+        }
+
+        cache.put("key_0", new PlaybackInfo());
+        cache.clear();
+
+        assertEquals(CompactPlaybackInfoCache.DEFAULT_TABLE_SIZE, cache.tableSize());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void freeKeyReplacement_isTheHashOfTheEmptyKey() {
+        assertEquals(CompactPlaybackInfoCache.FREE_KEY_REPLACEMENT, CompactPlaybackInfoCache.hash64(""));
+
+        final CompactPlaybackInfoCache cache = new CompactPlaybackInfoCache();
+        cache.put("", new PlaybackInfo().setPlaybackPosition(1L));
+
+        assertEquals(1L, cache.get("").getPlaybackPosition());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void hash64_isTheFnv1aHash() {
+        assertEquals(0xcbf29ce484222325L, CompactPlaybackInfoCache.hash64(""));
+        assertEquals(0xaf63dc4c8601ec8cL, CompactPlaybackInfoCache.hash64("a"));
+    }
+
+    @Test
+    public void getOrCreate_putsTheDefaultValue() {
+        final Cache<String, PlaybackInfo> cache = CacheType.IN_MEMORY.createPlaybackInfoCache(true, new CacheConfig.Builder().compact(true).build());
+        final PlaybackInfo playbackInfo = cache.getOrCreate("a", new Cache.ValueFactory<String, PlaybackInfo>() {
+            @Override
+            public PlaybackInfo create(String key) {
+                return new PlaybackInfo().setDuration(100L);
+            }
+        });
+
+        assertEquals(100L, playbackInfo.getDuration());
+        assertEquals(100L, cache.get("a").getDuration());
+    }
+
+    @Test
+    public void compactConfig_affectsThePlaybackInfoCachesOnly() {
+        final CacheConfig config = new CacheConfig.Builder().compact(true).build();
+
+        assertTrue(CacheType.IN_MEMORY.createPlaybackInfoCache(false, config) instanceof CompactPlaybackInfoCache);
+        assertTrue(CacheType.IN_MEMORY.create(false, config, null, null) instanceof InMemoryCache);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void compactConfig_requiresTheInMemoryCacheType() {
+        new CacheConfig.Builder()
+            .cacheType(CacheType.BOUNDED)
+            .compact(true)
+            .build();
+    }
+
+}
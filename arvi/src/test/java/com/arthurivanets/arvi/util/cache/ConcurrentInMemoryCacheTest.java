@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentInMemoryCacheTest {
+
+    @Test
+    public void inMemoryConcurrentCache_isLockFree() {
+        assertTrue(CacheType.IN_MEMORY.create(true, new CacheConfig.Builder().build(), null, null) instanceof ConcurrentInMemoryCache);
+    }
+
+    @Test
+    public void nullValues_areTreatedAsAbsent() {
+        final Cache<String, String> cache = CacheType.IN_MEMORY.create(true, new CacheConfig.Builder().build(), null, null);
+
+        cache.put("a", "value");
+        cache.put("a", null);
+
+        assertFalse(cache.contains("a"));
+        assertNull(cache.get("a"));
+        assertEquals("default", cache.get("a", "default"));
+    }
+
+    @Test
+    public void concurrentAccess_losesNoWrites() throws Exception {
+        final Cache<String, Integer> cache = CacheType.IN_MEMORY.create(true, new CacheConfig.Builder().build(), null, null);
+        final int threadCount = 8;
+        final int keysPerThread = 2000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicInteger misses = new AtomicInteger();
+
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+
+            executor.execute(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException exception) {
+                    return;
+                }
+
+                for (int i = 0; i < keysPerThread; i++) {
+                    final String key = (thread + ":" + i);
+
+                    cache.put(key, i);
+
+                    if (cache.get(key, -1) != i) {
+                        misses.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        startLatch.countDown();
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(0, misses.get());
+
+        for (int t = 0; t < threadCount; t++) {
+            for (int i = 0; i < keysPerThread; i++) {
+                assertTrue(cache.contains(t + ":" + i));
+            }
+        }
+    }
+
+}
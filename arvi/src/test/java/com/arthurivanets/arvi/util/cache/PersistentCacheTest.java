@@ -0,0 +1,257 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.model.PlaybackInfo;
+import com.arthurivanets.arvi.model.VolumeInfo;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentCacheTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void entries_surviveReopening() throws Exception {
+        final File file = temporaryFolder.newFile();
+        final PersistentCache<String, PlaybackInfo> cache = createCache(file, 100);
+
+        cache.put("a", new PlaybackInfo().setPlaybackPosition(1500L).setDuration(60000L).setVolumeInfo(new VolumeInfo(0.5f, true)));
+        cache.put("b", new PlaybackInfo().setPlaybackPosition(42L).setEnded(true));
+        cache.flush().get();
+
+        final PersistentCache<String, PlaybackInfo> reopenedCache = createCache(file, 100);
+        reopenedCache.flush().get();
+
+        final PlaybackInfo a = reopenedCache.get("a");
+        assertEquals(1500L, a.getPlaybackPosition());
+        assertEquals(60000L, a.getDuration());
+        assertEquals(0.5f, a.getVolumeInfo().getVolume(), 0f);
+        assertTrue(a.getVolumeInfo().isMuted());
+        assertFalse(a.isEnded());
+
+        final PlaybackInfo b = reopenedCache.get("b");
+        assertEquals(42L, b.getPlaybackPosition());
+        assertTrue(b.isEnded());
+    }
+
+    @Test
+    public void removalsAndClears_arePersisted() throws Exception {
+        final File file = temporaryFolder.newFile();
+        final PersistentCache<String, PlaybackInfo> cache = createCache(file, 100);
+
+        cache.put("a", new PlaybackInfo().setPlaybackPosition(1L));
+        cache.put("b", new PlaybackInfo().setPlaybackPosition(2L));
+        cache.flush().get();
+        cache.remove("a");
+        cache.flush().get();
+
+        PersistentCache<String, PlaybackInfo> reopenedCache = createCache(file, 100);
+        reopenedCache.flush().get();
+
+        assertFalse(reopenedCache.contains("a"));
+        assertEquals(2L, reopenedCache.get("b").getPlaybackPosition());
+
+        reopenedCache.clear();
+        reopenedCache.put("c", new PlaybackInfo().setPlaybackPosition(3L));
+        reopenedCache.flush().get();
+
+        reopenedCache = createCache(file, 100);
+        reopenedCache.flush().get();
+
+        assertFalse(reopenedCache.contains("b"));
+        assertEquals(3L, reopenedCache.get("c").getPlaybackPosition());
+    }
+
+    @Test
+    public void modificationsMadeBeforeLoading_takePrecedence() throws Exception {
+        final File file = temporaryFolder.newFile();
+        final PersistentCache<String, PlaybackInfo> cache = createCache(file, 100);
+
+        cache.put("a", new PlaybackInfo().setPlaybackPosition(1L));
+        cache.put("b", new PlaybackInfo().setPlaybackPosition(2L));
+        cache.flush().get();
+
+        // the modifications are made right away, while the file is still being read (or is yet to be read)
+        final PersistentCache<String, PlaybackInfo> reopenedCache = createCache(file, 100);
+        reopenedCache.put("a", new PlaybackInfo().setPlaybackPosition(10L));
+        reopenedCache.remove("b");
+        reopenedCache.flush().get();
+
+        assertEquals(10L, reopenedCache.get("a").getPlaybackPosition());
+        assertNull(reopenedCache.get("b"));
+    }
+
+    @Test
+    public void readsMadeBeforeLoading_getThePersistedEntries() throws Exception {
+        final File file = temporaryFolder.newFile();
+        final PersistentCache<String, PlaybackInfo> cache = createCache(file, 100);
+
+        cache.put("a", new PlaybackInfo().setPlaybackPosition(1500L));
+        cache.flush().get();
+
+        // holding the reading of the file to make sure the reads wait for it
+        final CountDownLatch loadLatch = new CountDownLatch(1);
+        final PersistentCache<String, PlaybackInfo> reopenedCache = createCache(file, 100, new CacheSerializer<String>() {
+            @Override
+            public void write(@NonNull String value, @NonNull DataOutput output) throws IOException {
+                CacheSerializer.STRING.write(value, output);
+            }
+
+            @NonNull
+            @Override
+            public String read(@NonNull DataInput input) throws IOException {
+                try {
+                    loadLatch.await();
+                } catch (InterruptedException exception) {
+                    throw new IOException(exception);
+                }
+
+                return CacheSerializer.STRING.read(input);
+            }
+        });
+
+        // the way the player holders read (and put the default value upon a miss)
+        final long[] readPlaybackPosition = new long[1];
+        final Thread readingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                PlaybackInfo playbackInfo = reopenedCache.get("a");
+
+                if (playbackInfo == null) {
+                    playbackInfo = new PlaybackInfo();
+                    reopenedCache.put("a", playbackInfo);
+                }
+
+                readPlaybackPosition[0] = playbackInfo.getPlaybackPosition();
+            }
+        });
+        readingThread.start();
+        readingThread.join(200L);
+
+        assertTrue(readingThread.isAlive());
+
+        loadLatch.countDown();
+        readingThread.join();
+        reopenedCache.flush().get();
+
+        assertEquals(1500L, readPlaybackPosition[0]);
+        assertEquals(1500L, reopenedCache.get("a").getPlaybackPosition());
+
+        // making sure no default value has been written over the persisted one
+        final PersistentCache<String, PlaybackInfo> cacheReopenedAgain = createCache(file, 100);
+
+        assertEquals(1500L, cacheReopenedAgain.get("a").getPlaybackPosition());
+    }
+
+    @Test
+    public void log_isCompactedToTheLiveEntries() throws Exception {
+        final File file = temporaryFolder.newFile();
+        final int capacity = 10;
+        final PersistentCache<String, PlaybackInfo> cache = createCache(file, capacity);
+
+        for (int i = 0; i < 5000; i++) {
+            cache.put(("key_" + i), new PlaybackInfo().setPlaybackPosition(i));
+
+            if ((i % 100) == 0) {
+                cache.flush().get();
+            }
+        }
+
+        cache.flush().get();
+
+        // reopening with a larger capacity to see everything the log holds
+        final PersistentCache<String, PlaybackInfo> reopenedCache = createCache(file, 5000);
+        reopenedCache.flush().get();
+
+        int persistedEntryCount = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            if (reopenedCache.contains("key_" + i)) {
+                persistedEntryCount++;
+            } else {
+                assertTrue(i < (5000 - capacity));
+            }
+        }
+
+        assertTrue(persistedEntryCount < 500);
+        assertEquals(4999L, reopenedCache.get("key_4999").getPlaybackPosition());
+    }
+
+    @Test
+    public void corruptedFile_isReset() throws Exception {
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+
+        final PersistentCache<String, PlaybackInfo> cache = createCache(file, 100);
+        cache.put("a", new PlaybackInfo().setPlaybackPosition(1L));
+        cache.flush().get();
+
+        final PersistentCache<String, PlaybackInfo> reopenedCache = createCache(file, 100);
+        reopenedCache.flush().get();
+
+        assertEquals(1L, reopenedCache.get("a").getPlaybackPosition());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void persistentCacheType_requiresTheSerializers() throws Exception {
+        CacheType.PERSISTENT.create(
+            true,
+            new CacheConfig.Builder()
+                .cacheType(CacheType.PERSISTENT)
+                .persistenceFile(temporaryFolder.newFile())
+                .build(),
+            CacheSerializer.STRING,
+            null
+        );
+    }
+
+    private static PersistentCache<String, PlaybackInfo> createCache(File file, int capacity) {
+        return createCache(file, capacity, CacheSerializer.STRING);
+    }
+
+    private static PersistentCache<String, PlaybackInfo> createCache(File file, int capacity, CacheSerializer<String> keySerializer) {
+        return (PersistentCache<String, PlaybackInfo>) CacheType.PERSISTENT.create(
+            true,
+            new CacheConfig.Builder()
+                .cacheType(CacheType.PERSISTENT)
+                .capacity(capacity)
+                .persistenceFile(file)
+                .build(),
+            keySerializer,
+            PlaybackInfoSerializer.INSTANCE
+        );
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.cache;
+
+import com.arthurivanets.arvi.model.PlaybackInfo;
+import com.arthurivanets.arvi.util.misc.PlayableKeyHandle;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class PlaybackInfoCacheTest {
+
+    private static final int ITERATION_COUNT = 100_000;
+
+    private static final PlaybackInfo DEFAULT_PLAYBACK_INFO = new PlaybackInfo();
+
+    @Test
+    public void getOrCreate_createsTheAbsentValueOnce() {
+        final PlaybackInfoCache cache = PlaybackInfoCache.getInstance();
+        final PlaybackInfo playbackInfo = cache.getOrCreate("getOrCreate_key");
+
+        assertSame(playbackInfo, cache.getOrCreate("getOrCreate_key"));
+        assertSame(playbackInfo, cache.get("getOrCreate_key"));
+
+        cache.remove("getOrCreate_key");
+
+        assertNotSame(playbackInfo, cache.getOrCreate("getOrCreate_key"));
+    }
+
+    @Test
+    public void keyHandle_recomputesTheKeyOnlyOnChange() {
+        final PlayableKeyHandle keyHandle = new PlayableKeyHandle();
+        final String key = keyHandle.getKey("url", "tag");
+
+        assertEquals("urltag", key);
+        assertSame(key, keyHandle.getKey("url", "tag"));
+        assertSame(key, keyHandle.getKey(new String("url"), "tag"));
+        assertEquals("other_urltag", keyHandle.getKey("other_url", "tag"));
+        assertEquals("other_url", keyHandle.getKey("other_url", ""));
+    }
+
+    @Test
+    public void unplayedItemPlaybackInfoLookups_performNoAllocations() {
+        final PlaybackInfoCache cache = PlaybackInfoCache.getInstance();
+        final PlayableKeyHandle keyHandle = new PlayableKeyHandle();
+        final String url = "https://example.com/unplayed_video.mp4";
+        final String tag = "";
+
+        // the way the bound (yet to be played) items peek at their PlaybackInfo
+        final Runnable lookups = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITERATION_COUNT; i++) {
+                    assertSame(DEFAULT_PLAYBACK_INFO, cache.get(keyHandle.getKey(url, tag), DEFAULT_PLAYBACK_INFO));
+                }
+            }
+        };
+
+        assertAllocationFree(lookups);
+    }
+
+    @Test
+    public void playedItemPlaybackInfoLookups_performNoAllocations() {
+        final PlaybackInfoCache cache = PlaybackInfoCache.getInstance();
+        final PlayableKeyHandle keyHandle = new PlayableKeyHandle();
+        final String url = "https://example.com/played_video.mp4";
+        final String tag = "";
+
+        cache.put(keyHandle.getKey(url, tag), new PlaybackInfo());
+
+        // the way the played items read, update and put back their PlaybackInfo
+        final Runnable lookups = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITERATION_COUNT; i++) {
+                    final String key = keyHandle.getKey(url, tag);
+                    final PlaybackInfo playbackInfo = cache.get(key);
+                    playbackInfo.setPlaybackPosition(i);
+                    cache.put(key, playbackInfo);
+                }
+            }
+        };
+
+        assertAllocationFree(lookups);
+        assertEquals((ITERATION_COUNT - 1), cache.get(keyHandle.getKey(url, tag)).getPlaybackPosition());
+    }
+
+    private static void assertAllocationFree(Runnable lookups) {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean allocationTracker = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationTracker.isThreadAllocatedMemorySupported());
+        allocationTracker.setThreadAllocatedMemoryEnabled(true);
+
+        // binding the item (the key gets created once) and warming up
+        lookups.run();
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBytesBefore = allocationTracker.getThreadAllocatedBytes(threadId);
+        lookups.run();
+        final long allocatedBytes = (allocationTracker.getThreadAllocatedBytes(threadId) - allocatedBytesBefore);
+
+        // allowing for the measurement overhead, which is way less than a single byte per lookup
+        assertTrue(("Allocated " + allocatedBytes + " bytes."), (allocatedBytes < 1024));
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.util.misc;
+
+import android.graphics.Rect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class VisibleAreaCalculatorTest {
+
+    private static final float DELTA = 0.0001f;
+
+    // the visible part of a 400x800 container
+    private static final Rect CLIP = rect(0, 0, 400, 800);
+
+    // the fields are assigned directly, as the Rect methods are not available to the local unit tests
+    private static Rect rect(int left, int top, int right, int bottom) {
+        final Rect rect = new Rect();
+        rect.left = left;
+        rect.top = top;
+        rect.right = right;
+        rect.bottom = bottom;
+
+        return rect;
+    }
+
+    @Test
+    public void fullyVisibleBounds_haveTheFullVisibleArea() {
+        assertEquals(1f, VisibleAreaCalculator.calculateVisibleRatio(rect(0, 100, 400, 300), CLIP), DELTA);
+        assertEquals(1f, VisibleAreaCalculator.calculateVisibleRatio(rect(0, 0, 400, 800), CLIP), DELTA);
+    }
+
+    @Test
+    public void partiallyVisibleBounds_haveTheProportionalVisibleArea() {
+        // scrolled past the top edge by a quarter
+        assertEquals(0.75f, VisibleAreaCalculator.calculateVisibleRatio(rect(0, -50, 400, 150), CLIP), DELTA);
+
+        // sticking out of the bottom edge by a half
+        assertEquals(0.5f, VisibleAreaCalculator.calculateVisibleRatio(rect(0, 700, 400, 900), CLIP), DELTA);
+
+        // sticking out of both the bottom and the right edges by a half
+        assertEquals(0.25f, VisibleAreaCalculator.calculateVisibleRatio(rect(300, 700, 500, 900), CLIP), DELTA);
+    }
+
+    @Test
+    public void boundsOutsideOfTheClip_haveNoVisibleArea() {
+        assertEquals(0f, VisibleAreaCalculator.calculateVisibleRatio(rect(0, 900, 400, 1100), CLIP), DELTA);
+
+        // merely touching the edge
+        assertEquals(0f, VisibleAreaCalculator.calculateVisibleRatio(rect(0, 800, 400, 1000), CLIP), DELTA);
+    }
+
+    @Test
+    public void detachedContainers_haveNoVisibleArea() {
+        // the detached (or entirely hidden) containers have no visible part to clip the items with
+        assertEquals(0f, VisibleAreaCalculator.calculateVisibleRatio(rect(0, 100, 400, 300), rect(0, 0, 0, 0)), DELTA);
+    }
+
+    @Test
+    public void emptyBounds_haveNoVisibleArea() {
+        assertEquals(0f, VisibleAreaCalculator.calculateVisibleRatio(rect(100, 100, 100, 300), CLIP), DELTA);
+    }
+
+    @Test
+    public void theArguments_areNotModified() {
+        final Rect bounds = rect(0, -50, 400, 150);
+
+        VisibleAreaCalculator.calculateVisibleRatio(bounds, CLIP);
+
+        assertEquals(-50, bounds.top);
+        assertEquals(150, bounds.bottom);
+        assertEquals(0, CLIP.top);
+        assertEquals(800, CLIP.bottom);
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlingTargetPredictorTest {
+
+    private static final float DELTA = 0.0001f;
+
+    private FlingTargetPredictor predictor;
+
+    @Before
+    public void setUp() {
+        predictor = new FlingTargetPredictor();
+    }
+
+    @Test
+    public void settledVisibleFraction_accountsForTheRemainingDistance() {
+        predictor.onFling(0, 1_000);
+
+        // the item that is 1000px below the viewport is going to be fully visible
+        assertEquals(1f, predictor.getSettledVisibleFraction(0, 1_200, 100, 1_400, 0, 0, 100, 500), DELTA);
+        // the currently visible one is going to be scrolled off
+        assertEquals(0f, predictor.getSettledVisibleFraction(0, 100, 100, 300, 0, 0, 100, 500), DELTA);
+
+        predictor.onScrolled(0, 400);
+
+        // the same item (now 400px closer) is going to be half visible
+        assertEquals(0.5f, predictor.getSettledVisibleFraction(0, 1_000, 100, 1_200, 0, 0, 100, 500), DELTA);
+    }
+
+    @Test
+    public void settledVisibleFraction_supportsTheHorizontalFlings() {
+        predictor.onFling(-300, 0);
+
+        assertEquals(0.5f, predictor.getSettledVisibleFraction(-500, 0, -100, 100, 0, 0, 400, 100), DELTA);
+    }
+
+    @Test
+    public void prediction_finishesOnceTheDistanceIsScrolled() {
+        predictor.onFling(0, 500);
+
+        predictor.onScrolled(0, 200);
+        assertTrue(predictor.isPredicting());
+
+        // overscrolling the predicted distance
+        predictor.onScrolled(0, 400);
+        assertFalse(predictor.isPredicting());
+        assertEquals(0f, predictor.getSettledVisibleFraction(0, 0, 100, 100, 0, 0, 100, 100), DELTA);
+    }
+
+    @Test
+    public void prediction_canBeCancelled() {
+        predictor.onFling(0, -500);
+        predictor.cancel();
+
+        assertFalse(predictor.isPredicting());
+    }
+
+    @Test
+    public void targets_areReportedOncePerFling() {
+        final TestPlayable first = new TestPlayable("a");
+        final TestPlayable second = new TestPlayable("b");
+
+        predictor.onFling(0, 1_000);
+
+        assertTrue(predictor.updateTarget(first));
+        assertFalse(predictor.updateTarget(first));
+        assertTrue(predictor.updateTarget(second));
+
+        predictor.onFling(0, 1_000);
+
+        assertTrue(predictor.updateTarget(second));
+    }
+
+    @Test
+    public void distance_isClampedToTheScrollableRange() {
+        assertEquals(1_000, FlingTargetPredictor.clampDistance(1_000, 500, 5_000));
+        assertEquals(4_500, FlingTargetPredictor.clampDistance(10_000, 500, 5_000));
+        assertEquals(-500, FlingTargetPredictor.clampDistance(-10_000, 500, 5_000));
+    }
+
+}
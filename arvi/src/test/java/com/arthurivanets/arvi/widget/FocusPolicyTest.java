@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FocusPolicyTest {
+
+    @Test
+    public void defaultPolicy_hasTheHysteresisAndTheDwellTime() {
+        final FocusPolicy policy = FocusPolicy.DEFAULT;
+
+        assertEquals(FocusPolicy.DEFAULT_HYSTERESIS, policy.hysteresis, 0f);
+        assertTrue(policy.hysteresis > 0f);
+        assertEquals(FocusPolicy.DEFAULT_MIN_DWELL_TIME_IN_MILLIS, policy.minDwellTimeInMillis);
+        assertSame(FocusPolicy.Scorer.IN_LAYOUT_ORDER, policy.scorer);
+    }
+
+    @Test
+    public void immediatePolicy_hasNoHysteresis() {
+        assertEquals(0f, FocusPolicy.IMMEDIATE.hysteresis, 0f);
+        assertEquals(0L, FocusPolicy.IMMEDIATE.minDwellTimeInMillis);
+    }
+
+    @Test
+    public void firstFullyVisibleScorer_prefersTheEarlierFullyVisibleItems() {
+        final FocusPolicy.Scorer scorer = FocusPolicy.Scorer.FIRST_FULLY_VISIBLE;
+
+        assertTrue(scorer.getScore(0, 1f, 0f) > scorer.getScore(1, 1f, 0f));
+        assertTrue(scorer.getScore(5, 1f, 0f) > scorer.getScore(0, 0.99f, 0f));
+        assertTrue(scorer.getScore(0, 0.9f, 0f) > scorer.getScore(1, 0.6f, 0f));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void negativeHysteresis_isRejected() {
+        new FocusPolicy.Builder().hysteresis(-0.1f);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fullHysteresis_isRejected() {
+        // the focused items would never lose the focus
+        new FocusPolicy.Builder().hysteresis(1f);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void negativeDwellTime_isRejected() {
+        new FocusPolicy.Builder().minDwellTime(-1L);
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import com.arthurivanets.arvi.widget.PlayableItemsContainer.AutoplayMode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LookAheadPreloaderTest {
+
+    private PlaybackArbitrator arbitrator;
+    private LookAheadPreloader preloader;
+    private TestPlayable[] playables;
+
+    @Before
+    public void setUp() {
+        arbitrator = new PlaybackArbitrator();
+        preloader = new LookAheadPreloader();
+        playables = new TestPlayable[7];
+
+        for (int i = 0; i < playables.length; i++) {
+            playables[i] = new TestPlayable(("key_" + i));
+        }
+    }
+
+    @Test
+    public void preloading_isDisabledByDefault() {
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+
+        assertFalse(preloader.isEnabled());
+        assertEquals(0, preloader.getPreloadedItemCount());
+    }
+
+    @Test
+    public void itemsAheadAndBehind_getPreparedInTheScrollDirection() {
+        preloader.setLookAhead(2, 1);
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+
+        assertPrepareCounts(0, 0, 1, 0, 1, 1, 0);
+        assertEquals(1, playables[3].startCount);
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_BACKWARD, 10);
+
+        // the forward-most item drops out of the window, while the item behind becomes the second look-ahead one
+        assertPrepareCounts(0, 1, 1, 0, 1, 1, 0);
+        assertEquals(1, playables[5].cancelPreparationCount);
+        assertEquals(0, playables[2].cancelPreparationCount);
+        assertEquals(0, playables[4].cancelPreparationCount);
+    }
+
+    @Test
+    public void closerItems_havePriorityWithinTheLimit() {
+        preloader.setLookAhead(3, 3);
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 3);
+
+        // the nearest ahead, the nearest behind, and the second ahead
+        assertPrepareCounts(0, 0, 1, 0, 1, 1, 0);
+        assertEquals(3, preloader.getPreloadedItemCount());
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 1);
+
+        assertEquals(1, preloader.getPreloadedItemCount());
+        assertEquals(1, playables[2].cancelPreparationCount);
+        assertEquals(1, playables[5].cancelPreparationCount);
+        assertEquals(0, playables[4].cancelPreparationCount);
+    }
+
+    @Test
+    public void unchangedWindow_doesNotPrepareTheItemsAgain() {
+        preloader.setLookAhead(1, 1);
+
+        for (int i = 0; i < 3; i++) {
+            focus(3);
+            preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+        }
+
+        assertPrepareCounts(0, 0, 1, 0, 1, 0, 0);
+    }
+
+    @Test
+    public void windowFollowsTheFocusedItem() {
+        preloader.setLookAhead(1, 0);
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+
+        // the look-ahead item becomes the focused (playing) one
+        focus(4);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+
+        assertEquals(1, playables[5].prepareCount);
+        assertEquals(0, playables[4].cancelPreparationCount);
+        assertEquals(1, preloader.getPreloadedItemCount());
+    }
+
+    @Test
+    public void itemsBeyondTheCandidates_areSkipped() {
+        preloader.setLookAhead(3, 3);
+
+        focus(0);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+
+        assertPrepareCounts(0, 1, 1, 1, 0, 0, 0);
+    }
+
+    @Test
+    public void noFocusedItem_leavesThePreloadedItemsIntact() {
+        preloader.setLookAhead(1, 0);
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+
+        focus(-1);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_BACKWARD, 10);
+
+        assertEquals(1, preloader.getPreloadedItemCount());
+        assertEquals(0, playables[4].cancelPreparationCount);
+    }
+
+    @Test
+    public void cancel_cancelsThePreparationOfAllThePreloadedItems() {
+        preloader.setLookAhead(1, 1);
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+        preloader.cancel();
+
+        assertEquals(0, preloader.getPreloadedItemCount());
+        assertEquals(1, playables[2].cancelPreparationCount);
+        assertEquals(1, playables[4].cancelPreparationCount);
+    }
+
+    @Test
+    public void removedItems_areForgottenWithoutCancellation() {
+        preloader.setLookAhead(1, 1);
+
+        focus(3);
+        preloader.update(arbitrator, LookAheadPreloader.DIRECTION_FORWARD, 10);
+        preloader.remove(playables[2]);
+        preloader.cancel();
+
+        assertEquals(0, playables[2].cancelPreparationCount);
+        assertEquals(1, playables[4].cancelPreparationCount);
+    }
+
+    @Test
+    public void maxPreloadCount_leavesTheRoomForTheActiveItems() {
+        // bounded by the budget
+        assertEquals(2, LookAheadPreloader.getMaxPreloadCount(3, 10, 1));
+
+        // bounded by the pool
+        assertEquals(1, LookAheadPreloader.getMaxPreloadCount(10, 3, 2));
+
+        // an active item is always accounted for
+        assertEquals(1, LookAheadPreloader.getMaxPreloadCount(10, 2, 0));
+
+        // no room at all
+        assertEquals(0, LookAheadPreloader.getMaxPreloadCount(10, 1, 2));
+    }
+
+    @Test
+    public void poolSmallerThanTheBudget_keepsThePlayerOfThePlayingItem() {
+        // the player keys of a pool of 2, which reassigns the least recently used player once it's full
+        final List<String> pool = new ArrayList<>();
+        final int poolMaxSize = 2;
+        final int playerBudget = 4;
+
+        for (int i = 0; i < playables.length; i++) {
+            playables[i] = new TestPlayable(("key_" + i)) {
+                @Override
+                public void start() {
+                    super.start();
+                    acquirePlayer(pool, poolMaxSize, this.key);
+                }
+
+                @Override
+                public void prepare() {
+                    super.prepare();
+                    acquirePlayer(pool, poolMaxSize, this.key);
+                }
+            };
+        }
+
+        preloader.setLookAhead(3, 3);
+
+        focus(3);
+        preloader.update(
+            arbitrator,
+            LookAheadPreloader.DIRECTION_FORWARD,
+            LookAheadPreloader.getMaxPreloadCount(playerBudget, poolMaxSize, arbitrator.getActiveCandidateCount())
+        );
+
+        assertEquals(1, preloader.getPreloadedItemCount());
+        assertTrue(pool.contains("key_3"));
+        assertTrue(pool.contains("key_4"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void negativeItemCounts_areRejected() {
+        preloader.setLookAhead(1, -1);
+    }
+
+    /**
+     * Makes the item at the specified index the only one that wants to play (and thus the focused one).
+     */
+    private void focus(int index) {
+        arbitrator.beginEvaluation();
+
+        for (int i = 0; i < playables.length; i++) {
+            playables[i].visibleAreaOffset = ((i == index) ? 1f : 0f);
+            arbitrator.addCandidate(playables[i], playables[i].visibleAreaOffset, 0f);
+        }
+
+        arbitrator.arbitrate(true, true, AutoplayMode.ONE_AT_A_TIME, false);
+
+        assertEquals(index, arbitrator.getActiveCandidateIndex());
+        assertTrue((index < 0) || playables[index].isPlaying);
+    }
+
+    private static void acquirePlayer(List<String> pool, int poolMaxSize, String key) {
+        if (pool.remove(key)) {
+            pool.add(key);
+            return;
+        }
+
+        if (pool.size() >= poolMaxSize) {
+            pool.remove(0);
+        }
+
+        pool.add(key);
+    }
+
+    private void assertPrepareCounts(int... prepareCounts) {
+        for (int i = 0; i < prepareCounts.length; i++) {
+            assertEquals(("prepare count of #" + i), prepareCounts[i], playables[i].prepareCount);
+        }
+    }
+
+}
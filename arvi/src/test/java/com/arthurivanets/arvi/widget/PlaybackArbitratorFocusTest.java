@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import com.arthurivanets.arvi.util.misc.Clock;
+import com.arthurivanets.arvi.widget.PlayableItemsContainer.AutoplayMode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlaybackArbitratorFocusTest {
+
+    private static final long FRAME_DURATION = 16L;
+
+    private long time;
+    private PlaybackArbitrator arbitrator;
+
+    @Before
+    public void setUp() {
+        time = 10_000L;
+        arbitrator = new PlaybackArbitrator(new Clock() {
+            @Override
+            public long elapsedRealtime() {
+                return time;
+            }
+        });
+    }
+
+    @Test
+    public void hysteresis_stopsTheChurnNearTheThreshold() {
+        final int immediateTransitions = simulateHoveringItem(FocusPolicy.IMMEDIATE);
+        final int hysteresisTransitions = simulateHoveringItem(FocusPolicy.DEFAULT);
+
+        assertEquals(100, immediateTransitions);
+        assertEquals(1, hysteresisTransitions);
+    }
+
+    @Test
+    public void dwellTime_stopsTheChurnBetweenSimilarlyVisibleItems() {
+        final FocusPolicy noDwellPolicy = new FocusPolicy.Builder()
+            .scorer(FocusPolicy.Scorer.MOST_VISIBLE)
+            .minDwellTime(0L)
+            .build();
+        final FocusPolicy dwellPolicy = new FocusPolicy.Builder()
+            .scorer(FocusPolicy.Scorer.MOST_VISIBLE)
+            .minDwellTime(500L)
+            .build();
+
+        final int noDwellTransitions = simulateCompetingItems(noDwellPolicy);
+        final int dwellTransitions = simulateCompetingItems(dwellPolicy);
+
+        // 100 frames (1.6s) of the items swapping their visibility every frame
+        assertEquals(199, noDwellTransitions);
+        assertTrue(("transitions: " + dwellTransitions), (dwellTransitions <= 7));
+        assertTrue((dwellTransitions * 20) < noDwellTransitions);
+    }
+
+    @Test
+    public void focusedItem_losesTheFocusBelowTheLoweredTriggerOffsetRightAway() {
+        arbitrator.setFocusPolicy(new FocusPolicy.Builder().minDwellTime(10_000L).build());
+
+        final TestPlayable first = new TestPlayable("a", 1f);
+        final TestPlayable second = new TestPlayable("b", 0.6f);
+
+        evaluate(first, second);
+
+        first.visibleAreaOffset = 0.35f;
+        evaluate(first, second);
+
+        assertTrue(first.isPlaying);
+        assertFalse(second.isPlaying);
+
+        first.visibleAreaOffset = 0.25f;
+        evaluate(first, second);
+
+        assertFalse(first.isPlaying);
+        assertTrue(second.isPlaying);
+    }
+
+    @Test
+    public void customTriggerOffset_definesWhenTheItemGetsAndLosesTheFocus() {
+        final TestPlayable playable = new TestPlayable("a", 0.7f);
+        playable.triggerOffset = 0.8f;
+
+        evaluate(playable);
+        assertFalse(playable.isPlaying);
+
+        playable.visibleAreaOffset = 0.85f;
+        evaluate(playable);
+        assertTrue(playable.isPlaying);
+
+        // the lowered trigger offset is 0.48 (with the default hysteresis)
+        playable.visibleAreaOffset = 0.5f;
+        evaluate(playable);
+        assertTrue(playable.isPlaying);
+
+        playable.visibleAreaOffset = 0.45f;
+        evaluate(playable);
+        assertFalse(playable.isPlaying);
+    }
+
+    @Test
+    public void immediatePolicy_followsTheTriggerOffsetsOfTheItems() {
+        arbitrator.setFocusPolicy(FocusPolicy.IMMEDIATE);
+
+        final TestPlayable first = new TestPlayable("a", 0.85f);
+        first.triggerOffset = 0.8f;
+
+        evaluate(first);
+        assertTrue(first.isPlaying);
+
+        // no longer wants to play (though still more than a half visible)
+        first.visibleAreaOffset = 0.75f;
+        evaluate(first);
+        assertFalse(first.isPlaying);
+
+        // wants to play (though less than a half visible)
+        final TestPlayable second = new TestPlayable("b", 0.35f);
+        second.triggerOffset = 0.3f;
+
+        evaluate(first, second);
+        assertFalse(first.isPlaying);
+        assertTrue(second.isPlaying);
+
+        second.visibleAreaOffset = 0.25f;
+        evaluate(first, second);
+        assertFalse(second.isPlaying);
+    }
+
+    @Test
+    public void betterScoredItem_takesTheFocusOverOnceTheDwellTimePasses() {
+        arbitrator.setFocusPolicy(new FocusPolicy.Builder()
+            .scorer(FocusPolicy.Scorer.MOST_VISIBLE)
+            .minDwellTime(500L)
+            .build()
+        );
+
+        final TestPlayable first = new TestPlayable("a", 0.6f);
+        final TestPlayable second = new TestPlayable("b", 0.5f);
+
+        evaluate(first, second);
+
+        second.visibleAreaOffset = 0.9f;
+        time += 100L;
+
+        assertTrue(evaluate(first, second));
+        assertTrue(first.isPlaying);
+
+        // the pending focus change keeps the unchanged evaluations from being skipped
+        time += 400L;
+
+        assertTrue(evaluate(first, second));
+        assertFalse(first.isPlaying);
+        assertTrue(second.isPlaying);
+        assertEquals(1, second.startCount);
+    }
+
+    @Test
+    public void pendingFocusChange_reportsTheTimeLeftUntilItsDue() {
+        arbitrator.setFocusPolicy(new FocusPolicy.Builder()
+            .scorer(FocusPolicy.Scorer.MOST_VISIBLE)
+            .minDwellTime(500L)
+            .build()
+        );
+
+        final TestPlayable first = new TestPlayable("a", 0.6f);
+        final TestPlayable second = new TestPlayable("b", 0.5f);
+
+        evaluate(first, second);
+
+        assertEquals(PlaybackArbitrator.NO_PENDING_FOCUS_CHANGE, arbitrator.getPendingFocusChangeDelay());
+
+        // the better scored item shows up shortly before the scroll goes idle
+        second.visibleAreaOffset = 0.9f;
+        time += 100L;
+        evaluate(first, second);
+
+        assertEquals(400L, arbitrator.getPendingFocusChangeDelay());
+
+        // the re-evaluation scheduled for the due time applies the change (with no further scroll events)
+        time += 400L;
+
+        assertEquals(0L, arbitrator.getPendingFocusChangeDelay());
+        assertTrue(evaluate(first, second));
+        assertTrue(second.isPlaying);
+        assertFalse(first.isPlaying);
+        assertEquals(PlaybackArbitrator.NO_PENDING_FOCUS_CHANGE, arbitrator.getPendingFocusChangeDelay());
+    }
+
+    @Test
+    public void scorers_pickTheirPreferredItems() {
+        final TestPlayable first = new TestPlayable("a", 0.8f);
+        final TestPlayable second = new TestPlayable("b", 1f);
+        final TestPlayable third = new TestPlayable("c", 1f);
+
+        assertEquals(0, focus(FocusPolicy.Scorer.IN_LAYOUT_ORDER, first, second, third));
+        assertEquals(1, focus(FocusPolicy.Scorer.MOST_VISIBLE, first, second, third));
+        assertEquals(1, focus(FocusPolicy.Scorer.FIRST_FULLY_VISIBLE, first, second, third));
+        assertEquals(2, focus(FocusPolicy.Scorer.CLOSEST_TO_CENTER, first, second, third));
+    }
+
+    @Test
+    public void multipleSimultaneously_keepsThePlayingItemsAboveTheLoweredTriggerOffset() {
+        final TestPlayable first = new TestPlayable("a", 1f);
+        final TestPlayable second = new TestPlayable("b", 0.4f);
+
+        arbitrator.beginEvaluation();
+        arbitrator.addCandidate(first, first.visibleAreaOffset, 0f);
+        arbitrator.addCandidate(second, second.visibleAreaOffset, 0f);
+        arbitrator.arbitrate(true, true, AutoplayMode.MULTIPLE_SIMULTANEOUSLY, false);
+
+        assertTrue(first.isPlaying);
+        assertFalse(second.isPlaying);
+
+        first.visibleAreaOffset = 0.4f;
+
+        arbitrator.beginEvaluation();
+        arbitrator.addCandidate(first, first.visibleAreaOffset, 0f);
+        arbitrator.addCandidate(second, second.visibleAreaOffset, 0f);
+        arbitrator.arbitrate(true, true, AutoplayMode.MULTIPLE_SIMULTANEOUSLY, false);
+
+        assertTrue(first.isPlaying);
+        assertFalse(second.isPlaying);
+        assertEquals(1, arbitrator.getActiveCandidateCount());
+    }
+
+    @Test
+    public void playingItem_isAdoptedAsTheFocusedOne() {
+        final TestPlayable first = new TestPlayable("a", 1f);
+        final TestPlayable second = new TestPlayable("b", 0.4f);
+
+        // e.g. the item that's kept playing since before the reset
+        second.isPlaying = true;
+
+        evaluate(first, second);
+
+        assertFalse(first.isPlaying);
+        assertTrue(second.isPlaying);
+    }
+
+    /**
+     * Simulates a slow drag that keeps a single item hovering around the 0.5 visibility for 100 frames.
+     *
+     * @return the number of the player transitions (starts and pauses)
+     */
+    private int simulateHoveringItem(FocusPolicy focusPolicy) {
+        final TestPlayable playable = new TestPlayable("a");
+
+        arbitrator.reset();
+        arbitrator.setFocusPolicy(focusPolicy);
+
+        for (int frame = 0; frame < 100; frame++) {
+            playable.visibleAreaOffset = (((frame % 2) == 0) ? 0.55f : 0.45f);
+            time += FRAME_DURATION;
+            evaluate(playable);
+        }
+
+        return (playable.startCount + playable.pauseCount);
+    }
+
+    /**
+     * Simulates two items of the similar visibility that keep swapping their visibility for 100 frames.
+     *
+     * @return the number of the player transitions (starts and pauses)
+     */
+    private int simulateCompetingItems(FocusPolicy focusPolicy) {
+        final TestPlayable first = new TestPlayable("a");
+        final TestPlayable second = new TestPlayable("b");
+
+        arbitrator.reset();
+        arbitrator.setFocusPolicy(focusPolicy);
+
+        for (int frame = 0; frame < 100; frame++) {
+            first.visibleAreaOffset = (((frame % 2) == 0) ? 0.7f : 0.6f);
+            second.visibleAreaOffset = (((frame % 2) == 0) ? 0.6f : 0.7f);
+            time += FRAME_DURATION;
+            evaluate(first, second);
+        }
+
+        return (first.startCount + first.pauseCount + second.startCount + second.pauseCount);
+    }
+
+    /**
+     * Determines which of the specified items (located at the increasing distances from the container center, the last one being the closest)
+     * gets the focus according to the specified scorer.
+     */
+    private int focus(FocusPolicy.Scorer scorer, TestPlayable... playables) {
+        arbitrator.reset();
+        arbitrator.setFocusPolicy(new FocusPolicy.Builder().scorer(scorer).build());
+        arbitrator.beginEvaluation();
+
+        for (int i = 0; i < playables.length; i++) {
+            playables[i].isPlaying = false;
+            arbitrator.addCandidate(playables[i], playables[i].visibleAreaOffset, (playables.length - i));
+        }
+
+        arbitrator.arbitrate(false, true, AutoplayMode.ONE_AT_A_TIME, true);
+
+        return arbitrator.getActiveCandidateIndex();
+    }
+
+    private boolean evaluate(TestPlayable... playables) {
+        arbitrator.beginEvaluation();
+
+        for (TestPlayable playable : playables) {
+            arbitrator.addCandidate(playable, playable.visibleAreaOffset, 0f);
+        }
+
+        return arbitrator.arbitrate(true, true, AutoplayMode.ONE_AT_A_TIME, false);
+    }
+
+}
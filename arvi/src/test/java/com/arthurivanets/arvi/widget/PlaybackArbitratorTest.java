@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import com.arthurivanets.arvi.widget.PlayableItemsContainer.AutoplayMode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PlaybackArbitratorTest {
+
+    private PlaybackArbitrator arbitrator;
+
+    @Before
+    public void setUp() {
+        arbitrator = new PlaybackArbitrator();
+    }
+
+    @Test
+    public void oneAtATime_startsOnlyTheFirstItemThatWantsToPlay() {
+        final TestPlayable first = new TestPlayable("a", 0.2f);
+        final TestPlayable second = new TestPlayable("b", 0.8f);
+        final TestPlayable third = new TestPlayable("c", 1f);
+
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, first, second, third));
+
+        assertFalse(first.isPlaying);
+        assertTrue(second.isPlaying);
+        assertFalse(third.isPlaying);
+        assertFalse(first.isInPlayableArea);
+        assertTrue(second.isInPlayableArea);
+        assertTrue(third.isInPlayableArea);
+    }
+
+    @Test
+    public void multipleSimultaneously_startsAllTheItemsThatWantToPlay() {
+        final TestPlayable first = new TestPlayable("a", 0.8f);
+        final TestPlayable second = new TestPlayable("b", 1f);
+
+        evaluate(AutoplayMode.MULTIPLE_SIMULTANEOUSLY, false, first, second);
+
+        assertTrue(first.isPlaying);
+        assertTrue(second.isPlaying);
+    }
+
+    @Test
+    public void activeCandidates_areReported() {
+        final TestPlayable first = new TestPlayable("a", 0.2f);
+        final TestPlayable second = new TestPlayable("b", 0.8f);
+        final TestPlayable third = new TestPlayable("c", 1f);
+
+        evaluate(AutoplayMode.MULTIPLE_SIMULTANEOUSLY, false, first, second, third);
+
+        assertEquals(1, arbitrator.getActiveCandidateIndex());
+        assertEquals(2, arbitrator.getActiveCandidateCount());
+        assertSame(third, arbitrator.getCandidate(2));
+
+        first.visibleAreaOffset = 0f;
+        second.visibleAreaOffset = 0f;
+        third.visibleAreaOffset = 0f;
+
+        evaluate(AutoplayMode.MULTIPLE_SIMULTANEOUSLY, false, first, second, third);
+
+        assertEquals(-1, arbitrator.getActiveCandidateIndex());
+        assertEquals(0, arbitrator.getActiveCandidateCount());
+    }
+
+    @Test
+    public void itemsThatNoLongerWantToPlay_getPaused() {
+        final TestPlayable first = new TestPlayable("a", 1f);
+        final TestPlayable second = new TestPlayable("b", 0.4f);
+
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, first, second);
+
+        first.visibleAreaOffset = 0.1f;
+        second.visibleAreaOffset = 0.9f;
+
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, first, second);
+
+        assertFalse(first.isPlaying);
+        assertEquals(1, first.pauseCount);
+        assertTrue(second.isPlaying);
+    }
+
+    @Test
+    public void disallowedPlay_doesNotStartTheItems() {
+        final TestPlayable playable = new TestPlayable("a", 1f);
+
+        arbitrator.beginEvaluation();
+        arbitrator.addCandidate(playable, playable.visibleAreaOffset, 0f);
+        arbitrator.arbitrate(false, true, AutoplayMode.ONE_AT_A_TIME, false);
+
+        assertFalse(playable.isPlaying);
+        assertTrue(playable.isInPlayableArea);
+
+        arbitrator.beginEvaluation();
+        arbitrator.addCandidate(playable, playable.visibleAreaOffset, 0f);
+        arbitrator.arbitrate(true, false, AutoplayMode.ONE_AT_A_TIME, false);
+
+        assertFalse(playable.isPlaying);
+    }
+
+    @Test
+    public void unchangedEvaluations_getSkippedWithinTheBudget() {
+        final TestPlayable playable = new TestPlayable("a", 1f);
+
+        arbitrator.setSkipBudget(2);
+
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+        assertFalse(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+        assertFalse(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+
+        // the budget is exhausted
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+        assertFalse(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+
+        assertEquals(1, playable.startCount);
+        assertEquals(2, playable.playabilityStateChangeCount);
+    }
+
+    @Test
+    public void changedEvaluations_areNeverSkipped() {
+        final TestPlayable first = new TestPlayable("a", 1f);
+        final TestPlayable second = new TestPlayable("b", 0.1f);
+
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, first, second);
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, first, second);
+
+        // the visible set has changed
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, second));
+
+        // the state of the item has changed
+        second.visibleAreaOffset = 0.7f;
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, second));
+
+        // the state has been changed externally
+        second.pause();
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, second));
+        assertTrue(second.isPlaying);
+
+        // the arbitration inputs have changed
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, second);
+        assertTrue(evaluate(AutoplayMode.MULTIPLE_SIMULTANEOUSLY, false, second));
+    }
+
+    @Test
+    public void forcedAndResetEvaluations_areNeverSkipped() {
+        final TestPlayable playable = new TestPlayable("a", 1f);
+
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable);
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable);
+
+        assertFalse(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, true, playable));
+
+        arbitrator.reset();
+
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+        assertEquals(1, playable.startCount);
+    }
+
+    @Test
+    public void zeroSkipBudget_disablesTheSkipping() {
+        final TestPlayable playable = new TestPlayable("a", 1f);
+
+        arbitrator.setSkipBudget(0);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playable));
+        }
+    }
+
+    @Test
+    public void candidateBuffers_growBeyondTheInitialCapacity() {
+        final TestPlayable[] playables = new TestPlayable[20];
+
+        for (int i = 0; i < playables.length; i++) {
+            playables[i] = new TestPlayable(("key_" + i), ((i == 17) ? 1f : 0f));
+        }
+
+        evaluate(AutoplayMode.ONE_AT_A_TIME, false, playables);
+
+        assertEquals(playables.length, arbitrator.getCandidateCount());
+        assertTrue(playables[17].isPlaying);
+
+        // shrinking the visible set
+        assertTrue(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playables[17]));
+        assertFalse(evaluate(AutoplayMode.ONE_AT_A_TIME, false, playables[17]));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void negativeSkipBudget_isRejected() {
+        arbitrator.setSkipBudget(-1);
+    }
+
+    @Test
+    public void candidates_areGatedByTheirPassedVisibleAreas() {
+        // the item would have to recalculate its visibility to want to play on its own
+        final TestPlayable playable = new TestPlayable("a", 0f);
+
+        arbitrator.beginEvaluation();
+        arbitrator.addCandidate(playable, 0.8f, 0f);
+        arbitrator.arbitrate(true, true, AutoplayMode.ONE_AT_A_TIME, false);
+
+        assertTrue(playable.isPlaying);
+        assertTrue(playable.isInPlayableArea);
+    }
+
+    private boolean evaluate(AutoplayMode autoplayMode, boolean force, TestPlayable... playables) {
+        arbitrator.beginEvaluation();
+
+        for (TestPlayable playable : playables) {
+            arbitrator.addCandidate(playable, playable.visibleAreaOffset, 0f);
+        }
+
+        return arbitrator.arbitrate(true, true, autoplayMode, force);
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.arthurivanets.arvi.widget;
+
+import android.view.View;
+import android.view.ViewParent;
+
+import androidx.annotation.NonNull;
+
+import com.arthurivanets.arvi.Config;
+import com.arthurivanets.arvi.model.PlaybackInfo;
+
+/**
+ * A lightweight {@link Playable} implementation with the adjustable visibility, which records the playback calls made to it.
+ */
+class TestPlayable implements Playable {
+
+    final String key;
+
+    float visibleAreaOffset;
+    float triggerOffset = 0.5f;
+
+    boolean isPlaying;
+    boolean isInPlayableArea;
+
+    int startCount;
+    int prepareCount;
+    int cancelPreparationCount;
+    int pauseCount;
+    int playabilityStateChangeCount;
+
+    TestPlayable(String key) {
+        this.key = key;
+    }
+
+    TestPlayable(String key, float visibleAreaOffset) {
+        this(key);
+        this.visibleAreaOffset = visibleAreaOffset;
+    }
+
+    @Override
+    public void start() {
+        this.isPlaying = true;
+        this.startCount++;
+    }
+
+    @Override
+    public void prepare() {
+        this.prepareCount++;
+    }
+
+    @Override
+    public void cancelPreparation() {
+        this.cancelPreparationCount++;
+    }
+
+    @Override
+    public void restart() {
+        start();
+    }
+
+    @Override
+    public void pause() {
+        this.isPlaying = false;
+        this.pauseCount++;
+    }
+
+    @Override
+    public void stop() {
+        this.isPlaying = false;
+    }
+
+    @Override
+    public void release() {
+        this.isPlaying = false;
+    }
+
+    @Override
+    public void seekTo(long positionInMillis) {
+        // do nothing.
+    }
+
+    @Override
+    public long getPlaybackPosition() {
+        return 0L;
+    }
+
+    @Override
+    public long getDuration() {
+        return 0L;
+    }
+
+    @Override
+    public View getPlayerView() {
+        return null;
+    }
+
+    @Override
+    public ViewParent getParent() {
+        return null;
+    }
+
+    @Override
+    public PlaybackInfo getPlaybackInfo() {
+        return null;
+    }
+
+    @NonNull
+    @Override
+    public String getUrl() {
+        return this.key;
+    }
+
+    @NonNull
+    @Override
+    public String getTag() {
+        return "";
+    }
+
+    @NonNull
+    @Override
+    public String getKey() {
+        return this.key;
+    }
+
+    @NonNull
+    @Override
+    public Config getConfig() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return this.isPlaying;
+    }
+
+    @Override
+    public boolean isTrulyPlayable() {
+        return true;
+    }
+
+    @Override
+    public boolean isLooping() {
+        return false;
+    }
+
+    @Override
+    public boolean wantsToPlay() {
+        return wantsToPlay(this.visibleAreaOffset);
+    }
+
+    @Override
+    public boolean wantsToPlay(float visibleAreaOffset) {
+        return (visibleAreaOffset >= this.triggerOffset);
+    }
+
+    @Override
+    public void onPlayabilityStateChanged(boolean isPlayable) {
+        this.isInPlayableArea = isPlayable;
+        this.playabilityStateChangeCount++;
+    }
+
+}
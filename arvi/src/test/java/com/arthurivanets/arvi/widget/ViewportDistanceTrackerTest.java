@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Arthur Ivanets, arthur.ivanets.work@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.arthurivanets.arvi.widget;
+
+import com.arthurivanets.arvi.ViewportDistanceProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ViewportDistanceTrackerTest {
+
+    private ViewportDistanceTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new ViewportDistanceTracker();
+    }
+
+    @Test
+    public void distances_areMeasuredFromTheVisibleRange() {
+        tracker.add("a", 3, false);
+        tracker.add("b", 4, true);
+        tracker.add(null, 5, true);
+        tracker.add("c", 6, true);
+        tracker.add("d", 9, false);
+
+        assertEquals(1, tracker.getViewportDistance("a"));
+        assertEquals(0, tracker.getViewportDistance("b"));
+        assertEquals(0, tracker.getViewportDistance("c"));
+        assertEquals(3, tracker.getViewportDistance("d"));
+        assertEquals(ViewportDistanceProvider.UNKNOWN_DISTANCE, tracker.getViewportDistance("e"));
+    }
+
+    @Test
+    public void distances_areUnknownWithoutVisibleItems() {
+        tracker.add("a", 3, false);
+
+        assertEquals(ViewportDistanceProvider.UNKNOWN_DISTANCE, tracker.getViewportDistance("a"));
+    }
+
+    @Test
+    public void reset_forgetsAllTheItems() {
+        for (int i = 0; i < 40; i++) {
+            tracker.add(("key_" + i), i, (i < 10));
+        }
+
+        assertEquals(29, tracker.getViewportDistance("key_38"));
+
+        tracker.reset();
+
+        assertEquals(ViewportDistanceProvider.UNKNOWN_DISTANCE, tracker.getViewportDistance("key_38"));
+    }
+
+}
@@ -17,7 +17,6 @@
 package com.arthurivanets.sample
 
 import android.app.Application
-import com.arthurivanets.arvi.ktx.playerProvider
 
 class ArviApplication : Application() {
 
@@ -35,12 +34,4 @@ class ArviApplication : Application() {
         INSTANCE = this
     }
 
-    override fun onTrimMemory(level: Int) {
-        super.onTrimMemory(level)
-
-        if (level >= TRIM_MEMORY_BACKGROUND) {
-            playerProvider.release()
-        }
-    }
-
 }